@@ -1,25 +1,48 @@
 package com.paypal.mocca.client;
 
 import feign.httpclient.ApacheHttpClient;
+import org.apache.http.Header;
 import org.apache.http.client.HttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Mocca Apache HTTP client. In order to use a Apache HTTP client with Mocca,
  * create a new instance of this class and pass it to Mocca builder.
  * <br>
+ * Unless a pre-instantiated Apache HTTP client is provided, the Apache HTTP client is created with a
+ * connection pool configured according to a {@link MoccaConnectionPool}, whose statistics are
+ * available via {@link #getPoolStats()}.
+ * <br>
  * See {@link com.paypal.mocca.client.MoccaClient.Builder.SyncBuilder#client(MoccaHttpClient)} for further information and code example.
  *
  * @author fabiocarvalho777@gmail.com
  */
 final public class MoccaApacheClient extends MoccaHttpClient {
 
+    private final MoccaConnectionPool.Stats poolStats;
+
     /**
      * Creates a new Mocca Apache HTTP client using
-     * default Apache HTTP client configuration
+     * Mocca connection pool presets, returned by
+     * {@link MoccaConnectionPool#defaults()}
      */
     public MoccaApacheClient() {
-        this(HttpClientBuilder.create().build());
+        this(MoccaConnectionPool.defaults());
+    }
+
+    /**
+     * Creates a new Mocca Apache HTTP client using
+     * a connection pool configured according to the
+     * given settings
+     *
+     * @param pool  the connection pool settings
+     */
+    public MoccaApacheClient(MoccaConnectionPool pool) {
+        this(connectionManager(Arguments.requireNonNull(pool, "Connection pool cannot be null")), pool);
     }
 
     /**
@@ -32,6 +55,74 @@ final public class MoccaApacheClient extends MoccaHttpClient {
      */
     public MoccaApacheClient(HttpClient httpClient) {
         super(new ApacheHttpClient(httpClient));
+        this.poolStats = null;
+    }
+
+    private MoccaApacheClient(final PoolingHttpClientConnectionManager connectionManager, final MoccaConnectionPool pool) {
+        super(new ApacheHttpClient(HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(pool.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .setKeepAliveStrategy((response, context) -> {
+                    final Header keepAliveHeader = response.getFirstHeader("Keep-Alive");
+                    return pool.keepAliveMillis(keepAliveHeader != null ? keepAliveHeader.getValue() : null);
+                })
+                .build()));
+        this.poolStats = new PoolStats(connectionManager);
+    }
+
+    private static PoolingHttpClientConnectionManager connectionManager(final MoccaConnectionPool pool) {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(pool.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(pool.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity((int) pool.getValidateAfterInactivity().toMillis());
+        return connectionManager;
+    }
+
+    @Override
+    MoccaHttpClient withConnectionPool(final MoccaConnectionPool pool) {
+        if (poolStats == null) {
+            throw new MoccaException("Connection pool settings cannot be applied to a MoccaApacheClient created with a pre-instantiated Apache HTTP client");
+        }
+        return new MoccaApacheClient(pool);
+    }
+
+    /**
+     * Returns the statistics of the connection pool of this client,
+     * unless it has been created with a pre-instantiated Apache HTTP client
+     *
+     * @return the statistics of the connection pool of this client
+     */
+    public Optional<MoccaConnectionPool.Stats> getPoolStats() {
+        return Optional.ofNullable(poolStats);
+    }
+
+    private static final class PoolStats implements MoccaConnectionPool.Stats {
+        private final PoolingHttpClientConnectionManager connectionManager;
+
+        private PoolStats(final PoolingHttpClientConnectionManager connectionManager) {
+            this.connectionManager = connectionManager;
+        }
+
+        @Override
+        public int getLeased() {
+            return connectionManager.getTotalStats().getLeased();
+        }
+
+        @Override
+        public int getPending() {
+            return connectionManager.getTotalStats().getPending();
+        }
+
+        @Override
+        public int getAvailable() {
+            return connectionManager.getTotalStats().getAvailable();
+        }
+
+        @Override
+        public int getMax() {
+            return connectionManager.getTotalStats().getMax();
+        }
     }
 
-}
\ No newline at end of file
+}
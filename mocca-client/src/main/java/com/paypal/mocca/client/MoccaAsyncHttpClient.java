@@ -20,10 +20,25 @@ import feign.AsyncClient;
 abstract class MoccaAsyncHttpClient<T> {
 
     private final AsyncClient<T> feignAsyncClient;
+    private final MoccaReactiveAdapter reactiveAdapter;
 
     protected MoccaAsyncHttpClient(AsyncClient<T> feignAsyncClient) {
         this.feignAsyncClient =
             Arguments.requireNonNull(feignAsyncClient, "Feign async client cannot be null");
+        this.reactiveAdapter = null;
+    }
+
+    /**
+     * Subclasses supporting GraphQL operation methods with reactive return types should use this constructor
+     *
+     * @param feignAsyncClient the Feign async client
+     * @param reactiveAdapter the adapter of asynchronous results to the supported reactive return types
+     */
+    protected MoccaAsyncHttpClient(AsyncClient<T> feignAsyncClient, MoccaReactiveAdapter reactiveAdapter) {
+        this.feignAsyncClient =
+            Arguments.requireNonNull(feignAsyncClient, "Feign async client cannot be null");
+        this.reactiveAdapter =
+            Arguments.requireNonNull(reactiveAdapter, "Reactive adapter cannot be null");
     }
 
     /**
@@ -37,4 +52,14 @@ abstract class MoccaAsyncHttpClient<T> {
         return feignAsyncClient;
     }
 
+    /**
+     * Returns the adapter of asynchronous results to reactive return types,
+     * or {@code null}, if this client does not support reactive return types
+     *
+     * @return the adapter of asynchronous results to reactive return types, or {@code null}
+     */
+    MoccaReactiveAdapter getReactiveAdapter() {
+        return reactiveAdapter;
+    }
+
 }
\ No newline at end of file
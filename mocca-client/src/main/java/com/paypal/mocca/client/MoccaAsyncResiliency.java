@@ -0,0 +1,111 @@
+package com.paypal.mocca.client;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * This is a mechanism for supporting resiliency features in async {@link MoccaClient} instances.
+ * Similar to {@link MoccaResiliency}, the actual functionality is delivered via an opt-in additional
+ * library, which is then registered by using {@link MoccaClient.Builder.AsyncBuilder#resiliency(MoccaAsyncResiliency)}.
+ * <br>
+ * Resiliency features are applied to the {@link CompletionStage} returned by each GraphQL operation
+ * method, so they never block a thread while waiting (for example between retries or for a timeout).
+ * Every retry goes through the client again, resulting in a new GraphQL request.
+ * Once the decorated future completes, for example because the caller cancelled it, the requests
+ * still running are cancelled, and no further request is sent.
+ */
+abstract class MoccaAsyncResiliency {
+
+    /**
+     * Decorates the asynchronous invocation of a GraphQL operation method
+     */
+    interface Decorator {
+
+        /**
+         * Returns a stage resulting from decorating {@code invocation}, which can be called
+         * more than once, from any thread, each time resulting in a new GraphQL request
+         *
+         * @param method     the GraphQL operation method being invoked
+         * @param invocation the invocation of the GraphQL operation method
+         * @return the decorated invocation result
+         */
+        CompletionStage<Object> decorate(Method method, Supplier<CompletionStage<Object>> invocation);
+    }
+
+    private final Decorator decorator;
+
+    protected MoccaAsyncResiliency(final Decorator decorator) {
+        this.decorator = Arguments.requireNonNull(decorator, "Decorator cannot be null");
+    }
+
+    Decorator getDecorator() {
+        return decorator;
+    }
+
+    /*
+     * Returns a client implementing apiType whose async operation methods are decorated
+     * by this resiliency object and delegated to the given client. The given client is
+     * invoked again for every retry, so the async client invocation context is always set.
+     */
+    @SuppressWarnings("unchecked")
+    <C> C decorate(final Class<C> apiType, final C client) {
+        return (C) Proxy.newProxyInstance(apiType.getClassLoader(), new Class<?>[]{apiType}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class || !CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+                try {
+                    return method.invoke(client, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+            return decorate(decorator, method, () -> invoke(client, method, args));
+        });
+    }
+
+    /*
+     * Decorates the given invocation, cancelling the stages returned by it once the decorated
+     * future completes, since decorators do not necessarily propagate cancellation (or a failure
+     * such as a timeout) to them. Invocations attempted after that are not even started.
+     */
+    static CompletableFuture<Object> decorate(final Decorator decorator, final Method method, final Supplier<CompletionStage<Object>> invocation) {
+        final AtomicBoolean done = new AtomicBoolean();
+        final List<CompletableFuture<Object>> started = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Object> result = decorator.decorate(method, () -> {
+            if (done.get()) {
+                final CompletableFuture<Object> cancelled = new CompletableFuture<>();
+                cancelled.cancel(true);
+                return cancelled;
+            }
+            final CompletableFuture<Object> stage = invocation.get().toCompletableFuture();
+            started.add(stage);
+            if (done.get()) {
+                stage.cancel(true);
+            }
+            return stage;
+        }).toCompletableFuture();
+        result.whenComplete((r, t) -> {
+            done.set(true);
+            started.forEach(stage -> stage.cancel(true));
+        });
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletionStage<Object> invoke(final Object client, final Method method, final Object[] args) {
+        try {
+            return (CompletionStage<Object>) method.invoke(client, args);
+        } catch (InvocationTargetException e) {
+            final CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e.getTargetException());
+            return failed;
+        } catch (IllegalAccessException e) {
+            throw new MoccaException("Operation method " + method.getName() + " could not be invoked", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.paypal.mocca.client;
+
+import feign.AsyncClient;
+import feign.Response;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Propagates the cancellation of futures returned by async Mocca clients to the
+ * underlying HTTP requests.
+ * <br>
+ * Feign {@code AsyncFeign} returns a new future for every invocation, completed once the async HTTP client
+ * response is decoded, so cancelling it (or failing it, as {@code orTimeout} does) would leave the request
+ * running, holding a connection, and its response would still be decoded. Here, the futures returned by the
+ * async HTTP client are tracked per invocation, and cancelled once the invocation future is cancelled or fails,
+ * which also skips decoding. Responses received after that are discarded.
+ */
+final class MoccaCancellation {
+
+    // The request executions started by the current invocation, in the current thread
+    private static final ThreadLocal<List<CompletableFuture<Response>>> STARTED = new ThreadLocal<>();
+
+    private MoccaCancellation() {
+    }
+
+    /*
+     * Returns an async HTTP client whose returned futures cancel the async HTTP client
+     * future when cancelled, and are tracked by the current invocation, if any
+     */
+    static <C> AsyncClient<C> enrich(final AsyncClient<C> asyncClient) {
+        return (request, options, requestContext) -> {
+            final CompletableFuture<Response> execution = asyncClient.execute(request, options, requestContext);
+            final CompletableFuture<Response> result = new CompletableFuture<>();
+            execution.whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else if (!result.complete(response)) {
+                    // Cancelled meanwhile, so the response is not going to be decoded
+                    response.close();
+                }
+            });
+            result.whenComplete((response, throwable) -> {
+                if (result.isCancelled()) {
+                    execution.cancel(true);
+                }
+            });
+
+            final List<CompletableFuture<Response>> started = STARTED.get();
+            if (started != null) {
+                started.add(result);
+            }
+            return result;
+        };
+    }
+
+    /*
+     * Returns a client whose GraphQL operation methods returning futures cancel
+     * the requests they have started once the returned future is cancelled or fails
+     */
+    @SuppressWarnings("unchecked")
+    static <C extends MoccaClient> C propagate(final Class<C> apiType, final C client) {
+        return (C) Proxy.newProxyInstance(apiType.getClassLoader(), new Class<?>[]{apiType}, (proxy, method, args) -> {
+            if (method.getReturnType() != CompletableFuture.class) {
+                try {
+                    return method.invoke(client, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+
+            final List<CompletableFuture<Response>> outer = STARTED.get();
+            final List<CompletableFuture<Response>> started = new ArrayList<>(1);
+            STARTED.set(started);
+            final Object result;
+            try {
+                result = method.invoke(client, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            } finally {
+                if (outer == null) {
+                    STARTED.remove();
+                } else {
+                    STARTED.set(outer);
+                }
+            }
+
+            if (result != null && !started.isEmpty()) {
+                ((CompletableFuture<Object>) result).whenComplete((r, throwable) -> {
+                    if (throwable != null) {
+                        started.forEach(execution -> execution.cancel(true));
+                    }
+                });
+            }
+            return result;
+        });
+    }
+
+}
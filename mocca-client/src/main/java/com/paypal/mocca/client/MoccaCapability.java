@@ -1,5 +1,7 @@
 package com.paypal.mocca.client;
 
+import feign.AsyncClient;
+
 /**
  * {@link MoccaClient} supports various capabilities (e.g. metrics collection).
  * They are represented by extensions of this class and are most often found in
@@ -19,4 +21,17 @@ abstract class MoccaCapability {
     feign.Capability getFeignCapability() {
         return feignCapability;
     }
+
+    /**
+     * Async Mocca clients do not use a Feign {@link feign.Client}, so capabilities
+     * enriching it have to enrich async HTTP clients separately, by overriding this method.
+     * By default, the given async HTTP client is returned as is.
+     *
+     * @param asyncClient the async HTTP client used by an async Mocca client
+     * @param <C> the async HTTP client request context type
+     * @return the enriched async HTTP client
+     */
+    <C> AsyncClient<C> enrich(final AsyncClient<C> asyncClient) {
+        return asyncClient;
+    }
 }
\ No newline at end of file
@@ -1,11 +1,25 @@
 package com.paypal.mocca.client;
 
+import com.fasterxml.jackson.databind.Module;
 import feign.AsyncClient;
 import feign.AsyncFeign;
 import feign.Feign;
+import feign.InvocationHandlerFactory;
+import feign.Target;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
 
+import javax.validation.Validator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Applications are supposed to create an interface, extending this one, to define their GraphQL client API. Each
@@ -30,6 +44,7 @@ import java.util.Set;
  *                     <li>A data transfer object (DTO)</li>
  *                     <li>A {@link java.util.List} containing a DTO</li>
  *                 </ol>
+ *                 Async clients return the types above wrapped in a {@link java.util.concurrent.CompletableFuture}, or, if supported by the async HTTP client, in a reactive type (see {@code MoccaReactorNettyClient}).
  *             </li>
  *         </ol>
  *     </li>
@@ -39,7 +54,8 @@ import java.util.Set;
  * <br>
  * Ultimately, Mocca will make HTTP requests to a GraphQL service.  You can control things like HTTP timeouts by
  * leveraging the functionality of the {@link MoccaHttpClient} implementations, which ultimately you can supply via
- * {@link MoccaClient.Builder}.
+ * {@link MoccaClient.Builder}. Timeouts can also be set per operation method, using
+ * {@link com.paypal.mocca.client.annotation.Timeout}, and bounded by the caller's remaining time, using {@link MoccaDeadline}.
  * <br>
  * You can see below an example of a simple client API.
  * <pre><code>
@@ -134,6 +150,42 @@ public interface MoccaClient {
             return new Builder.AsyncBuilder(serverBaseUrl);
         }
 
+        /**
+         * Provides a builder to create a Mocca sync client whose requests are distributed among
+         * the endpoints of the given load balancer. See {@link #sync(String)} and {@link MoccaLoadBalancer}
+         * for further information.
+         * <br>
+         * <pre><code>
+         * MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+         *     .endpoints("http://replica1:8080/booksapp", "http://replica2:8080/booksapp")
+         *     .strategy(MoccaLoadBalancer.Strategy.leastOutstandingRequests())
+         *     .build();
+         *
+         * BooksAppClient client = MoccaClient.Builder
+         *     .sync(loadBalancer)
+         *     .client(new MoccaOkHttpClient())
+         *     .build(BooksAppClient.class);
+         * </code></pre>
+         *
+         * @param loadBalancer the load balancer distributing requests among the GraphQL server endpoints
+         * @return a {@link Builder.SyncBuilder}.
+         */
+        public static Builder.SyncBuilder sync(final MoccaLoadBalancer loadBalancer) {
+            return new Builder.SyncBuilder(loadBalancer);
+        }
+
+        /**
+         * Provides a builder to create a Mocca asynchronous client whose requests are distributed among
+         * the endpoints of the given load balancer. See {@link #async(String)} and {@link MoccaLoadBalancer}
+         * for further information.
+         *
+         * @param loadBalancer the load balancer distributing requests among the GraphQL server endpoints
+         * @return a {@link Builder.AsyncBuilder}.
+         */
+        public static Builder.AsyncBuilder async(final MoccaLoadBalancer loadBalancer) {
+            return new Builder.AsyncBuilder(loadBalancer);
+        }
+
         /**
          * A {@link MoccaClient} builder for synchronous clients.
          * <br>
@@ -149,12 +201,17 @@ public interface MoccaClient {
          */
         public static class SyncBuilder extends Builder.BaseBuilder<Builder.SyncBuilder> {
             private MoccaHttpClient moccaHttpClient;
+            private MoccaConnectionPool connectionPool;
             private MoccaResiliency resiliency;
 
             private SyncBuilder(final String serverBaseUrl) {
                 super(serverBaseUrl);
             }
 
+            private SyncBuilder(final MoccaLoadBalancer loadBalancer) {
+                super(loadBalancer);
+            }
+
             /**
              * Sets a custom {@link MoccaHttpClient} to be used for GraphQL requests.
              * <br>
@@ -214,6 +271,34 @@ public interface MoccaClient {
                 return this;
             }
 
+            /**
+             * Sets the connection pool settings of the HTTP client set in this builder, which is then replaced
+             * by a new HTTP client of the same type using those settings. This is supported by
+             * {@code MoccaOkHttpClient}, {@code MoccaApache5Client} and {@code MoccaApacheClient},
+             * as long as they have not been created with a pre-instantiated HTTP client.
+             * Building the client fails with a {@link MoccaException} otherwise, or if no HTTP client has been set.
+             * <br>
+             * Create the HTTP client with the connection pool settings instead, if its pool statistics are needed.
+             * <br>
+             * <pre><code>
+             * BooksAppClient client = MoccaClient.Builder
+             *     .sync("http://localhost:8080/booksapp")
+             *     .client(new MoccaOkHttpClient())
+             *     .connectionPool(new MoccaConnectionPool.Builder()
+             *         .maxConnectionsPerRoute(100)
+             *         .maxConnectionsEnforced(true)
+             *         .build())
+             *     .build(BooksAppClient.class);
+             * </code></pre>
+             *
+             * @param connectionPool the connection pool settings
+             * @return this builder
+             */
+            public Builder.SyncBuilder connectionPool(final MoccaConnectionPool connectionPool) {
+                this.connectionPool = Arguments.requireNonNull(connectionPool, "Connection pool cannot be null");
+                return this;
+            }
+
             /**
              * Adds a {@link MoccaResiliency} feature to be configured in this client builder.
              *
@@ -232,26 +317,49 @@ public interface MoccaClient {
             public <C extends MoccaClient> C build(final Class<C> apiType) {
                 Feign.Builder builder = (resiliency != null) ? resiliency.getFeignBuilder() : Feign.builder();
 
-                MoccaFeignEncoder encoder = new MoccaFeignEncoder();
+                MoccaFeignEncoder encoder = newEncoder();
+                encoder.setRouting(loadBalancer != null);
                 builder = builder.contract(new MoccaFeignContract())
                     .encoder(encoder)
-                    .decoder(new MoccaFeignDecoder());
+                    .decoder(newDecoder());
 
                 if (resiliency == null) {
                     builder.invocationHandlerFactory(new MoccaFeignInvocationHandlerFactory());
                 }
-                if (moccaHttpClient != null) {
-                    builder = builder.client(moccaHttpClient.getFeignClient());
+                final MoccaHttpClient configuredHttpClient = configuredHttpClient();
+                if (loadBalancer != null) {
+                    final MoccaHttpClient httpClient = configuredHttpClient != null ? configuredHttpClient : new MoccaDefaultHttpClient();
+                    builder = builder.client(loadBalancer.enrich(httpClient.getFeignClient()));
+                } else if (configuredHttpClient != null) {
+                    builder = builder.client(configuredHttpClient.getFeignClient());
                 }
+                builder = builder.addCapability(MoccaScope.FEIGN_CAPABILITY)
+                    .addCapability(MoccaTimeouts.FEIGN_CAPABILITY);
                 for (final MoccaCapability c : capabilities) {
                     builder = builder.addCapability(c.getFeignCapability());
                 }
-                C client =  builder.target(apiType, graphQLUrlString);
+                final Feign feign = builder.build();
+                C client = initialize(apiType, () -> feign.newInstance(new Target.HardCodedTarget<>(apiType, graphQLUrlString)));
                 // the client object is needed in the encoder to perform
                 // bean validation for the request
                 encoder.setClient(client);
+                if (prewarmConnections > 0) {
+                    encoder.precompile(apiType);
+                    final MoccaHttpClient httpClient = configuredHttpClient != null ? configuredHttpClient : new MoccaDefaultHttpClient();
+                    MoccaPrewarming.prewarm(httpClient.getFeignClient(), MoccaPrewarming.graphQLUrls(graphQLUrlString, loadBalancer), prewarmConnections, prewarmMaxWait);
+                }
                 return client;
             }
+
+            private MoccaHttpClient configuredHttpClient() {
+                if (connectionPool == null) {
+                    return moccaHttpClient != null ? moccaHttpClient : runtime != null ? runtime.getHttpClient() : null;
+                }
+                if (moccaHttpClient == null) {
+                    throw new MoccaException("Connection pool settings require an HTTP client supporting them to be set in the builder");
+                }
+                return moccaHttpClient.withConnectionPool(connectionPool);
+            }
         }
 
         /**
@@ -271,11 +379,18 @@ public interface MoccaClient {
          */
         public static class AsyncBuilder extends Builder.BaseBuilder<Builder.AsyncBuilder> {
             private MoccaAsyncHttpClient<?> moccaAsyncHttpClient;
+            private final List<MoccaAsyncResiliency> resiliencies = new ArrayList<>();
+            private MoccaSubscriptionClient subscriptionClient;
+            private MoccaIncrementalClient incrementalClient;
 
             private AsyncBuilder(final String serverBaseUrl) {
                 super(serverBaseUrl);
             }
 
+            private AsyncBuilder(final MoccaLoadBalancer loadBalancer) {
+                super(loadBalancer);
+            }
+
             /**
              * Sets a custom {@link MoccaAsyncHttpClient} to be used for GraphQL requests.
              * <br>
@@ -297,6 +412,8 @@ public interface MoccaClient {
              *     <caption>Async HTTP clients supported by Mocca</caption>
              *     <tr><th>HTTP client</th><th>Dependency</th><th>Client class</th></tr>
              *     <tr><td>Apache HTTP client 5</td><td>com.paypal.mocca:mocca-hc5:0.0.1</td><td>com.paypal.mocca.client.MoccaAsyncApache5Client</td></tr>
+             *     <tr><td>OkHttp</td><td>com.paypal.mocca:mocca-okhttp:0.0.1</td><td>com.paypal.mocca.client.MoccaAsyncOkHttpClient</td></tr>
+             *     <tr><td>Java 11 HTTP 2 client</td><td>com.paypal.mocca:mocca-http2:0.0.1</td><td>com.paypal.mocca.client.MoccaAsyncHttp2Client</td></tr>
              * </table>
              * <pre><code>
              * MoccaAsyncApache5Client asyncHttpClient = new MoccaAsyncApache5Client();
@@ -361,39 +478,175 @@ public interface MoccaClient {
                 return this;
             }
 
+            /**
+             * Adds a {@link MoccaAsyncResiliency} feature to be configured in this client builder.
+             * Async resiliency features are applied to the future returned by each GraphQL operation
+             * method, not blocking any thread while waiting, for example, for a retry or a timeout.
+             * If more than one is added, the first one added is the outermost one (e.g. add a retry
+             * feature before {@link MoccaHedging}, so every retry is hedged).
+             * Operation methods with reactive return types are decorated every time their result is subscribed.
+             *
+             * @param resiliency the async resilience object to be set in this builder
+             * @return this builder
+             */
+            public AsyncBuilder resiliency(final MoccaAsyncResiliency resiliency) {
+                if (resiliency != null) {
+                    resiliencies.add(resiliency);
+                }
+                return this;
+            }
+
+            /**
+             * Sets the client executing the GraphQL subscription methods, annotated with
+             * {@link com.paypal.mocca.client.annotation.Subscription}, of clients built by this builder.
+             * A subscription client is required if the client API declares subscription methods.
+             * Their arguments are validated, and their {@link com.paypal.mocca.client.annotation.RequestHeader} and
+             * {@link com.paypal.mocca.client.annotation.RequestHeaderParam} headers are sent when the subscription starts,
+             * while capabilities and resiliency features are not applied to them.
+             * See an example below, using a WebSocket subscription client.
+             * <br>
+             * <pre><code>
+             * AsyncBooksAppClient asyncClient = MoccaClient.Builder
+             *     .async("http://localhost:8080/booksapp")
+             *     .client(asyncHttpClient)
+             *     .subscriptionClient(new MoccaWebSocketSubscriptionClient())
+             *     .build(AsyncBooksAppClient.class);
+             * </code></pre>
+             *
+             * @param subscriptionClient the subscription client to be set in this builder
+             * @return this builder
+             */
+            public AsyncBuilder subscriptionClient(final MoccaSubscriptionClient subscriptionClient) {
+                this.subscriptionClient = Arguments.requireNonNull(subscriptionClient, "Subscription client cannot be null");
+                return this;
+            }
+
+            /**
+             * Sets the client executing the operation methods returning {@link MoccaIncrementalResult}, whose
+             * responses are delivered incrementally, as {@code multipart/mixed} responses, of clients built by this builder.
+             * An incremental client is required if the client API declares such operation methods.
+             * Their requests are created as the ones of the other operation methods, with bean validation and request headers,
+             * and their timeouts, the current deadline and the load balancer apply to them, while capabilities, scopes and
+             * resiliency features, such as the concurrency limiter, do not.
+             * See an example below, using a Java 11 HTTP client based incremental client.
+             * <br>
+             * <pre><code>
+             * ProductsAppClient asyncClient = MoccaClient.Builder
+             *     .async("http://localhost:8080/productsapp")
+             *     .client(asyncHttpClient)
+             *     .incrementalClient(new MoccaHttp2IncrementalClient())
+             *     .build(ProductsAppClient.class);
+             * </code></pre>
+             *
+             * @param incrementalClient the incremental client to be set in this builder
+             * @return this builder
+             */
+            public AsyncBuilder incrementalClient(final MoccaIncrementalClient incrementalClient) {
+                this.incrementalClient = Arguments.requireNonNull(incrementalClient, "Incremental client cannot be null");
+                return this;
+            }
+
             /**
              * {@inheritDoc}
              */
             @Override
             public <C extends MoccaClient> C build(final Class<C> apiType) {
-                final AsyncClient<?> feignAsyncClient = moccaAsyncHttpClient != null ? moccaAsyncHttpClient.getFeignAsyncClient() : null;
-                return new Builder.AsyncBuilder.ClientSpecificBuilder<>(feignAsyncClient, graphQLUrlString).build(apiType);
+                final MoccaAsyncHttpClient<?> asyncHttpClient = moccaAsyncHttpClient != null ? moccaAsyncHttpClient :
+                    runtime != null && runtime.getAsyncHttpClient() != null ? runtime.getAsyncHttpClient() :
+                    new MoccaExecutorHttpClient<>(new MoccaDefaultHttpClient(), DefaultExecutorService.INSTANCE);
+                final C client = new Builder.AsyncBuilder.ClientSpecificBuilder<>(asyncHttpClient.getFeignAsyncClient(), asyncHttpClient.getReactiveAdapter(), graphQLUrlString).build(apiType);
+                C combinedClient = client;
+                for (int i = resiliencies.size() - 1; i >= 0; i--) {
+                    combinedClient = resiliencies.get(i).decorate(apiType, combinedClient);
+                }
+                if (MoccaIncrementalDelivery.hasIncrementalMethods(apiType)) {
+                    if (incrementalClient == null) {
+                        throw new MoccaException("Client API " + apiType.getName() + " declares operation methods returning incremental results, but no incremental client has been set");
+                    }
+                    combinedClient = MoccaIncrementalDelivery.combine(apiType, combinedClient, incrementalClient, graphQLUrlString,
+                        newEncoder(), newDecoder().getMoccaDeserializer(), loadBalancer);
+                }
+                if (MoccaSubscriptions.hasSubscriptionMethods(apiType)) {
+                    if (subscriptionClient == null) {
+                        throw new MoccaException("Client API " + apiType.getName() + " declares subscription methods, but no subscription client has been set");
+                    }
+                    combinedClient = MoccaSubscriptions.combine(apiType, combinedClient, subscriptionClient, graphQLUrlString,
+                        newEncoder(), newDecoder().getMoccaDeserializer());
+                }
+                return combinedClient;
+            }
+
+            /*
+             * Lazily created executor service used when an async HTTP client is not set
+             */
+            private static final class DefaultExecutorService {
+                private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(r -> {
+                    final Thread thread = new Thread(r, "mocca-async-default");
+                    thread.setDaemon(true);
+                    return thread;
+                });
             }
 
             private class ClientSpecificBuilder<CC> {
                 private final AsyncClient<CC> asyncClient;
+                private final MoccaReactiveAdapter reactiveAdapter;
                 private final String serverUrl;
 
-                ClientSpecificBuilder(final AsyncClient<CC> asyncClient, final String serverUrl) {
-                    this.asyncClient = asyncClient;
+                ClientSpecificBuilder(final AsyncClient<CC> asyncClient, final MoccaReactiveAdapter reactiveAdapter, final String serverUrl) {
+                    this.asyncClient = Arguments.requireNonNull(asyncClient);
+                    this.reactiveAdapter = reactiveAdapter;
                     this.serverUrl = Arguments.requireNonNull(serverUrl);
                 }
 
                 public <C extends MoccaClient> C build(final Class<C> apiType) {
-                    MoccaFeignEncoder encoder = new MoccaFeignEncoder();
+                    MoccaFeignEncoder encoder = newEncoder();
+                    encoder.setRouting(loadBalancer != null);
 
-                    AsyncFeign.AsyncBuilder<CC> builder = AsyncFeign.<CC>asyncBuilder()
+                    // Unlike Feign.Builder, AsyncFeign.AsyncBuilder does not apply capabilities,
+                    // so each of them is applied here to every component it might enrich
+                    Encoder enrichedEncoder = encoder;
+                    Decoder decoder = newDecoder();
+                    AsyncClient<CC> enrichedAsyncClient = MoccaTimeouts.enrich(loadBalancer != null ? loadBalancer.enrich(asyncClient) : asyncClient);
+                    InvocationHandlerFactory invocationHandlerFactory =
+                        MoccaScope.FEIGN_CAPABILITY.enrich(new MoccaFeignInvocationHandlerFactory());
+                    for (final MoccaCapability c : capabilities) {
+                        final feign.Capability feignCapability = c.getFeignCapability();
+                        enrichedEncoder = feignCapability.enrich(enrichedEncoder);
+                        decoder = feignCapability.enrich(decoder);
+                        invocationHandlerFactory = feignCapability.enrich(invocationHandlerFactory);
+                        enrichedAsyncClient = c.enrich(enrichedAsyncClient);
+                    }
+                    enrichedAsyncClient = MoccaCancellation.enrich(enrichedAsyncClient);
+
+                    final AsyncFeign.AsyncBuilder<CC> builder = AsyncFeign.<CC>asyncBuilder()
                         .contract(new MoccaFeignContract())
-                        .encoder(encoder)
-                        .decoder(new MoccaFeignDecoder())
-                        .invocationHandlerFactory(new MoccaFeignInvocationHandlerFactory());
-                    if (asyncClient != null) {
-                        builder = builder.client(asyncClient);
+                        .encoder(enrichedEncoder)
+                        .decoder(decoder)
+                        .invocationHandlerFactory(invocationHandlerFactory)
+                        .client(enrichedAsyncClient);
+                    C client = MoccaCancellation.propagate(apiType, initialize(apiType, () -> builder.target(apiType, graphQLUrlString)));
+                    if (MoccaReactiveFeign.hasReactiveMethods(apiType)) {
+                        if (reactiveAdapter == null) {
+                            throw new MoccaException("Client API " + apiType.getName() + " declares operation methods with reactive return types, which are not supported by the configured async HTTP client");
+                        }
+                        final AsyncClient<CC> reactiveAsyncClient = enrichedAsyncClient;
+                        final Encoder reactiveEncoder = enrichedEncoder;
+                        final Decoder reactiveDecoder = decoder;
+                        final InvocationHandlerFactory reactiveInvocationHandlerFactory = invocationHandlerFactory;
+                        final List<MoccaAsyncResiliency.Decorator> decorators = resiliencies.stream()
+                            .map(MoccaAsyncResiliency::getDecorator)
+                            .collect(Collectors.toList());
+                        final C reactiveClient = initialize(apiType, () -> MoccaReactiveFeign.target(apiType, graphQLUrlString, reactiveAsyncClient,
+                            reactiveEncoder, reactiveDecoder, reactiveInvocationHandlerFactory, decorators, reactiveAdapter));
+                        client = MoccaReactiveFeign.combine(apiType, client, reactiveClient);
                     }
-                    C client =  builder.target(apiType, graphQLUrlString);
                     encoder.setClient(client);
                     // the client object is needed in the encoder to perform
                     // bean validation for the request
+                    if (prewarmConnections > 0) {
+                        encoder.precompile(apiType);
+                        MoccaPrewarming.prewarm(asyncClient, MoccaPrewarming.graphQLUrls(graphQLUrlString, loadBalancer), prewarmConnections, prewarmMaxWait);
+                    }
                     return client;
                 }
             }
@@ -402,16 +655,80 @@ public interface MoccaClient {
         abstract static class BaseBuilder<B extends Builder.BaseBuilder<B>> {
 
             protected final String graphQLUrlString;
+            protected final MoccaLoadBalancer loadBalancer;
             protected final Set<MoccaCapability> capabilities = new HashSet<>();
+            protected int prewarmConnections;
+            protected Duration prewarmMaxWait = Duration.ZERO;
+            protected MoccaRuntime runtime;
+            protected boolean lazyInitialization;
+
+            // Components shared by the encoders and decoders of every client built by this builder, unless a runtime
+            // has been set, including the ones of subscription and incremental methods. Created on first use.
+            private MoccaSerializer serializer;
+            private Supplier<Validator> validator;
+            private MoccaDeserializer deserializer;
+
+            // Jackson modules registered in the JSON object mapper, or null if all modules in the classpath are registered
+            private List<Module> jacksonModules;
 
             public BaseBuilder(final String serverBaseUrl) {
                 // Setting GraphQL URL String
-                Arguments.requireNonNull(serverBaseUrl);
+                graphQLUrlString = toGraphQLUrl(Arguments.requireNonNull(serverBaseUrl));
+                loadBalancer = null;
+            }
+
+            public BaseBuilder(final MoccaLoadBalancer loadBalancer) {
+                this.loadBalancer = Arguments.requireNonNull(loadBalancer, "Load balancer cannot be null");
+                graphQLUrlString = loadBalancer.getTargetGraphQLUrl();
+            }
+
+            static String toGraphQLUrl(final String serverBaseUrl) {
                 if (serverBaseUrl.endsWith("/")) {
-                    graphQLUrlString = serverBaseUrl + "graphql";
+                    return serverBaseUrl + "graphql";
                 } else {
-                    graphQLUrlString = serverBaseUrl + "/graphql";
+                    return serverBaseUrl + "/graphql";
+                }
+            }
+
+            /*
+             * Returns a new encoder, whose serializer and validator are the runtime ones, if a runtime has been set,
+             * or else the ones shared by every encoder of this builder
+             */
+            MoccaFeignEncoder newEncoder() {
+                if (runtime != null) {
+                    return runtime.newEncoder();
+                }
+                if (serializer == null) {
+                    serializer = new MoccaSerializer();
+                    if (lazyInitialization) {
+                        validator = MoccaFeignEncoder.lazyValidator();
+                    } else {
+                        final Validator eagerValidator = MoccaFeignEncoder.buildValidator();
+                        validator = () -> eagerValidator;
+                    }
+                }
+                return new MoccaFeignEncoder(serializer, validator);
+            }
+
+            /*
+             * Returns a new decoder, whose deserializer is the runtime one, if a runtime has been set,
+             * or else the one shared by every decoder of this builder
+             */
+            MoccaFeignDecoder newDecoder() {
+                if (runtime != null) {
+                    return runtime.newDecoder();
+                }
+                if (deserializer == null) {
+                    deserializer = jacksonModules != null ? MoccaDeserializer.withModules(jacksonModules) : new MoccaDeserializer();
                 }
+                return new MoccaFeignDecoder(deserializer);
+            }
+
+            /*
+             * Returns the client returned by the given initializer, which is called right away, unless lazy initialization is set
+             */
+            <C extends MoccaClient> C initialize(final Class<C> apiType, final Supplier<C> initializer) {
+                return lazyInitialization ? MoccaLazyInitialization.create(apiType, initializer) : initializer.get();
             }
 
             /**
@@ -447,6 +764,137 @@ public interface MoccaClient {
                 return (B) this;
             }
 
+            /**
+             * Pre-warms the HTTP client of clients built by this builder, asynchronously, right after
+             * they are built. See {@link #prewarm(int, Duration)}.
+             *
+             * @param connections the number of concurrent requests sent to each GraphQL server endpoint
+             * @return this builder
+             */
+            public B prewarm(final int connections) {
+                return prewarm(connections, Duration.ZERO);
+            }
+
+            /**
+             * Pre-warms the HTTP client of clients built by this builder, so the first requests sent right after
+             * the application starts do not pay for connection setup (including TLS handshakes) and class loading.
+             * When a client is built, {@code connections} concurrent {@code query{__typename}} requests, supported
+             * by every GraphQL server, are sent to each GraphQL server endpoint, opening as many pooled connections
+             * (a single connection is usually enough for HTTP 2 clients). The selection set of every operation
+             * method is also written ahead of time.
+             * <br>
+             * The {@code build} method waits up to {@code maxWait} for the requests to complete, or does not wait
+             * at all if it is zero. Pre-warming failures are logged, but never fail the client build.
+             * <br>
+             * <pre><code>
+             * BooksAppClient client = MoccaClient.Builder
+             *     .sync("https://booksapp.com/booksapp")
+             *     .client(new MoccaOkHttpClient())
+             *     .prewarm(4, Duration.ofSeconds(2))
+             *     .build(BooksAppClient.class);
+             * </code></pre>
+             *
+             * @param connections the number of concurrent requests sent to each GraphQL server endpoint
+             * @param maxWait the maximum time the {@code build} method waits for the requests to complete
+             * @return this builder
+             */
+            @SuppressWarnings("unchecked")
+            public B prewarm(final int connections, final Duration maxWait) {
+                Arguments.require(connections > 0, "The number of pre-warmed connections must be greater than zero");
+                Arguments.requireNonNull(maxWait, "Max wait cannot be null");
+                Arguments.require(!maxWait.isNegative(), "Max wait cannot be negative");
+                this.prewarmConnections = connections;
+                this.prewarmMaxWait = maxWait;
+                return (B) this;
+            }
+
+            /**
+             * Sets the {@link MoccaRuntime} whose components (HTTP client, JSON object mapper, response type
+             * metadata cache and bean validator) are shared by this client and every other client built with
+             * the same runtime, instead of this client having its own. An HTTP client set directly in this
+             * builder takes precedence over the runtime one.
+             * <br>
+             * <pre><code>
+             * MoccaRuntime runtime = new MoccaRuntime.Builder()
+             *     .client(new MoccaOkHttpClient())
+             *     .build();
+             *
+             * BooksAppClient client = MoccaClient.Builder
+             *     .sync("https://gateway.com/booksapp")
+             *     .runtime(runtime)
+             *     .build(BooksAppClient.class);
+             * </code></pre>
+             *
+             * @param runtime the runtime shared by clients
+             * @return this builder
+             */
+            @SuppressWarnings("unchecked")
+            public B runtime(final MoccaRuntime runtime) {
+                this.runtime = Arguments.requireNonNull(runtime, "Runtime cannot be null");
+                return (B) this;
+            }
+
+            /**
+             * Optimizes the build of clients for startup time, which is relevant for autoscaled and serverless
+             * applications. The parsing and validation of every operation method of the client API is deferred
+             * out of the {@code build} method, starting right away in a background thread, and the first invocation
+             * of the client waits for it, or runs it if it has not started yet. The bean validation provider is only
+             * bootstrapped when the first request is sent. See also {@link #jacksonModules(Module...)}, which avoids
+             * the discovery of Jackson modules in the classpath.
+             * <br>
+             * Notice that, because of that, client API validation errors are thrown by every client invocation,
+             * instead of by the {@code build} method. Also, components shared via {@link #runtime(MoccaRuntime)}
+             * are not affected by this setting.
+             * <br>
+             * <pre><code>
+             * BooksAppClient client = MoccaClient.Builder
+             *     .sync("http://localhost:8080/booksapp")
+             *     .lazyInitialization()
+             *     .build(BooksAppClient.class);
+             * </code></pre>
+             *
+             * @return this builder
+             */
+            @SuppressWarnings("unchecked")
+            public B lazyInitialization() {
+                this.lazyInitialization = true;
+                // Components created before are not built for startup time
+                this.serializer = null;
+                this.validator = null;
+                this.deserializer = null;
+                return (B) this;
+            }
+
+            /**
+             * Sets the Jackson modules registered in the JSON object mapper used to deserialize responses, as opposed to
+             * discovering and registering every Jackson module in the classpath, which is the default. Discovering modules
+             * loads and instantiates all of them, which is a visible slice of the startup time of autoscaled and serverless
+             * applications. The Java time module, which Mocca depends on, is always registered. Notice that Jackson modules
+             * in the classpath not given here, such as Kotlin or parameter names modules, do not apply to responses then.
+             * Components shared via {@link #runtime(MoccaRuntime)} are not affected by this setting.
+             * <br>
+             * <pre><code>
+             * BooksAppClient client = MoccaClient.Builder
+             *     .sync("http://localhost:8080/booksapp")
+             *     .lazyInitialization()
+             *     .jacksonModules(new Jdk8Module())
+             *     .build(BooksAppClient.class);
+             * </code></pre>
+             *
+             * @param modules the Jackson modules to be registered, besides the Java time module
+             * @return this builder
+             */
+            @SuppressWarnings("unchecked")
+            public B jacksonModules(final Module... modules) {
+                Arguments.requireNonNull(modules, "Jackson modules cannot be null");
+                for (Module module : modules) {
+                    Arguments.requireNonNull(module, "Jackson modules cannot be null");
+                }
+                this.jacksonModules = Arrays.asList(modules.clone());
+                this.deserializer = null;
+                return (B) this;
+            }
+
             /**
              * Removes all {@link MoccaCapability} configured in this client builder.
              *
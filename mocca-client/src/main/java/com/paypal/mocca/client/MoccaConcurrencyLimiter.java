@@ -0,0 +1,603 @@
+package com.paypal.mocca.client;
+
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Mocca capability limiting the number of concurrent in-flight GraphQL requests, per client or per operation method,
+ * where the limit is not static, but continuously adapted according to the observed round-trip latencies, similarly to
+ * <a href="https://github.com/Netflix/concurrency-limits">Netflix concurrency limits</a>. When the server turns slow,
+ * the limit decreases, protecting it and the application, and when latencies recover, the limit increases again.
+ * <br>
+ * Requests above the limit are rejected immediately with a {@link MoccaException}, or, if a maximum wait time is set,
+ * wait for a request to complete, up to that time. See an example below.
+ * <pre><code>
+ * MoccaConcurrencyLimiter limiter = new MoccaConcurrencyLimiter.Builder()
+ *     .gradient2()
+ *     .maxLimit(100)
+ *     .maxWait(Duration.ofMillis(50))
+ *     .build();
+ *
+ * BooksAppClient client = MoccaClient.Builder
+ *     .sync("http://localhost:8080/booksapp")
+ *     .addCapability(limiter)
+ *     .build(BooksAppClient.class);
+ * </code></pre>
+ * The following limit algorithms are supported:
+ * <ol>
+ *     <li>AIMD: additive increase while requests succeed, multiplicative decrease when requests are dropped (fail or are rejected by the server with 429, 503 or 504 status codes).</li>
+ *     <li>Vegas: estimates the server queue size from the ratio between the minimum latency observed and the current one, increasing the limit while the queue is small and decreasing it when it grows.</li>
+ *     <li>Gradient2 (default): compares a long-term moving average latency with the current one, decreasing the limit when the current one diverges, while tolerating some latency increase.</li>
+ * </ol>
+ * Limits are only increased while at least half of them is in use, so an idle client does not grow unbounded limits.
+ * The same limiter can be added to sync and async clients, and to multiple clients, in which case each client API
+ * and target URL (or each operation method of each of them) has its own limit. Requests waiting for the limit
+ * keep the {@link MoccaDeadline} of their caller, and are granted their permit by an executor, configurable
+ * via {@link Builder#executor(Executor)}, as opposed to by the thread completing another request.
+ */
+public final class MoccaConcurrencyLimiter extends MoccaCapability {
+
+    /**
+     * A concurrency limit algorithm, adjusting the limit after every request completion.
+     * Implementations do not need to be thread-safe.
+     */
+    public interface Limit {
+
+        /**
+         * Returns the current concurrency limit
+         *
+         * @return the current concurrency limit
+         */
+        int getLimit();
+
+        /**
+         * Updates the limit according to a completed request
+         *
+         * @param rttNanos the request round-trip time, in nanoseconds
+         * @param inFlight the number of requests in flight when the request completed, including it
+         * @param dropped  whether the request failed or was rejected by the server due to overload
+         */
+        void onSample(long rttNanos, int inFlight, boolean dropped);
+    }
+
+    /*
+     * Built-in limit algorithms
+     */
+    private enum Algorithm {
+        AIMD {
+            @Override
+            Limit create(final int initial, final int min, final int max) {
+                return new AimdLimit(initial, min, max);
+            }
+        },
+        VEGAS {
+            @Override
+            Limit create(final int initial, final int min, final int max) {
+                return new VegasLimit(initial, min, max);
+            }
+        },
+        GRADIENT2 {
+            @Override
+            Limit create(final int initial, final int min, final int max) {
+                return new Gradient2Limit(initial, min, max);
+            }
+        };
+
+        abstract Limit create(int initial, int min, int max);
+    }
+
+    public static class Builder {
+        private Algorithm algorithm = Algorithm.GRADIENT2;
+        private Supplier<Limit> limitSupplier;
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private boolean perOperation;
+        private Duration maxWait = Duration.ZERO;
+        private Executor executor = ForkJoinPool.commonPool();
+
+        public MoccaConcurrencyLimiter build() {
+            Arguments.require(minLimit <= initialLimit && initialLimit <= maxLimit, "Limits must satisfy min <= initial <= max");
+            return new MoccaConcurrencyLimiter(this);
+        }
+
+        /**
+         * Uses the AIMD (additive increase, multiplicative decrease) limit algorithm
+         *
+         * @return this builder
+         */
+        public Builder aimd() {
+            return algorithm(Algorithm.AIMD);
+        }
+
+        /**
+         * Uses the Vegas limit algorithm, based on TCP Vegas congestion control
+         *
+         * @return this builder
+         */
+        public Builder vegas() {
+            return algorithm(Algorithm.VEGAS);
+        }
+
+        /**
+         * Uses the Gradient2 limit algorithm, which is the default one
+         *
+         * @return this builder
+         */
+        public Builder gradient2() {
+            return algorithm(Algorithm.GRADIENT2);
+        }
+
+        /**
+         * Uses a custom limit algorithm. The supplier is called once per limit (per client or per operation method).
+         * Min, initial and max limits set in this builder are not applied to custom limits.
+         *
+         * @param limitSupplier the supplier of custom limit algorithm instances
+         * @return this builder
+         */
+        public Builder limit(final Supplier<Limit> limitSupplier) {
+            this.limitSupplier = Arguments.requireNonNull(limitSupplier, "Limit supplier cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the initial concurrency limit. The default value is 20.
+         *
+         * @param initialLimit the initial concurrency limit
+         * @return this builder
+         */
+        public Builder initialLimit(final int initialLimit) {
+            Arguments.require(initialLimit > 0, "Initial limit must be positive");
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Sets the minimum concurrency limit. The default value is 1.
+         *
+         * @param minLimit the minimum concurrency limit
+         * @return this builder
+         */
+        public Builder minLimit(final int minLimit) {
+            Arguments.require(minLimit > 0, "Min limit must be positive");
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        /**
+         * Sets the maximum concurrency limit. The default value is 200.
+         *
+         * @param maxLimit the maximum concurrency limit
+         * @return this builder
+         */
+        public Builder maxLimit(final int maxLimit) {
+            Arguments.require(maxLimit > 0, "Max limit must be positive");
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Sets whether each operation method has its own limit, as opposed to one limit per client.
+         * The default value is false.
+         *
+         * @param perOperation whether each operation method has its own limit
+         * @return this builder
+         */
+        public Builder perOperation(final boolean perOperation) {
+            this.perOperation = perOperation;
+            return this;
+        }
+
+        /**
+         * Sets how long a request above the limit waits for another request to complete before being
+         * rejected. The default value is zero, which means requests above the limit are rejected immediately.
+         *
+         * @param maxWait the maximum time a request waits for the limit
+         * @return this builder
+         */
+        public Builder maxWait(final Duration maxWait) {
+            Arguments.require(maxWait != null && !maxWait.isNegative(), "Max wait cannot be null nor negative");
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Sets the executor granting permits to requests waiting for the limit, once other requests complete,
+         * so waiting async requests are not sent by the thread completing another request, such as an HTTP client
+         * callback thread. The default value is the common fork join pool, used by default for async stages.
+         *
+         * @param executor the executor granting permits to waiting requests
+         * @return this builder
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = Arguments.requireNonNull(executor, "Executor cannot be null");
+            return this;
+        }
+
+        private Builder algorithm(final Algorithm algorithm) {
+            this.algorithm = algorithm;
+            this.limitSupplier = null;
+            return this;
+        }
+    }
+
+    private MoccaConcurrencyLimiter(final Builder builder) {
+        super(new Limiter(builder));
+    }
+
+    @Override
+    <C> AsyncClient<C> enrich(final AsyncClient<C> asyncClient) {
+        return ((Limiter) getFeignCapability()).enrich(asyncClient);
+    }
+
+    private static final class Limiter implements feign.Capability {
+        private final Supplier<Limit> limitSupplier;
+        private final boolean perOperation;
+        private final long maxWaitNanos;
+        private final Executor executor;
+        // Keyed by client API type and target URL, plus operation method if limiting per operation
+        private final Map<List<Object>, Bucket> buckets = new ConcurrentHashMap<>();
+
+        private Limiter(final Builder builder) {
+            final int initial = builder.initialLimit;
+            final int min = builder.minLimit;
+            final int max = builder.maxLimit;
+            final Algorithm algorithm = builder.algorithm;
+            this.limitSupplier = builder.limitSupplier != null ? builder.limitSupplier : () -> algorithm.create(initial, min, max);
+            this.perOperation = builder.perOperation;
+            this.maxWaitNanos = builder.maxWait.toNanos();
+            this.executor = builder.executor;
+        }
+
+        private Bucket bucket(final Request request) {
+            final RequestTemplate template = request.requestTemplate();
+            final List<Object> key;
+            if (template == null || template.methodMetadata() == null) {
+                key = Collections.emptyList();
+            } else {
+                final Method method = template.methodMetadata().method();
+                final Target<?> target = template.feignTarget();
+                final Class<?> apiType = target != null ? target.type() : method.getDeclaringClass();
+                final String url = target != null ? target.url() : null;
+                key = perOperation ? Arrays.asList(apiType, url, method) : Arrays.asList(apiType, url);
+            }
+            return buckets.computeIfAbsent(key, k -> new Bucket(limitSupplier.get(), executor));
+        }
+
+        @Override
+        public Client enrich(final Client client) {
+            return (request, options) -> {
+                final Bucket bucket = bucket(request);
+                bucket.acquire(maxWaitNanos);
+                final long start = System.nanoTime();
+                boolean dropped = true;
+                try {
+                    final Response response = client.execute(request, options);
+                    dropped = isDropped(response.status());
+                    return response;
+                } finally {
+                    bucket.release(System.nanoTime() - start, dropped);
+                }
+            };
+        }
+
+        <C> AsyncClient<C> enrich(final AsyncClient<C> asyncClient) {
+            return (request, options, requestContext) -> {
+                final Bucket bucket = bucket(request);
+                // Queued requests are sent by the thread releasing a permit, so the caller deadline is captured
+                final Optional<MoccaDeadline> deadline = MoccaDeadline.current();
+                final CompletableFuture<Void> permit = bucket.acquireAsync(maxWaitNanos);
+                final CompletableFuture<Response> result = new CompletableFuture<>();
+                result.whenComplete((r, t) -> permit.cancel(false));
+                permit.whenComplete((v, throwable) -> {
+                    if (throwable != null) {
+                        // Rejected, or cancelled while waiting
+                        result.completeExceptionally(throwable);
+                        return;
+                    }
+                    if (result.isDone()) {
+                        bucket.release(-1, false);
+                        return;
+                    }
+                    final long start = System.nanoTime();
+                    final Supplier<CompletableFuture<Response>> execution = () -> asyncClient.execute(request, options, requestContext);
+                    final CompletableFuture<Response> response;
+                    try {
+                        response = deadline.map(d -> d.wrap(execution)).orElse(execution).get();
+                    } catch (RuntimeException e) {
+                        bucket.release(System.nanoTime() - start, true);
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                    response.whenComplete((r, t) -> {
+                        bucket.release(System.nanoTime() - start, t != null || isDropped(r.status()));
+                        if (t != null) {
+                            result.completeExceptionally(t);
+                        } else {
+                            result.complete(r);
+                        }
+                    });
+                    result.whenComplete((r, t) -> {
+                        if (result.isCancelled()) {
+                            response.cancel(true);
+                        }
+                    });
+                });
+                return result;
+            };
+        }
+
+        private static boolean isDropped(final int status) {
+            return status == 429 || status == 503 || status == 504;
+        }
+    }
+
+    /*
+     * The in-flight requests, limit and waiting requests of one client, or operation method
+     */
+    private static final class Bucket {
+        private final Limit limit;
+        private final Executor executor;
+        private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+        private int inFlight;
+
+        private Bucket(final Limit limit, final Executor executor) {
+            this.limit = limit;
+            this.executor = executor;
+        }
+
+        private void acquire(final long maxWaitNanos) throws IOException {
+            final CompletableFuture<Void> permit = acquireAsync(maxWaitNanos == 0 ? 0 : -1);
+            if (permit.isDone() && !permit.isCompletedExceptionally()) return;
+            try {
+                permit.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (permit.cancel(false)) {
+                    throw rejection();
+                }
+            } catch (InterruptedException e) {
+                if (permit.cancel(false)) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the concurrency limit", e);
+                }
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw (MoccaException) e.getCause();
+            }
+        }
+
+        /*
+         * Returns a future completed when the request can be sent. If maxWaitNanos is negative,
+         * the caller times out the returned future itself.
+         */
+        private CompletableFuture<Void> acquireAsync(final long maxWaitNanos) {
+            final CompletableFuture<Void> permit = new CompletableFuture<>();
+            synchronized (this) {
+                if (waiters.isEmpty() && inFlight < limit.getLimit()) {
+                    inFlight++;
+                    permit.complete(null);
+                    return permit;
+                }
+                if (maxWaitNanos == 0) {
+                    permit.completeExceptionally(rejection());
+                    return permit;
+                }
+                waiters.addLast(permit);
+            }
+            // Waiters rejected or cancelled before being granted a permit are not kept in the queue
+            permit.whenComplete((v, t) -> {
+                if (t != null) {
+                    synchronized (this) {
+                        waiters.remove(permit);
+                    }
+                }
+            });
+            if (maxWaitNanos > 0) {
+                final ScheduledFuture<?> timeout = MoccaDefaultExecutors.scheduler().schedule(
+                        () -> permit.completeExceptionally(rejection()), maxWaitNanos, TimeUnit.NANOSECONDS);
+                permit.whenComplete((v, t) -> timeout.cancel(false));
+            }
+            return permit;
+        }
+
+        /*
+         * Releases a permit, updating the limit unless rttNanos is negative
+         */
+        private void release(final long rttNanos, final boolean dropped) {
+            synchronized (this) {
+                if (rttNanos >= 0) {
+                    limit.onSample(rttNanos, inFlight, dropped);
+                }
+                inFlight--;
+            }
+            dispatch();
+        }
+
+        /*
+         * Grants permits to waiting requests, while below the limit. Permits are granted by the executor,
+         * since granting one runs the request, and waiters that timed out meanwhile give their permit back.
+         */
+        private void dispatch() {
+            while (true) {
+                final CompletableFuture<Void> waiter;
+                synchronized (this) {
+                    if (inFlight >= limit.getLimit()) return;
+                    waiter = waiters.pollFirst();
+                    if (waiter == null) return;
+                    inFlight++;
+                }
+                try {
+                    executor.execute(() -> grant(waiter));
+                } catch (RejectedExecutionException e) {
+                    grant(waiter);
+                }
+            }
+        }
+
+        private void grant(final CompletableFuture<Void> waiter) {
+            if (!waiter.complete(null)) {
+                synchronized (this) {
+                    inFlight--;
+                }
+                dispatch();
+            }
+        }
+
+        private MoccaException rejection() {
+            final int current;
+            synchronized (this) {
+                current = limit.getLimit();
+            }
+            return new MoccaException("GraphQL request rejected, since the concurrency limit of " + current + " in-flight requests has been reached");
+        }
+    }
+
+    /*
+     * Additive increase, multiplicative decrease
+     */
+    static final class AimdLimit implements Limit {
+        private static final double BACKOFF_RATIO = 0.9;
+
+        private final int min;
+        private final int max;
+        private double limit;
+
+        AimdLimit(final int initial, final int min, final int max) {
+            this.limit = initial;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public int getLimit() {
+            return (int) limit;
+        }
+
+        @Override
+        public void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+            if (dropped) {
+                limit = Math.max(min, limit * BACKOFF_RATIO);
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(max, limit + 1);
+            }
+        }
+    }
+
+    /*
+     * Estimates the server queue size as limit * (1 - minRtt / rtt), growing the limit
+     * quickly while the queue is small, and shrinking it when the queue is too big
+     */
+    static final class VegasLimit implements Limit {
+        private final int min;
+        private final int max;
+        private double limit;
+        private long minRtt = Long.MAX_VALUE;
+
+        VegasLimit(final int initial, final int min, final int max) {
+            this.limit = initial;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public int getLimit() {
+            return (int) limit;
+        }
+
+        @Override
+        public void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+            if (rttNanos > 0) {
+                minRtt = Math.min(minRtt, rttNanos);
+            }
+            final double log = Math.max(1, Math.log10(limit));
+            if (dropped) {
+                limit = Math.max(min, limit - log);
+                return;
+            }
+            if (inFlight * 2 < limit || rttNanos <= 0) return;
+
+            final double queueSize = Math.ceil(limit * (1 - (double) minRtt / rttNanos));
+            final double alpha = 3 * log;
+            final double beta = 6 * log;
+            if (queueSize <= log) {
+                limit = Math.min(max, limit + beta);
+            } else if (queueSize < alpha) {
+                limit = Math.min(max, limit + log);
+            } else if (queueSize > beta) {
+                limit = Math.max(min, limit - log);
+            }
+        }
+    }
+
+    /*
+     * Compares a long-term exponential moving average of the latency with the current latency. The ratio between
+     * them (the gradient), tolerating latencies up to 50% higher, scales the limit down when latencies grow, while
+     * a queue of sqrt(limit) allows the limit to grow when latencies are stable.
+     */
+    static final class Gradient2Limit implements Limit {
+        private static final double TOLERANCE = 1.5;
+        private static final double SMOOTHING = 0.2;
+        private static final int LONG_WINDOW = 600;
+
+        private final int min;
+        private final int max;
+        private double limit;
+        private double longRtt;
+        private int samples;
+
+        Gradient2Limit(final int initial, final int min, final int max) {
+            this.limit = initial;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public int getLimit() {
+            return (int) limit;
+        }
+
+        @Override
+        public void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+            if (rttNanos <= 0) return;
+            if (samples < LONG_WINDOW) samples++;
+            longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) / samples;
+
+            // Long-term latency drifted well above the current one, so it recovers faster
+            if (longRtt / rttNanos > 2) {
+                longRtt *= 0.95;
+            }
+
+            // Application limited, so the limit is not increased
+            if (!dropped && inFlight * 2 < limit) return;
+
+            final double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rttNanos));
+            final double target = dropped ? limit * 0.5 : limit * gradient + Math.sqrt(limit);
+            limit = Math.max(min, Math.min(max, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        }
+    }
+}
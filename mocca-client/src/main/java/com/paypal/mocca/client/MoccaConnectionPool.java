@@ -0,0 +1,297 @@
+package com.paypal.mocca.client;
+
+import java.time.Duration;
+
+/**
+ * Connection pool settings applied by Mocca HTTP clients when creating their underlying HTTP client,
+ * as opposed to using the HTTP client library defaults (for example, Apache HTTP client 4 keeps at most
+ * 2 connections per route). The same settings can be used with any HTTP client supporting them,
+ * which are {@code MoccaApacheClient}, {@code MoccaApache5Client} and {@code MoccaOkHttpClient}.
+ * <br>
+ * See an example below.
+ * <pre><code>
+ * MoccaConnectionPool pool = new MoccaConnectionPool.Builder()
+ *     .maxConnections(100)
+ *     .maxConnectionsPerRoute(100)
+ *     .idleTimeout(Duration.ofSeconds(30))
+ *     .build();
+ *
+ * MoccaApache5Client httpClient = new MoccaApache5Client(pool);
+ *
+ * BooksAppClient client = MoccaClient.Builder
+ *     .sync("http://localhost:8080/booksapp")
+ *     .client(httpClient)
+ *     .build(BooksAppClient.class);
+ * </code></pre>
+ * Settings not set in the builder use Mocca presets, also returned by {@link #defaults()}, which are 200 connections,
+ * 50 connections per route, 50 idle connections, 60 seconds idle timeout, validation after 2 seconds of inactivity
+ * and 30 seconds keep-alive. The settings can also be given to the client builder, via
+ * {@link com.paypal.mocca.client.MoccaClient.Builder.SyncBuilder#connectionPool(MoccaConnectionPool)}.
+ * <br>
+ * HTTP clients created with a pool expose its statistics via {@link Stats}, which can be exported
+ * to Micrometer using {@code MoccaConnectionPoolMetrics}.
+ */
+public final class MoccaConnectionPool {
+
+    private static final MoccaConnectionPool DEFAULTS = new Builder().build();
+
+    /**
+     * Statistics of a connection pool
+     */
+    public interface Stats {
+
+        /**
+         * Returns the number of connections currently executing requests
+         *
+         * @return the number of connections currently executing requests
+         */
+        int getLeased();
+
+        /**
+         * Returns the number of requests waiting for a connection
+         *
+         * @return the number of requests waiting for a connection
+         */
+        int getPending();
+
+        /**
+         * Returns the number of idle connections available for new requests
+         *
+         * @return the number of idle connections available for new requests
+         */
+        int getAvailable();
+
+        /**
+         * Returns the maximum number of connections, or -1 if it is not limited by the pool
+         *
+         * @return the maximum number of connections, or -1 if it is not limited by the pool
+         */
+        int getMax();
+    }
+
+    public static class Builder {
+        private int maxConnections = 200;
+        private int maxConnectionsPerRoute = 50;
+        private int maxIdleConnections = 50;
+        private boolean maxConnectionsEnforced;
+        private Duration idleTimeout = Duration.ofSeconds(60);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        private Duration keepAlive = Duration.ofSeconds(30);
+
+        public MoccaConnectionPool build() {
+            return new MoccaConnectionPool(this);
+        }
+
+        /**
+         * Sets the maximum number of connections in the pool, 200 by default
+         *
+         * @param maxConnections the maximum number of connections in the pool
+         * @return this builder
+         */
+        public Builder maxConnections(final int maxConnections) {
+            Arguments.require(maxConnections > 0, "Max connections must be greater than zero");
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of connections per route (usually, per GraphQL server), 50 by default
+         *
+         * @param maxConnectionsPerRoute the maximum number of connections per route
+         * @return this builder
+         */
+        public Builder maxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+            Arguments.require(maxConnectionsPerRoute > 0, "Max connections per route must be greater than zero");
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of idle connections kept in the pool, 50 by default.
+         * Only applied by OkHttp, whose pool limits idle connections only, while other
+         * HTTP clients keep idle up to the maximum number of connections.
+         *
+         * @param maxIdleConnections the maximum number of idle connections kept in the pool
+         * @return this builder
+         */
+        public Builder maxIdleConnections(final int maxIdleConnections) {
+            Arguments.require(maxIdleConnections >= 0, "Max idle connections cannot be negative");
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * Sets whether HTTP clients whose pool cannot limit the number of connections, which is OkHttp for sync
+         * requests, limit the number of concurrent requests instead, to the maximum number of connections in total,
+         * and to the maximum number of connections per route for each host, false by default. Requests to hosts
+         * that negotiated HTTP 2, which are multiplexed over one connection, are not limited.
+         * <br>
+         * Requests above those limits wait for another request to complete, up to their connect timeout, which is
+         * shrunk to the remaining time of the {@link MoccaDeadline} or {@link com.paypal.mocca.client.annotation.Timeout},
+         * if any, failing with a {@link MoccaException} afterwards.
+         *
+         * @param maxConnectionsEnforced whether the maximum number of connections is enforced on concurrent requests
+         * @return this builder
+         */
+        public Builder maxConnectionsEnforced(final boolean maxConnectionsEnforced) {
+            this.maxConnectionsEnforced = maxConnectionsEnforced;
+            return this;
+        }
+
+        /**
+         * Sets for how long connections can stay idle in the pool before being evicted, 60 seconds by default
+         *
+         * @param idleTimeout for how long connections can stay idle in the pool
+         * @return this builder
+         */
+        public Builder idleTimeout(final Duration idleTimeout) {
+            Arguments.requireNonNull(idleTimeout, "Idle timeout cannot be null");
+            Arguments.require(!idleTimeout.isNegative() && !idleTimeout.isZero(), "Idle timeout must be positive");
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Sets for how long connections can stay inactive before being validated
+         * again, prior to being leased, 2 seconds by default.
+         * Not supported by OkHttp, which validates connections on its own.
+         *
+         * @param validateAfterInactivity for how long connections can stay inactive before being validated again
+         * @return this builder
+         */
+        public Builder validateAfterInactivity(final Duration validateAfterInactivity) {
+            Arguments.requireNonNull(validateAfterInactivity, "Validate after inactivity cannot be null");
+            Arguments.require(!validateAfterInactivity.isNegative(), "Validate after inactivity cannot be negative");
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+
+        /**
+         * Sets for how long connections are kept alive when the server response does not specify it
+         * (via {@code Keep-Alive} header), 30 seconds by default. A keep-alive longer than the server
+         * one leads to requests failing on connections already closed by the server.
+         * Not supported by OkHttp, which keeps connections alive up to the idle timeout.
+         *
+         * @param keepAlive for how long connections are kept alive when the server response does not specify it
+         * @return this builder
+         */
+        public Builder keepAlive(final Duration keepAlive) {
+            Arguments.requireNonNull(keepAlive, "Keep-alive cannot be null");
+            Arguments.require(!keepAlive.isNegative() && !keepAlive.isZero(), "Keep-alive must be positive");
+            this.keepAlive = keepAlive;
+            return this;
+        }
+    }
+
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final int maxIdleConnections;
+    private final boolean maxConnectionsEnforced;
+    private final Duration idleTimeout;
+    private final Duration validateAfterInactivity;
+    private final Duration keepAlive;
+
+    private MoccaConnectionPool(final Builder builder) {
+        this.maxConnections = builder.maxConnections;
+        this.maxConnectionsPerRoute = Math.min(builder.maxConnectionsPerRoute, builder.maxConnections);
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.maxConnectionsEnforced = builder.maxConnectionsEnforced;
+        this.idleTimeout = builder.idleTimeout;
+        this.validateAfterInactivity = builder.validateAfterInactivity;
+        this.keepAlive = builder.keepAlive;
+    }
+
+    /**
+     * Returns the Mocca connection pool presets
+     *
+     * @return the Mocca connection pool presets
+     */
+    public static MoccaConnectionPool defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns the maximum number of connections in the pool
+     *
+     * @return the maximum number of connections in the pool
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Returns the maximum number of connections per route
+     *
+     * @return the maximum number of connections per route
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * Returns the maximum number of idle connections kept in the pool
+     *
+     * @return the maximum number of idle connections kept in the pool
+     */
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    /**
+     * Returns whether the maximum number of connections is enforced on concurrent requests,
+     * by HTTP clients whose pool cannot limit the number of connections
+     *
+     * @return whether the maximum number of connections is enforced on concurrent requests
+     */
+    public boolean isMaxConnectionsEnforced() {
+        return maxConnectionsEnforced;
+    }
+
+    /**
+     * Returns for how long connections can stay idle in the pool
+     *
+     * @return for how long connections can stay idle in the pool
+     */
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Returns for how long connections can stay inactive before being validated again
+     *
+     * @return for how long connections can stay inactive before being validated again
+     */
+    public Duration getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    /**
+     * Returns for how long connections are kept alive when the server response does not specify it
+     *
+     * @return for how long connections are kept alive when the server response does not specify it
+     */
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    /*
+     * Returns the keep-alive duration, in milliseconds, in the given
+     * Keep-Alive header value, or the default keep-alive if not present
+     */
+    long keepAliveMillis(final String keepAliveHeader) {
+        if (keepAliveHeader != null) {
+            for (String element : keepAliveHeader.split(",")) {
+                final String[] parameter = element.trim().split("=", 2);
+                if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("timeout")) {
+                    try {
+                        return Long.parseLong(parameter[1].trim()) * 1000;
+                    } catch (NumberFormatException e) {
+                        // Ignored, the default keep-alive is used
+                    }
+                }
+            }
+        }
+        return keepAlive.toMillis();
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.paypal.mocca.client;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * A deadline for all GraphQL requests sent within it, usually the time left to answer one inbound request of
+ * the application. Within an open deadline, the connect and read timeouts of every request are shrunk to the
+ * remaining time, so a slow downstream call does not outlive its caller, and requests are not even sent
+ * once the deadline expires, failing with a {@link MoccaException} instead.
+ * <br>
+ * See an example below.
+ * <pre><code>
+ * try (MoccaDeadline deadline = MoccaDeadline.open(Duration.ofMillis(800))) {
+ *     Book book = client.getBook(7);
+ *     // Gets whatever is left of the 800 milliseconds
+ *     Author author = client.getAuthor(book.getAuthorId());
+ * }
+ * </code></pre>
+ * Requests of async clients are also failed, and cancelled, once the deadline expires.
+ * <br>
+ * A deadline is bound to the thread that opened it. Deadlines can be nested, but an inner deadline
+ * cannot extend an outer one. Other threads can join a deadline by using {@link #wrap(Runnable)},
+ * {@link #wrap(Supplier)} or {@link #wrap(Executor)}. See also {@link com.paypal.mocca.client.annotation.Timeout}.
+ */
+public final class MoccaDeadline implements AutoCloseable {
+
+    private static final ThreadLocal<MoccaDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final MoccaDeadline previous;
+
+    private MoccaDeadline(final long deadlineNanos, final MoccaDeadline previous) {
+        this.deadlineNanos = deadlineNanos;
+        this.previous = previous;
+    }
+
+    /**
+     * Opens a new deadline, expiring after {@code budget}, and binds it to the current thread, until it is closed.
+     * If another deadline was bound to the current thread, it is restored when the new one is closed, and the
+     * new one expires no later than it.
+     *
+     * @param budget the time left until the new deadline expires
+     * @return the new deadline
+     */
+    public static MoccaDeadline open(final Duration budget) {
+        Arguments.requireNonNull(budget, "Budget cannot be null");
+        Arguments.require(!budget.isNegative(), "Budget cannot be negative");
+
+        final MoccaDeadline previous = CURRENT.get();
+        long deadlineNanos = System.nanoTime() + saturatedNanos(budget);
+        if (previous != null && previous.deadlineNanos - deadlineNanos < 0) {
+            deadlineNanos = previous.deadlineNanos;
+        }
+        final MoccaDeadline deadline = new MoccaDeadline(deadlineNanos, previous);
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    /**
+     * Returns the deadline bound to the current thread, if any
+     *
+     * @return the deadline bound to the current thread, if any
+     */
+    public static Optional<MoccaDeadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Returns the time left until this deadline expires, or zero if it has already expired
+     *
+     * @return the time left until this deadline expires
+     */
+    public Duration getRemaining() {
+        return Duration.ofNanos(Math.max(0, remainingNanos()));
+    }
+
+    /**
+     * Returns true if this deadline has already expired
+     *
+     * @return true if this deadline has already expired
+     */
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Returns a runnable that executes {@code runnable} with this deadline bound to the executing thread
+     *
+     * @param runnable the runnable to be executed within this deadline
+     * @return a runnable that executes {@code runnable} within this deadline
+     */
+    public Runnable wrap(final Runnable runnable) {
+        Arguments.requireNonNull(runnable, "Runnable cannot be null");
+        return () -> within(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns a supplier that executes {@code supplier} with this deadline bound to the executing thread
+     *
+     * @param supplier the supplier to be executed within this deadline
+     * @param <T>      the type of results supplied
+     * @return a supplier that executes {@code supplier} within this deadline
+     */
+    public <T> Supplier<T> wrap(final Supplier<T> supplier) {
+        Arguments.requireNonNull(supplier, "Supplier cannot be null");
+        return () -> within(supplier);
+    }
+
+    /**
+     * Returns an executor that runs every task given to it within this deadline, delegating to {@code executor}
+     *
+     * @param executor the executor in charge of running the tasks
+     * @return an executor that runs every task within this deadline
+     */
+    public Executor wrap(final Executor executor) {
+        Arguments.requireNonNull(executor, "Executor cannot be null");
+        return command -> executor.execute(wrap(command));
+    }
+
+    /**
+     * Closes this deadline. If this deadline is bound to the current thread,
+     * the deadline bound before it was opened, if any, is bound again.
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /*
+     * Returns the nanoseconds left until the deadline bound to the
+     * current thread expires, or Long.MAX_VALUE if there is none
+     */
+    static long currentRemainingNanos() {
+        final MoccaDeadline deadline = CURRENT.get();
+        return deadline == null ? Long.MAX_VALUE : deadline.remainingNanos();
+    }
+
+    private long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    private <T> T within(final Supplier<T> supplier) {
+        final MoccaDeadline outer = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return supplier.get();
+        } finally {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    private static long saturatedNanos(final Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE / 2;
+        }
+    }
+
+}
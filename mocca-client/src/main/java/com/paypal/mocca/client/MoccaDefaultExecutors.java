@@ -0,0 +1,59 @@
+package com.paypal.mocca.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Daemon thread executors shared by all Mocca features needing one, when the application
+ * does not provide its own. Each of them is only created when first used.
+ * <br>
+ * The scheduler runs short timer tasks (hedging delays, timeouts and waits), while background
+ * tasks that might take longer, such as client initializations, run on a separate thread,
+ * so they never delay timers.
+ */
+final class MoccaDefaultExecutors {
+
+    private MoccaDefaultExecutors() {
+    }
+
+    /*
+     * Returns the shared single daemon thread scheduler, for short timer tasks
+     */
+    static ScheduledExecutorService scheduler() {
+        return Scheduler.INSTANCE;
+    }
+
+    /*
+     * Returns the shared single daemon thread executor, for background tasks
+     */
+    static ExecutorService background() {
+        return Background.INSTANCE;
+    }
+
+    private static ThreadFactory daemon(final String name) {
+        return r -> {
+            final Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Scheduler {
+        private static final ScheduledExecutorService INSTANCE = newScheduler();
+
+        private static ScheduledExecutorService newScheduler() {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, daemon("mocca-scheduler"));
+            // Timers cancelled before firing, such as the ones of requests completed in time, are not kept until their delay elapses
+            scheduler.setRemoveOnCancelPolicy(true);
+            return Executors.unconfigurableScheduledExecutorService(scheduler);
+        }
+    }
+
+    private static final class Background {
+        private static final ExecutorService INSTANCE = Executors.newSingleThreadExecutor(daemon("mocca-background"));
+    }
+
+}
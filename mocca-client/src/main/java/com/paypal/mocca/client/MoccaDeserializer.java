@@ -1,7 +1,9 @@
 package com.paypal.mocca.client;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -20,9 +22,33 @@ class MoccaDeserializer {
 
     // TODO In the future we could make the JSON process configurable, so application can choose between Jackson, GSON, and others
     // TODO There could be also value in letting application decide custom object mapper configuration
-    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ObjectMapper objectMapper;
 
     MoccaDeserializer() {
+        this(new ObjectMapper().findAndRegisterModules());
+    }
+
+    MoccaDeserializer(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /*
+     * Returns the object mapper of this deserializer, also used to read
+     * the parts of incrementally delivered responses
+     */
+    ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Returns a deserializer whose object mapper has only the given Jackson modules, besides the ones Mocca
+     * depends on, registered, as opposed to discovering all Jackson modules in the classpath, which is slower
+     *
+     * @param modules the Jackson modules to be registered
+     * @return a deserializer whose object mapper has only the given Jackson modules, and the ones Mocca depends on
+     */
+    static MoccaDeserializer withModules(final List<Module> modules) {
+        return new MoccaDeserializer(new ObjectMapper().registerModule(new JavaTimeModule()).registerModules(modules));
     }
 
     /**
@@ -118,7 +144,7 @@ class MoccaDeserializer {
             }
         } else {
             String exceptionMessage = getErrorsMessage(errorsNode);
-            throw new MoccaException(exceptionMessage);
+            throw new MoccaException(exceptionMessage, true);
         }
 
         return dataNode;
@@ -8,12 +8,28 @@ package com.paypal.mocca.client;
  */
 public class MoccaException extends RuntimeException {
 
+    // Whether this exception reports the errors field of a GraphQL response
+    private final boolean graphQLErrors;
+
     public MoccaException(String message) {
-        super(message);
+        this(message, false);
     }
 
     public MoccaException(String message, Throwable cause) {
         super(message, cause);
+        this.graphQLErrors = false;
+    }
+
+    MoccaException(String message, boolean graphQLErrors) {
+        super(message);
+        this.graphQLErrors = graphQLErrors;
+    }
+
+    /*
+     * Returns true if this exception reports the errors field of a GraphQL response
+     */
+    boolean isGraphQLErrors() {
+        return graphQLErrors;
     }
 
 }
\ No newline at end of file
@@ -3,11 +3,17 @@ package com.paypal.mocca.client;
 import com.paypal.mocca.client.annotation.*;
 import feign.*;
 
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Mocca Feign contract class, allowing Mocca to
@@ -23,12 +29,65 @@ class MoccaFeignContract extends AlwaysEncodeBodyContract {
         // Mocca annotations support
         super.registerMethodAnnotation(Query.class, (annotation, metadata) -> registerJsonMediaTypes(metadata));
         super.registerMethodAnnotation(Mutation.class, (annotation, metadata) -> registerJsonMediaTypes(metadata));
+        super.registerMethodAnnotation(Subscription.class, (annotation, metadata) -> registerJsonMediaTypes(metadata));
         super.registerParameterAnnotation(Var.class, this::registerVarParam);
 
         // HTTP headers support
         super.registerClassAnnotation(RequestHeader.class, this::registerHeaderClass);
         super.registerMethodAnnotation(RequestHeader.class, this::registerHeaderMethod);
         super.registerParameterAnnotation(RequestHeaderParam.class, this::registerHeaderParam);
+
+        // Per invocation target URL support
+        super.registerParameterAnnotation(TargetUrl.class, this::registerTargetUrlParam);
+    }
+
+    @Override
+    protected MethodMetadata parseAndValidateMetadata(Class<?> targetType, Method method) {
+        final MethodMetadata metadata = super.parseAndValidateMetadata(targetType, method);
+        if (method.isAnnotationPresent(Subscription.class)) {
+            validateSubscriptionReturnType(metadata);
+        } else if (method.getReturnType() == MoccaIncrementalResult.class) {
+            Util.checkState(MoccaReflection.isParameterizedType(metadata.returnType()),
+                    "Incremental result return type set at %s must be parameterized with the GraphQL response data type",
+                    metadata.configKey());
+        } else {
+            validateReactiveReturnType(metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * Subscription methods must return a {@code java.util.concurrent.Flow.Publisher}
+     * parameterized with the type of each subscription event.
+     *
+     * @param metadata method metadata
+     */
+    private void validateSubscriptionReturnType(MethodMetadata metadata) {
+        Util.checkState(MoccaReflection.isSubscriptionType(metadata.returnType()),
+                "Subscription method %s must return java.util.concurrent.Flow.Publisher, parameterized with the subscription event type",
+                metadata.configKey());
+    }
+
+    /**
+     * Reactive return types (Mono, Flux and Flow.Publisher) are supported the same way as
+     * {@link java.util.concurrent.CompletableFuture}, as long as they are parameterized
+     * with the GraphQL response data type. Flux items are the elements of a GraphQL list,
+     * so a Flux cannot be parameterized with a list.
+     *
+     * @param metadata method metadata
+     */
+    private void validateReactiveReturnType(MethodMetadata metadata) {
+        final Type returnType = metadata.returnType();
+        if (!MoccaReflection.isReactiveType(returnType)) return;
+
+        Util.checkState(MoccaReflection.isParameterizedType(returnType),
+                "Reactive return type set at %s must be parameterized with the GraphQL response data type",
+                metadata.configKey());
+        if (MoccaReflection.isMultiValuedReactiveType(returnType)) {
+            Util.checkState(!MoccaReflection.isParameterizedType(MoccaReflection.getInnerType(returnType), List.class, Set.class),
+                    "Flux return type set at %s must be parameterized with the type of the GraphQL list elements",
+                    metadata.configKey());
+        }
     }
 
     //TODO: Need to add unit tests for since contract has logic now
@@ -64,6 +123,19 @@ class MoccaFeignContract extends AlwaysEncodeBodyContract {
                     "Mocca @Var `value` set at %s.%s parameter %d cannot be null nor blank, unless if raw is set to true",
                     metadata.method().getDeclaringClass().getName(), metadata.method().getName(), paramIndex);
         }
+        if (varAnnotation.routingKey()) {
+            Util.checkState(!varAnnotation.raw(),
+                    "Mocca @Var set at %s.%s parameter %d cannot be a routing key if raw is set to true",
+                    metadata.method().getDeclaringClass().getName(), metadata.method().getName(), paramIndex);
+            final Annotation[][] parameterAnnotations = metadata.method().getParameterAnnotations();
+            for (int i = 0; i < paramIndex; i++) {
+                for (Annotation annotation : parameterAnnotations[i]) {
+                    Util.checkState(!(annotation instanceof Var && ((Var) annotation).routingKey()),
+                            "Mocca @Var routing key set at %s.%s parameter %d, but parameter %d is already the routing key",
+                            metadata.method().getDeclaringClass().getName(), metadata.method().getName(), paramIndex, i);
+                }
+            }
+        }
         nameParam(metadata, variableName, paramIndex);
     }
 
@@ -120,6 +192,33 @@ class MoccaFeignContract extends AlwaysEncodeBodyContract {
         nameParam(metadata, name, paramIndex);
     }
 
+    /**
+     * Registering {@link TargetUrl} annotated parameter. The target URL itself is set by the encoder,
+     * since the GraphQL path has to be appended to it.
+     *
+     * @param targetUrl TargetUrl annotation
+     * @param metadata method metadata
+     * @param paramIndex the annotated parameter index
+     */
+    private void registerTargetUrlParam(TargetUrl targetUrl, MethodMetadata metadata, int paramIndex) {
+        final Method method = metadata.method();
+        final Class<?> parameterType = method.getParameterTypes()[paramIndex];
+        Util.checkState(parameterType == String.class || parameterType == URI.class,
+                "Mocca @TargetUrl set at %s.%s parameter %d must be a String or a java.net.URI",
+                method.getDeclaringClass().getName(), method.getName(), paramIndex);
+        final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                Util.checkState(i == paramIndex || !(annotation instanceof TargetUrl),
+                        "Mocca @TargetUrl set at %s.%s parameters %d and %d, but only one is allowed",
+                        method.getDeclaringClass().getName(), method.getName(), paramIndex, i);
+                Util.checkState(i != paramIndex || annotation instanceof TargetUrl,
+                        "Mocca @TargetUrl set at %s.%s parameter %d cannot be combined with other Mocca annotations",
+                        method.getDeclaringClass().getName(), method.getName(), paramIndex);
+            }
+        }
+    }
+
     private static Map<String, Collection<String>> toMap(String[] input) {
         final Map<String, Collection<String>> result =
                 new LinkedHashMap<>(input.length);
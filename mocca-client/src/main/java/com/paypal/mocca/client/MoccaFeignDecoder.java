@@ -10,7 +10,9 @@ import java.lang.reflect.Type;
 import java.util.Optional;
 
 import static com.paypal.mocca.client.MoccaReflection.getInnerType;
+import static com.paypal.mocca.client.MoccaReflection.getReactiveResponseType;
 import static com.paypal.mocca.client.MoccaReflection.isParameterizedType;
+import static com.paypal.mocca.client.MoccaReflection.isReactiveType;
 
 /**
  * Mocca Feign decoder, responsible for deserializing the response payload
@@ -19,7 +21,23 @@ import static com.paypal.mocca.client.MoccaReflection.isParameterizedType;
  */
 class MoccaFeignDecoder implements Decoder {
 
-    private final MoccaDeserializer moccaDeserializer = new MoccaDeserializer();
+    private final MoccaDeserializer moccaDeserializer;
+
+    MoccaFeignDecoder() {
+        this(new MoccaDeserializer());
+    }
+
+    MoccaFeignDecoder(MoccaDeserializer moccaDeserializer) {
+        this.moccaDeserializer = moccaDeserializer;
+    }
+
+    /*
+     * Returns the deserializer of this decoder, also used to decode
+     * the responses of operation methods not executed by Feign
+     */
+    MoccaDeserializer getMoccaDeserializer() {
+        return moccaDeserializer;
+    }
 
     @Override
     public Object decode(Response response, Type type) throws IOException, FeignException {
@@ -27,7 +45,9 @@ class MoccaFeignDecoder implements Decoder {
             throw new MoccaException("Unexpected HTTP response status code: " + response.status());
         }
 
-        final boolean optionalResultType = isParameterizedType(type, Optional.class);
+        // Reactive types are adapted by the client, only their items are decoded here
+        final Type resultType = isReactiveType(type) ? getReactiveResponseType(type) : type;
+        final boolean optionalResultType = isParameterizedType(resultType, Optional.class);
 
         Optional<?> result;
         try (InputStream inputStream = response.body().asInputStream()) {
@@ -36,7 +56,7 @@ class MoccaFeignDecoder implements Decoder {
             }
 
             final String operationName = MoccaFeignEncoder.getOperationName(response);
-            final Type responseType = optionalResultType ? getInnerType(type) : type;
+            final Type responseType = optionalResultType ? getInnerType(resultType) : resultType;
             result = moccaDeserializer.deserialize(inputStream, responseType, operationName);
         }
 
@@ -4,8 +4,11 @@ import com.paypal.mocca.client.MoccaSerializer.Variable;
 import com.paypal.mocca.client.annotation.Mutation;
 import com.paypal.mocca.client.annotation.Query;
 import com.paypal.mocca.client.annotation.SelectionSet;
+import com.paypal.mocca.client.annotation.Subscription;
+import com.paypal.mocca.client.annotation.TargetUrl;
 import com.paypal.mocca.client.annotation.Var;
 import com.paypal.mocca.client.annotation.RequestHeaderParam;
+import feign.MethodMetadata;
 import feign.RequestTemplate;
 import feign.Response;
 import feign.codec.EncodeException;
@@ -25,7 +28,9 @@ import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Mocca Feign encoder, responsible for serializing the request payload
@@ -35,23 +40,84 @@ import java.util.Set;
 class MoccaFeignEncoder implements Encoder {
     private static final Logger logger = LoggerFactory.getLogger(MoccaFeignEncoder.class);
 
-    private final MoccaSerializer moccaSerializer = new MoccaSerializer();
+    private final MoccaSerializer moccaSerializer;
     /**
      * Notice that this Validator is in the older javax.validation package not newer jakarta.validation package.
      * Please refer to {@link javax.validation.Validator} for more information.
      */
-    private Validator validator;
+    private final Supplier<Validator> validator;
 
     // The client is only used for validation and is not needed for encoding.
     private MoccaClient client;
 
+    // Whether routing keys are sent to the load balancer, which is only the case when there is one
+    private boolean routing;
+
     MoccaFeignEncoder() {
+        this(new MoccaSerializer(), buildValidator());
+    }
+
+    /**
+     * Creates an encoder using the given, possibly shared, serializer and validator
+     *
+     * @param moccaSerializer the serializer
+     * @param validator the validator, or null if request parameters should not be validated
+     */
+    MoccaFeignEncoder(MoccaSerializer moccaSerializer, Validator validator) {
+        this(moccaSerializer, () -> validator);
+    }
+
+    /**
+     * Creates an encoder using the given serializer, and the validator returned by the given supplier,
+     * which is called for every request, and whose result can be null if request parameters should not be validated
+     *
+     * @param moccaSerializer the serializer
+     * @param validator the validator supplier
+     */
+    MoccaFeignEncoder(MoccaSerializer moccaSerializer, Supplier<Validator> validator) {
+        this.moccaSerializer = moccaSerializer;
+        this.validator = validator;
+    }
+
+    /**
+     * Returns a supplier of a validator built only when first requested, so the
+     * validation provider bootstrap cost is not paid when the client is built
+     *
+     * @return a supplier of a validator built only when first requested
+     */
+    static Supplier<Validator> lazyValidator() {
+        return new Supplier<Validator>() {
+            private volatile Optional<Validator> validator;
+
+            @Override
+            public Validator get() {
+                Optional<Validator> result = validator;
+                if (result == null) {
+                    synchronized (this) {
+                        result = validator;
+                        if (result == null) {
+                            result = Optional.ofNullable(buildValidator());
+                            validator = result;
+                        }
+                    }
+                }
+                return result.orElse(null);
+            }
+        };
+    }
+
+    /**
+     * Returns a new validator, or null if no validation provider is found
+     *
+     * @return a new validator, or null if no validation provider is found
+     */
+    static Validator buildValidator() {
         try {
-            Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
-            this.validator = validator;
+            return Validation.buildDefaultValidatorFactory().getValidator();
         } catch (Exception e) {
             // No validation provider found
             logger.warn("No implementation of javax.validation.Validator was found on the classpath. Mocca will be unable to perform request parameters validation.");
+            return null;
         }
     }
 
@@ -59,6 +125,10 @@ class MoccaFeignEncoder implements Encoder {
         this.client = client;
     }
 
+    void setRouting(boolean routing) {
+        this.routing = routing;
+    }
+
     @Override
     public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
 
@@ -73,17 +143,56 @@ class MoccaFeignEncoder implements Encoder {
             final OperationType operationType = getOperationType(template);
             final SelectionSet selectionSet = getSelectionSet(template);
             final List<Variable> variables = getVariables(parameters, template);
-            if (validator != null) {
+            if (validator.get() != null) {
                 validateVariables(parameters, template);
             }
             final byte[] data = moccaSerializer.serialize(variables, responseType, operationName, operationType, selectionSet);
             template.body(data, Charset.defaultCharset());
 
+            final String targetUrl = getTargetUrl(parameters, template.methodMetadata().method());
+            if (targetUrl != null) {
+                template.target(targetUrl);
+            }
+
+            if (routing) {
+                final String routingKey = getRoutingKey(parameters, template.methodMetadata().method());
+                if (routingKey != null) {
+                    template.header(MoccaLoadBalancer.ROUTING_KEY_HEADER, MoccaLoadBalancer.routingHash(routingKey));
+                }
+            }
+
         } catch (IOException e) {
             throw new MoccaException("An error happened when serializing the request payload from type " + bodyType.getTypeName(), e);
         }
     }
 
+    /**
+     * Writes ahead of time the selection set of every query and mutation method of the given client API,
+     * so the first invocation of each method does not pay the response type introspection cost.
+     * Failures are only logged, since they are reported again when the method is invoked.
+     *
+     * @param apiType the client API class
+     */
+    void precompile(Class<?> apiType) {
+        final List<MethodMetadata> methods;
+        try {
+            methods = new MoccaFeignContract().parseAndValidateMetadata(apiType);
+        } catch (RuntimeException e) {
+            logger.debug("Selection sets of client API " + apiType.getName() + " could not be written ahead of time", e);
+            return;
+        }
+        for (MethodMetadata metadata : methods) {
+            final Method method = metadata.method();
+            try {
+                if (getOperationType(method) != OperationType.Subscription) {
+                    moccaSerializer.getSelectionSet(getOperationName(method), method.getAnnotation(SelectionSet.class), metadata.returnType());
+                }
+            } catch (RuntimeException e) {
+                logger.debug("Selection set of " + metadata.configKey() + " could not be written ahead of time", e);
+            }
+        }
+    }
+
     /**
      * Validates the client request using the bean validation
      * API for validating all the parameters in a method invocation.
@@ -96,7 +205,7 @@ class MoccaFeignEncoder implements Encoder {
     void validateVariables(Object[] parameters, RequestTemplate template) {
 
         Method method = template.methodMetadata().method();
-        Set<ConstraintViolation<Object>> violationSet = validator.forExecutables().validateParameters(client, method, parameters);
+        Set<ConstraintViolation<Object>> violationSet = validator.get().forExecutables().validateParameters(client, method, parameters);
 
         if (violationSet.size() > 0) {
             throw new ConstraintViolationException(violationSet);
@@ -120,8 +229,18 @@ class MoccaFeignEncoder implements Encoder {
      * @return the operation name associated with a Feign request template object
      */
     static String getOperationName(RequestTemplate requestTemplate) {
-        final String methodName = requestTemplate.methodMetadata().method().getName();
-        final Annotation operationAnnotation = getOperationAnnotation(requestTemplate);
+        return getOperationName(requestTemplate.methodMetadata().method());
+    }
+
+    /**
+     * Returns the operation name associated with a GraphQL operation method
+     *
+     * @param method the GraphQL operation method
+     * @return the operation name associated with a GraphQL operation method
+     */
+    static String getOperationName(Method method) {
+        final String methodName = method.getName();
+        final Annotation operationAnnotation = getOperationAnnotation(method);
         final String operationName;
         if (operationAnnotation instanceof Query) {
             Query annotation = (Query) operationAnnotation;
@@ -129,6 +248,9 @@ class MoccaFeignEncoder implements Encoder {
         } else if (operationAnnotation instanceof Mutation) {
             Mutation annotation = (Mutation) operationAnnotation;
             operationName = annotation.name().equals(Mutation.UNDEFINED) ? methodName : annotation.name();
+        } else if (operationAnnotation instanceof Subscription) {
+            Subscription annotation = (Subscription) operationAnnotation;
+            operationName = annotation.name().equals(Subscription.UNDEFINED) ? methodName : annotation.name();
         } else {
             throw new IllegalStateException("The operation method " + methodName + " is not annotated with an unsupported operation annotation " + operationAnnotation.getClass().getName());
         }
@@ -142,21 +264,31 @@ class MoccaFeignEncoder implements Encoder {
      * @return the operation type associated with a Feign request template object
      */
     static OperationType getOperationType(RequestTemplate requestTemplate) {
-        Annotation operationAnnotation = getOperationAnnotation(requestTemplate);
+        return getOperationType(requestTemplate.methodMetadata().method());
+    }
+
+    /**
+     * Returns the operation type associated with a GraphQL operation method
+     *
+     * @param method the GraphQL operation method
+     * @return the operation type associated with a GraphQL operation method
+     */
+    static OperationType getOperationType(Method method) {
+        Annotation operationAnnotation = getOperationAnnotation(method);
         return OperationType.valueOf(operationAnnotation);
     }
 
-    private static Annotation getOperationAnnotation(RequestTemplate requestTemplate) {
-        Method method = requestTemplate.methodMetadata().method();
+    private static Annotation getOperationAnnotation(Method method) {
         Query query = method.getAnnotation(Query.class);
         Mutation mutation = method.getAnnotation(Mutation.class);
-        if (query == null && mutation == null) {
-            throw new MoccaException("The operation method " + method.getName() + " is not annotated with " + Query.class.getName() + " nor " + Mutation.class.getName());
+        Subscription subscription = method.getAnnotation(Subscription.class);
+        if (query == null && mutation == null && subscription == null) {
+            throw new MoccaException("The operation method " + method.getName() + " is not annotated with " + Query.class.getName() + ", " + Mutation.class.getName() + " nor " + Subscription.class.getName());
         }
-        if (query != null && mutation != null) {
-            throw new MoccaException("The operation method " + method.getName() + " is not annotated with both " + Query.class.getName() + " and " + Mutation.class.getName());
+        if ((query != null ? 1 : 0) + (mutation != null ? 1 : 0) + (subscription != null ? 1 : 0) > 1) {
+            throw new MoccaException("The operation method " + method.getName() + " is annotated with more than one of " + Query.class.getName() + ", " + Mutation.class.getName() + " and " + Subscription.class.getName());
         }
-        return query != null ? query : mutation;
+        return query != null ? query : mutation != null ? mutation : subscription;
     }
 
     /**
@@ -166,8 +298,7 @@ class MoccaFeignEncoder implements Encoder {
      * @return the selection set associated with a Feign request template object
      */
     static SelectionSet getSelectionSet(RequestTemplate requestTemplate) {
-        Method method = requestTemplate.methodMetadata().method();
-        return method.getAnnotation(SelectionSet.class);
+        return requestTemplate.methodMetadata().method().getAnnotation(SelectionSet.class);
     }
 
     /**
@@ -182,7 +313,59 @@ class MoccaFeignEncoder implements Encoder {
      * associated with a Feign request template object
      */
     private static List<Variable> getVariables(Object[] parameters, RequestTemplate requestTemplate) {
-        Parameter[] parametersMetadata = requestTemplate.methodMetadata().method().getParameters();
+        return getVariables(parameters, requestTemplate.methodMetadata().method());
+    }
+
+    /**
+     * Returns the GraphQL URL set by the {@link TargetUrl} parameter of a GraphQL operation method,
+     * or null if the method has no such parameter
+     *
+     * @param parameters GraphQL operation method parameter values
+     * @param method the GraphQL operation method
+     * @return the GraphQL URL set for this invocation, or null
+     */
+    static String getTargetUrl(Object[] parameters, Method method) {
+        Parameter[] parametersMetadata = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (parametersMetadata[i].getAnnotation(TargetUrl.class) != null) {
+                if (parameters[i] == null) {
+                    throw new MoccaException("The target URL of operation method " + method.getName() + " cannot be null");
+                }
+                return MoccaClient.Builder.BaseBuilder.toGraphQLUrl(parameters[i].toString());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of the routing key variable of a GraphQL operation method,
+     * or null if the method has no routing key variable, or if its value is null
+     *
+     * @param parameters GraphQL operation method parameter values
+     * @param method the GraphQL operation method
+     * @return the routing key value, as a String
+     */
+    static String getRoutingKey(Object[] parameters, Method method) {
+        Parameter[] parametersMetadata = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Var varAnnotation = parametersMetadata[i].getAnnotation(Var.class);
+            if (varAnnotation != null && varAnnotation.routingKey()) {
+                return parameters[i] == null ? null : String.valueOf(parameters[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a list containing the operation variables associated with a GraphQL operation method.
+     * See {@link #getVariables(Object[], RequestTemplate)} for further information.
+     *
+     * @param parameters GraphQL operation method parameter values
+     * @param method the GraphQL operation method
+     * @return a list containing the operation variables associated with a GraphQL operation method
+     */
+    static List<Variable> getVariables(Object[] parameters, Method method) {
+        Parameter[] parametersMetadata = method.getParameters();
         List<Variable> variables = new ArrayList<>(parameters.length);
         for (int i = 0; i < parameters.length; i++) {
 
@@ -197,14 +380,12 @@ class MoccaFeignEncoder implements Encoder {
             Var varAnnotation = parameterMetadata.getAnnotation(Var.class);
             // FIXME It would be better if this check happened at client definition time, instead of request time
             if (varAnnotation == null) {
-                if (parameterMetadata.getAnnotation(RequestHeaderParam.class) == null) {
-                    final String method = requestTemplate.methodMetadata().method().getName();
-                    throw new MoccaException("Invalid GraphQL operation method " + method + ", make sure all its parameters are annotated with one Mocca annotation");
+                if (parameterMetadata.getAnnotation(RequestHeaderParam.class) == null && parameterMetadata.getAnnotation(TargetUrl.class) == null) {
+                    throw new MoccaException("Invalid GraphQL operation method " + method.getName() + ", make sure all its parameters are annotated with one Mocca annotation");
                 }
             } else {
                 if (parameterMetadata.getAnnotation(RequestHeaderParam.class) != null) {
-                    final String method = requestTemplate.methodMetadata().method().getName();
-                    throw new MoccaException("Invalid GraphQL operation method " + method + ", make sure all its parameters are annotated with one Mocca annotation");
+                    throw new MoccaException("Invalid GraphQL operation method " + method.getName() + ", make sure all its parameters are annotated with one Mocca annotation");
                 }
                 Variable variable = new Variable(parameters[i], parameterMetadata.getParameterizedType(), varAnnotation);
                 variables.add(variable);
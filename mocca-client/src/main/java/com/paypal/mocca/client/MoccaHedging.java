@@ -0,0 +1,271 @@
+package com.paypal.mocca.client;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Async resiliency feature reducing tail latency of GraphQL queries by hedging them. If a query response
+ * has not arrived within a delay, a second identical request is sent, and the first successful response
+ * wins, while the other request is cancelled. Hedging is only applied to {@link com.paypal.mocca.client.annotation.Query}
+ * methods, never to mutations or subscriptions, since only queries are expected to be idempotent.
+ * <br>
+ * The hedging delay is either fixed, or the given percentile of the latencies of the latest successful
+ * invocations of the same operation method (until enough latencies are recorded, the fallback delay is used).
+ * See an example below.
+ * <pre><code>
+ * MoccaHedging hedging = new MoccaHedging.Builder()
+ *     .percentileDelay(95, Duration.ofMillis(100))
+ *     .build();
+ *
+ * AsyncBooksAppClient asyncClient = MoccaClient.Builder
+ *     .async("http://localhost:8080/booksapp")
+ *     .client(asyncHttpClient)
+ *     .resiliency(hedging)
+ *     .build(AsyncBooksAppClient.class);
+ * </code></pre>
+ * A few important notes:
+ * <ol>
+ *     <li>The hedged request goes through the client again, so, if the client balances requests among multiple endpoints, it is usually sent to a different endpoint.</li>
+ *     <li>If the first request fails before the hedging delay, the failure is returned without hedging. If one request fails after the hedged request has been sent, the other one is still waited for.</li>
+ *     <li>If a scheduler is not provided, a single daemon thread scheduler is used, created when first needed, and shared with the other Mocca features needing one.</li>
+ * </ol>
+ */
+public final class MoccaHedging extends MoccaAsyncResiliency {
+
+    private MoccaHedging(final Builder builder) {
+        super(new HedgingDecorator(builder));
+    }
+
+    public static class Builder {
+        private Duration delay = Duration.ofMillis(100);
+        private double percentile = -1;
+        private int window = 1000;
+        private ScheduledExecutorService scheduler;
+
+        public MoccaHedging build() {
+            return new MoccaHedging(this);
+        }
+
+        /**
+         * Sets a fixed hedging delay. The default delay is 100 milliseconds.
+         *
+         * @param delay the time to wait for a response before sending the hedged request
+         * @return this builder
+         */
+        public Builder delay(final Duration delay) {
+            Arguments.require(delay != null && !delay.isNegative(), "Delay cannot be null nor negative");
+            this.delay = delay;
+            this.percentile = -1;
+            return this;
+        }
+
+        /**
+         * Sets the hedging delay to be the given percentile of the latencies of the latest
+         * successful invocations of each operation method, such as 95 for the p95 latency.
+         *
+         * @param percentile    the latency percentile, greater than 0 and lower than 100
+         * @param fallbackDelay the delay used until enough latencies have been recorded
+         * @return this builder
+         */
+        public Builder percentileDelay(final double percentile, final Duration fallbackDelay) {
+            Arguments.require(percentile > 0 && percentile < 100, "Percentile must be greater than 0 and lower than 100");
+            Arguments.require(fallbackDelay != null && !fallbackDelay.isNegative(), "Fallback delay cannot be null nor negative");
+            this.percentile = percentile;
+            this.delay = fallbackDelay;
+            return this;
+        }
+
+        /**
+         * Sets the number of latest latencies, per operation method, used to calculate the percentile delay.
+         * The default value is 1000.
+         *
+         * @param window the number of latest latencies used to calculate the percentile delay
+         * @return this builder
+         */
+        public Builder window(final int window) {
+            Arguments.require(window > 0, "Window must be positive");
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Sets the scheduler used to trigger hedged requests.
+         *
+         * @param scheduler the scheduler to be set in this builder
+         * @return this builder
+         */
+        public Builder scheduler(final ScheduledExecutorService scheduler) {
+            this.scheduler = Arguments.requireNonNull(scheduler, "Scheduler cannot be null");
+            return this;
+        }
+    }
+
+    private static final class HedgingDecorator implements Decorator {
+        private final Duration delay;
+        private final double percentile;
+        private final int window;
+        private final ScheduledExecutorService scheduler;
+        private final Map<Method, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+        private HedgingDecorator(final Builder builder) {
+            this.delay = builder.delay;
+            this.percentile = builder.percentile;
+            this.window = builder.window;
+            this.scheduler = builder.scheduler != null ? builder.scheduler : MoccaDefaultExecutors.scheduler();
+        }
+
+        @Override
+        public CompletionStage<Object> decorate(final Method method, final Supplier<CompletionStage<Object>> invocation) {
+            if (MoccaFeignEncoder.getOperationType(method) != OperationType.Query) {
+                return invocation.get();
+            }
+
+            final LatencyWindow latencyWindow = percentile < 0 ? null : latencies.computeIfAbsent(method, m -> new LatencyWindow(window));
+            final long hedgeDelayNanos = latencyWindow == null ? delay.toNanos() : latencyWindow.percentile(percentile, delay.toNanos());
+            final Hedge hedge = new Hedge(invocation, latencyWindow);
+            hedge.attempt();
+            if (!hedge.result.isDone()) {
+                final ScheduledFuture<?> timer = scheduler.schedule(hedge::attempt, hedgeDelayNanos, TimeUnit.NANOSECONDS);
+                hedge.result.whenComplete((v, t) -> timer.cancel(false));
+            }
+            return hedge.result;
+        }
+    }
+
+    /*
+     * One hedged invocation, made of up to two attempts
+     */
+    private static final class Hedge {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final CompletableFuture<?>[] attempts = new CompletableFuture<?>[2];
+        private final Supplier<CompletionStage<Object>> invocation;
+        private final LatencyWindow latencyWindow;
+        private final long start = System.nanoTime();
+        // Not a monitor, so virtual threads sending attempts are not pinned
+        private final ReentrantLock lock = new ReentrantLock();
+        private int started;
+        private int failed;
+
+        private Hedge(final Supplier<CompletionStage<Object>> invocation, final LatencyWindow latencyWindow) {
+            this.invocation = invocation;
+            this.latencyWindow = latencyWindow;
+            result.whenComplete((v, t) -> cancelAttempts());
+        }
+
+        private void attempt() {
+            final int index;
+            lock.lock();
+            try {
+                if (result.isDone() || started == attempts.length) return;
+                index = started++;
+            } finally {
+                lock.unlock();
+            }
+
+            // The invocation encodes and sends the request, so it is not done while holding the lock
+            CompletableFuture<Object> attempt;
+            try {
+                attempt = invocation.get().toCompletableFuture();
+            } catch (RuntimeException e) {
+                attempt = new CompletableFuture<>();
+                attempt.completeExceptionally(e);
+            }
+            lock.lock();
+            try {
+                attempts[index] = attempt;
+            } finally {
+                lock.unlock();
+            }
+            if (result.isDone()) {
+                // The other attempt won while this one was being sent
+                attempt.cancel(true);
+                return;
+            }
+            attempt.whenComplete((value, throwable) -> {
+                if (throwable == null) {
+                    if (result.complete(value) && latencyWindow != null) {
+                        latencyWindow.record(System.nanoTime() - start);
+                    }
+                    return;
+                }
+                final boolean lastAttempt;
+                lock.lock();
+                try {
+                    failed++;
+                    // A failure before the hedging delay is returned without hedging
+                    lastAttempt = failed == started;
+                } finally {
+                    lock.unlock();
+                }
+                if (lastAttempt) {
+                    result.completeExceptionally(throwable);
+                }
+            });
+        }
+
+        private void cancelAttempts() {
+            lock.lock();
+            try {
+                for (CompletableFuture<?> attempt : attempts) {
+                    if (attempt != null) {
+                        attempt.cancel(true);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /*
+     * The latest latencies of one operation method, in nanoseconds
+     */
+    private static final class LatencyWindow {
+        // Written and read by different threads, without locking
+        private final AtomicLongArray samples;
+        private final AtomicLong count = new AtomicLong();
+        private volatile long cachedPercentile = -1;
+
+        private LatencyWindow(final int size) {
+            this.samples = new AtomicLongArray(size);
+        }
+
+        private void record(final long latency) {
+            final long n = count.getAndIncrement();
+            samples.set((int) Math.floorMod(n, (long) samples.length()), latency);
+            // The percentile is recalculated every tenth of the window
+            if (n % Math.max(1, samples.length() / 10) == 0) {
+                cachedPercentile = -1;
+            }
+        }
+
+        private long percentile(final double percentile, final long fallback) {
+            final int n = (int) Math.min(count.get(), samples.length());
+            // At least 20 samples are needed for a meaningful percentile
+            if (n < Math.min(20, samples.length())) return fallback;
+            long value = cachedPercentile;
+            if (value < 0) {
+                final long[] sorted = new long[n];
+                for (int i = 0; i < n; i++) {
+                    sorted[i] = samples.get(i);
+                }
+                Arrays.sort(sorted);
+                value = sorted[Math.min(n - 1, (int) Math.ceil(percentile / 100 * n) - 1)];
+                cachedPercentile = value;
+            }
+            return value;
+        }
+    }
+}
@@ -36,4 +36,17 @@ abstract class MoccaHttpClient {
         return feignClient;
     }
 
+    /**
+     * Returns a new HTTP client of the same type as this one, using the given connection pool settings,
+     * to be used in a Mocca builder when connection pool settings are given to it. Subclasses supporting
+     * {@link MoccaConnectionPool} must override it, throwing a {@link MoccaException} if the settings
+     * cannot be applied, such as when created with a pre-instantiated HTTP client.
+     *
+     * @param pool the connection pool settings
+     * @return a new HTTP client of the same type as this one, using the given connection pool settings
+     */
+    MoccaHttpClient withConnectionPool(MoccaConnectionPool pool) {
+        throw new MoccaException(getClass().getSimpleName() + " does not support connection pool settings");
+    }
+
 }
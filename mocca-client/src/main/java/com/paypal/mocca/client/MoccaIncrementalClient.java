@@ -0,0 +1,39 @@
+package com.paypal.mocca.client;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * An abstract class representing a client able to execute GraphQL operations whose response
+ * is delivered incrementally, as a {@code multipart/mixed} HTTP response, as opposed to a single JSON payload.
+ * Subclasses are supposed to work as wrappers to their HTTP client, and must adhere to the same
+ * rules described in {@link MoccaAsyncHttpClient}. An incremental client is registered using
+ * {@link MoccaClient.Builder.AsyncBuilder#incrementalClient(MoccaIncrementalClient)}.
+ */
+abstract class MoccaIncrementalClient {
+
+    /**
+     * Accept HTTP header value to be sent by incremental clients, stating both
+     * {@code multipart/mixed} and regular JSON responses are accepted
+     */
+    static final String ACCEPT = "multipart/mixed;deferSpec=20220824, application/json";
+
+    /**
+     * Sends the given GraphQL request, without blocking, and gives to {@code partConsumer}, in order and as soon
+     * as each one is received, the body of every part of a {@code multipart/mixed} response. If the response is
+     * a regular JSON response, its whole body is given as the only part.
+     *
+     * @param graphQLUrl   the GraphQL server URL of the request, which is the one set in the Mocca builder,
+     *                     unless it is overridden in the client API or chosen by the load balancer
+     * @param request      the GraphQL request payload
+     * @param headers      the HTTP request headers set in the client API, besides content type and accept,
+     *                     whose names are case insensitive
+     * @param partConsumer consumer of the body of each response part
+     * @return a future completed when the whole response has been received, or completed exceptionally
+     * if the request fails. Cancelling this future must abort the request.
+     */
+    abstract CompletableFuture<Void> execute(String graphQLUrl, byte[] request, Map<String, Collection<String>> headers, Consumer<byte[]> partConsumer);
+
+}
@@ -0,0 +1,200 @@
+package com.paypal.mocca.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import feign.Request;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Serves the operation methods of async Mocca clients returning {@link MoccaIncrementalResult},
+ * creating their requests with the client encoder and merging every part of their incrementally
+ * delivered responses, while the request itself is executed by a {@link MoccaIncrementalClient}.
+ * Their timeouts, the current deadline and the client load balancer apply to them, while capabilities,
+ * scopes and resiliency features do not, since they are not executed by Feign.
+ * <br>
+ * Response parts follow the {@code @defer} and {@code @stream} incremental delivery format, in which
+ * each subsequent payload has an {@code incremental} list of patches, each with a {@code path} to the
+ * object to receive deferred {@code data}, or to the position in a list to receive streamed {@code items}.
+ * The older format, in which each payload is itself a single patch, is also supported.
+ */
+final class MoccaIncrementalDelivery {
+
+    private MoccaIncrementalDelivery() {
+    }
+
+    /*
+     * Returns true if the given client API declares at least one operation method returning an incremental result
+     */
+    static boolean hasIncrementalMethods(final Class<?> apiType) {
+        for (Method method : apiType.getMethods()) {
+            if (method.getReturnType() == MoccaIncrementalResult.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Returns a client that serves the operation methods returning an incremental result using the given
+     * incremental client, and delegates all other methods to the given client. The given encoder validates
+     * the arguments against the returned client, and the given load balancer, if not null, selects the
+     * endpoint of every request.
+     */
+    @SuppressWarnings("unchecked")
+    static <C extends MoccaClient> C combine(final Class<C> apiType, final C client, final MoccaIncrementalClient incrementalClient, final String graphQLUrl,
+                                             final MoccaFeignEncoder encoder, final MoccaDeserializer deserializer, final MoccaLoadBalancer loadBalancer) {
+        final MoccaRequestFactory requestFactory = new MoccaRequestFactory(apiType, graphQLUrl, encoder);
+        encoder.setRouting(loadBalancer != null);
+        final C combined = (C) Proxy.newProxyInstance(apiType.getClassLoader(), new Class<?>[]{apiType}, (proxy, method, args) -> {
+            if (method.getReturnType() == MoccaIncrementalResult.class) {
+                final Request request = requestFactory.create(method, args == null ? new Object[0] : args);
+                return execute(incrementalClient, request, method, deserializer, loadBalancer);
+            }
+            try {
+                return method.invoke(client, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        });
+        encoder.setClient(combined);
+        return combined;
+    }
+
+    private static MoccaIncrementalResult<Object> execute(final MoccaIncrementalClient incrementalClient, final Request request, final Method method,
+                                                          final MoccaDeserializer deserializer, final MoccaLoadBalancer loadBalancer) {
+        final String operationName = MoccaFeignEncoder.getOperationName(method);
+        final Type responseType = MoccaReflection.getInnerType(method.getGenericReturnType());
+        final MoccaIncrementalResult<Object> result = new MoccaIncrementalResult<>();
+        final Merger merger = new Merger(deserializer.getObjectMapper());
+
+        final Function<Request, CompletableFuture<Void>> send = routed -> incrementalClient.execute(routed.url(), routed.body(), MoccaRequestFactory.headers(routed), part -> {
+            if (result.getFinalResult().isDone()) return;
+            try {
+                final boolean hasNext = merger.merge(deserializer.getObjectMapper().readTree(part));
+                final Object value = deserializer.deserialize(new ByteArrayInputStream(merger.snapshot()), responseType, operationName).orElse(null);
+                result.onPart(value);
+                if (!hasNext) {
+                    result.onComplete(value);
+                }
+            } catch (MoccaException e) {
+                result.onError(e);
+            } catch (IOException | RuntimeException e) {
+                result.onError(new MoccaException("An error happened when reading a part of the incremental response of operation method " + method.getName(), e));
+            }
+        });
+
+        final CompletableFuture<Void> execution;
+        try {
+            execution = MoccaTimeouts.execute(request, () -> loadBalancer != null ? loadBalancer.execute(request, send, v -> false) : send.apply(request));
+        } catch (MoccaException e) {
+            result.onError(e);
+            return result;
+        }
+        execution.whenComplete((v, t) -> result.onError(t != null ? t :
+                new MoccaException("The incremental response of operation method " + method.getName() + " has ended before its last part")));
+        result.setExecution(execution);
+        return result;
+    }
+
+    /*
+     * Merges every part of an incremental response into a single GraphQL response
+     */
+    static final class Merger {
+        private final ObjectMapper mapper;
+        private final ArrayNode errors;
+        private JsonNode data;
+
+        Merger(final ObjectMapper mapper) {
+            this.mapper = mapper;
+            this.errors = mapper.createArrayNode();
+        }
+
+        /*
+         * Merges the given part, returning true if more parts are expected
+         */
+        boolean merge(final JsonNode part) {
+            if (part.has("path") && data != null) {
+                // Older format, in which the part is itself a patch
+                patch(part);
+            } else {
+                addErrors(part);
+                if (data == null) {
+                    data = part.get("data");
+                } else if (part.has("incremental")) {
+                    part.get("incremental").forEach(this::patch);
+                }
+            }
+            return part.path("hasNext").asBoolean(false);
+        }
+
+        byte[] snapshot() throws IOException {
+            final ObjectNode response = mapper.createObjectNode();
+            response.set("data", data);
+            if (errors.size() > 0) {
+                response.set("errors", errors);
+            }
+            return mapper.writeValueAsBytes(response);
+        }
+
+        private void patch(final JsonNode patch) {
+            addErrors(patch);
+            final JsonNode path = patch.path("path");
+            if (patch.has("items")) {
+                // The last path element is the index of the first streamed item
+                final JsonNode list = navigate(path, path.size() - 1);
+                if (!(list instanceof ArrayNode)) return;
+                final ArrayNode array = (ArrayNode) list;
+                int index = path.get(path.size() - 1).asInt();
+                for (JsonNode item : patch.get("items")) {
+                    if (index < array.size()) {
+                        array.set(index, item);
+                    } else {
+                        array.add(item);
+                    }
+                    index++;
+                }
+            } else if (patch.has("data")) {
+                final JsonNode target = navigate(path, path.size());
+                if (target instanceof ObjectNode && patch.get("data") instanceof ObjectNode) {
+                    deepMerge((ObjectNode) target, (ObjectNode) patch.get("data"));
+                }
+            }
+        }
+
+        private JsonNode navigate(final JsonNode path, final int length) {
+            JsonNode node = data;
+            for (int i = 0; i < length && node != null; i++) {
+                final JsonNode element = path.get(i);
+                node = element.isNumber() ? node.get(element.asInt()) : node.get(element.asText());
+            }
+            return node;
+        }
+
+        private static void deepMerge(final ObjectNode target, final ObjectNode source) {
+            source.fields().forEachRemaining(field -> {
+                final JsonNode existing = target.get(field.getKey());
+                if (existing instanceof ObjectNode && field.getValue() instanceof ObjectNode) {
+                    deepMerge((ObjectNode) existing, (ObjectNode) field.getValue());
+                } else {
+                    target.set(field.getKey(), field.getValue());
+                }
+            });
+        }
+
+        private void addErrors(final JsonNode node) {
+            if (node.has("errors")) {
+                errors.addAll((ArrayNode) node.get("errors"));
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.paypal.mocca.client;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The result of a GraphQL operation delivered incrementally, by a server supporting the
+ * {@code @defer} and {@code @stream} directives, as a {@code multipart/mixed} response.
+ * Operation methods returning this type are executed by the incremental client set in
+ * {@link MoccaClient.Builder.AsyncBuilder#incrementalClient(MoccaIncrementalClient)}, and
+ * deferred or streamed fields are marked using {@link com.paypal.mocca.client.annotation.SelectionSet}.
+ * <br>
+ * The initial result, in which deferred fields and streamed items are not present yet, is available as
+ * soon as the first part of the response is received. Every following part of the response is merged into
+ * the previous result, resulting in a new (more complete) result, given to the patch listeners.
+ * See an example below.
+ * <pre><code>
+ * public interface ProductsAppClient extends MoccaClient {
+ *
+ *     &#064;Query
+ *     &#064;SelectionSet(defer = "reviews", stream = "recommendations")
+ *     MoccaIncrementalResult&#60;Product&#62; getProduct(@Var("id") long id);
+ *
+ * }
+ *
+ * MoccaIncrementalResult&#60;Product&#62; result = client.getProduct(7);
+ * result.getInitialResult().thenAccept(page::render);
+ * result.onPatch(page::update);
+ * </code></pre>
+ * If the server does not support incremental delivery, and responds with a single JSON payload,
+ * the initial result is also the final one.
+ *
+ * @param <T> the GraphQL response data type
+ */
+public final class MoccaIncrementalResult<T> {
+
+    private final CompletableFuture<T> initialResult = new CompletableFuture<>();
+    private final CompletableFuture<T> finalResult = new CompletableFuture<>();
+    private final List<Consumer<? super T>> patchListeners = new CopyOnWriteArrayList<>();
+
+    MoccaIncrementalResult() {
+    }
+
+    /**
+     * Returns a future completed with the initial result, as soon as the first part of the response is received.
+     * Deferred fields and streamed items are not present in the initial result.
+     *
+     * @return a future completed with the initial result
+     */
+    public CompletableFuture<T> getInitialResult() {
+        return initialResult;
+    }
+
+    /**
+     * Returns a future completed with the final result, once all parts of the response have been received and merged.
+     * Cancelling this future cancels the request.
+     *
+     * @return a future completed with the final result
+     */
+    public CompletableFuture<T> getFinalResult() {
+        return finalResult;
+    }
+
+    /**
+     * Registers a listener to be called, in the thread receiving the response, with the result
+     * obtained after merging each part of the response following the initial one. Listeners
+     * registered after a part has been merged are not called for that part.
+     *
+     * @param listener the listener to be called with each more complete result
+     * @return this result
+     */
+    public MoccaIncrementalResult<T> onPatch(final Consumer<? super T> listener) {
+        patchListeners.add(Arguments.requireNonNull(listener, "Patch listener cannot be null"));
+        return this;
+    }
+
+    /*
+     * Sets the execution of the request, cancelled if the final result is cancelled or fails
+     */
+    void setExecution(final CompletableFuture<?> execution) {
+        finalResult.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                execution.cancel(true);
+            }
+        });
+    }
+
+    void onPart(final T result) {
+        if (!initialResult.complete(result)) {
+            patchListeners.forEach(l -> l.accept(result));
+        }
+    }
+
+    void onComplete(final T result) {
+        initialResult.complete(result);
+        finalResult.complete(result);
+    }
+
+    void onError(final Throwable throwable) {
+        initialResult.completeExceptionally(throwable);
+        finalResult.completeExceptionally(throwable);
+    }
+}
@@ -0,0 +1,52 @@
+package com.paypal.mocca.client;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * Defers the initialization of Mocca clients, which includes parsing and validating
+ * every operation method of the client API, out of the client build.
+ * <br>
+ * The initialization starts right away in a background thread, and the first invocation of
+ * the client waits for it, or runs it in the invoking thread if it has not started yet.
+ * Client API validation errors are then thrown by every client invocation, instead of by the build.
+ */
+final class MoccaLazyInitialization {
+
+    private MoccaLazyInitialization() {
+    }
+
+    /*
+     * Returns a client delegating all its invocations to the client returned by the given initializer
+     */
+    @SuppressWarnings("unchecked")
+    static <C extends MoccaClient> C create(final Class<C> apiType, final Supplier<C> initializer) {
+        final FutureTask<C> initialization = new FutureTask<>(initializer::get);
+        MoccaDefaultExecutors.background().execute(initialization);
+
+        return (C) Proxy.newProxyInstance(apiType.getClassLoader(), new Class<?>[]{apiType}, (proxy, method, args) -> {
+            // No-op if the initialization has already started
+            initialization.run();
+
+            final C client;
+            try {
+                client = initialization.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MoccaException("Interrupted while waiting for the initialization of client " + apiType.getName(), e);
+            }
+
+            try {
+                return method.invoke(client, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,505 @@
+package com.paypal.mocca.client;
+
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Client-side load balancer distributing the GraphQL requests of a Mocca client among multiple
+ * endpoints (replicas) of the same GraphQL server, according to a {@link Strategy}. Endpoints that
+ * fail, or turn slow, are ejected for a while, after which a single probe request is sent to them,
+ * bringing them back if it succeeds. See an example below.
+ * <pre><code>
+ * MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+ *     .endpoints("http://replica1:8080/booksapp", "http://replica2:8080/booksapp")
+ *     .strategy(MoccaLoadBalancer.Strategy.ewma())
+ *     .slowCallThreshold(Duration.ofSeconds(2))
+ *     .build();
+ *
+ * BooksAppClient client = MoccaClient.Builder
+ *     .sync(loadBalancer)
+ *     .client(new MoccaOkHttpClient())
+ *     .build(BooksAppClient.class);
+ * </code></pre>
+ * A few important notes:
+ * <ol>
+ *     <li>A call fails if the HTTP client fails, or if the response status code is 5xx. A call is slow if it takes longer than the slow call threshold, when set. Failed and slow calls are not retried by the load balancer.</li>
+ *     <li>An endpoint is ejected after a number of consecutive failed or slow calls. If all endpoints are ejected, requests are distributed among all of them.</li>
+ *     <li>The same load balancer can be shared by multiple clients of the same GraphQL server, so they all share the endpoints state.</li>
+ *     <li>Subscriptions and incremental results are always sent to the first endpoint.</li>
+ * </ol>
+ * <strong>Routing by key</strong>
+ * <br>
+ * Requests of operation methods with a routing key variable, marked with {@code @Var(routingKey = true)},
+ * are not distributed by the strategy. Instead, they are sent to the endpoint owning the routing key value in a
+ * consistent hash ring, where each endpoint is placed multiple times (virtual nodes), which is useful for sharded
+ * GraphQL servers. Since endpoints are placed in the ring according to their URLs, adding or removing one endpoint
+ * only moves the keys owned by that endpoint. While the owner endpoint is ejected, its keys are temporarily
+ * owned by the next endpoints in the ring.
+ */
+public final class MoccaLoadBalancer {
+
+    /*
+     * Internal header carrying the routing key hash from the encoder to the load balancer,
+     * which removes it before sending the request
+     */
+    static final String ROUTING_KEY_HEADER = "X-Mocca-Routing-Key";
+
+    /**
+     * Read-only view of a load balanced endpoint, used by strategies to select endpoints
+     */
+    public static final class Endpoint {
+
+        // Weight of the latest call latency in the latency moving average
+        private static final double EWMA_DECAY = 0.3;
+
+        private final String graphQLUrl;
+        private final AtomicInteger outstandingRequests = new AtomicInteger();
+        private final AtomicBoolean probing = new AtomicBoolean();
+        private volatile double latency;
+        private int consecutiveFailures;
+        private volatile long ejectedUntil;
+        private volatile boolean ejected;
+
+        private Endpoint(final String graphQLUrl) {
+            this.graphQLUrl = graphQLUrl;
+        }
+
+        /**
+         * Returns the GraphQL URL of this endpoint
+         *
+         * @return the GraphQL URL of this endpoint
+         */
+        public String getGraphQLUrl() {
+            return graphQLUrl;
+        }
+
+        /**
+         * Returns the number of requests sent to this endpoint still waiting for a response
+         *
+         * @return the number of outstanding requests of this endpoint
+         */
+        public int getOutstandingRequests() {
+            return outstandingRequests.get();
+        }
+
+        /**
+         * Returns the exponentially weighted moving average of the latency
+         * of the calls to this endpoint, in nanoseconds, or 0 if no call has completed yet
+         *
+         * @return the moving average latency of this endpoint, in nanoseconds
+         */
+        public double getLatency() {
+            return latency;
+        }
+
+        /**
+         * Returns true if this endpoint is currently ejected
+         *
+         * @return true if this endpoint is currently ejected
+         */
+        public boolean isEjected() {
+            return ejected;
+        }
+
+        @Override
+        public String toString() {
+            return graphQLUrl;
+        }
+    }
+
+    /**
+     * Selects the endpoint a request is sent to. Implementations must be thread-safe.
+     */
+    @FunctionalInterface
+    public interface Strategy {
+
+        /**
+         * Selects the endpoint the next request is sent to
+         *
+         * @param endpoints the endpoints available, never empty
+         * @return the selected endpoint, which must be one of {@code endpoints}
+         */
+        Endpoint select(List<Endpoint> endpoints);
+
+        /**
+         * Returns a strategy selecting each available endpoint in turn
+         *
+         * @return a round-robin strategy
+         */
+        static Strategy roundRobin() {
+            final AtomicInteger next = new AtomicInteger();
+            return endpoints -> endpoints.get(Math.floorMod(next.getAndIncrement(), endpoints.size()));
+        }
+
+        /**
+         * Returns a strategy selecting, out of two random available endpoints,
+         * the one with fewer outstanding requests
+         *
+         * @return a least outstanding requests strategy
+         */
+        static Strategy leastOutstandingRequests() {
+            return endpoints -> selectBest(endpoints, e -> e.getOutstandingRequests());
+        }
+
+        /**
+         * Returns a strategy selecting, out of two random available endpoints, the one with the lowest
+         * moving average latency, weighted by its outstanding requests, which steers requests away from
+         * replicas turning slow before they are ejected
+         *
+         * @return an EWMA latency strategy
+         */
+        static Strategy ewma() {
+            return endpoints -> selectBest(endpoints, e -> e.getLatency() * (e.getOutstandingRequests() + 1));
+        }
+    }
+
+    /*
+     * Power of two random choices, as opposed to always selecting the best endpoint,
+     * which would send a burst of requests to the same endpoint before its cost is updated
+     */
+    private static Endpoint selectBest(final List<Endpoint> endpoints, final ToDoubleFunction<Endpoint> cost) {
+        final int size = endpoints.size();
+        if (size == 1) return endpoints.get(0);
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = random.nextInt(size);
+        final int second = (first + 1 + random.nextInt(size - 1)) % size;
+        final Endpoint a = endpoints.get(first);
+        final Endpoint b = endpoints.get(second);
+        return cost.applyAsDouble(b) < cost.applyAsDouble(a) ? b : a;
+    }
+
+    public static class Builder {
+        private List<String> endpoints = Collections.emptyList();
+        private Strategy strategy;
+        private int failureThreshold = 5;
+        private Duration slowCallThreshold;
+        private Duration ejectionDuration = Duration.ofSeconds(30);
+        private int virtualNodes = 160;
+
+        public MoccaLoadBalancer build() {
+            Arguments.require(!endpoints.isEmpty(), "At least one endpoint must be set");
+            return new MoccaLoadBalancer(this);
+        }
+
+        /**
+         * Sets the base URLs of the endpoints to balance requests among
+         * (e.g. https://your.graphql.server/context). Do not end the URI
+         * paths with graphql, that is added automatically by Mocca.
+         *
+         * @param serverBaseUrls GraphQL server base URLs
+         * @return this builder
+         */
+        public Builder endpoints(final String... serverBaseUrls) {
+            Arguments.require(serverBaseUrls != null && serverBaseUrls.length > 0, "At least one endpoint must be set");
+            return endpoints(Arrays.asList(serverBaseUrls));
+        }
+
+        /**
+         * Sets the base URLs of the endpoints to balance requests among
+         * (e.g. https://your.graphql.server/context). Do not end the URI
+         * paths with graphql, that is added automatically by Mocca.
+         *
+         * @param serverBaseUrls GraphQL server base URLs
+         * @return this builder
+         */
+        public Builder endpoints(final List<String> serverBaseUrls) {
+            Arguments.require(serverBaseUrls != null && !serverBaseUrls.isEmpty(), "At least one endpoint must be set");
+            serverBaseUrls.forEach(url -> Arguments.requireNonNull(url, "Endpoint cannot be null"));
+            this.endpoints = new ArrayList<>(serverBaseUrls);
+            return this;
+        }
+
+        /**
+         * Sets the load balancing strategy. The default strategy is {@link Strategy#roundRobin()}.
+         *
+         * @param strategy the load balancing strategy
+         * @return this builder
+         */
+        public Builder strategy(final Strategy strategy) {
+            this.strategy = Arguments.requireNonNull(strategy, "Strategy cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the number of consecutive failed or slow calls after which an endpoint is ejected.
+         * The default value is 5.
+         *
+         * @param failureThreshold the number of consecutive failed or slow calls ejecting an endpoint
+         * @return this builder
+         */
+        public Builder failureThreshold(final int failureThreshold) {
+            Arguments.require(failureThreshold > 0, "Failure threshold must be positive");
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the call duration above which a call is considered slow, and counted as a failure
+         * for ejection purposes. By default, calls are never considered slow.
+         *
+         * @param slowCallThreshold the call duration above which a call is considered slow
+         * @return this builder
+         */
+        public Builder slowCallThreshold(final Duration slowCallThreshold) {
+            Arguments.require(slowCallThreshold != null && !slowCallThreshold.isNegative() && !slowCallThreshold.isZero(), "Slow call threshold must be positive");
+            this.slowCallThreshold = slowCallThreshold;
+            return this;
+        }
+
+        /**
+         * Sets for how long an endpoint stays ejected before a probe request is sent to it.
+         * The default value is 30 seconds.
+         *
+         * @param ejectionDuration for how long an endpoint stays ejected
+         * @return this builder
+         */
+        public Builder ejectionDuration(final Duration ejectionDuration) {
+            Arguments.require(ejectionDuration != null && !ejectionDuration.isNegative(), "Ejection duration cannot be null nor negative");
+            this.ejectionDuration = ejectionDuration;
+            return this;
+        }
+
+        /**
+         * Sets the number of times each endpoint is placed in the consistent hash ring used to route requests
+         * by routing key. More virtual nodes spread keys more evenly among endpoints. The default value is 160.
+         *
+         * @param virtualNodes the number of virtual nodes per endpoint
+         * @return this builder
+         */
+        public Builder virtualNodes(final int virtualNodes) {
+            Arguments.require(virtualNodes > 0, "Virtual nodes must be positive");
+            this.virtualNodes = virtualNodes;
+            return this;
+        }
+    }
+
+    private final List<Endpoint> endpoints;
+    private final Strategy strategy;
+    private final int failureThreshold;
+    private final long slowCallThresholdNanos;
+    private final long ejectionNanos;
+    private final NavigableMap<Long, Endpoint> ring = new TreeMap<>();
+
+    private MoccaLoadBalancer(final Builder builder) {
+        this.endpoints = Collections.unmodifiableList(builder.endpoints.stream()
+                .map(url -> new Endpoint(MoccaClient.Builder.BaseBuilder.toGraphQLUrl(url)))
+                .collect(Collectors.toList()));
+        this.strategy = builder.strategy != null ? builder.strategy : Strategy.roundRobin();
+        this.failureThreshold = builder.failureThreshold;
+        this.slowCallThresholdNanos = builder.slowCallThreshold != null ? builder.slowCallThreshold.toNanos() : Long.MAX_VALUE;
+        this.ejectionNanos = builder.ejectionDuration.toNanos();
+        for (Endpoint endpoint : endpoints) {
+            for (int i = 0; i < builder.virtualNodes; i++) {
+                ring.put(hash(endpoint.graphQLUrl + "#" + i), endpoint);
+            }
+        }
+    }
+
+    /**
+     * Returns the endpoints of this load balancer
+     *
+     * @return the endpoints of this load balancer
+     */
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /*
+     * The GraphQL URL Feign targets, which is replaced by the selected endpoint URL in every request
+     */
+    String getTargetGraphQLUrl() {
+        return endpoints.get(0).graphQLUrl;
+    }
+
+    /*
+     * Selects the endpoint of the next request. Requests with a routing key hash are sent to the key owner.
+     * Others are distributed by the strategy among the non-ejected endpoints, except if the ejection of an
+     * endpoint has expired, in which case the request is sent to it as a probe.
+     */
+    Endpoint select(final String routingHash) {
+        if (endpoints.size() == 1) return endpoints.get(0);
+        if (routingHash != null) return owner(Long.parseUnsignedLong(routingHash, 16));
+        final long now = System.nanoTime();
+        final List<Endpoint> available = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.ejected) {
+                available.add(endpoint);
+            } else if (now - endpoint.ejectedUntil >= 0 && endpoint.probing.compareAndSet(false, true)) {
+                // The probe request is sent to the expired endpoint regardless of the strategy
+                return endpoint;
+            }
+        }
+        return strategy.select(available.isEmpty() ? endpoints : available);
+    }
+
+    /*
+     * Returns the first endpoint, clockwise in the ring from the given key hash, that is not ejected,
+     * or whose ejection has expired (in which case the request is its probe), or the key owner if all are ejected
+     */
+    private Endpoint owner(final long keyHash) {
+        final long now = System.nanoTime();
+        final Map.Entry<Long, Endpoint> first = ringEntry(keyHash);
+        Map.Entry<Long, Endpoint> entry = first;
+        for (int i = 0; i < ring.size(); i++) {
+            final Endpoint endpoint = entry.getValue();
+            if (!endpoint.ejected || (now - endpoint.ejectedUntil >= 0 && endpoint.probing.compareAndSet(false, true))) {
+                return endpoint;
+            }
+            entry = ringEntry(entry.getKey() + 1);
+        }
+        return first.getValue();
+    }
+
+    private Map.Entry<Long, Endpoint> ringEntry(final long hash) {
+        final Map.Entry<Long, Endpoint> entry = ring.ceilingEntry(hash);
+        return entry != null ? entry : ring.firstEntry();
+    }
+
+    /*
+     * Returns the hexadecimal hash of a routing key, sent from the encoder to the load balancer
+     */
+    static String routingHash(final String routingKey) {
+        return Long.toHexString(hash(routingKey));
+    }
+
+    /*
+     * The first 8 bytes of the MD5 digest, which, unlike String.hashCode, spreads similar keys all over the ring
+     */
+    private static long hash(final String value) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new MoccaException("MD5 algorithm is not available", e);
+        }
+    }
+
+    void onComplete(final Endpoint endpoint, final long latencyNanos, final boolean failed) {
+        final double previous = endpoint.latency;
+        endpoint.latency = previous == 0 ? latencyNanos : previous + Endpoint.EWMA_DECAY * (latencyNanos - previous);
+        final boolean success = !failed && latencyNanos <= slowCallThresholdNanos;
+        synchronized (endpoint) {
+            if (success) {
+                endpoint.consecutiveFailures = 0;
+                endpoint.ejected = false;
+            } else if (endpoint.ejected || ++endpoint.consecutiveFailures >= failureThreshold) {
+                // A failed probe ejects the endpoint again
+                endpoint.ejectedUntil = System.nanoTime() + ejectionNanos;
+                endpoint.ejected = true;
+            }
+            endpoint.probing.set(false);
+        }
+    }
+
+    /*
+     * Whether the given request is sent to the GraphQL URL Feign targets, as opposed to a URL set with
+     * {@code @TargetUrl}, in which case it is neither load balanced nor accounted to any endpoint
+     */
+    boolean isBalanced(final Request request) {
+        return request.url().startsWith(getTargetGraphQLUrl());
+    }
+
+    /*
+     * Returns a copy of the given request sent to the given endpoint, or to its own URL if the endpoint is null,
+     * without the routing key header
+     */
+    Request route(final Request request, final Endpoint endpoint) {
+        final String target = getTargetGraphQLUrl();
+        final String url = endpoint != null && request.url().startsWith(target) ? endpoint.graphQLUrl + request.url().substring(target.length()) : request.url();
+        if (url.equals(request.url()) && !request.headers().containsKey(ROUTING_KEY_HEADER)) return request;
+        final Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+        headers.remove(ROUTING_KEY_HEADER);
+        return Request.create(request.httpMethod(), url, headers, request.body(), request.charset(), request.requestTemplate());
+    }
+
+    private static String getRoutingHash(final Request request) {
+        final Collection<String> values = request.headers().get(ROUTING_KEY_HEADER);
+        return values == null || values.isEmpty() ? null : values.iterator().next();
+    }
+
+    Client enrich(final Client client) {
+        return (request, options) -> {
+            if (!isBalanced(request)) {
+                return client.execute(route(request, null), options);
+            }
+            final Endpoint endpoint = select(getRoutingHash(request));
+            endpoint.outstandingRequests.incrementAndGet();
+            final long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                final Response response = client.execute(route(request, endpoint), options);
+                failed = response.status() >= 500;
+                return response;
+            } finally {
+                endpoint.outstandingRequests.decrementAndGet();
+                onComplete(endpoint, System.nanoTime() - start, failed);
+            }
+        };
+    }
+
+    <C> AsyncClient<C> enrich(final AsyncClient<C> asyncClient) {
+        return (request, options, requestContext) ->
+                execute(request, routed -> asyncClient.execute(routed, options, requestContext), response -> response.status() >= 500);
+    }
+
+    /*
+     * Executes the given request, routed to the endpoint selected for it, recording its outcome once the future
+     * returned by the given execution completes. Also used for requests not sent by Feign clients, such as the
+     * ones of operation methods returning incremental results. Requests not load balanced are executed as they are.
+     */
+    <T> CompletableFuture<T> execute(final Request request, final Function<Request, CompletableFuture<T>> execution, final Predicate<T> failed) {
+        if (!isBalanced(request)) {
+            return execution.apply(route(request, null));
+        }
+        final Endpoint endpoint = select(getRoutingHash(request));
+        endpoint.outstandingRequests.incrementAndGet();
+        final long start = System.nanoTime();
+        final CompletableFuture<T> result;
+        try {
+            result = execution.apply(route(request, endpoint));
+        } catch (RuntimeException e) {
+            endpoint.outstandingRequests.decrementAndGet();
+            onComplete(endpoint, System.nanoTime() - start, true);
+            throw e;
+        }
+        result.whenComplete((r, t) -> {
+            endpoint.outstandingRequests.decrementAndGet();
+            if (t instanceof CancellationException) {
+                // Cancelled calls, for example hedged ones, say nothing about the endpoint health
+                endpoint.probing.set(false);
+            } else {
+                onComplete(endpoint, System.nanoTime() - start, t != null || failed.test(r));
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,224 @@
+package com.paypal.mocca.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fetches all items of a GraphQL list field paginated by {@code offset} and {@code limit} arguments, splitting
+ * the whole fetch into page requests sent in parallel, with bounded concurrency, and merging their items in order.
+ * This avoids one huge request, which is slow and might exceed server response size limits.
+ * <br>
+ * Each page is fetched by a {@link PageFetcher}, usually a lambda calling an async client
+ * operation method with the offset and limit as variables. See an example below.
+ * <pre><code>
+ * public interface AsyncBooksAppClient extends MoccaClient {
+ *
+ *     &#064;Query
+ *     CompletableFuture&#60;List&#60;Book&#62;&#62; books(@Var("offset") int offset, @Var("limit") int limit);
+ *
+ * }
+ *
+ * CompletableFuture&#60;List&#60;Book&#62;&#62; books = MoccaOffsetPaging.of(asyncClient::books)
+ *     .total(200_000)
+ *     .pageSize(5_000)
+ *     .concurrency(8)
+ *     .fetchAll();
+ * </code></pre>
+ * If the total number of items is known, exactly the pages needed to fetch them are requested. Otherwise,
+ * pages are requested until a page with fewer items than requested is received, which makes it the last one,
+ * and no further pages are requested (up to {@code concurrency - 1} pages past the end might have been
+ * requested already, whose empty results are discarded).
+ * <br>
+ * If any page fails, the returned future fails with the same error, and the pages still
+ * being fetched are cancelled. Cancelling the returned future also cancels them.
+ *
+ * @param <T> the list item type
+ */
+public final class MoccaOffsetPaging<T> {
+
+    /**
+     * Fetches one page of a list field paginated by offset and limit
+     *
+     * @param <T> the list item type
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+
+        /**
+         * Starts fetching a page of items
+         *
+         * @param offset the number of items to be skipped
+         * @param limit  the maximum number of items to be returned
+         * @return the stage completed with the items of the page
+         */
+        CompletionStage<? extends Collection<T>> fetch(int offset, int limit);
+    }
+
+    private final PageFetcher<T> fetcher;
+    private int pageSize = 1000;
+    private int concurrency = 4;
+    private int total = -1;
+
+    private MoccaOffsetPaging(final PageFetcher<T> fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Creates a new offset paging helper
+     *
+     * @param fetcher the page fetcher
+     * @param <T>     the list item type
+     * @return a new offset paging helper
+     */
+    public static <T> MoccaOffsetPaging<T> of(final PageFetcher<T> fetcher) {
+        return new MoccaOffsetPaging<>(Arguments.requireNonNull(fetcher, "Page fetcher cannot be null"));
+    }
+
+    /**
+     * Sets the number of items requested per page. The default value is 1000.
+     *
+     * @param pageSize the number of items requested per page
+     * @return this paging helper
+     */
+    public MoccaOffsetPaging<T> pageSize(final int pageSize) {
+        Arguments.require(pageSize > 0, "Page size must be positive");
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of page requests in flight at the same time. The default value is 4.
+     *
+     * @param concurrency the maximum number of page requests in flight
+     * @return this paging helper
+     */
+    public MoccaOffsetPaging<T> concurrency(final int concurrency) {
+        Arguments.require(concurrency > 0, "Concurrency must be positive");
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Sets the total number of items to be fetched, if known
+     *
+     * @param total the total number of items to be fetched
+     * @return this paging helper
+     */
+    public MoccaOffsetPaging<T> total(final int total) {
+        Arguments.require(total >= 0, "Total cannot be negative");
+        this.total = total;
+        return this;
+    }
+
+    /**
+     * Starts fetching all items, returning a future completed with all of them, in order
+     *
+     * @return a future completed with all items, in order
+     */
+    public CompletableFuture<List<T>> fetchAll() {
+        final Fanout fanout = new Fanout();
+        fanout.launch();
+        return fanout.result;
+    }
+
+    /*
+     * One execution of fetchAll, keeping track of the pages fetched and in flight
+     */
+    private final class Fanout {
+        private final CompletableFuture<List<T>> result = new CompletableFuture<>();
+        private final Map<Integer, Collection<T>> pages = new HashMap<>();
+        private final Map<Integer, CompletableFuture<? extends Collection<T>>> inFlight = new HashMap<>();
+        // Not a monitor, so virtual threads fetching pages are not pinned
+        private final ReentrantLock lock = new ReentrantLock();
+        private int nextPage;
+        private int pageCount = total < 0 ? Integer.MAX_VALUE : (int) ((total + (long) pageSize - 1) / pageSize);
+        private boolean launching;
+
+        private Fanout() {
+            result.whenComplete((items, throwable) -> {
+                if (throwable != null) {
+                    cancelAll();
+                }
+            });
+        }
+
+        private void launch() {
+            lock.lock();
+            try {
+                // Pages completed while launching are handled by this loop, as opposed to recursively
+                if (launching) return;
+                launching = true;
+                try {
+                    while (!result.isDone() && inFlight.size() < concurrency && nextPage < pageCount) {
+                        final int page = nextPage++;
+                        final int offset = page * pageSize;
+                        final int limit = total < 0 ? pageSize : Math.min(pageSize, total - offset);
+                        CompletableFuture<? extends Collection<T>> future;
+                        try {
+                            future = fetcher.fetch(offset, limit).toCompletableFuture();
+                        } catch (RuntimeException e) {
+                            result.completeExceptionally(e);
+                            return;
+                        }
+                        inFlight.put(page, future);
+                        future.whenComplete((items, throwable) -> onPage(page, limit, items, throwable));
+                    }
+                    if (inFlight.isEmpty() && nextPage >= pageCount) {
+                        finish();
+                    }
+                } finally {
+                    launching = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void onPage(final int page, final int limit, final Collection<T> items, final Throwable throwable) {
+            lock.lock();
+            try {
+                inFlight.remove(page);
+                if (throwable != null) {
+                    result.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+                    return;
+                }
+                pages.put(page, items);
+                if (items == null || items.size() < limit) {
+                    // A short page is the last one
+                    pageCount = Math.min(pageCount, page + 1);
+                }
+                launch();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void finish() {
+            final List<T> all = new ArrayList<>();
+            for (int page = 0; page < pageCount; page++) {
+                final Collection<T> items = pages.get(page);
+                if (items != null) {
+                    all.addAll(items);
+                }
+            }
+            result.complete(all);
+        }
+
+        private void cancelAll() {
+            lock.lock();
+            try {
+                new ArrayList<>(inFlight.values()).forEach(f -> f.cancel(true));
+                inFlight.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
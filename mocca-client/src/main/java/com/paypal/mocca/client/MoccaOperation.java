@@ -0,0 +1,111 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Mutation;
+import com.paypal.mocca.client.annotation.Query;
+import feign.RequestTemplate;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Identification of the GraphQL operation of a client method, used by
+ * observability capabilities, such as metrics and events, to tag what they record.
+ * <br>
+ * Operations are cached per client API type and method, so the same instance
+ * is always returned for the same client method.
+ */
+final class MoccaOperation {
+
+    static final String UNKNOWN = "unknown";
+
+    private static final String NONE = "None";
+    private static final MoccaOperation UNKNOWN_OPERATION = new MoccaOperation(UNKNOWN, UNKNOWN, UNKNOWN, false);
+
+    // Operations per client API type and method
+    private static final Map<List<Object>, MoccaOperation> operations = new ConcurrentHashMap<>();
+
+    private final String client;
+    private final String name;
+    private final String type;
+    private final boolean graphQLOperation;
+
+    private MoccaOperation(final String client, final String name, final String type, final boolean graphQLOperation) {
+        this.client = client;
+        this.name = name;
+        this.type = type;
+        this.graphQLOperation = graphQLOperation;
+    }
+
+    /*
+     * Returns the operation of the given client method. If the method is not
+     * annotated as a query or mutation, its operation name and type are unknown
+     */
+    static MoccaOperation of(final Class<?> apiType, final Method method) {
+        return operations.computeIfAbsent(Arrays.asList(apiType, method), key -> {
+            if (!method.isAnnotationPresent(Query.class) && !method.isAnnotationPresent(Mutation.class)) {
+                return new MoccaOperation(apiType.getName(), UNKNOWN, UNKNOWN, false);
+            }
+            return new MoccaOperation(
+                    apiType.getName(),
+                    MoccaFeignEncoder.getOperationName(method),
+                    MoccaFeignEncoder.getOperationType(method).getValue(),
+                    true);
+        });
+    }
+
+    /*
+     * Returns the operation of the client method the given request template was created for,
+     * which is entirely unknown if the template does not carry its client target and method
+     */
+    static MoccaOperation of(final RequestTemplate template) {
+        if (template == null || template.feignTarget() == null || template.methodMetadata() == null) {
+            return UNKNOWN_OPERATION;
+        }
+        return of(template.feignTarget().type(), template.methodMetadata().method());
+    }
+
+    /*
+     * Returns the given throwable without the CompletionException and ExecutionException
+     * wrappers added by futures, or null if the given throwable is null
+     */
+    static Throwable unwrap(final Throwable throwable) {
+        Throwable exception = throwable;
+        while ((exception instanceof CompletionException || exception instanceof ExecutionException) && exception.getCause() != null) {
+            exception = exception.getCause();
+        }
+        return exception;
+    }
+
+    /*
+     * Returns the simple class name of the unwrapped given throwable, or "None" if it is null
+     */
+    static String exceptionName(final Throwable throwable) {
+        final Throwable exception = unwrap(throwable);
+        return exception != null ? exception.getClass().getSimpleName() : NONE;
+    }
+
+    String getClient() {
+        return client;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    /*
+     * Whether the client method is annotated as a GraphQL query or mutation
+     */
+    boolean isGraphQLOperation() {
+        return graphQLOperation;
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.paypal.mocca.client;
+
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-warms the connections of an HTTP client to the GraphQL server, by sending concurrent
+ * {@code query{__typename}} requests, supported by every GraphQL server, through it. Besides opening
+ * (and TLS handshaking) the connections, this also loads the classes involved in sending requests.
+ * Failures are only logged, since pre-warming is just an optimization.
+ */
+final class MoccaPrewarming {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoccaPrewarming.class);
+
+    private static final byte[] TYPENAME_QUERY = "{\"query\":\"query{__typename}\"}".getBytes(StandardCharsets.UTF_8);
+
+    private MoccaPrewarming() {
+    }
+
+    /*
+     * Sends, through the given sync client, the given number of concurrent requests to each GraphQL URL,
+     * waiting up to maxWait for them to complete. Zero maxWait means not waiting at all.
+     */
+    static void prewarm(final Client client, final List<String> graphQLUrls, final int connections, final Duration maxWait) {
+        final ExecutorService executorService = Executors.newCachedThreadPool(r -> {
+            final Thread thread = new Thread(r, "mocca-prewarming");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (String graphQLUrl : graphQLUrls) {
+            for (int i = 0; i < connections; i++) {
+                requests.add(CompletableFuture.runAsync(() -> {
+                    try (Response response = client.execute(request(graphQLUrl), new Request.Options())) {
+                        if (response.body() != null) {
+                            // Fully reading the response allows the connection to be reused
+                            Util.toByteArray(response.body().asInputStream());
+                        }
+                        logger.debug("Pre-warming request to {} completed with status {}", graphQLUrl, response.status());
+                    } catch (IOException | RuntimeException e) {
+                        logger.debug("Pre-warming request to " + graphQLUrl + " failed", e);
+                    }
+                }, executorService));
+            }
+        }
+        executorService.shutdown();
+        await(requests, maxWait);
+    }
+
+    /*
+     * Sends, through the given async client, the given number of concurrent requests to each GraphQL URL,
+     * waiting up to maxWait for them to complete. Zero maxWait means not waiting at all.
+     */
+    static <C> void prewarm(final AsyncClient<C> asyncClient, final List<String> graphQLUrls, final int connections, final Duration maxWait) {
+        final List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (String graphQLUrl : graphQLUrls) {
+            for (int i = 0; i < connections; i++) {
+                CompletableFuture<Response> response;
+                try {
+                    response = asyncClient.execute(request(graphQLUrl), new Request.Options(), Optional.empty());
+                } catch (RuntimeException e) {
+                    response = new CompletableFuture<>();
+                    response.completeExceptionally(e);
+                }
+                requests.add(response.handle((r, throwable) -> {
+                    if (throwable != null) {
+                        logger.debug("Pre-warming request to " + graphQLUrl + " failed", throwable);
+                    } else {
+                        logger.debug("Pre-warming request to {} completed with status {}", graphQLUrl, r.status());
+                        r.close();
+                    }
+                    return null;
+                }));
+            }
+        }
+        await(requests, maxWait);
+    }
+
+    /*
+     * Returns the GraphQL URLs to be pre-warmed, which are all endpoints of the load balancer, if any
+     */
+    static List<String> graphQLUrls(final String graphQLUrl, final MoccaLoadBalancer loadBalancer) {
+        if (loadBalancer == null) {
+            return Collections.singletonList(graphQLUrl);
+        }
+        return loadBalancer.getEndpoints().stream()
+                .map(MoccaLoadBalancer.Endpoint::getGraphQLUrl)
+                .collect(Collectors.toList());
+    }
+
+    private static Request request(final String graphQLUrl) {
+        final Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singletonList("application/json"));
+        headers.put("Accept", Collections.singletonList("application/json"));
+        return Request.create(Request.HttpMethod.POST, graphQLUrl, headers, TYPENAME_QUERY, StandardCharsets.UTF_8, null);
+    }
+
+    private static void await(final List<CompletableFuture<Void>> requests, final Duration maxWait) {
+        if (maxWait.isZero()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.debug("Pre-warming did not complete within {}", maxWait);
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.paypal.mocca.client;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * An abstract class representing the adaptation of asynchronous GraphQL operation
+ * results to reactive return types (such as Reactor {@code Mono} and {@code Flux},
+ * or {@code java.util.concurrent.Flow.Publisher}). Subclasses are supposed to be
+ * provided by async HTTP client modules supporting reactive return types, via
+ * {@link MoccaAsyncHttpClient#MoccaAsyncHttpClient(feign.AsyncClient, MoccaReactiveAdapter)}.
+ */
+abstract class MoccaReactiveAdapter {
+
+    /**
+     * Returns an instance of the reactive return type of {@code method} that, every time it is subscribed,
+     * calls {@code invocation}, sending a new GraphQL request, and emits the result of the returned future.
+     * If the method return type is multi-valued (for example {@code Flux}), the result is a list, whose
+     * elements should be emitted as separate items. A {@code null} result should complete without items.
+     * Cancelling the subscription should cancel the returned future.
+     *
+     * @param method     the GraphQL operation method being invoked
+     * @param invocation the invocation of the GraphQL operation method
+     * @return an instance of the reactive return type of {@code method}
+     */
+    abstract Object adapt(Method method, Supplier<CompletableFuture<Object>> invocation);
+
+}
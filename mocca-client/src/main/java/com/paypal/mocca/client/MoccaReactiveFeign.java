@@ -0,0 +1,208 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Subscription;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Feign;
+import feign.FeignException;
+import feign.InvocationHandlerFactory;
+import feign.Response;
+import feign.Retryer;
+import feign.Target;
+import feign.Util;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import static com.paypal.mocca.client.MoccaReflection.isReactiveType;
+
+/**
+ * Builds the part of async Mocca clients serving GraphQL operation methods with reactive return types.
+ * <br>
+ * Similar to Feign {@code AsyncFeign}, it is based on a Feign sync client whose HTTP client only starts
+ * the request execution on an async HTTP client, and whose decoder returns a future of the decoded
+ * response, instead of waiting for it. Differently than {@code AsyncFeign}, which waits for the result
+ * of methods not returning {@link CompletableFuture}, the Feign method handler is only invoked when
+ * the reactive result is subscribed, and no thread is blocked waiting for the response.
+ * <br>
+ * At subscription time, the invocation goes through the same invocation handler enrichments (scope memoization
+ * and capabilities) and async resiliency decorators as operation methods returning {@link CompletableFuture},
+ * with the staged future as their result.
+ */
+final class MoccaReactiveFeign {
+
+    // The request execution started by the current invocation, in the current thread
+    private static final ThreadLocal<Staging> STAGING = new ThreadLocal<>();
+
+    private MoccaReactiveFeign() {
+    }
+
+    /*
+     * Returns true if the given client API declares at least
+     * one GraphQL operation method with a reactive return type
+     */
+    static boolean hasReactiveMethods(final Class<?> apiType) {
+        for (Method method : apiType.getMethods()) {
+            if (!method.isDefault() && !Modifier.isStatic(method.getModifiers()) && isReactiveMethod(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Returns true if the given method is a GraphQL query or mutation method
+     * with a reactive return type. Subscription methods are served separately.
+     */
+    static boolean isReactiveMethod(final Method method) {
+        return method.getDeclaringClass() != Object.class
+                && !method.isAnnotationPresent(Subscription.class)
+                && isReactiveType(method.getGenericReturnType());
+    }
+
+    /*
+     * Returns a client whose GraphQL operation methods with reactive return types are executed
+     * by the given async HTTP client, through the given enriched invocation handler factory and
+     * resiliency decorators (outermost first), and adapted by the given reactive adapter
+     */
+    static <C extends MoccaClient, CC> C target(final Class<C> apiType, final String graphQLUrl, final AsyncClient<CC> asyncClient,
+                                                final Encoder encoder, final Decoder decoder, final InvocationHandlerFactory invocationHandlerFactory,
+                                                final List<MoccaAsyncResiliency.Decorator> decorators, final MoccaReactiveAdapter reactiveAdapter) {
+        return Feign.builder()
+                .contract(new MoccaFeignContract())
+                .encoder(encoder)
+                .decoder(stagingDecoder(decoder))
+                .client(stagingClient(asyncClient))
+                .retryer(Retryer.NEVER_RETRY)
+                .invocationHandlerFactory((target, dispatch) -> reactiveInvocationHandler(target, dispatch, invocationHandlerFactory, decorators, reactiveAdapter))
+                .target(apiType, graphQLUrl);
+    }
+
+    /*
+     * Returns a client that delegates the GraphQL operation methods with reactive return
+     * types to reactiveClient, and all other methods to asyncClient
+     */
+    @SuppressWarnings("unchecked")
+    static <C extends MoccaClient> C combine(final Class<C> apiType, final C asyncClient, final C reactiveClient) {
+        return (C) Proxy.newProxyInstance(apiType.getClassLoader(), new Class<?>[]{apiType}, (proxy, method, args) -> {
+            try {
+                return method.invoke(isReactiveMethod(method) ? reactiveClient : asyncClient, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        });
+    }
+
+    private static InvocationHandler reactiveInvocationHandler(final Target<?> target, final Map<Method, InvocationHandlerFactory.MethodHandler> dispatch,
+                                                               final InvocationHandlerFactory invocationHandlerFactory,
+                                                               final List<MoccaAsyncResiliency.Decorator> decorators,
+                                                               final MoccaReactiveAdapter reactiveAdapter) {
+        final InvocationHandler defaultHandler = new InvocationHandlerFactory.Default().create(target, dispatch);
+
+        // The enriched invocation handler only sees staged futures, as if the methods returned CompletableFuture
+        final Map<Method, InvocationHandlerFactory.MethodHandler> stagingDispatch = new HashMap<>();
+        dispatch.forEach((method, methodHandler) -> stagingDispatch.put(method, args -> stage(methodHandler, args)));
+        final InvocationHandler enrichedHandler = invocationHandlerFactory.create(target, stagingDispatch);
+
+        return (proxy, method, args) -> {
+            if (!isReactiveMethod(method)) {
+                return defaultHandler.invoke(proxy, method, args);
+            }
+            Supplier<CompletionStage<Object>> invocation = () -> invoke(enrichedHandler, proxy, method, args);
+            for (int i = decorators.size() - 1; i >= 0; i--) {
+                final MoccaAsyncResiliency.Decorator decorator = decorators.get(i);
+                final Supplier<CompletionStage<Object>> decorated = invocation;
+                invocation = () -> MoccaAsyncResiliency.decorate(decorator, method, decorated);
+            }
+            final Supplier<CompletionStage<Object>> resilientInvocation = invocation;
+            return reactiveAdapter.adapt(method, () -> resilientInvocation.get().toCompletableFuture());
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletionStage<Object> invoke(final InvocationHandler handler, final Object proxy, final Method method, final Object[] args) {
+        try {
+            return (CompletionStage<Object>) handler.invoke(proxy, method, args);
+        } catch (Throwable t) {
+            final CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(t);
+            return failed;
+        }
+    }
+
+    /*
+     * Invokes the Feign method handler, which encodes the request, starts its execution
+     * and returns a future of the decoded response. Failures are delivered by the future.
+     */
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Object> stage(final InvocationHandlerFactory.MethodHandler methodHandler, final Object[] args) {
+        STAGING.set(new Staging());
+        try {
+            return (CompletableFuture<Object>) methodHandler.invoke(args);
+        } catch (Throwable t) {
+            final CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(t instanceof FeignException ? MoccaExceptionHandler.handleException(t) : t);
+            return failed;
+        } finally {
+            STAGING.remove();
+        }
+    }
+
+    private static <CC> Client stagingClient(final AsyncClient<CC> asyncClient) {
+        return (request, options) -> {
+            STAGING.get().response = asyncClient.execute(request, options, Optional.empty());
+
+            // Placeholder response, only used to reach the decoder
+            return Response.builder()
+                    .status(200)
+                    .request(request)
+                    .headers(Collections.emptyMap())
+                    .build();
+        };
+    }
+
+    private static Decoder stagingDecoder(final Decoder decoder) {
+        return (placeholderResponse, type) -> {
+            final CompletableFuture<Response> response = STAGING.get().response;
+            final CompletableFuture<Object> result = response.thenApply(r -> decode(decoder, r, type));
+            result.whenComplete((r, t) -> {
+                if (result.isCancelled()) {
+                    response.cancel(true);
+                }
+            });
+            return result;
+        };
+    }
+
+    private static Object decode(final Decoder decoder, final Response response, final Type type) {
+        try {
+            return decoder.decode(response, type);
+        } catch (FeignException e) {
+            throw (RuntimeException) MoccaExceptionHandler.handleException(e);
+        } catch (IOException e) {
+            throw new MoccaException("An error happened when reading the response payload", e);
+        } finally {
+            Util.ensureClosed(response.body());
+        }
+    }
+
+    private static final class Staging {
+        private CompletableFuture<Response> response;
+    }
+
+}
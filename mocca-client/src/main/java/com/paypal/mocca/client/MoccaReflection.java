@@ -7,6 +7,7 @@ import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -18,9 +19,86 @@ import java.util.Set;
  */
 final class MoccaReflection {
 
+    // Reactive types are referenced by name, since their libraries are optional
+    private static final String MONO_TYPE_NAME = "reactor.core.publisher.Mono";
+    private static final String FLUX_TYPE_NAME = "reactor.core.publisher.Flux";
+    private static final String FLOW_PUBLISHER_TYPE_NAME = "java.util.concurrent.Flow$Publisher";
+
     private MoccaReflection() {
     }
 
+    /*
+     * Returns true if the given type is one of the reactive types supported as
+     * GraphQL operation method return type (Mono, Flux or Flow.Publisher)
+     */
+    static boolean isReactiveType(final Type type) {
+        final String typeName = erase(type).getName();
+        return typeName.equals(MONO_TYPE_NAME) || typeName.equals(FLUX_TYPE_NAME) || typeName.equals(FLOW_PUBLISHER_TYPE_NAME);
+    }
+
+    /*
+     * Returns true if the given type is a reactive type emitting multiple items (Flux)
+     */
+    static boolean isMultiValuedReactiveType(final Type type) {
+        return erase(type).getName().equals(FLUX_TYPE_NAME);
+    }
+
+    /*
+     * Returns true if the given type is a parameterized Flow.Publisher,
+     * the only return type supported by GraphQL subscription methods
+     */
+    static boolean isSubscriptionType(final Type type) {
+        return isParameterizedType(type) && erase(type).getName().equals(FLOW_PUBLISHER_TYPE_NAME);
+    }
+
+    /*
+     * Returns an optional containing the Type parameterized inside the given type,
+     * if the given type is a parameterized reactive type (see isReactiveType).
+     * If it is not, an empty optional is returned.
+     */
+    static Optional<Type> getReactiveInnerType(final Type type) {
+        if (!isParameterizedType(type) || !isReactiveType(type)) return Optional.empty();
+        return Optional.of(getInnerType(type));
+    }
+
+    /*
+     * Returns the type of the GraphQL response data of an operation method whose return type is the given
+     * reactive type. Flux items are the elements of a list, while Mono and Flow.Publisher emit one item.
+     */
+    static Type getReactiveResponseType(final Type type) {
+        final Type innerType = getReactiveInnerType(type)
+                .orElseThrow(() -> new IllegalArgumentException("Given type is not a parameterized reactive type"));
+        return isMultiValuedReactiveType(type) ? listOf(innerType) : innerType;
+    }
+
+    /*
+     * Returns a parameterized List type whose elements are of the given type
+     */
+    static ParameterizedType listOf(final Type elementType) {
+        Arguments.requireNonNull(elementType, "Element type cannot be null");
+        return new ParameterizedType() {
+            @Override
+            public Type[] getActualTypeArguments() {
+                return new Type[]{elementType};
+            }
+
+            @Override
+            public Type getRawType() {
+                return List.class;
+            }
+
+            @Override
+            public Type getOwnerType() {
+                return null;
+            }
+
+            @Override
+            public String getTypeName() {
+                return List.class.getName() + "<" + elementType.getTypeName() + ">";
+            }
+        };
+    }
+
     /*
      * Returns an optional containing the Type parameterized inside the given type,
      * if the given type is parameterized and equals to the outer reference type.
@@ -0,0 +1,319 @@
+package com.paypal.mocca.client;
+
+import feign.InvocationHandlerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Mocca capability that keeps the results of registered GraphQL operation invocations
+ * (operation method plus arguments) fresh in the background, so that callers of those
+ * invocations always get an immediate result, without a remote call on their critical path.
+ * <br>
+ * Each registered invocation is executed once when registered, and then re-executed by a
+ * scheduler, at the registration refresh interval, replacing the cached result on success.
+ * A cached result does not expire while its invocation is registered. If a refresh fails,
+ * the previous result is kept and the failure is logged. Invocations that were not registered
+ * are not affected by this capability.
+ * <br>
+ * The example below shows how to register a query invocation of an async client. The same
+ * {@link MoccaRefreshAhead} instance, and its scheduler, can be shared by multiple clients.
+ * <pre><code>
+ * MoccaRefreshAhead refreshAhead = new MoccaRefreshAhead();
+ *
+ * AsyncBooksAppClient asyncClient = MoccaClient.Builder
+ *     .async("http://localhost:8080/booksapp")
+ *     .client(executorClient)
+ *     .addCapability(refreshAhead)
+ *     .build(AsyncBooksAppClient.class);
+ *
+ * refreshAhead.register(asyncClient, Duration.ofSeconds(30), c -&#62; c.getBooks("Tolkien"));
+ *
+ * // Returns an already completed future holding the latest refreshed result
+ * CompletableFuture&#60;List&#60;Book&#62;&#62; books = asyncClient.getBooks("Tolkien");
+ * </code></pre>
+ * A few important notes:
+ * <ol>
+ *     <li>Invocations are identified by their operation method and arguments, so arguments must implement {@code equals} and {@code hashCode}</li>
+ *     <li>Refreshes of sync clients run on the scheduler threads, while refreshes of async clients only use the scheduler to trigger the call</li>
+ *     <li>Only queries should be registered, since registered invocations are executed repeatedly</li>
+ *     <li>Operation methods with reactive return types cannot be registered, since they are only executed when subscribed</li>
+ * </ol>
+ */
+public final class MoccaRefreshAhead extends MoccaCapability implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoccaRefreshAhead.class);
+
+    private final Refresher refresher;
+
+    /**
+     * Creates a new {@link MoccaRefreshAhead} capability, owning a single
+     * daemon thread scheduler, which is shut down when this capability is closed
+     */
+    public MoccaRefreshAhead() {
+        this(new Refresher(Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "mocca-refresh-ahead");
+            thread.setDaemon(true);
+            return thread;
+        }), true));
+    }
+
+    /**
+     * Creates a new {@link MoccaRefreshAhead} capability using an application provided
+     * scheduler, which is not shut down when this capability is closed
+     *
+     * @param scheduler the scheduler in charge of triggering the refreshes
+     */
+    public MoccaRefreshAhead(final ScheduledExecutorService scheduler) {
+        this(new Refresher(Arguments.requireNonNull(scheduler, "Scheduler cannot be null"), false));
+    }
+
+    private MoccaRefreshAhead(final Refresher refresher) {
+        super(refresher);
+        this.refresher = refresher;
+    }
+
+    /**
+     * Registers the GraphQL operation invocation performed by {@code invocation} against {@code client}
+     * to be refreshed in the background every {@code refreshInterval}. The given client must have been
+     * built with this capability, and {@code invocation} must call exactly one of its operation methods.
+     * <br>
+     * The invocation is executed immediately to load the first result. For sync clients, if this
+     * first execution fails, the invocation is not registered and the failure is thrown. Registering
+     * an invocation already registered replaces its refresh interval.
+     *
+     * @param client          a Mocca client built with this capability
+     * @param refreshInterval the interval between the end of a refresh and the start of the next one
+     * @param invocation      a consumer calling one operation method of {@code client}, with the arguments to be registered
+     * @param <C>             the client API type
+     */
+    public <C extends MoccaClient> void register(final C client, final Duration refreshInterval, final Consumer<C> invocation) {
+        Arguments.requireNonNull(client, "Client cannot be null");
+        Arguments.requireNonNull(invocation, "Invocation cannot be null");
+        Arguments.require(refreshInterval != null && !refreshInterval.isNegative() && !refreshInterval.isZero(), "Refresh interval must be positive");
+
+        final Registration registration = new Registration(client, refreshInterval);
+        refresher.pendingRegistration.set(registration);
+        try {
+            invocation.accept(client);
+        } catch (RuntimeException e) {
+            if (registration.captured != null) {
+                registration.captured.cancel();
+            }
+            throw e;
+        } finally {
+            refresher.pendingRegistration.remove();
+        }
+
+        Arguments.require(registration.captured != null, "The given invocation did not call an operation method of a client built with this capability");
+        refresher.schedule(registration.captured);
+    }
+
+    /**
+     * Stops refreshing all registered invocations, discarding their cached results.
+     * The scheduler is shut down if it was created by this capability.
+     */
+    @Override
+    public void close() {
+        refresher.close();
+    }
+
+    /*
+     * The invocation being registered in the current thread
+     */
+    private static final class Registration {
+        private final MoccaClient client;
+        private final Duration refreshInterval;
+        private Entry captured;
+
+        private Registration(final MoccaClient client, final Duration refreshInterval) {
+            this.client = client;
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    /*
+     * A registered invocation and its latest result. Refreshes are done by invoking
+     * the client itself (not the Feign invocation handler directly), since async
+     * clients require their own invocation context to be set by their proxy.
+     */
+    private static final class Entry {
+        private final Map<List<Object>, Entry> owner;
+        private final List<Object> key;
+        private final MoccaClient client;
+        private final Method method;
+        private final Object[] args;
+        private final boolean async;
+        private final Duration refreshInterval;
+        private volatile CompletableFuture<Object> latest;
+        private volatile ScheduledFuture<?> schedule;
+
+        private Entry(final Map<List<Object>, Entry> owner, final List<Object> key, final Registration registration, final Method method, final Object[] args) {
+            this.owner = owner;
+            this.key = key;
+            this.client = registration.client;
+            this.refreshInterval = registration.refreshInterval;
+            this.method = method;
+            this.args = args;
+            this.async = CompletableFuture.class.isAssignableFrom(method.getReturnType());
+        }
+
+        /*
+         * Returns the latest result if one is available, null otherwise
+         */
+        private CompletableFuture<Object> cached() {
+            final CompletableFuture<Object> result = latest;
+            if (result == null || result.isCompletedExceptionally() || result.isCancelled()) {
+                return null;
+            }
+            // Callers get their own future, so they cannot complete or cancel the cached one
+            return async ? result.thenApply(v -> v) : result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void refresh() {
+            Refresher.BYPASS.set(Boolean.TRUE);
+            try {
+                final Object result = method.invoke(client, args);
+                if (async) {
+                    ((CompletableFuture<Object>) result).whenComplete((value, throwable) -> {
+                        if (throwable == null) {
+                            latest = CompletableFuture.completedFuture(value);
+                        } else {
+                            logger.warn("Refresh of operation method {} has failed, keeping its previous result", method.getName(), throwable);
+                        }
+                    });
+                } else {
+                    latest = CompletableFuture.completedFuture(result);
+                }
+            } catch (InvocationTargetException e) {
+                logger.warn("Refresh of operation method {} has failed, keeping its previous result", method.getName(), e.getTargetException());
+            } catch (Exception e) {
+                logger.warn("Refresh of operation method {} has failed, keeping its previous result", method.getName(), e);
+            } finally {
+                Refresher.BYPASS.remove();
+            }
+        }
+
+        private void cancel() {
+            final ScheduledFuture<?> s = schedule;
+            if (s != null) {
+                s.cancel(false);
+            }
+            owner.remove(key, this);
+        }
+    }
+
+    /*
+     * The Feign capability behind this Mocca capability, wrapping the
+     * invocation handler of every client built with it
+     */
+    private static final class Refresher implements feign.Capability {
+
+        // Set while a refresh is running, so its invocation reaches the remote server
+        private static final ThreadLocal<Boolean> BYPASS = new ThreadLocal<>();
+
+        private final ThreadLocal<Registration> pendingRegistration = new ThreadLocal<>();
+        private final List<Entry> entries = new CopyOnWriteArrayList<>();
+        private final ScheduledExecutorService scheduler;
+        private final boolean ownedScheduler;
+
+        private Refresher(final ScheduledExecutorService scheduler, final boolean ownedScheduler) {
+            this.scheduler = scheduler;
+            this.ownedScheduler = ownedScheduler;
+        }
+
+        @Override
+        public InvocationHandlerFactory enrich(final InvocationHandlerFactory invocationHandlerFactory) {
+            return (target, dispatch) -> new RefreshAheadInvocationHandler(invocationHandlerFactory.create(target, dispatch));
+        }
+
+        private void schedule(final Entry entry) {
+            final long intervalMillis = entry.refreshInterval.toMillis();
+            entry.schedule = scheduler.scheduleWithFixedDelay(entry::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            entries.add(entry);
+        }
+
+        private void close() {
+            final List<Entry> toCancel = new ArrayList<>(entries);
+            entries.clear();
+            toCancel.forEach(Entry::cancel);
+            if (ownedScheduler) {
+                scheduler.shutdownNow();
+            }
+        }
+
+        private final class RefreshAheadInvocationHandler implements InvocationHandler {
+            private final InvocationHandler delegate;
+            private final Map<List<Object>, Entry> registered = new ConcurrentHashMap<>();
+
+            private RefreshAheadInvocationHandler(final InvocationHandler delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                // Reactive methods are only invoked when subscribed, so they cannot be registered
+                if (method.getDeclaringClass() == Object.class || BYPASS.get() != null || MoccaReactiveFeign.isReactiveMethod(method)) {
+                    return delegate.invoke(proxy, method, args);
+                }
+
+                final List<Object> key = key(method, args);
+                final Registration registration = pendingRegistration.get();
+                if (registration != null) {
+                    return load(registration, key, proxy, method, args);
+                }
+
+                final Entry entry = registered.get(key);
+                final CompletableFuture<Object> cached = entry != null ? entry.cached() : null;
+                if (cached == null) {
+                    return delegate.invoke(proxy, method, args);
+                }
+                return entry.async ? cached : cached.join();
+            }
+
+            @SuppressWarnings("unchecked")
+            private Object load(final Registration registration, final List<Object> key, final Object proxy, final Method method, final Object[] args) throws Throwable {
+                Arguments.require(registration.captured == null, "The given invocation must call exactly one operation method");
+
+                final Entry entry = new Entry(registered, key, registration, method, args);
+                final Object result = delegate.invoke(proxy, method, args);
+                entry.latest = entry.async ? (CompletableFuture<Object>) result : CompletableFuture.completedFuture(result);
+
+                final Entry previous = registered.put(key, entry);
+                if (previous != null) {
+                    entries.remove(previous);
+                    previous.cancel();
+                }
+                registration.captured = entry;
+                return result;
+            }
+
+            private List<Object> key(final Method method, final Object[] args) {
+                final List<Object> key = new ArrayList<>(args == null ? 1 : args.length + 1);
+                key.add(method);
+                if (args != null) {
+                    key.addAll(Arrays.asList(args));
+                }
+                return Collections.unmodifiableList(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.paypal.mocca.client;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over all items of a GraphQL field following the
+ * <a href="https://relay.dev/graphql/connections.htm">Relay cursor connections specification</a>,
+ * fetching its pages sequentially, by cursor, while prefetching the next pages in the background,
+ * so the application can process the items of one page while the next ones are being fetched.
+ * <br>
+ * Each page is fetched by a {@link PageFetcher}, usually a lambda calling an async client
+ * operation method with the page size ({@code first}) and the cursor ({@code after}) as variables.
+ * See an example below.
+ * <pre><code>
+ * public interface AsyncBooksAppClient extends MoccaClient {
+ *
+ *     &#064;Query
+ *     CompletableFuture&#60;BookConnection&#62; books(@Var("first") int first, @Var("after") String after);
+ *
+ * }
+ *
+ * Stream&#60;Book&#62; books = MoccaRelayPaging.&#60;BookConnection, Book&#62;of(asyncClient::books)
+ *     .pageSize(500)
+ *     .prefetch(2)
+ *     .stream();
+ * </code></pre>
+ * The connection type returned by the page fetcher is read using Java beans conventions. It must have
+ * an {@code edges} list, whose elements have a {@code node} (or a {@code nodes} list), and a {@code pageInfo}
+ * with {@code endCursor} and {@code hasNextPage}. Alternatively, the items of a page can be read by a
+ * function set in {@link #nodes(Function)}. Sync clients can be used by fetching pages with
+ * {@code CompletableFuture.supplyAsync(() -> client.books(first, after), executor)}.
+ * <br>
+ * Iterators and streams returned by this class are not thread-safe, and block the consuming
+ * thread while a page not fetched yet is needed. A page fetch failure is thrown as a
+ * {@link MoccaException} by the iterator (or stream) once the failed page is reached.
+ *
+ * @param <C> the connection type
+ * @param <T> the node type
+ */
+public final class MoccaRelayPaging<C, T> implements Iterable<T> {
+
+    // Java bean property read methods per connection, edge and page info type
+    private static final Map<Class<?>, Map<String, Method>> readMethods = new ConcurrentHashMap<>();
+
+    /**
+     * Fetches one page of a Relay connection
+     *
+     * @param <C> the connection type
+     */
+    @FunctionalInterface
+    public interface PageFetcher<C> {
+
+        /**
+         * Starts fetching a page of a Relay connection
+         *
+         * @param first the page size
+         * @param after the cursor of the last item of the previous page, or null for the first page
+         * @return the stage completed with the fetched page
+         */
+        CompletionStage<C> fetch(int first, String after);
+    }
+
+    private final PageFetcher<C> fetcher;
+    private int pageSize = 100;
+    private int prefetch = 1;
+    private Function<C, ? extends Collection<T>> nodes;
+
+    private MoccaRelayPaging(final PageFetcher<C> fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Creates a new Relay connection paging helper
+     *
+     * @param fetcher the page fetcher
+     * @param <C>     the connection type
+     * @param <T>     the node type
+     * @return a new Relay connection paging helper
+     */
+    public static <C, T> MoccaRelayPaging<C, T> of(final PageFetcher<C> fetcher) {
+        return new MoccaRelayPaging<>(Arguments.requireNonNull(fetcher, "Page fetcher cannot be null"));
+    }
+
+    /**
+     * Sets the number of items requested per page. The default value is 100.
+     *
+     * @param pageSize the number of items requested per page
+     * @return this paging helper
+     */
+    public MoccaRelayPaging<C, T> pageSize(final int pageSize) {
+        Arguments.require(pageSize > 0, "Page size must be positive");
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of pages fetched ahead of the page being consumed.
+     * The default value is 1. If set to 0, a page is only fetched when the
+     * previous page has been completely consumed.
+     *
+     * @param prefetch the maximum number of pages fetched ahead
+     * @return this paging helper
+     */
+    public MoccaRelayPaging<C, T> prefetch(final int prefetch) {
+        Arguments.require(prefetch >= 0, "Prefetch cannot be negative");
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    /**
+     * Sets the function returning the items of a page, as opposed to reading them from its edges
+     *
+     * @param nodes the function returning the items of a page
+     * @return this paging helper
+     */
+    public MoccaRelayPaging<C, T> nodes(final Function<C, ? extends Collection<T>> nodes) {
+        this.nodes = Arguments.requireNonNull(nodes, "Nodes function cannot be null");
+        return this;
+    }
+
+    /**
+     * Returns an iterator over all items of the connection. The first page is requested immediately.
+     *
+     * @return an iterator over all items of the connection
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new PageIterator();
+    }
+
+    /**
+     * Returns a sequential stream over all items of the connection. The first page is requested
+     * immediately, and closing the stream cancels the pages being fetched.
+     *
+     * @return a stream over all items of the connection
+     */
+    public Stream<T> stream() {
+        final PageIterator iterator = new PageIterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+    }
+
+    private final class PageIterator implements Iterator<T> {
+
+        // Pages fetched, or being fetched, but not consumed yet, each completed only after its page info is read
+        private final Deque<CompletableFuture<C>> pages = new ArrayDeque<>();
+        // Not a monitor, so virtual threads fetching pages are not pinned
+        private final ReentrantLock lock = new ReentrantLock();
+        private Iterator<T> current = Collections.emptyIterator();
+        private String cursor;
+        private boolean hasNextPage = true;
+        private boolean fetching;
+        private boolean closed;
+
+        private PageIterator() {
+            fetch(Math.max(prefetch, 1));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                final CompletableFuture<C> page;
+                lock.lock();
+                try {
+                    // Without prefetching, the next page is only requested once the current one is consumed
+                    if (pages.isEmpty()) {
+                        fetch(1);
+                    }
+                    page = pages.pollFirst();
+                    if (page == null) return false;
+                    fetch(prefetch);
+                } finally {
+                    lock.unlock();
+                }
+                current = getNodes(join(page)).iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return current.next();
+        }
+
+        private void close() {
+            lock.lock();
+            try {
+                closed = true;
+                hasNextPage = false;
+                pages.forEach(p -> p.cancel(true));
+                pages.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /*
+         * Starts fetching the next page, unless a page is being fetched, there is no next page,
+         * or the given number of pages have already been fetched ahead
+         */
+        private void fetch(final int limit) {
+            lock.lock();
+            try {
+                if (fetching || !hasNextPage || closed || pages.size() >= limit) return;
+                fetching = true;
+                CompletableFuture<C> page;
+                try {
+                    page = fetcher.fetch(pageSize, cursor).toCompletableFuture();
+                } catch (RuntimeException e) {
+                    page = new CompletableFuture<>();
+                    page.completeExceptionally(e);
+                }
+                final CompletableFuture<C> fetched = page;
+                final CompletableFuture<C> processed = new CompletableFuture<>();
+                pages.addLast(processed);
+                processed.whenComplete((r, t) -> {
+                    if (processed.isCancelled()) {
+                        fetched.cancel(true);
+                    }
+                });
+                fetched.whenComplete((result, throwable) -> {
+                    try {
+                        onPage(result, throwable);
+                    } finally {
+                        if (throwable != null) {
+                            processed.completeExceptionally(throwable);
+                        } else {
+                            processed.complete(result);
+                        }
+                    }
+                });
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void onPage(final C page, final Throwable throwable) {
+            lock.lock();
+            try {
+                fetching = false;
+                if (throwable != null || page == null) {
+                    // The failure is reported when the failed page is consumed
+                    hasNextPage = false;
+                    return;
+                }
+                try {
+                    final Object pageInfo = getProperty(page, "pageInfo");
+                    final Object next = pageInfo == null ? null : getProperty(pageInfo, "hasNextPage");
+                    cursor = pageInfo == null ? null : (String) getProperty(pageInfo, "endCursor");
+                    hasNextPage = Boolean.TRUE.equals(next) && cursor != null;
+                } catch (RuntimeException e) {
+                    hasNextPage = false;
+                    return;
+                }
+                fetch(prefetch);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private C join(final CompletableFuture<C> page) {
+            try {
+                final C result = page.join();
+                if (result == null) {
+                    throw new MoccaException("Relay connection page is null");
+                }
+                return result;
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof MoccaException) {
+                    throw (MoccaException) e.getCause();
+                }
+                throw new MoccaException("Relay connection page could not be fetched", e.getCause());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<T> getNodes(final C page) {
+        if (nodes != null) {
+            final Collection<T> pageNodes = nodes.apply(page);
+            return pageNodes == null ? Collections.emptyList() : pageNodes;
+        }
+
+        final Object edges = getProperty(page, "edges");
+        if (edges == null) {
+            final Object pageNodes = getProperty(page, "nodes");
+            return pageNodes == null ? Collections.emptyList() : (Collection<T>) pageNodes;
+        }
+        final List<T> result = new ArrayList<>();
+        for (Object edge : (Collection<?>) edges) {
+            if (edge != null) {
+                result.add((T) getProperty(edge, "node"));
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Returns the value of the given Java bean property, or null if the property does not exist
+     */
+    private static Object getProperty(final Object bean, final String name) {
+        final Method readMethod = readMethods.computeIfAbsent(bean.getClass(), MoccaRelayPaging::getReadMethods).get(name);
+        if (readMethod == null) {
+            return null;
+        }
+        try {
+            return readMethod.invoke(bean);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new MoccaException("Property " + name + " of Relay connection type " + bean.getClass().getName() + " could not be read", e);
+        }
+    }
+
+    private static Map<String, Method> getReadMethods(final Class<?> type) {
+        try {
+            final Map<String, Method> result = new HashMap<>();
+            for (PropertyDescriptor pd : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                if (pd.getReadMethod() != null) {
+                    result.put(pd.getName(), pd.getReadMethod());
+                }
+            }
+            return result;
+        } catch (IntrospectionException e) {
+            throw new MoccaException("Relay connection type " + type.getName() + " could not be introspected", e);
+        }
+    }
+}
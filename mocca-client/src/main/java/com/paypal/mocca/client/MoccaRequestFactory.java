@@ -0,0 +1,85 @@
+package com.paypal.mocca.client;
+
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Target;
+import feign.codec.Encoder;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Creates the requests of operation methods not executed by Feign, such as subscription methods,
+ * the same way Feign creates them for the other operation methods. The Mocca contract metadata of
+ * the client API type provides the static headers and the header templates, the client encoder
+ * validates the arguments and serializes the payload, and the arguments resolve the header templates.
+ */
+final class MoccaRequestFactory {
+
+    private final Target<?> target;
+    private final Encoder encoder;
+
+    // Parsed on first use, as Feign does when the client is built, unless lazy initialization is set
+    private volatile Map<Method, MethodMetadata> metadata;
+
+    MoccaRequestFactory(final Class<?> apiType, final String graphQLUrl, final Encoder encoder) {
+        this.target = new Target.HardCodedTarget<>(apiType, graphQLUrl);
+        this.encoder = encoder;
+    }
+
+    /*
+     * Returns the request of the given operation method invocation. Arguments whose value is null
+     * leave their header templates unresolved, in which case those headers are not sent, as in Feign.
+     */
+    Request create(final Method method, final Object[] args) {
+        final MethodMetadata methodMetadata = metadata().get(method);
+        if (methodMetadata == null) {
+            throw new MoccaException("Operation method " + method.getName() + " is not declared by client API " + target.type().getName());
+        }
+
+        final RequestTemplate template = RequestTemplate.from(methodMetadata.template());
+        template.feignTarget(target);
+        template.methodMetadata(methodMetadata);
+        encoder.encode(args, Object[].class, template);
+
+        final Map<String, Object> variables = new LinkedHashMap<>();
+        methodMetadata.indexToName().forEach((index, names) -> {
+            if (args[index] != null) {
+                names.forEach(name -> variables.put(name, args[index]));
+            }
+        });
+        return target.apply(template.resolve(variables));
+    }
+
+    /*
+     * Returns the headers of the given request, except the JSON content type and accept headers set by the Mocca
+     * contract for HTTP requests, which subscription and incremental clients set themselves, if they apply.
+     * Header values are lists, so headers can be compared.
+     */
+    static Map<String, Collection<String>> headers(final Request request) {
+        final Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        request.headers().forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+        headers.remove("Content-Type");
+        headers.remove("Accept");
+        return headers;
+    }
+
+    private Map<Method, MethodMetadata> metadata() {
+        Map<Method, MethodMetadata> result = metadata;
+        if (result == null) {
+            result = new HashMap<>();
+            for (MethodMetadata methodMetadata : new MoccaFeignContract().parseAndValidateMetadata(target.type())) {
+                result.put(methodMetadata.method(), methodMetadata);
+            }
+            metadata = result;
+        }
+        return result;
+    }
+
+}
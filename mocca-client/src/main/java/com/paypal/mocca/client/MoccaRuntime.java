@@ -0,0 +1,99 @@
+package com.paypal.mocca.client;
+
+import javax.validation.Validator;
+
+/**
+ * Set of components shared by every Mocca client built with it, as opposed to each client having its own.
+ * These are the HTTP client (and then its connection pool, which keeps connections per host),
+ * the JSON object mapper, the cache of response type metadata (selection sets) and the bean validator.
+ * They are used by every operation method of those clients, including subscription methods and the ones
+ * returning incremental results, whose requests and responses are serialized the same way.
+ * <br>
+ * Applications defining many client APIs against the same GraphQL servers should build all of them
+ * with the same runtime, as seen in the example below.
+ * <pre><code>
+ * MoccaRuntime runtime = new MoccaRuntime.Builder()
+ *     .client(new MoccaOkHttpClient())
+ *     .build();
+ *
+ * BooksAppClient booksClient = MoccaClient.Builder
+ *     .sync("https://gateway.com/booksapp")
+ *     .runtime(runtime)
+ *     .build(BooksAppClient.class);
+ *
+ * AuthorsAppClient authorsClient = MoccaClient.Builder
+ *     .sync("https://gateway.com/authorsapp")
+ *     .runtime(runtime)
+ *     .build(AuthorsAppClient.class);
+ * </code></pre>
+ * HTTP clients set directly in a Mocca client builder take precedence over the runtime ones.
+ * If no HTTP client is set in the runtime, the Mocca default HTTP client is used, whose
+ * connections are already shared by the JVM. A runtime is thread-safe.
+ */
+public final class MoccaRuntime {
+
+    public static class Builder {
+        private MoccaHttpClient httpClient;
+        private MoccaAsyncHttpClient<?> asyncHttpClient;
+
+        public MoccaRuntime build() {
+            return new MoccaRuntime(this);
+        }
+
+        /**
+         * Sets the HTTP client shared by sync clients built with this runtime
+         *
+         * @param httpClient the HTTP client shared by sync clients
+         * @return this builder
+         */
+        public Builder client(final MoccaHttpClient httpClient) {
+            this.httpClient = Arguments.requireNonNull(httpClient, "HTTP client cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the async HTTP client shared by async clients built with this runtime
+         *
+         * @param asyncHttpClient the async HTTP client shared by async clients
+         * @return this builder
+         */
+        public Builder asyncClient(final MoccaAsyncHttpClient<?> asyncHttpClient) {
+            this.asyncHttpClient = Arguments.requireNonNull(asyncHttpClient, "Async HTTP client cannot be null");
+            return this;
+        }
+    }
+
+    private final MoccaHttpClient httpClient;
+    private final MoccaAsyncHttpClient<?> asyncHttpClient;
+    private final MoccaSerializer serializer = new MoccaSerializer();
+    private final MoccaDeserializer deserializer = new MoccaDeserializer();
+    private final Validator validator = MoccaFeignEncoder.buildValidator();
+
+    private MoccaRuntime(final Builder builder) {
+        this.httpClient = builder.httpClient;
+        this.asyncHttpClient = builder.asyncHttpClient;
+    }
+
+    /*
+     * Returns the shared HTTP client, or null if not set
+     */
+    MoccaHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /*
+     * Returns the shared async HTTP client, or null if not set
+     */
+    MoccaAsyncHttpClient<?> getAsyncHttpClient() {
+        return asyncHttpClient;
+    }
+
+    MoccaFeignEncoder newEncoder() {
+        return new MoccaFeignEncoder(serializer, validator);
+    }
+
+    MoccaFeignDecoder newDecoder() {
+        return new MoccaFeignDecoder(deserializer);
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.paypal.mocca.client;
+
+import feign.InvocationHandlerFactory;
+import feign.Target;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * A memoization scope for GraphQL query results, usually spanning one inbound request of the application.
+ * Within an open scope, repeated invocations of the same query method of the same client, with equal
+ * arguments (which cover variables, dynamic headers and target URL), return the result of the
+ * first invocation, or share its future, without another remote call. Different clients, even if of the
+ * same API type, never share results. Mutations are never memoized, and failed invocations are not
+ * memoized either, so they can be retried within the same scope.
+ * <br>
+ * See an example below.
+ * <pre><code>
+ * try (MoccaScope scope = MoccaScope.open()) {
+ *     Book book = client.getBook(7);
+ *     ...
+ *     // No remote call, the same result is returned
+ *     Book sameBook = client.getBook(7);
+ * }
+ * </code></pre>
+ * A scope is bound to the thread that opened it. Results of async clients are completed with the
+ * scope bound to the completing thread, so dependent stages that are not executed asynchronously
+ * (e.g. {@code thenCompose} as opposed to {@code thenComposeAsync}) are still part of the scope.
+ * Other threads can join the scope by using {@link #wrap(Runnable)}, {@link #wrap(Supplier)}
+ * or {@link #wrap(Executor)}.
+ * <br>
+ * Notice that arguments are compared using their {@code equals} method, so invocations whose arguments
+ * do not implement it, such as request DTOs, are only memoized if given the same instances, which must not
+ * be modified while the scope is open. Invocations outside of a scope are not affected in any way.
+ */
+public final class MoccaScope implements AutoCloseable {
+
+    private static final ThreadLocal<MoccaScope> CURRENT = new ThreadLocal<>();
+
+    /*
+     * Feign capability applied by Mocca builders to every client
+     */
+    static final feign.Capability FEIGN_CAPABILITY = new feign.Capability() {
+        @Override
+        public InvocationHandlerFactory enrich(final InvocationHandlerFactory invocationHandlerFactory) {
+            return (target, dispatch) -> new MemoizingInvocationHandler(target, invocationHandlerFactory.create(target, dispatch));
+        }
+    };
+
+    private final Map<List<Object>, CompletableFuture<Object>> results = new ConcurrentHashMap<>();
+    private final MoccaScope previous;
+    private volatile boolean closed;
+
+    private MoccaScope(final MoccaScope previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Opens a new scope and binds it to the current thread, until it is closed.
+     * If another scope was bound to the current thread, it is restored when the new one is closed.
+     *
+     * @return the new scope
+     */
+    public static MoccaScope open() {
+        final MoccaScope scope = new MoccaScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Returns a runnable that executes {@code runnable} with this scope bound to the executing thread
+     *
+     * @param runnable the runnable to be executed within this scope
+     * @return a runnable that executes {@code runnable} within this scope
+     */
+    public Runnable wrap(final Runnable runnable) {
+        Arguments.requireNonNull(runnable, "Runnable cannot be null");
+        return () -> within(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns a supplier that executes {@code supplier} with this scope bound to the executing thread
+     *
+     * @param supplier the supplier to be executed within this scope
+     * @param <T>      the type of results supplied
+     * @return a supplier that executes {@code supplier} within this scope
+     */
+    public <T> Supplier<T> wrap(final Supplier<T> supplier) {
+        Arguments.requireNonNull(supplier, "Supplier cannot be null");
+        return () -> within(supplier);
+    }
+
+    /**
+     * Returns an executor that runs every task given to it within this scope, delegating to {@code executor}.
+     * This is useful with async stages, such as {@code thenComposeAsync(fn, scope.wrap(executor))}.
+     *
+     * @param executor the executor in charge of running the tasks
+     * @return an executor that runs every task within this scope
+     */
+    public Executor wrap(final Executor executor) {
+        Arguments.requireNonNull(executor, "Executor cannot be null");
+        return command -> executor.execute(wrap(command));
+    }
+
+    /**
+     * Closes this scope, discarding all memoized results. If this scope is bound to the
+     * current thread, the scope bound before it was opened, if any, is bound again.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        results.clear();
+        if (CURRENT.get() == this) {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    private <T> T within(final Supplier<T> supplier) {
+        final MoccaScope outer = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return supplier.get();
+        } finally {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    /*
+     * Returns the memoization key of an operation method invocation, or null if the invocation should not
+     * be memoized. The key is based on the client, its target URL, the method and its arguments, which cover
+     * the GraphQL variables, the dynamic headers and the invocation target URL. Arguments are compared with
+     * equals, so the request does not have to be serialized just to compute the key.
+     */
+    private static List<Object> key(final MemoizingInvocationHandler client, final Method method, final Object[] args) {
+        if (method.getDeclaringClass() == Object.class) return null;
+        try {
+            if (MoccaFeignEncoder.getOperationType(method) != OperationType.Query) return null;
+        } catch (RuntimeException e) {
+            // The invocation itself will report the problem
+            return null;
+        }
+        return Arrays.asList(client, client.target.url(), method, args == null ? Collections.emptyList() : Arrays.asList(args));
+    }
+
+    /*
+     * Invocation handler of a client, whose identity is part of the memoization keys
+     */
+    private static final class MemoizingInvocationHandler implements InvocationHandler {
+        private final Target<?> target;
+        private final InvocationHandler delegate;
+
+        private MemoizingInvocationHandler(final Target<?> target, final InvocationHandler delegate) {
+            this.target = target;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final MoccaScope scope = CURRENT.get();
+            if (scope == null || scope.closed) {
+                return delegate.invoke(proxy, method, args);
+            }
+            final List<Object> key = key(this, method, args);
+            if (key == null) {
+                return delegate.invoke(proxy, method, args);
+            }
+            // Reactive methods are invoked when subscribed, with the staged future as result
+            return CompletableFuture.class.isAssignableFrom(method.getReturnType()) || MoccaReactiveFeign.isReactiveMethod(method) ?
+                    invokeAsync(scope, key, proxy, method, args) :
+                    invokeSync(scope, key, proxy, method, args);
+        }
+
+        private Object invokeSync(final MoccaScope scope, final List<Object> key, final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final CompletableFuture<Object> first = new CompletableFuture<>();
+            final CompletableFuture<Object> existing = scope.results.putIfAbsent(key, first);
+            if (existing != null) {
+                try {
+                    return existing.join();
+                } catch (CompletionException e) {
+                    throw e.getCause();
+                }
+            }
+            try {
+                final Object result = delegate.invoke(proxy, method, args);
+                first.complete(result);
+                return result;
+            } catch (Throwable t) {
+                scope.results.remove(key, first);
+                first.completeExceptionally(t);
+                throw t;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object invokeAsync(final MoccaScope scope, final List<Object> key, final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final CompletableFuture<Object> first = new CompletableFuture<>();
+            CompletableFuture<Object> shared = scope.results.putIfAbsent(key, first);
+            if (shared == null) {
+                shared = first;
+                final CompletableFuture<Object> remote;
+                try {
+                    remote = (CompletableFuture<Object>) delegate.invoke(proxy, method, args);
+                } catch (Throwable t) {
+                    scope.results.remove(key, first);
+                    first.completeExceptionally(t);
+                    throw t;
+                }
+                remote.whenComplete((value, throwable) -> {
+                    if (throwable == null) {
+                        first.complete(value);
+                    } else {
+                        scope.results.remove(key, first);
+                        first.completeExceptionally(throwable);
+                    }
+                });
+            }
+
+            // Every caller gets its own future, completed within the scope
+            final CompletableFuture<Object> result = new CompletableFuture<>();
+            shared.whenComplete((value, throwable) -> scope.within(() ->
+                    throwable == null ? result.complete(value) : result.completeExceptionally(throwable)));
+            return result;
+        }
+    }
+}
@@ -20,15 +20,18 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.paypal.mocca.client.MoccaReflection.erase;
 import static com.paypal.mocca.client.MoccaReflection.getInnerType;
+import static com.paypal.mocca.client.MoccaReflection.getReactiveInnerType;
 import static com.paypal.mocca.client.MoccaReflection.isParameterizedType;
 
 /**
@@ -40,6 +43,9 @@ class MoccaSerializer {
 
     private static final Logger logger = LoggerFactory.getLogger(MoccaSerializer.class);
 
+    // Selection sets only depend on the operation method, so they are written once per method
+    private final Map<List<Object>, byte[]> selectionSets = new ConcurrentHashMap<>();
+
     MoccaSerializer() {
     }
 
@@ -95,7 +101,8 @@ class MoccaSerializer {
         writeRequestVariables(requestPayload, variables);
 
         // Adding selection set according to client configuration
-        writeSelectionSet(requestPayload, operationName, selectionSet, responseType);
+        final byte[] selectionSetPayload = getSelectionSet(operationName, selectionSet, responseType);
+        requestPayload.write(selectionSetPayload, 0, selectionSetPayload.length);
 
         // Adding end of payload right after selection set
         write(requestPayload, "}\"}");
@@ -103,6 +110,27 @@ class MoccaSerializer {
         return requestPayload.toByteArray();
     }
 
+    /*
+     * Returns the selection set section of the request payload of the given operation, writing it only
+     * the first time. Calling it ahead of the first request saves the response type introspection cost.
+     *
+     * @param operationName the name of the GraphQL operation
+     * @param selectionSet the annotation used to specify the GraphQL selection set for this request
+     * @param responseType the return type set in the GraphQL operation method
+     * @return the selection set section of the request payload
+     */
+    byte[] getSelectionSet(final String operationName, final SelectionSet selectionSet, final Type responseType) {
+        final List<Object> key = Arrays.asList(operationName, selectionSet, responseType);
+        byte[] selectionSetPayload = selectionSets.get(key);
+        if (selectionSetPayload == null) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeSelectionSet(out, operationName, selectionSet, responseType);
+            selectionSetPayload = out.toByteArray();
+            selectionSets.putIfAbsent(key, selectionSetPayload);
+        }
+        return selectionSetPayload;
+    }
+
     /*
      * This class represents a key value pair object and is useful
      * when processing properties in a request DTO object or response type
@@ -389,22 +417,25 @@ class MoccaSerializer {
      */
     private void writeSelectionSet(final ByteArrayOutputStream requestPayload, final String operationName, final SelectionSet selectionSet, Type responseType) {
 
-        if (selectionSet != null && isUndefinedOrNullOrEmpty(selectionSet.value()) && isUndefinedOrNullOrEmpty(selectionSet.ignore())) {
+        final boolean hasFieldDirectives = selectionSet != null && (selectionSet.defer().length > 0 || selectionSet.stream().length > 0);
+        if (selectionSet != null && isUndefinedOrNullOrEmpty(selectionSet.value()) && isUndefinedOrNullOrEmpty(selectionSet.ignore()) && !hasFieldDirectives) {
             throw new MoccaException("A com.paypal.mocca.client.annotation.SelectionSet annotation with undefined value and ignore fields is present at the method related to operation "
                     + operationName + ". Please, set its value or ignore fields, or remove the annotation, letting Mocca use the return type to automatically set the selection set.");
         } else if (selectionSet != null && !isUndefinedOrNullOrEmpty(selectionSet.value())) {
             // Adding selection set using the selection set annotation with value
-            if(!isUndefinedOrNullOrEmpty(selectionSet.ignore())) {
-                logger.warn("Value and ignore fields are both set in the com.paypal.mocca.client.annotation.SelectionSet annotation at "
-                        + operationName + ". Value will be used to generate the selection set and no fields will be ignored.");
+            if(!isUndefinedOrNullOrEmpty(selectionSet.ignore()) || hasFieldDirectives) {
+                logger.warn("Value and ignore, defer or stream fields are both set in the com.paypal.mocca.client.annotation.SelectionSet annotation at "
+                        + operationName + ". Value will be used to generate the selection set and no fields will be ignored, deferred or streamed.");
             }
             writeUserProvidedSelectionSet(requestPayload, selectionSet);
-        } else if(selectionSet != null && !isUndefinedOrNullOrEmpty(selectionSet.ignore())) {
-            // Adding selection set using the ignore values in the selection set annotation
-            writeResponseTypeSelectionSet(requestPayload, responseType, Arrays.asList(selectionSet.ignore()));
+        } else if(selectionSet != null) {
+            // Adding selection set using the ignore, defer and stream values in the selection set annotation
+            final List<String> ignoreFields = isUndefinedOrNullOrEmpty(selectionSet.ignore()) || SelectionSet.UNDEFINED.equals(selectionSet.ignore()[0]) ?
+                    Collections.emptyList() : Arrays.asList(selectionSet.ignore());
+            writeResponseTypeSelectionSet(requestPayload, responseType, ignoreFields, Arrays.asList(selectionSet.defer()), Arrays.asList(selectionSet.stream()));
         } else if (responseType != null) {
             // Adding selection set using the response type and empty ignore list
-            writeResponseTypeSelectionSet(requestPayload, responseType, Collections.emptyList());
+            writeResponseTypeSelectionSet(requestPayload, responseType, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
         } else {
             logger.debug("Response type is null and a custom selection set was not provided, so a selection set will not be written to the GraphQL operation");
         }
@@ -438,14 +469,16 @@ class MoccaSerializer {
      * @param requestPayload the output stream object used to write the selection set, based on the other parameters
      * @param responseType the return type set in the GraphQL operation method, necessary to dynamically set the selection set
      * @param ignoreFields the list of fields which have to be ignored in selection set generation
+     * @param deferFields the list of fields which have to be wrapped by a deferred inline fragment
+     * @param streamFields the list of list fields which have to be streamed
      * @throws MoccaException if a cycle is found or any error happens when writing the selection set
      */
-    private void writeResponseTypeSelectionSet(final ByteArrayOutputStream requestPayload, final Type responseType, List<String> ignoreFields) {
+    private void writeResponseTypeSelectionSet(final ByteArrayOutputStream requestPayload, final Type responseType, List<String> ignoreFields, List<String> deferFields, List<String> streamFields) {
 
         // This is necessary to detect cycles and prevent stack overflow
         Set<Type> seenPojoTypes = new HashSet<>();
 
-        writeResponseTypeSelectionSet(requestPayload, responseType, seenPojoTypes, ignoreFields);
+        writeResponseTypeSelectionSet(requestPayload, responseType, seenPojoTypes, ignoreFields, deferFields, streamFields);
     }
 
     /*
@@ -456,14 +489,18 @@ class MoccaSerializer {
      * @param responseType the return type set in the GraphQL operation method, necessary to dynamically set the selection set
      * @param seenPojoTypes to detect cycles and prevent stack overflow
      * @param ignoreFields the list of fields which have to be ignored in selection set generation
+     * @param deferFields the list of fields which have to be wrapped by a deferred inline fragment
+     * @param streamFields the list of list fields which have to be streamed
      * @throws MoccaException if a cycle is found or any error happens when writing the selection set
      */
-    private void writeResponseTypeSelectionSet(final ByteArrayOutputStream requestPayload, final Type responseType, Set<Type> seenPojoTypes, List<String> ignoreFields) throws MoccaException {
+    private void writeResponseTypeSelectionSet(final ByteArrayOutputStream requestPayload, final Type responseType, Set<Type> seenPojoTypes, List<String> ignoreFields, List<String> deferFields, List<String> streamFields) throws MoccaException {
         try {
 
             // Retrieving type out of parameterized types if necessary
-            final Type cfResponseType = getInnerType(responseType, CompletableFuture.class).orElse(responseType);
-            final Type listResponseType = getInnerType(cfResponseType, List.class).orElse(cfResponseType);
+            final Type asyncResponseType = getInnerType(responseType, CompletableFuture.class)
+                    .orElseGet(() -> getInnerType(responseType, MoccaIncrementalResult.class)
+                    .orElseGet(() -> getReactiveInnerType(responseType).orElse(responseType)));
+            final Type listResponseType = getInnerType(asyncResponseType, List.class).orElse(asyncResponseType);
             final Type rawResponseType = getInnerType(listResponseType, Optional.class).orElse(listResponseType);
 
             if (isEnum(rawResponseType)) {
@@ -500,19 +537,24 @@ class MoccaSerializer {
                     .map(pd -> new Tuple<>(pd.getName(), pd.getReadMethod().getGenericReturnType()))
                     .map(e -> {
                         Type type = e.value;
-                        final List<String> nextIgnoreFields = getNextIgnoreFields(e.key + ".", ignoreFields);
+                        final String prefix = e.key + ".";
+                        final List<String> nextIgnoreFields = getNextIgnoreFields(prefix, ignoreFields);
+                        final List<String> nextDeferFields = getNextIgnoreFields(prefix, deferFields);
+                        final List<String> nextStreamFields = getNextIgnoreFields(prefix, streamFields);
+                        final String fieldName = streamFields.contains(e.key) ? e.key + " @stream(initialCount: 0)" : e.key;
+                        String field = fieldName;
                         if (isPojo(type)) {
-                            return writeSelectionSetPojo(e.key, type, seenPojoTypes, nextIgnoreFields);
+                            field = writeSelectionSetPojo(fieldName, type, seenPojoTypes, nextIgnoreFields, nextDeferFields, nextStreamFields);
                         } else if (isParameterizedType(type)) {
                             // Here we know it is either an Optional or a List
                             final Type typeParameter = getInnerType(type);
                             if (isPojo(typeParameter)) {
-                                return writeSelectionSetPojo(e.key, typeParameter, seenPojoTypes, nextIgnoreFields);
+                                field = writeSelectionSetPojo(fieldName, typeParameter, seenPojoTypes, nextIgnoreFields, nextDeferFields, nextStreamFields);
                             }
                         }
-                        // If this line is reached, that means this is not a POJO and serialization
-                        // (for this particular field at least) in the selection set should end here.
-                        return e.key;
+                        // If the field is not a POJO, serialization (for this particular
+                        // field at least) in the selection set ends with its name.
+                        return deferFields.contains(e.key) ? "... @defer {" + field + "}" : field;
                     })
                     .collect(Collectors.toList());
             write(requestPayload, String.join(" ", selectionSet));
@@ -530,11 +572,13 @@ class MoccaSerializer {
      * @param fieldName the element (GraphQL field name and type) whose String representation should be returned
      * @param type the particular type to be used to create the String representation of the given element
      * @param ignoreFields the list of fields which have to be ignored in selection set generation
+     * @param deferFields the list of fields which have to be wrapped by a deferred inline fragment
+     * @param streamFields the list of list fields which have to be streamed
      * @return the String representation of a POJO in GraphQL SelectionSet notation
      */
-    private String writeSelectionSetPojo(final String fieldName, final Type type, Set<Type> seenPojoTypes, List<String> ignoreFields) {
+    private String writeSelectionSetPojo(final String fieldName, final Type type, Set<Type> seenPojoTypes, List<String> ignoreFields, List<String> deferFields, List<String> streamFields) {
         ByteArrayOutputStream complexVariable = new ByteArrayOutputStream();
-        writeResponseTypeSelectionSet(complexVariable, type, seenPojoTypes, ignoreFields);
+        writeResponseTypeSelectionSet(complexVariable, type, seenPojoTypes, ignoreFields, deferFields, streamFields);
         return fieldName + complexVariable.toString();
     }
 
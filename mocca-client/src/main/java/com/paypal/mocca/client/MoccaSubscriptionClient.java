@@ -0,0 +1,32 @@
+package com.paypal.mocca.client;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An abstract class representing a client able to execute GraphQL subscriptions, usually over
+ * a long-lived connection, such as a WebSocket. Subclasses are supposed to work as wrappers to
+ * their transport, and must adhere to the same rules described in {@link MoccaAsyncHttpClient}.
+ * A subscription client is registered using
+ * {@link MoccaClient.Builder.AsyncBuilder#subscriptionClient(MoccaSubscriptionClient)}.
+ */
+abstract class MoccaSubscriptionClient {
+
+    /**
+     * Returns a cold {@code java.util.concurrent.Flow.Publisher} that, every time it is subscribed, starts
+     * a new GraphQL subscription and emits each of its events, decoded by {@code eventDecoder}, honoring
+     * the subscriber demand. Events decoded as {@code null} must be skipped. Cancelling the subscription
+     * must stop the GraphQL subscription.
+     *
+     * @param graphQLUrl   the GraphQL server URL set in the Mocca builder, or by the {@code TargetUrl} argument
+     * @param request      the GraphQL request payload, a JSON object containing the subscription document
+     * @param headers      the headers set in the client API, with {@code RequestHeader} and {@code RequestHeaderParam},
+     *                     to be sent when starting the subscription, such as in the connection handshake
+     * @param eventDecoder decodes the payload of each event (a GraphQL response JSON object), throwing
+     *                     a {@link MoccaException} if it contains errors
+     * @return a {@code java.util.concurrent.Flow.Publisher} emitting the subscription events
+     */
+    abstract Object subscribe(String graphQLUrl, byte[] request, Map<String, Collection<String>> headers, Function<byte[], Object> eventDecoder);
+
+}
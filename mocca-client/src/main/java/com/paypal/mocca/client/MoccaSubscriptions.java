@@ -0,0 +1,66 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Subscription;
+import feign.Request;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+
+/**
+ * Serves the GraphQL subscription methods of async Mocca clients, creating their requests
+ * with the client encoder and decoding their events with the client deserializer, while
+ * the subscription itself is executed by a {@link MoccaSubscriptionClient}.
+ */
+final class MoccaSubscriptions {
+
+    private MoccaSubscriptions() {
+    }
+
+    /*
+     * Returns true if the given client API declares at least one GraphQL subscription method
+     */
+    static boolean hasSubscriptionMethods(final Class<?> apiType) {
+        for (Method method : apiType.getMethods()) {
+            if (method.isAnnotationPresent(Subscription.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Returns a client that serves the GraphQL subscription methods using the given subscription
+     * client, and delegates all other methods to the given client. The given encoder validates the
+     * subscription arguments against the returned client.
+     */
+    @SuppressWarnings("unchecked")
+    static <C extends MoccaClient> C combine(final Class<C> apiType, final C client, final MoccaSubscriptionClient subscriptionClient,
+                                             final String graphQLUrl, final MoccaFeignEncoder encoder, final MoccaDeserializer deserializer) {
+        final MoccaRequestFactory requestFactory = new MoccaRequestFactory(apiType, graphQLUrl, encoder);
+        final C combined = (C) Proxy.newProxyInstance(apiType.getClassLoader(), new Class<?>[]{apiType}, (proxy, method, args) -> {
+            if (method.isAnnotationPresent(Subscription.class)) {
+                return subscribe(subscriptionClient, requestFactory, deserializer, method, args == null ? new Object[0] : args);
+            }
+            try {
+                return method.invoke(client, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        });
+        encoder.setClient(combined);
+        return combined;
+    }
+
+    private static Object subscribe(final MoccaSubscriptionClient subscriptionClient, final MoccaRequestFactory requestFactory,
+                                    final MoccaDeserializer deserializer, final Method method, final Object[] args) {
+        final String operationName = MoccaFeignEncoder.getOperationName(method);
+        final Type eventType = MoccaReflection.getInnerType(method.getGenericReturnType());
+        final Request request = requestFactory.create(method, args);
+        return subscriptionClient.subscribe(request.url(), request.body(), MoccaRequestFactory.headers(request),
+                event -> deserializer.deserialize(new ByteArrayInputStream(event), eventType, operationName).orElse(null));
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Timeout;
+import feign.AsyncClient;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Applies the timeouts set with {@link Timeout} and the remaining time of the current
+ * {@link MoccaDeadline} to every request, by replacing the Feign request options of each call.
+ * Applied by Mocca builders to every client.
+ */
+final class MoccaTimeouts {
+
+    private static final Optional<Timeout> NO_TIMEOUT = Optional.empty();
+    // Keyed by client API type and method, since a method inherited by multiple client APIs can get its timeout from each of them
+    private static final Map<List<Object>, Optional<Timeout>> timeouts = new ConcurrentHashMap<>();
+
+    /*
+     * Feign capability applied by Mocca builders to every sync client
+     */
+    static final feign.Capability FEIGN_CAPABILITY = new feign.Capability() {
+        @Override
+        public Client enrich(final Client client) {
+            return (request, options) -> {
+                final Optional<Timeout> timeout = getTimeout(request);
+                final long budgetNanos = budgetNanos(request, timeout);
+                return client.execute(request, options(options, timeout, budgetNanos));
+            };
+        }
+    };
+
+    private MoccaTimeouts() {
+    }
+
+    /*
+     * Async clients, besides having their request options replaced, have their
+     * returned futures failed, and the request cancelled, once its total timeout
+     * or the current deadline elapses
+     */
+    static <C> AsyncClient<C> enrich(final AsyncClient<C> asyncClient) {
+        return (request, options, requestContext) -> {
+            final Optional<Timeout> timeout = getTimeout(request);
+            final long budgetNanos;
+            try {
+                budgetNanos = budgetNanos(request, timeout);
+            } catch (MoccaException e) {
+                final CompletableFuture<Response> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+
+            final CompletableFuture<Response> execution = asyncClient.execute(request, options(options, timeout, budgetNanos), requestContext);
+            return expire(request, execution, budgetNanos, Response::close);
+        };
+    }
+
+    /*
+     * Requests not sent by Feign clients, such as the ones of operation methods returning incremental results,
+     * have the future returned by the given execution failed, and the execution cancelled, once their total
+     * timeout or the current deadline elapses. A MoccaException is thrown if no time is left.
+     */
+    static <T> CompletableFuture<T> execute(final Request request, final Supplier<CompletableFuture<T>> execution) {
+        final long budgetNanos = budgetNanos(request, getTimeout(request));
+        return expire(request, execution.get(), budgetNanos, result -> {});
+    }
+
+    /*
+     * Returns a future failed, with the given execution cancelled, once the given budget elapses, unless the execution
+     * completes before that, in which case its result is discarded if the returned future has been cancelled meanwhile
+     */
+    private static <T> CompletableFuture<T> expire(final Request request, final CompletableFuture<T> execution,
+                                                   final long budgetNanos, final Consumer<T> discard) {
+        if (budgetNanos == Long.MAX_VALUE) {
+            return execution;
+        }
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final ScheduledFuture<?> timer = MoccaDefaultExecutors.scheduler().schedule(() -> {
+            if (result.completeExceptionally(new MoccaException("GraphQL request to " + request.url() + " timed out after "
+                    + TimeUnit.NANOSECONDS.toMillis(budgetNanos) + " milliseconds"))) {
+                execution.cancel(true);
+            }
+        }, budgetNanos, TimeUnit.NANOSECONDS);
+        execution.whenComplete((value, throwable) -> {
+            timer.cancel(false);
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else if (!result.complete(value) && value != null) {
+                discard.accept(value);
+            }
+        });
+        result.whenComplete((value, throwable) -> {
+            if (result.isCancelled()) {
+                timer.cancel(false);
+                execution.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /*
+     * Returns the nanoseconds left for the request, according to its total timeout and the current deadline,
+     * or Long.MAX_VALUE if there is no limit. A MoccaException is thrown if no time is left.
+     */
+    private static long budgetNanos(final Request request, final Optional<Timeout> timeout) {
+        long budgetNanos = MoccaDeadline.currentRemainingNanos();
+        if (timeout.isPresent() && timeout.get().total() >= 0) {
+            budgetNanos = Math.min(budgetNanos, timeout.get().unit().toNanos(timeout.get().total()));
+        }
+        if (budgetNanos <= 0) {
+            throw new MoccaException("GraphQL request to " + request.url() + " not sent, since its deadline has expired");
+        }
+        return budgetNanos;
+    }
+
+    private static Request.Options options(final Request.Options options, final Optional<Timeout> timeout, final long budgetNanos) {
+        if (!timeout.isPresent() && budgetNanos == Long.MAX_VALUE) {
+            return options;
+        }
+
+        final Request.Options base = options != null ? options : new Request.Options();
+        long connectNanos = base.connectTimeoutUnit().toNanos(base.connectTimeout());
+        long readNanos = base.readTimeoutUnit().toNanos(base.readTimeout());
+        if (timeout.isPresent()) {
+            if (timeout.get().connect() >= 0) {
+                connectNanos = timeout.get().unit().toNanos(timeout.get().connect());
+            }
+            if (timeout.get().read() >= 0) {
+                readNanos = timeout.get().unit().toNanos(timeout.get().read());
+            }
+        }
+
+        // Zero means no timeout to most HTTP clients, so budgets shorter than one millisecond are rounded up
+        final long budgetMillis = budgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(1, TimeUnit.NANOSECONDS.toMillis(budgetNanos));
+        final long connectMillis = bound(TimeUnit.NANOSECONDS.toMillis(connectNanos), budgetMillis);
+        final long readMillis = bound(TimeUnit.NANOSECONDS.toMillis(readNanos), budgetMillis);
+        return new Request.Options(connectMillis, TimeUnit.MILLISECONDS, readMillis, TimeUnit.MILLISECONDS, base.isFollowRedirects());
+    }
+
+    /*
+     * Zero means no timeout, in which case the budget is used, if any
+     */
+    private static long bound(final long timeoutMillis, final long budgetMillis) {
+        if (budgetMillis == Long.MAX_VALUE) {
+            return timeoutMillis;
+        }
+        return timeoutMillis == 0 ? budgetMillis : Math.min(timeoutMillis, budgetMillis);
+    }
+
+    private static Optional<Timeout> getTimeout(final Request request) {
+        final MethodMetadata metadata = request.requestTemplate() != null ? request.requestTemplate().methodMetadata() : null;
+        if (metadata == null || metadata.method() == null) {
+            return NO_TIMEOUT;
+        }
+        return timeouts.computeIfAbsent(Arrays.asList(metadata.targetType(), metadata.method()), key -> {
+            final Timeout timeout = metadata.method().getAnnotation(Timeout.class);
+            return Optional.ofNullable(timeout != null ? timeout : metadata.targetType().getAnnotation(Timeout.class));
+        });
+    }
+
+}
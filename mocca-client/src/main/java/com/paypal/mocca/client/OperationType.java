@@ -12,7 +12,8 @@ import java.lang.annotation.Annotation;
 enum OperationType {
 
     Query("query"),
-    Mutation("mutation");
+    Mutation("mutation"),
+    Subscription("subscription");
 
     private final String value;
 
@@ -23,6 +24,7 @@ enum OperationType {
     static OperationType valueOf(Annotation operationAnnotation) {
         if (operationAnnotation instanceof com.paypal.mocca.client.annotation.Query) return Query;
         if (operationAnnotation instanceof com.paypal.mocca.client.annotation.Mutation) return Mutation;
+        if (operationAnnotation instanceof com.paypal.mocca.client.annotation.Subscription) return Subscription;
         throw new IllegalArgumentException("Unsupported annotation: " + operationAnnotation.getClass().getName());
     }
 
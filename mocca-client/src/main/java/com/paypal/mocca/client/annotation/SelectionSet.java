@@ -17,7 +17,8 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
  * <ol>
  *     <li>If annotation is present and its value attribute is set, Mocca automatic selection set resolution is turned off, and {@code SelectionSet} value is used to define the selection set. In this case if ignore value is also set, then that is not used by Mocca, and a warning is logged.</li>
  *     <li>If annotation is present, its value attribute is NOT set, but ignore is, then Mocca automatic selection set resolution is turned ON, and {@code SelectionSet} ignore is used to pick which response DTO fields to ignore from the selection set.</li>
- *     <li>If annotation is present and both value and ignore attributes are NOT set, then a {@link com.paypal.mocca.client.MoccaException} is thrown.</li>
+ *     <li>If annotation is present, its value attribute is NOT set, but defer or stream are, then Mocca automatic selection set resolution is turned ON, and the given fields are marked with {@code @defer} or {@code @stream} directives.</li>
+ *     <li>If annotation is present and value, ignore, defer and stream attributes are NOT set, then a {@link com.paypal.mocca.client.MoccaException} is thrown.</li>
  * </ol>
  *
  * See a client API example below. Notice the given selection set must be wrapped around curly braces.
@@ -78,4 +79,30 @@ public @interface SelectionSet {
      */
     String[] ignore() default UNDEFINED;
 
+    /**
+     * Fields of the response type to be delivered incrementally, after the initial result, by wrapping them in
+     * an inline fragment annotated with the GraphQL {@code @defer} directive. The name of a property in an inner
+     * POJO can be specified using the outer field name followed by dot. Similarly to {@link #ignore()},
+     * {@code defer} has no effect if {@link #value()} is set (the directive can be written in the value itself).
+     * <br>
+     * Deferred fields are only delivered separately by operation methods returning
+     * {@link com.paypal.mocca.client.MoccaIncrementalResult}, other operation methods get them all at once.
+     *
+     * @return an array containing all fields to be deferred in the return type, in case it is a DTO
+     */
+    String[] defer() default {};
+
+    /**
+     * List fields of the response type whose items are to be delivered incrementally, after the initial result,
+     * by annotating them with the GraphQL {@code @stream} directive (with initial count 0). The name of a property
+     * in an inner POJO can be specified using the outer field name followed by dot. Similarly to {@link #ignore()},
+     * {@code stream} has no effect if {@link #value()} is set.
+     * <br>
+     * Streamed items are only delivered separately by operation methods returning
+     * {@link com.paypal.mocca.client.MoccaIncrementalResult}, other operation methods get them all at once.
+     *
+     * @return an array containing all list fields to be streamed in the return type, in case it is a DTO
+     */
+    String[] stream() default {};
+
 }
@@ -0,0 +1,46 @@
+package com.paypal.mocca.client.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Annotation used to define a GraphQL subscription
+ * and its configuration in a client API.
+ * <br>
+ * Subscription methods must return {@code java.util.concurrent.Flow.Publisher}, parameterized with
+ * the type of each event, and can only be used in async clients configured with a subscription client.
+ * See the client API example below.
+ * <pre><code>
+ * import com.paypal.mocca.client.MoccaClient;
+ * import com.paypal.mocca.client.annotation.Query;
+ * import com.paypal.mocca.client.annotation.Subscription;
+ * import com.paypal.mocca.client.annotation.Var;
+ *
+ * public interface AsyncBooksAppClient extends MoccaClient {
+ *
+ *     &#064;Query
+ *     CompletableFuture&#60;Book&#62; getBook(&#064;Var("id") long id);
+ *
+ *     &#064;Subscription
+ *     Flow.Publisher&#60;Book&#62; bookAdded(&#064;Var("authorId") long authorId);
+ *
+ * }</code></pre>
+ */
+@Retention(RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Subscription {
+
+    String UNDEFINED = "UNDEFINED";
+
+    /**
+     * Used to provide a custom name to the GraphQL subscription.
+     * If not set, the operation method name will be used as subscription name.
+     *
+     * @return a custom name set to the GraphQL subscription
+     */
+    String name() default UNDEFINED;
+
+}
@@ -0,0 +1,33 @@
+package com.paypal.mocca.client.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation used to set the GraphQL server base URL of each invocation of an operation method,
+ * overriding the one set in the client builder. This way, one client instance, sharing its metadata,
+ * serializers and HTTP client connection pools, can send requests to multiple GraphQL servers,
+ * such as one per tenant.
+ * <br>
+ * The annotated parameter type must be {@code String} or {@code java.net.URI}, and its value must be an absolute URL.
+ * Same as the URL set in the client builder, it must not end with graphql, since that is added automatically by Mocca.
+ * At most one parameter per operation method can be annotated with it. See an example below.
+ * <pre><code>
+ * public interface BooksAppClient extends MoccaClient {
+ *
+ *     &#064;Query
+ *     Book getBook(&#064;TargetUrl String tenantUrl, &#064;Var("id") long id);
+ *
+ * }
+ *
+ * Book book = client.getBook("https://tenant1.booksapp.com/booksapp", 107);
+ * </code></pre>
+ * If the client is built with a load balancer, requests with a target URL are sent to that URL, instead of
+ * being load balanced.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER})
+public @interface TargetUrl {
+}
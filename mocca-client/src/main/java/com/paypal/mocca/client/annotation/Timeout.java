@@ -0,0 +1,70 @@
+package com.paypal.mocca.client.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation used to set the timeouts of a GraphQL operation method, overriding the ones configured
+ * in the HTTP client for that method only. This way, cheap lookups and expensive reports, declared in the same
+ * client API, can have different timeouts. See an example below.
+ * <pre><code>
+ * public interface BooksAppClient extends MoccaClient {
+ *
+ *     &#064;Query
+ *     &#064;Timeout(connect = 200, read = 300)
+ *     Book getBook(&#064;Var("id") long id);
+ *
+ *     &#064;Query
+ *     &#064;Timeout(read = 30_000, total = 45_000)
+ *     SalesReport getSalesReport(&#064;Var("year") int year);
+ *
+ * }
+ * </code></pre>
+ * If added at client API level, it applies to every operation method not annotated with it.
+ * Attributes not set (or set to a negative value) keep the timeout configured in the HTTP client.
+ * <br>
+ * The total timeout bounds the whole request. Async clients fail the returned future with a
+ * {@link com.paypal.mocca.client.MoccaException} once it elapses, cancelling the request, while sync clients,
+ * which cannot interrupt a blocking request, use it as upper bound of the connect and read timeouts.
+ * The timeouts of each request are also bounded by the remaining time of the current
+ * {@link com.paypal.mocca.client.MoccaDeadline}, if any.
+ * <br>
+ * Notice some HTTP clients honor only part of these timeouts, such as {@code MoccaJaxrsClient},
+ * which ignores them, and {@code MoccaReactorNettyClient}, which only honors the read timeout.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Timeout {
+
+    /**
+     * Connect timeout. Negative values keep the HTTP client connect timeout.
+     *
+     * @return the connect timeout
+     */
+    long connect() default -1;
+
+    /**
+     * Read timeout. Negative values keep the HTTP client read timeout.
+     *
+     * @return the read timeout
+     */
+    long read() default -1;
+
+    /**
+     * Total timeout of the request. Negative values mean no total timeout.
+     *
+     * @return the total timeout
+     */
+    long total() default -1;
+
+    /**
+     * Time unit of all timeouts in this annotation, milliseconds by default.
+     *
+     * @return the time unit of all timeouts
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+}
@@ -89,4 +89,22 @@ public @interface Var {
      */
     boolean raw() default false;
 
+    /**
+     * Marks this variable as the routing key of the operation, such as a tenant or account id.
+     * When the client is built with a {@code MoccaLoadBalancer}, requests with a routing key are sent to the endpoint
+     * owning the key, chosen by consistent hashing of its {@code String.valueOf} value, which keeps requests of the
+     * same key on the same shard. At most one variable per operation method can be a routing key, and it cannot be raw.
+     * If the routing key value is null, the request is load balanced as usual.
+     * This feature is set to false by default.
+     * <pre><code>
+     *
+     *     &#064;Query
+     *     List&#60;Invoice&#62; getInvoices(&#064;Var(value = "accountId", routingKey = true) String accountId, &#064;Var("year") int year);
+     *
+     * </code></pre>
+     *
+     * @return whether this variable is the routing key of the operation
+     */
+    boolean routingKey() default false;
+
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.Var;
+import com.paypal.mocca.client.sample.SampleResponseDTO;
+import feign.Response;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link MoccaCancellation}
+ */
+public class MoccaCancellationTest {
+
+    public interface AsyncSampleClient extends MoccaClient {
+
+        @Query
+        CompletableFuture<SampleResponseDTO> getOneSample(@Var("foo") String foo);
+    }
+
+    @Test
+    public void cancelTest() {
+        final List<CompletableFuture<Response>> executions = new CopyOnWriteArrayList<>();
+        final AsyncSampleClient client = client(executions);
+
+        final CompletableFuture<SampleResponseDTO> result = client.getOneSample("boo");
+        assertEquals(executions.size(), 1);
+
+        assertTrue(result.cancel(true));
+        assertTrue(executions.get(0).isCancelled(), "Expected the HTTP request to be cancelled");
+    }
+
+    @Test
+    public void resiliencyCancelTest() {
+        final List<CompletableFuture<Response>> executions = new CopyOnWriteArrayList<>();
+        // A resiliency feature returning its own future, which does not propagate cancellation
+        final MoccaAsyncResiliency resiliency = new MoccaAsyncResiliency((method, invocation) -> invocation.get().thenApply(r -> r)) {};
+        final AsyncSampleClient client = client(executions, resiliency);
+
+        final CompletableFuture<SampleResponseDTO> result = client.getOneSample("boo");
+        assertEquals(executions.size(), 1);
+
+        assertTrue(result.cancel(true));
+        assertTrue(executions.get(0).isCancelled(), "Expected the HTTP request to be cancelled");
+    }
+
+    @Test
+    public void timeoutTest() {
+        final List<CompletableFuture<Response>> executions = new CopyOnWriteArrayList<>();
+        final AsyncSampleClient client = client(executions);
+
+        // Same as orTimeout, available since Java 9
+        final CompletableFuture<SampleResponseDTO> result = client.getOneSample("boo");
+        result.completeExceptionally(new TimeoutException());
+        assertTrue(executions.get(0).isCancelled(), "Expected the HTTP request to be cancelled");
+    }
+
+    @Test
+    public void lateResponseTest() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final CompletableFuture<Response> execution = new CompletableFuture<>();
+        final CompletableFuture<Response> result = MoccaCancellation.<Object>enrich((request, options, requestContext) -> execution)
+                .execute(null, null, null);
+
+        result.cancel(true);
+        execution.complete(Response.builder()
+                .status(200)
+                .request(feign.Request.create(feign.Request.HttpMethod.POST, "http://localhost:8080/graphql", Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+                .headers(Collections.emptyMap())
+                .body(new ByteArrayInputStream(StubMoccaHttpClient.SAMPLE_RESPONSE.getBytes(StandardCharsets.UTF_8)) {
+                    @Override
+                    public void close() {
+                        closed.set(true);
+                    }
+                }, StubMoccaHttpClient.SAMPLE_RESPONSE.length())
+                .build());
+        assertTrue(closed.get(), "Expected the response received after cancellation to be discarded");
+    }
+
+    @Test
+    public void completedTest() throws Exception {
+        final List<CompletableFuture<Response>> executions = new CopyOnWriteArrayList<>();
+        final AsyncSampleClient client = client(executions);
+
+        final CompletableFuture<SampleResponseDTO> result = client.getOneSample("boo");
+        final CompletableFuture<Response> execution = executions.get(0);
+        execution.complete(Response.builder()
+                .status(200)
+                .request(feign.Request.create(feign.Request.HttpMethod.POST, "http://localhost:8080/graphql", Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+                .headers(Collections.emptyMap())
+                .body(StubMoccaHttpClient.SAMPLE_RESPONSE, StandardCharsets.UTF_8)
+                .build());
+
+        assertEquals(result.get(5, TimeUnit.SECONDS).getFoo(), "boo");
+        assertFalse(execution.isCancelled());
+    }
+
+    private static AsyncSampleClient client(final List<CompletableFuture<Response>> executions) {
+        return client(executions, null);
+    }
+
+    private static AsyncSampleClient client(final List<CompletableFuture<Response>> executions, final MoccaAsyncResiliency resiliency) {
+        return MoccaClient.Builder.async("http://localhost:8080")
+                .client(new MoccaAsyncHttpClient<Object>((request, options, requestContext) -> {
+                    final CompletableFuture<Response> execution = new CompletableFuture<>();
+                    executions.add(execution);
+                    return execution;
+                }) {})
+                .resiliency(resiliency)
+                .build(AsyncSampleClient.class);
+    }
+}
@@ -2,17 +2,21 @@ package com.paypal.mocca.client;
 
 import com.paypal.mocca.client.sample.AsyncSampleClient;
 import com.paypal.mocca.client.sample.SampleClient;
+import feign.AsyncClient;
 import feign.Feign;
 import org.testng.annotations.Test;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
 import static org.testng.Assert.fail;
 
 public class MoccaClientBuilderTest {
@@ -100,6 +104,53 @@ public class MoccaClientBuilderTest {
         }
     }
 
+    @Test
+    void asyncResiliency() throws Exception {
+        final UnsupportedOperationException err = new UnsupportedOperationException("I'm not working today!");
+        class BadAsyncResilience extends MoccaAsyncResiliency {
+            public BadAsyncResilience() {
+                super((method, invocation) -> {
+                    final CompletableFuture<Object> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(err);
+                    return failed;
+                });
+            }
+        }
+
+        try {
+            MoccaClient.Builder.async("http://localhost:8080")
+                .resiliency(new BadAsyncResilience())
+                .build(AsyncSampleClient.class)
+                .getOneSample("boo", "far")
+                .get();
+            fail("Expected an exception to be the thrown.");
+        } catch (final ExecutionException e) {
+            assertEquals(e.getCause(), err, "An expected error indicates the async resiliency decorator was used.");
+        }
+    }
+
+    @Test
+    public void asyncCapabilitiesRegistration() {
+        final AtomicBoolean enriched = new AtomicBoolean();
+        class MyAsyncCap extends MoccaCapability {
+            public MyAsyncCap() {
+                super(new feign.Capability() {
+                });
+            }
+
+            @Override
+            <C> AsyncClient<C> enrich(final AsyncClient<C> asyncClient) {
+                enriched.set(true);
+                return asyncClient;
+            }
+        }
+
+        MoccaClient.Builder.async("http://foo")
+            .addCapability(new MyAsyncCap())
+            .build(AsyncSampleClient.class);
+        assertTrue(enriched.get(), "Expected the async HTTP client to be enriched by the capability.");
+    }
+
     @Test
     public void capabilitiesRegistration() {
         class MyCap extends MoccaCapability {
@@ -119,7 +170,16 @@ public class MoccaClientBuilderTest {
             );
         }
     }
-}
-
-
 
+    @Test
+    void connectionPoolWithoutSupportingClientTest() {
+        final MoccaClient.Builder.SyncBuilder withoutClient = MoccaClient.Builder.sync("http://foo")
+            .connectionPool(MoccaConnectionPool.defaults());
+        expectThrows(MoccaException.class, () -> withoutClient.build(SampleClient.class));
+
+        final MoccaClient.Builder.SyncBuilder withUnsupportedClient = MoccaClient.Builder.sync("http://foo")
+            .client(new StubMoccaHttpClient())
+            .connectionPool(MoccaConnectionPool.defaults());
+        expectThrows(MoccaException.class, () -> withUnsupportedClient.build(SampleClient.class));
+    }
+}
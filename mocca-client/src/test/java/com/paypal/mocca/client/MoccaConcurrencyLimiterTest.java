@@ -0,0 +1,238 @@
+package com.paypal.mocca.client;
+
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for {@link MoccaConcurrencyLimiter}
+ */
+public class MoccaConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void aimdTest() {
+        final MoccaConcurrencyLimiter.Limit limit = new MoccaConcurrencyLimiter.AimdLimit(10, 1, 20);
+
+        limit.onSample(10 * MILLIS, 2, false);
+        assertEquals(limit.getLimit(), 10, "Application limited requests must not increase the limit");
+        limit.onSample(10 * MILLIS, 8, false);
+        assertEquals(limit.getLimit(), 11);
+        limit.onSample(10 * MILLIS, 8, true);
+        assertEquals(limit.getLimit(), 9);
+    }
+
+    @Test
+    public void vegasTest() {
+        final MoccaConcurrencyLimiter.Limit limit = new MoccaConcurrencyLimiter.VegasLimit(10, 1, 100);
+
+        // No queueing, the limit grows quickly
+        limit.onSample(10 * MILLIS, 10, false);
+        assertEquals(limit.getLimit(), 16);
+
+        // Latency doubled, so half of the requests are queued
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(20 * MILLIS, 16, false);
+        }
+        assertTrue(limit.getLimit() < 16, "Expected the limit to decrease, but it is " + limit.getLimit());
+    }
+
+    @Test
+    public void gradient2Test() {
+        final MoccaConcurrencyLimiter.Limit limit = new MoccaConcurrencyLimiter.Gradient2Limit(20, 1, 200);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit(), false);
+        }
+        final int stableLimit = limit.getLimit();
+        assertTrue(stableLimit > 20, "Expected the limit to grow while latency is stable, but it is " + stableLimit);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(100 * MILLIS, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() < stableLimit / 2, "Expected the limit to shrink when latency grows, but it is " + limit.getLimit());
+    }
+
+    @Test
+    public void rejectionTest() throws Exception {
+        final MoccaConcurrencyLimiter limiter = new MoccaConcurrencyLimiter.Builder()
+                .aimd()
+                .initialLimit(1)
+                .maxLimit(1)
+                .build();
+        final CountDownLatch inFlight = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Client client = limiter.getFeignCapability().enrich((Client) (request, options) -> {
+            inFlight.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response(request);
+        });
+
+        final CompletableFuture<Response> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.execute(request(), null);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+        try {
+            client.execute(request(), null);
+            fail("Expected the request to be rejected");
+        } catch (MoccaException e) {
+            assertTrue(e.getMessage().contains("concurrency limit of 1"));
+        }
+
+        release.countDown();
+        assertEquals(first.get(5, TimeUnit.SECONDS).status(), 200);
+        assertEquals(client.execute(request(), null).status(), 200);
+    }
+
+    @Test
+    public void asyncWaitTest() throws Exception {
+        final MoccaConcurrencyLimiter limiter = new MoccaConcurrencyLimiter.Builder()
+                .aimd()
+                .initialLimit(1)
+                .maxLimit(1)
+                .maxWait(Duration.ofSeconds(5))
+                .build();
+        final List<CompletableFuture<Response>> executions = new CopyOnWriteArrayList<>();
+        final AsyncClient<Object> client = limiter.enrich((request, options, requestContext) -> {
+            final CompletableFuture<Response> execution = new CompletableFuture<>();
+            executions.add(execution);
+            return execution;
+        });
+
+        final CompletableFuture<Response> first = client.execute(request(), null, Optional.empty());
+        final CompletableFuture<Response> second = client.execute(request(), null, Optional.empty());
+        assertEquals(executions.size(), 1, "The second request must wait for the first one");
+
+        executions.get(0).complete(response(request()));
+        assertEquals(first.get(5, TimeUnit.SECONDS).status(), 200);
+        await(() -> executions.size() == 2);
+        executions.get(1).complete(response(request()));
+        assertEquals(second.get(5, TimeUnit.SECONDS).status(), 200);
+    }
+
+    @Test
+    public void asyncWaitDeadlineTest() throws Exception {
+        final MoccaConcurrencyLimiter limiter = new MoccaConcurrencyLimiter.Builder()
+                .aimd()
+                .initialLimit(1)
+                .maxLimit(1)
+                .maxWait(Duration.ofSeconds(5))
+                .build();
+        final List<CompletableFuture<Response>> executions = new CopyOnWriteArrayList<>();
+        final List<Boolean> deadlines = new CopyOnWriteArrayList<>();
+        final AsyncClient<Object> client = limiter.enrich((request, options, requestContext) -> {
+            deadlines.add(MoccaDeadline.current().isPresent());
+            final CompletableFuture<Response> execution = new CompletableFuture<>();
+            executions.add(execution);
+            return execution;
+        });
+
+        client.execute(request(), null, Optional.empty());
+        try (MoccaDeadline deadline = MoccaDeadline.open(Duration.ofSeconds(5))) {
+            client.execute(request(), null, Optional.empty());
+        }
+
+        // The waiting request is sent by another thread, which is not within the deadline
+        executions.get(0).complete(response(request()));
+        await(() -> deadlines.size() == 2);
+        assertEquals(deadlines, Arrays.asList(false, true));
+    }
+
+    @Test
+    public void asyncWaitExecutorTest() throws Exception {
+        final List<String> dispatchThreads = new CopyOnWriteArrayList<>();
+        final MoccaConcurrencyLimiter limiter = new MoccaConcurrencyLimiter.Builder()
+                .aimd()
+                .initialLimit(1)
+                .maxLimit(1)
+                .maxWait(Duration.ofSeconds(5))
+                .executor(command -> new Thread(command, "limiter-dispatch").start())
+                .build();
+        final List<CompletableFuture<Response>> executions = new CopyOnWriteArrayList<>();
+        final AsyncClient<Object> client = limiter.enrich((request, options, requestContext) -> {
+            dispatchThreads.add(Thread.currentThread().getName());
+            final CompletableFuture<Response> execution = new CompletableFuture<>();
+            executions.add(execution);
+            return execution;
+        });
+
+        client.execute(request(), null, Optional.empty());
+        final CompletableFuture<Response> second = client.execute(request(), null, Optional.empty());
+
+        // The waiting request is not sent by the thread completing the first one
+        executions.get(0).complete(response(request()));
+        await(() -> executions.size() == 2);
+        assertEquals(dispatchThreads.get(1), "limiter-dispatch");
+        executions.get(1).complete(response(request()));
+        assertEquals(second.get(5, TimeUnit.SECONDS).status(), 200);
+    }
+
+    @Test
+    public void asyncWaitTimeoutTest() throws Exception {
+        final MoccaConcurrencyLimiter limiter = new MoccaConcurrencyLimiter.Builder()
+                .aimd()
+                .initialLimit(1)
+                .maxLimit(1)
+                .maxWait(Duration.ofMillis(50))
+                .build();
+        final AsyncClient<Object> client = limiter.enrich((request, options, requestContext) -> new CompletableFuture<>());
+
+        client.execute(request(), null, Optional.empty());
+        try {
+            client.execute(request(), null, Optional.empty()).get(5, TimeUnit.SECONDS);
+            fail("Expected the request to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof MoccaException);
+        }
+    }
+
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.POST, "http://localhost:8080/graphql", Collections.emptyMap(),
+                "{\"query\":\"query{greeting}\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+    }
+
+    private static Response response(final Request request) {
+        return Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Collections.emptyMap())
+                .body("{}", StandardCharsets.UTF_8)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.paypal.mocca.client;
+
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+/**
+ * Unit tests for {@link MoccaConnectionPool}
+ */
+public class MoccaConnectionPoolTest {
+
+    @Test
+    public void defaultsTest() {
+        final MoccaConnectionPool pool = MoccaConnectionPool.defaults();
+        assertEquals(pool.getMaxConnections(), 200);
+        assertEquals(pool.getMaxConnectionsPerRoute(), 50);
+        assertEquals(pool.getMaxIdleConnections(), 50);
+        assertFalse(pool.isMaxConnectionsEnforced());
+        assertEquals(pool.getIdleTimeout(), Duration.ofSeconds(60));
+        assertEquals(pool.getValidateAfterInactivity(), Duration.ofSeconds(2));
+        assertEquals(pool.getKeepAlive(), Duration.ofSeconds(30));
+    }
+
+    @Test
+    public void maxConnectionsPerRouteTest() {
+        final MoccaConnectionPool pool = new MoccaConnectionPool.Builder()
+                .maxConnections(10)
+                .maxConnectionsPerRoute(20)
+                .build();
+        assertEquals(pool.getMaxConnections(), 10);
+        assertEquals(pool.getMaxConnectionsPerRoute(), 10);
+    }
+
+    @Test
+    public void keepAliveTest() {
+        final MoccaConnectionPool pool = new MoccaConnectionPool.Builder()
+                .keepAlive(Duration.ofSeconds(5))
+                .build();
+        assertEquals(pool.keepAliveMillis(null), 5000);
+        assertEquals(pool.keepAliveMillis("max=100"), 5000);
+        assertEquals(pool.keepAliveMillis("timeout=abc"), 5000);
+        assertEquals(pool.keepAliveMillis("timeout=15, max=100"), 15000);
+        assertEquals(pool.keepAliveMillis("max=100, Timeout = 3"), 3000);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidMaxConnectionsTest() {
+        new MoccaConnectionPool.Builder().maxConnections(0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidIdleTimeoutTest() {
+        new MoccaConnectionPool.Builder().idleTimeout(Duration.ZERO);
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Mutation;
+import com.paypal.mocca.client.annotation.Query;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for {@link MoccaHedging}
+ */
+public class MoccaHedgingTest {
+
+    interface HedgingClient extends MoccaClient {
+
+        @Query
+        CompletableFuture<String> getBook(long id);
+
+        @Mutation
+        CompletableFuture<String> addBook(String name);
+    }
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterClass
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void hedgedWinsTest() throws Exception {
+        final List<CompletableFuture<Object>> attempts = new CopyOnWriteArrayList<>();
+        final MoccaAsyncResiliency.Decorator decorator = hedging(Duration.ofMillis(20));
+
+        final CompletableFuture<Object> result = decorator.decorate(method("getBook"), () -> {
+            final CompletableFuture<Object> attempt = new CompletableFuture<>();
+            attempts.add(attempt);
+            return attempt;
+        }).toCompletableFuture();
+
+        waitFor(attempts, 2);
+        attempts.get(1).complete("hedged");
+        assertEquals(result.get(1, TimeUnit.SECONDS), "hedged");
+        assertTrue(attempts.get(0).isCancelled());
+    }
+
+    @Test
+    public void primaryWinsTest() throws Exception {
+        final List<CompletableFuture<Object>> attempts = new CopyOnWriteArrayList<>();
+        final MoccaAsyncResiliency.Decorator decorator = hedging(Duration.ofMillis(200));
+
+        final CompletableFuture<Object> result = decorator.decorate(method("getBook"), () -> {
+            final CompletableFuture<Object> attempt = CompletableFuture.completedFuture("primary");
+            attempts.add(attempt);
+            return attempt;
+        }).toCompletableFuture();
+
+        assertEquals(result.get(1, TimeUnit.SECONDS), "primary");
+        Thread.sleep(300);
+        assertEquals(attempts.size(), 1);
+    }
+
+    @Test
+    public void oneFailureTest() throws Exception {
+        final List<CompletableFuture<Object>> attempts = new CopyOnWriteArrayList<>();
+        final MoccaAsyncResiliency.Decorator decorator = hedging(Duration.ofMillis(20));
+
+        final CompletableFuture<Object> result = decorator.decorate(method("getBook"), () -> {
+            final CompletableFuture<Object> attempt = new CompletableFuture<>();
+            attempts.add(attempt);
+            return attempt;
+        }).toCompletableFuture();
+
+        waitFor(attempts, 2);
+        attempts.get(1).completeExceptionally(new MoccaException("boom"));
+        assertTrue(!result.isDone());
+        attempts.get(0).complete("primary");
+        assertEquals(result.get(1, TimeUnit.SECONDS), "primary");
+    }
+
+    @Test
+    public void allFailuresTest() throws Exception {
+        final MoccaException error = new MoccaException("boom");
+        final MoccaAsyncResiliency.Decorator decorator = hedging(Duration.ofMillis(20));
+
+        final CompletableFuture<Object> result = decorator.decorate(method("getBook"), () -> {
+            final CompletableFuture<Object> attempt = new CompletableFuture<>();
+            attempt.completeExceptionally(error);
+            return attempt;
+        }).toCompletableFuture();
+
+        try {
+            result.get(1, TimeUnit.SECONDS);
+            fail("Expected the attempt failure to be thrown");
+        } catch (ExecutionException e) {
+            assertEquals(e.getCause(), error);
+        }
+    }
+
+    @Test
+    public void mutationNotHedgedTest() throws Exception {
+        final List<CompletableFuture<Object>> attempts = new CopyOnWriteArrayList<>();
+        final MoccaAsyncResiliency.Decorator decorator = hedging(Duration.ZERO);
+
+        final CompletableFuture<Object> result = decorator.decorate(method("addBook"), () -> {
+            final CompletableFuture<Object> attempt = new CompletableFuture<>();
+            attempts.add(attempt);
+            return attempt;
+        }).toCompletableFuture();
+
+        Thread.sleep(100);
+        assertEquals(attempts.size(), 1);
+        attempts.get(0).complete("added");
+        assertEquals(result.get(1, TimeUnit.SECONDS), "added");
+    }
+
+    @Test
+    public void cancellationTest() throws Exception {
+        final List<CompletableFuture<Object>> attempts = new CopyOnWriteArrayList<>();
+        final MoccaAsyncResiliency.Decorator decorator = hedging(Duration.ofMillis(20));
+
+        final CompletableFuture<Object> result = decorator.decorate(method("getBook"), () -> {
+            final CompletableFuture<Object> attempt = new CompletableFuture<>();
+            attempts.add(attempt);
+            return attempt;
+        }).toCompletableFuture();
+
+        waitFor(attempts, 2);
+        result.cancel(true);
+        assertTrue(attempts.get(0).isCancelled());
+        assertTrue(attempts.get(1).isCancelled());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidPercentileTest() {
+        new MoccaHedging.Builder().percentileDelay(100, Duration.ofMillis(10));
+    }
+
+    private MoccaAsyncResiliency.Decorator hedging(final Duration delay) {
+        return new MoccaHedging.Builder()
+                .delay(delay)
+                .scheduler(scheduler)
+                .build()
+                .getDecorator();
+    }
+
+    private static Method method(final String name) {
+        for (Method method : HedgingClient.class.getDeclaredMethods()) {
+            if (method.getName().equals(name)) return method;
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private static void waitFor(final List<?> attempts, final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 1000;
+        while (attempts.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(attempts.size(), count);
+    }
+}
@@ -0,0 +1,45 @@
+package com.paypal.mocca.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link MoccaIncrementalDelivery}
+ */
+public class MoccaIncrementalDeliveryTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void deferAndStreamTest() throws IOException {
+        final MoccaIncrementalDelivery.Merger merger = new MoccaIncrementalDelivery.Merger(mapper);
+
+        assertTrue(merger.merge(mapper.readTree("{\"data\":{\"product\":{\"name\":\"Book\",\"recommendations\":[]}},\"hasNext\":true}")));
+        assertEquals(snapshot(merger), "{\"data\":{\"product\":{\"name\":\"Book\",\"recommendations\":[]}}}");
+
+        assertTrue(merger.merge(mapper.readTree("{\"incremental\":[{\"data\":{\"reviews\":[\"Great\"]},\"path\":[\"product\"]}],\"hasNext\":true}")));
+        assertTrue(merger.merge(mapper.readTree("{\"incremental\":[{\"items\":[\"Pen\",\"Ink\"],\"path\":[\"product\",\"recommendations\",0]}],\"hasNext\":true}")));
+        assertFalse(merger.merge(mapper.readTree("{\"incremental\":[{\"items\":[\"Paper\"],\"path\":[\"product\",\"recommendations\",2]}],\"hasNext\":false}")));
+        assertEquals(snapshot(merger), "{\"data\":{\"product\":{\"name\":\"Book\",\"recommendations\":[\"Pen\",\"Ink\",\"Paper\"],\"reviews\":[\"Great\"]}}}");
+    }
+
+    @Test
+    public void legacyFormatAndErrorsTest() throws IOException {
+        final MoccaIncrementalDelivery.Merger merger = new MoccaIncrementalDelivery.Merger(mapper);
+
+        assertTrue(merger.merge(mapper.readTree("{\"data\":{\"product\":{\"name\":\"Book\"}},\"hasNext\":true}")));
+        assertFalse(merger.merge(mapper.readTree("{\"data\":null,\"path\":[\"product\"],\"errors\":[{\"message\":\"Boom\"}],\"hasNext\":false}")));
+        assertEquals(snapshot(merger), "{\"data\":{\"product\":{\"name\":\"Book\"}},\"errors\":[{\"message\":\"Boom\"}]}");
+    }
+
+    private String snapshot(final MoccaIncrementalDelivery.Merger merger) throws IOException {
+        return new String(merger.snapshot(), StandardCharsets.UTF_8);
+    }
+}
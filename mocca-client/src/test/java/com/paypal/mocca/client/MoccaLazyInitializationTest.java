@@ -0,0 +1,88 @@
+package com.paypal.mocca.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.TargetUrl;
+import com.paypal.mocca.client.annotation.Var;
+import com.paypal.mocca.client.sample.AsyncSampleClient;
+import com.paypal.mocca.client.sample.SampleClient;
+import com.paypal.mocca.client.sample.SampleResponseDTO;
+import org.testng.annotations.Test;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link MoccaLazyInitialization}
+ */
+public class MoccaLazyInitializationTest {
+
+    public interface InvalidClient extends MoccaClient {
+
+        @Query
+        SampleResponseDTO getOneSample(@TargetUrl Integer tenantUrl, @Var("foo") String foo);
+    }
+
+    @Test
+    public void syncTest() {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient();
+        final SampleClient client = MoccaClient.Builder.sync("http://localhost:8080")
+                .client(httpClient)
+                .lazyInitialization()
+                .build(SampleClient.class);
+
+        final SampleResponseDTO response = client.getOneSample("boo", "far");
+        assertEquals(response.getFoo(), "boo");
+        assertEquals(response.getBar(), "far");
+        assertEquals(client.getOneSample("boo", "far").getBar(), "far");
+        assertEquals(httpClient.getRequestsCount(), 2);
+    }
+
+    @Test
+    public void asyncTest() throws Exception {
+        final AsyncSampleClient client = MoccaClient.Builder.async("http://localhost:8080")
+                .client(new MoccaAsyncHttpClient<Object>((request, options, requestContext) ->
+                        CompletableFuture.completedFuture(StubMoccaHttpClient.sampleResponse(request))) {})
+                .lazyInitialization()
+                .build(AsyncSampleClient.class);
+
+        assertEquals(client.getOneSample("boo", "far").get().getBar(), "far");
+    }
+
+    @Test
+    public void jacksonModulesTest() {
+        // Lazy initialization does not change the Jackson modules registered
+        final MoccaClient.Builder.SyncBuilder lazyBuilder = MoccaClient.Builder.sync("http://localhost:8080").lazyInitialization();
+        assertEquals(lazyBuilder.newDecoder().getMoccaDeserializer().getObjectMapper().getRegisteredModuleIds(),
+                new ObjectMapper().findAndRegisterModules().getRegisteredModuleIds());
+
+        final MoccaClient.Builder.SyncBuilder builder = MoccaClient.Builder.sync("http://localhost:8080").jacksonModules(new SimpleModule("sample"));
+        final Set<Object> moduleIds = builder.newDecoder().getMoccaDeserializer().getObjectMapper().getRegisteredModuleIds();
+        assertEquals(moduleIds.size(), 2);
+        assertTrue(moduleIds.contains("sample"));
+        assertTrue(moduleIds.contains(new JavaTimeModule().getTypeId()));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void nullJacksonModuleTest() {
+        MoccaClient.Builder.sync("http://localhost:8080").jacksonModules(new SimpleModule("sample"), null);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ".*must be a String or a java.net.URI")
+    public void invalidClientTest() {
+        final InvalidClient client = MoccaClient.Builder.sync("http://localhost:8080")
+                .lazyInitialization()
+                .build(InvalidClient.class);
+
+        // Client API validation errors are only thrown when the client is invoked
+        assertNotNull(client);
+        client.getOneSample(1, "boo");
+    }
+
+}
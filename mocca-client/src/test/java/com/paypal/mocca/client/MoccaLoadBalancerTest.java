@@ -0,0 +1,285 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.Var;
+import com.paypal.mocca.client.sample.SampleResponseDTO;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for {@link MoccaLoadBalancer}
+ */
+public class MoccaLoadBalancerTest {
+
+    public interface ShardedClient extends MoccaClient {
+
+        @Query
+        SampleResponseDTO getOneSample(@Var(value = "foo", routingKey = true) String foo, @Var("bar") String bar);
+    }
+
+    @Test
+    public void roundRobinTest() throws IOException {
+        final List<String> urls = new ArrayList<>();
+        final MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app/")
+                .build();
+        final Client client = loadBalancer.enrich((request, options) -> {
+            urls.add(request.url());
+            return response(request, 200);
+        });
+
+        for (int i = 0; i < 4; i++) {
+            client.execute(request(loadBalancer), null);
+        }
+
+        assertEquals(urls.get(0), "http://a:8080/app/graphql");
+        assertEquals(urls.get(1), "http://b:8080/app/graphql");
+        assertEquals(urls.get(2), "http://a:8080/app/graphql");
+        assertEquals(urls.get(3), "http://b:8080/app/graphql");
+    }
+
+    @Test
+    public void ejectionAndProbeTest() throws Exception {
+        final List<String> urls = new ArrayList<>();
+        final boolean[] bDown = {true};
+        final MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app")
+                .failureThreshold(2)
+                .ejectionDuration(Duration.ofMillis(100))
+                .build();
+        final Client client = loadBalancer.enrich((request, options) -> {
+            urls.add(request.url());
+            if (request.url().startsWith("http://b") && bDown[0]) {
+                throw new IOException("Connection refused");
+            }
+            return response(request, 200);
+        });
+
+        for (int i = 0; i < 10; i++) {
+            try {
+                client.execute(request(loadBalancer), null);
+            } catch (IOException e) {
+                // Expected while b has not been ejected yet
+            }
+        }
+        final MoccaLoadBalancer.Endpoint b = loadBalancer.getEndpoints().get(1);
+        assertTrue(b.isEjected());
+        assertEquals(urls.stream().filter(url -> url.startsWith("http://b")).count(), 2);
+
+        // Once the ejection expires, a probe is sent to b, bringing it back
+        bDown[0] = false;
+        TimeUnit.MILLISECONDS.sleep(150);
+        urls.clear();
+        client.execute(request(loadBalancer), null);
+        assertEquals(urls.get(0), "http://b:8080/app/graphql");
+        assertFalse(b.isEjected());
+    }
+
+    @Test
+    public void failedProbeTest() throws Exception {
+        final MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app")
+                .failureThreshold(1)
+                .ejectionDuration(Duration.ofMillis(50))
+                .build();
+        final Client client = loadBalancer.enrich((request, options) ->
+                response(request, request.url().startsWith("http://b") ? 503 : 200));
+
+        client.execute(request(loadBalancer), null);
+        client.execute(request(loadBalancer), null);
+        final MoccaLoadBalancer.Endpoint b = loadBalancer.getEndpoints().get(1);
+        assertTrue(b.isEjected());
+
+        TimeUnit.MILLISECONDS.sleep(80);
+        final Response probe = client.execute(request(loadBalancer), null);
+        assertEquals(probe.status(), 503);
+        assertTrue(b.isEjected());
+    }
+
+    @Test
+    public void slowEndpointTest() throws IOException {
+        final MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app")
+                .strategy(MoccaLoadBalancer.Strategy.ewma())
+                .slowCallThreshold(Duration.ofMillis(20))
+                .failureThreshold(1)
+                .build();
+        final Client client = loadBalancer.enrich((request, options) -> {
+            if (request.url().startsWith("http://b")) {
+                sleep(40);
+            }
+            return response(request, 200);
+        });
+
+        for (int i = 0; i < 10 && !loadBalancer.getEndpoints().get(1).isEjected(); i++) {
+            client.execute(request(loadBalancer), null);
+        }
+        assertTrue(loadBalancer.getEndpoints().get(1).isEjected());
+        assertFalse(loadBalancer.getEndpoints().get(0).isEjected());
+    }
+
+    @Test
+    public void leastOutstandingRequestsTest() {
+        final MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app")
+                .build();
+        final List<MoccaLoadBalancer.Endpoint> endpoints = loadBalancer.getEndpoints();
+        final MoccaLoadBalancer.Strategy strategy = MoccaLoadBalancer.Strategy.leastOutstandingRequests();
+
+        // With two endpoints, both are always compared
+        final Client busy = loadBalancer.enrich((request, options) -> {
+            assertEquals(strategy.select(endpoints), endpoints.get(1));
+            return response(request, 200);
+        });
+        try {
+            busy.execute(request(loadBalancer), null);
+        } catch (IOException e) {
+            fail("Unexpected failure", e);
+        }
+    }
+
+    @Test
+    public void routingKeyTest() {
+        final List<Request> requests = new ArrayList<>();
+        final MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app", "http://c:8080/app")
+                .build();
+        final ShardedClient client = MoccaClient.Builder.sync(loadBalancer)
+                .client(new MoccaHttpClient((request, options) -> {
+                    requests.add(request);
+                    return Response.builder()
+                            .status(200)
+                            .request(request)
+                            .headers(Collections.emptyMap())
+                            .body("{\"data\": {\"getOneSample\": {\"foo\": \"boo\",\"bar\": \"far\"}}}", StandardCharsets.UTF_8)
+                            .build();
+                }) {})
+                .build(ShardedClient.class);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(client.getOneSample("tenant-42", "far").getFoo(), "boo");
+        }
+
+        assertEquals(requests.size(), 3);
+        assertEquals(requests.get(1).url(), requests.get(0).url());
+        assertEquals(requests.get(2).url(), requests.get(0).url());
+        assertFalse(requests.get(0).headers().containsKey(MoccaLoadBalancer.ROUTING_KEY_HEADER));
+    }
+
+    @Test
+    public void targetUrlTest() throws IOException {
+        final List<Request> requests = new ArrayList<>();
+        final MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app")
+                .failureThreshold(1)
+                .build();
+        final Client client = loadBalancer.enrich((request, options) -> {
+            requests.add(request);
+            return response(request, 503);
+        });
+
+        // Requests sent to other URLs, as set with @TargetUrl, are neither balanced nor accounted to any endpoint
+        final Map<String, Collection<String>> headers = Collections.singletonMap(MoccaLoadBalancer.ROUTING_KEY_HEADER,
+                Collections.singletonList(MoccaLoadBalancer.routingHash("tenant-42")));
+        for (int i = 0; i < 2; i++) {
+            client.execute(Request.create(Request.HttpMethod.POST, "http://other:8080/graphql", headers,
+                    "{\"query\":\"query{greeting}\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null), null);
+        }
+
+        assertEquals(requests.get(0).url(), "http://other:8080/graphql");
+        assertEquals(requests.get(1).url(), "http://other:8080/graphql");
+        assertFalse(requests.get(0).headers().containsKey(MoccaLoadBalancer.ROUTING_KEY_HEADER));
+        for (MoccaLoadBalancer.Endpoint endpoint : loadBalancer.getEndpoints()) {
+            assertFalse(endpoint.isEjected());
+        }
+    }
+
+    @Test
+    public void minimalRemappingTest() {
+        final MoccaLoadBalancer three = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app", "http://c:8080/app")
+                .build();
+        final MoccaLoadBalancer four = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app", "http://c:8080/app", "http://d:8080/app")
+                .build();
+
+        final Map<String, Integer> keysPerEndpoint = new HashMap<>();
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            final String hash = MoccaLoadBalancer.routingHash("account-" + i);
+            final String before = three.select(hash).getGraphQLUrl();
+            final String after = four.select(hash).getGraphQLUrl();
+            keysPerEndpoint.merge(before, 1, Integer::sum);
+            if (!before.equals(after)) {
+                moved++;
+                // Keys only move to the new endpoint
+                assertEquals(after, "http://d:8080/app/graphql");
+            }
+        }
+
+        // Roughly a quarter of the keys move, and keys are spread among all endpoints
+        assertTrue(moved > 1_500 && moved < 3_500, "Unexpected number of moved keys: " + moved);
+        keysPerEndpoint.values().forEach(count -> assertTrue(count > 2_000, "Unbalanced ring: " + keysPerEndpoint));
+    }
+
+    @Test
+    public void ejectedOwnerTest() {
+        final MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app", "http://c:8080/app")
+                .failureThreshold(1)
+                .build();
+        final String hash = MoccaLoadBalancer.routingHash("tenant-42");
+        final MoccaLoadBalancer.Endpoint owner = loadBalancer.select(hash);
+
+        loadBalancer.onComplete(owner, 0, true);
+        assertTrue(owner.isEjected());
+        final MoccaLoadBalancer.Endpoint fallback = loadBalancer.select(hash);
+        assertTrue(fallback != owner);
+        assertEquals(loadBalancer.select(hash), fallback);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void noEndpointsTest() {
+        new MoccaLoadBalancer.Builder().build();
+    }
+
+    private static Request request(final MoccaLoadBalancer loadBalancer) {
+        return Request.create(Request.HttpMethod.POST, loadBalancer.getTargetGraphQLUrl(), Collections.emptyMap(),
+                "{\"query\":\"query{greeting}\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+    }
+
+    private static Response response(final Request request, final int status) {
+        return Response.builder()
+                .status(status)
+                .request(request)
+                .headers(Collections.emptyMap())
+                .body("{}", StandardCharsets.UTF_8)
+                .build();
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.paypal.mocca.client;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for {@link MoccaOffsetPaging}
+ */
+public class MoccaOffsetPagingTest {
+
+    private static final List<Integer> ITEMS = IntStream.range(0, 1003).boxed().collect(Collectors.toList());
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+    @AfterClass
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void knownTotalTest() throws Exception {
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        final List<Integer> items = MoccaOffsetPaging.<Integer>of((offset, limit) -> {
+                    requests.incrementAndGet();
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(() -> {
+                        sleep();
+                        inFlight.decrementAndGet();
+                        return page(offset, limit);
+                    }, executorService);
+                })
+                .total(ITEMS.size())
+                .pageSize(100)
+                .concurrency(3)
+                .fetchAll()
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(items, ITEMS);
+        assertEquals(requests.get(), 11);
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void unknownTotalTest() throws Exception {
+        final List<Integer> offsets = new ArrayList<>();
+        final List<Integer> items = MoccaOffsetPaging.<Integer>of((offset, limit) -> {
+                    offsets.add(offset);
+                    return CompletableFuture.completedFuture(page(offset, limit));
+                })
+                .pageSize(500)
+                .concurrency(1)
+                .fetchAll()
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(items, ITEMS);
+        assertEquals(offsets.size(), 3);
+    }
+
+    @Test
+    public void failureTest() throws Exception {
+        final MoccaException error = new MoccaException("boom");
+        try {
+            MoccaOffsetPaging.<Integer>of((offset, limit) -> {
+                        final CompletableFuture<List<Integer>> page = new CompletableFuture<>();
+                        if (offset == 200) {
+                            page.completeExceptionally(error);
+                        } else {
+                            page.complete(page(offset, limit));
+                        }
+                        return page;
+                    })
+                    .total(ITEMS.size())
+                    .pageSize(100)
+                    .fetchAll()
+                    .get(10, TimeUnit.SECONDS);
+            fail("Expected the page failure to be thrown");
+        } catch (ExecutionException e) {
+            assertEquals(e.getCause(), error);
+        }
+    }
+
+    private static List<Integer> page(final int offset, final int limit) {
+        return ITEMS.subList(Math.min(offset, ITEMS.size()), Math.min(offset + limit, ITEMS.size()));
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.Var;
+import com.paypal.mocca.client.sample.SampleResponseDTO;
+import feign.Request;
+import feign.Response;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link MoccaPrewarming}
+ */
+public class MoccaPrewarmingTest {
+
+    public interface SampleClient extends MoccaClient {
+
+        @Query
+        SampleResponseDTO getOneSample(@Var("foo") String foo);
+    }
+
+    public interface AsyncSampleClient extends MoccaClient {
+
+        @Query
+        CompletableFuture<SampleResponseDTO> getOneSample(@Var("foo") String foo);
+    }
+
+    @Test
+    public void syncTest() {
+        final List<Request> requests = new CopyOnWriteArrayList<>();
+        MoccaClient.Builder.sync("http://localhost:8080")
+                .client(new MoccaHttpClient((request, options) -> {
+                    requests.add(request);
+                    return response(request);
+                }) {})
+                .prewarm(3, Duration.ofSeconds(5))
+                .build(SampleClient.class);
+
+        assertEquals(requests.size(), 3);
+        for (Request request : requests) {
+            assertEquals(request.url(), "http://localhost:8080/graphql");
+            assertEquals(new String(request.body(), StandardCharsets.UTF_8), "{\"query\":\"query{__typename}\"}");
+        }
+    }
+
+    @Test
+    public void loadBalancerTest() {
+        final List<Request> requests = new CopyOnWriteArrayList<>();
+        final MoccaLoadBalancer loadBalancer = new MoccaLoadBalancer.Builder()
+                .endpoints("http://a:8080/app", "http://b:8080/app")
+                .build();
+        MoccaClient.Builder.sync(loadBalancer)
+                .client(new MoccaHttpClient((request, options) -> {
+                    requests.add(request);
+                    return response(request);
+                }) {})
+                .prewarm(2, Duration.ofSeconds(5))
+                .build(SampleClient.class);
+
+        assertEquals(requests.size(), 4);
+        assertEquals(requests.stream().filter(r -> r.url().equals("http://a:8080/app/graphql")).count(), 2);
+        assertEquals(requests.stream().filter(r -> r.url().equals("http://b:8080/app/graphql")).count(), 2);
+
+        // Pre-warming requests do not count towards the load balancer statistics
+        loadBalancer.getEndpoints().forEach(endpoint -> assertEquals(endpoint.getLatency(), 0.0, 0.0));
+    }
+
+    @Test
+    public void asyncTest() {
+        final List<Request> requests = new CopyOnWriteArrayList<>();
+        MoccaClient.Builder.async("http://localhost:8080")
+                .client(new MoccaAsyncHttpClient<Object>((request, options, requestContext) -> {
+                    requests.add(request);
+                    return CompletableFuture.completedFuture(response(request));
+                }) {})
+                .prewarm(2, Duration.ofSeconds(5))
+                .build(AsyncSampleClient.class);
+
+        assertEquals(requests.size(), 2);
+    }
+
+    @Test
+    public void failureTest() {
+        final SampleClient client = MoccaClient.Builder.sync("http://localhost:8080")
+                .client(new MoccaHttpClient((request, options) -> {
+                    throw new IOException("Connection refused");
+                }) {})
+                .prewarm(1, Duration.ofSeconds(5))
+                .build(SampleClient.class);
+
+        assertTrue(client != null, "Pre-warming failures must not fail the client build");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidConnectionsTest() {
+        MoccaClient.Builder.sync("http://localhost:8080").prewarm(0);
+    }
+
+    private static Response response(final Request request) {
+        return Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Collections.emptyMap())
+                .body("{\"data\": {\"__typename\": \"Query\"}}", StandardCharsets.UTF_8)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.sample.AsyncSampleClient;
+import com.paypal.mocca.client.sample.SampleClient;
+import com.paypal.mocca.client.sample.SampleResponseDTO;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class MoccaRefreshAheadTest {
+
+    @Test
+    public void cachedResultTest() {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient();
+        try (MoccaRefreshAhead refreshAhead = new MoccaRefreshAhead()) {
+            final SampleClient client = MoccaClient.Builder.sync("http://localhost:8080")
+                    .client(httpClient)
+                    .addCapability(refreshAhead)
+                    .build(SampleClient.class);
+
+            refreshAhead.register(client, Duration.ofMinutes(1), c -> c.getOneSample("boo", "far"));
+            assertEquals(httpClient.getRequestsCount(), 1);
+
+            for (int i = 0; i < 10; i++) {
+                assertEquals(client.getOneSample("boo", "far").getFoo(), "boo");
+            }
+            assertEquals(httpClient.getRequestsCount(), 1);
+
+            // Invocations with different arguments are not registered
+            client.getOneSample("zoo", "far");
+            assertEquals(httpClient.getRequestsCount(), 2);
+        }
+    }
+
+    @Test
+    public void backgroundRefreshTest() throws InterruptedException {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient();
+        final MoccaRefreshAhead refreshAhead = new MoccaRefreshAhead();
+        final SampleClient client = MoccaClient.Builder.sync("http://localhost:8080")
+                .client(httpClient)
+                .addCapability(refreshAhead)
+                .build(SampleClient.class);
+
+        refreshAhead.register(client, Duration.ofMillis(20), c -> c.getOneSample("boo", "far"));
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (httpClient.getRequestsCount() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(httpClient.getRequestsCount() >= 3, "Expected the registered invocation to be refreshed in the background");
+
+        refreshAhead.close();
+        final int requestsAfterClose = httpClient.getRequestsCount();
+        Thread.sleep(100);
+        assertEquals(httpClient.getRequestsCount(), requestsAfterClose);
+    }
+
+    @Test
+    public void asyncTest() throws Exception {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient();
+        final ExecutorService executorService = Executors.newCachedThreadPool();
+        try (MoccaRefreshAhead refreshAhead = new MoccaRefreshAhead()) {
+            final AsyncSampleClient client = MoccaClient.Builder.async("http://localhost:8080")
+                    .client(new MoccaExecutorHttpClient<>(httpClient, executorService))
+                    .addCapability(refreshAhead)
+                    .build(AsyncSampleClient.class);
+
+            refreshAhead.register(client, Duration.ofMinutes(1), c -> c.getOneSample("boo", "far"));
+
+            for (int i = 0; i < 10; i++) {
+                final CompletableFuture<SampleResponseDTO> result = client.getOneSample("boo", "far");
+                assertEquals(result.get().getBar(), "far");
+            }
+            assertEquals(httpClient.getRequestsCount(), 1);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void clientWithoutCapabilityTest() {
+        final SampleClient client = MoccaClient.Builder.sync("http://localhost:8080")
+                .client(new StubMoccaHttpClient())
+                .build(SampleClient.class);
+
+        try (MoccaRefreshAhead refreshAhead = new MoccaRefreshAhead()) {
+            refreshAhead.register(client, Duration.ofMinutes(1), c -> c.getOneSample("boo", "far"));
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.paypal.mocca.client;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for {@link MoccaRelayPaging}
+ */
+public class MoccaRelayPagingTest {
+
+    private static final List<String> ITEMS = Arrays.asList("a", "b", "c", "d", "e", "f", "g");
+
+    @Test
+    public void allItemsTest() {
+        final List<String> cursors = new ArrayList<>();
+        final List<String> items = MoccaRelayPaging.<Connection, String>of((first, after) -> {
+                    cursors.add(after);
+                    return CompletableFuture.completedFuture(page(first, after));
+                })
+                .pageSize(3)
+                .stream()
+                .collect(Collectors.toList());
+
+        assertEquals(items, ITEMS);
+        assertEquals(cursors, Arrays.asList(null, "2", "5"));
+    }
+
+    @Test
+    public void prefetchTest() {
+        final List<CompletableFuture<Connection>> requested = new ArrayList<>();
+        final Iterator<String> iterator = MoccaRelayPaging.<Connection, String>of((first, after) -> {
+                    final CompletableFuture<Connection> page = new CompletableFuture<>();
+                    requested.add(page);
+                    return page;
+                })
+                .pageSize(3)
+                .prefetch(1)
+                .iterator();
+
+        assertEquals(requested.size(), 1);
+        requested.get(0).complete(page(3, null));
+        assertEquals(requested.size(), 1);
+        // The second page is requested as soon as the first one starts being consumed
+        assertEquals(iterator.next(), "a");
+        assertEquals(requested.size(), 2);
+        assertEquals(iterator.next(), "b");
+        assertEquals(iterator.next(), "c");
+        assertEquals(requested.size(), 2);
+    }
+
+    @Test
+    public void noPrefetchTest() {
+        final List<String> cursors = new ArrayList<>();
+        final Iterator<String> iterator = MoccaRelayPaging.<Connection, String>of((first, after) -> {
+                    cursors.add(after);
+                    return CompletableFuture.completedFuture(page(first, after));
+                })
+                .pageSize(3)
+                .prefetch(0)
+                .iterator();
+
+        // The second page is only requested once the first one is completely consumed
+        for (int i = 0; i < 3; i++) {
+            iterator.next();
+        }
+        assertEquals(cursors.size(), 1);
+        assertEquals(iterator.next(), "d");
+        assertEquals(cursors, Arrays.asList(null, "2"));
+    }
+
+    @Test
+    public void failureTest() {
+        final Iterator<String> iterator = MoccaRelayPaging.<Connection, String>of((first, after) -> {
+                    final CompletableFuture<Connection> page = new CompletableFuture<>();
+                    if (after == null) {
+                        page.complete(page(first, null));
+                    } else {
+                        page.completeExceptionally(new MoccaException("boom"));
+                    }
+                    return page;
+                })
+                .pageSize(3)
+                .iterator();
+
+        for (int i = 0; i < 3; i++) {
+            iterator.next();
+        }
+        try {
+            iterator.hasNext();
+            fail("Expected the page failure to be thrown");
+        } catch (MoccaException e) {
+            assertEquals(e.getMessage(), "boom");
+        }
+    }
+
+    @Test
+    public void emptyTest() {
+        final Iterator<String> iterator = MoccaRelayPaging.<Connection, String>of((first, after) ->
+                CompletableFuture.completedFuture(new Connection(new ArrayList<>(), new PageInfo(null, false))))
+                .iterator();
+        assertFalse(iterator.hasNext());
+    }
+
+    private static Connection page(final int first, final String after) {
+        final int start = after == null ? 0 : Integer.parseInt(after) + 1;
+        final int end = Math.min(start + first, ITEMS.size());
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            edges.add(new Edge(ITEMS.get(i)));
+        }
+        return new Connection(edges, new PageInfo(String.valueOf(end - 1), end < ITEMS.size()));
+    }
+
+    public static class Connection {
+        private final List<Edge> edges;
+        private final PageInfo pageInfo;
+
+        public Connection(List<Edge> edges, PageInfo pageInfo) {
+            this.edges = edges;
+            this.pageInfo = pageInfo;
+        }
+
+        public List<Edge> getEdges() {
+            return edges;
+        }
+
+        public PageInfo getPageInfo() {
+            return pageInfo;
+        }
+    }
+
+    public static class Edge {
+        private final String node;
+
+        public Edge(String node) {
+            this.node = node;
+        }
+
+        public String getNode() {
+            return node;
+        }
+    }
+
+    public static class PageInfo {
+        private final String endCursor;
+        private final boolean hasNextPage;
+
+        public PageInfo(String endCursor, boolean hasNextPage) {
+            this.endCursor = endCursor;
+            this.hasNextPage = hasNextPage;
+        }
+
+        public String getEndCursor() {
+            return endCursor;
+        }
+
+        public boolean isHasNextPage() {
+            return hasNextPage;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.Var;
+import com.paypal.mocca.client.sample.AsyncSampleClient;
+import com.paypal.mocca.client.sample.SampleClient;
+import com.paypal.mocca.client.sample.SampleResponseDTO;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Unit tests for {@link MoccaRuntime}
+ */
+public class MoccaRuntimeTest {
+
+    public interface OtherSampleClient extends MoccaClient {
+
+        @Query(name = "getOneSample")
+        SampleResponseDTO getOtherSample(@Var("foo") String foo);
+    }
+
+    @Test
+    public void sharedHttpClientTest() {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient();
+        final MoccaRuntime runtime = new MoccaRuntime.Builder()
+                .client(httpClient)
+                .build();
+
+        final SampleClient sampleClient = MoccaClient.Builder.sync("http://localhost:8080/books")
+                .runtime(runtime)
+                .build(SampleClient.class);
+        final OtherSampleClient otherSampleClient = MoccaClient.Builder.sync("http://localhost:8080/authors")
+                .runtime(runtime)
+                .build(OtherSampleClient.class);
+
+        assertEquals(sampleClient.getOneSample("boo", "far").getBar(), "far");
+        assertEquals(otherSampleClient.getOtherSample("boo").getBar(), "far");
+        assertEquals(httpClient.getRequestsCount(), 2);
+    }
+
+    @Test
+    public void builderHttpClientPrecedenceTest() {
+        final StubMoccaHttpClient runtimeHttpClient = new StubMoccaHttpClient();
+        final StubMoccaHttpClient builderHttpClient = new StubMoccaHttpClient();
+        final MoccaRuntime runtime = new MoccaRuntime.Builder()
+                .client(runtimeHttpClient)
+                .build();
+
+        MoccaClient.Builder.sync("http://localhost:8080/books")
+                .runtime(runtime)
+                .client(builderHttpClient)
+                .build(SampleClient.class)
+                .getOneSample("boo", "far");
+
+        assertEquals(runtimeHttpClient.getRequestsCount(), 0);
+        assertEquals(builderHttpClient.getRequestsCount(), 1);
+    }
+
+    @Test
+    public void sharedAsyncHttpClientTest() throws Exception {
+        final AtomicInteger requestsCounter = new AtomicInteger();
+        final MoccaRuntime runtime = new MoccaRuntime.Builder()
+                .asyncClient(new MoccaAsyncHttpClient<Object>((request, options, requestContext) -> {
+                    requestsCounter.incrementAndGet();
+                    return CompletableFuture.completedFuture(StubMoccaHttpClient.sampleResponse(request));
+                }) {})
+                .build();
+
+        final AsyncSampleClient client = MoccaClient.Builder.async("http://localhost:8080/books")
+                .runtime(runtime)
+                .build(AsyncSampleClient.class);
+
+        assertEquals(client.getOneSample("boo", "far").get().getFoo(), "boo");
+        assertEquals(requestsCounter.get(), 1);
+    }
+
+    @Test
+    public void sharedDeserializerTest() {
+        final MoccaRuntime runtime = new MoccaRuntime.Builder().build();
+        final MoccaClient.Builder.AsyncBuilder runtimeBuilder = MoccaClient.Builder.async("http://localhost:8080/books").runtime(runtime);
+        final MoccaClient.Builder.AsyncBuilder builder = MoccaClient.Builder.async("http://localhost:8080/books");
+
+        // Decoders of operation, subscription and incremental methods share the same deserializer
+        assertSame(runtimeBuilder.newDecoder().getMoccaDeserializer(), runtimeBuilder.newDecoder().getMoccaDeserializer());
+        assertSame(builder.newDecoder().getMoccaDeserializer(), builder.newDecoder().getMoccaDeserializer());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void nullRuntimeTest() {
+        MoccaClient.Builder.sync("http://localhost:8080").runtime(null);
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.sample.AsyncSampleClient;
+import com.paypal.mocca.client.sample.SampleClient;
+import com.paypal.mocca.client.sample.SampleRequestDTO;
+import com.paypal.mocca.client.sample.SampleResponseDTO;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class MoccaScopeTest {
+
+    @Test
+    public void queryMemoizationTest() {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient();
+        final SampleClient client = MoccaClient.Builder.sync("http://localhost:8080")
+                .client(httpClient)
+                .build(SampleClient.class);
+
+        try (MoccaScope scope = MoccaScope.open()) {
+            final SampleResponseDTO first = client.getOneSample("boo", "far");
+            assertSame(client.getOneSample("boo", "far"), first);
+            assertEquals(httpClient.getRequestsCount(), 1);
+
+            client.getOneSample("zoo", "far");
+            assertEquals(httpClient.getRequestsCount(), 2);
+        }
+
+        // Outside of the scope nothing is memoized
+        client.getOneSample("boo", "far");
+        assertEquals(httpClient.getRequestsCount(), 3);
+    }
+
+    @Test
+    public void clientsNotSharingResultsTest() {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient();
+        final SampleClient booksClient = MoccaClient.Builder.sync("http://localhost:8080/books")
+                .client(httpClient)
+                .build(SampleClient.class);
+        final SampleClient authorsClient = MoccaClient.Builder.sync("http://localhost:8080/authors")
+                .client(httpClient)
+                .build(SampleClient.class);
+
+        try (MoccaScope scope = MoccaScope.open()) {
+            booksClient.getOneSample("boo", "far");
+            booksClient.getOneSample("boo", "far");
+            assertEquals(httpClient.getRequestsCount(), 1);
+
+            // Same request, but to another server
+            authorsClient.getOneSample("boo", "far");
+            assertEquals(httpClient.getRequestsCount(), 2);
+            authorsClient.getOneSample("boo", "far");
+            assertEquals(httpClient.getRequestsCount(), 2);
+        }
+    }
+
+    @Test
+    public void argumentsKeyTest() {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient("{\"data\": {\"getOneSampleWithHeaderAndDTO\": {\"foo\": \"boo\",\"bar\": \"far\"}}}");
+        final SampleClient client = MoccaClient.Builder.sync("http://localhost:8080")
+                .client(httpClient)
+                .build(SampleClient.class);
+        final SampleRequestDTO request = new SampleRequestDTO("boo", "far");
+
+        try (MoccaScope scope = MoccaScope.open()) {
+            client.getOneSampleWithHeaderAndDTO("tenant-1", request);
+            client.getOneSampleWithHeaderAndDTO("tenant-1", request);
+            assertEquals(httpClient.getRequestsCount(), 1);
+
+            // Same variables, but different dynamic headers
+            client.getOneSampleWithHeaderAndDTO("tenant-2", request);
+            assertEquals(httpClient.getRequestsCount(), 2);
+
+            // Arguments without equals are only memoized if they are the same instance
+            client.getOneSampleWithHeaderAndDTO("tenant-1", new SampleRequestDTO("boo", "far"));
+            assertEquals(httpClient.getRequestsCount(), 3);
+        }
+    }
+
+    @Test
+    public void mutationNotMemoizedTest() {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient();
+        final SampleClient client = MoccaClient.Builder.sync("http://localhost:8080")
+                .client(httpClient)
+                .build(SampleClient.class);
+
+        try (MoccaScope scope = MoccaScope.open()) {
+            client.addSample("boo", "far");
+            client.addSample("boo", "far");
+            assertEquals(httpClient.getRequestsCount(), 2);
+        }
+    }
+
+    @Test
+    public void asyncSharedFutureTest() throws Exception {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient();
+        final ExecutorService executorService = Executors.newCachedThreadPool();
+        try {
+            final AsyncSampleClient client = MoccaClient.Builder.async("http://localhost:8080")
+                    .client(new MoccaExecutorHttpClient<>(httpClient, executorService))
+                    .build(AsyncSampleClient.class);
+
+            try (MoccaScope scope = MoccaScope.open()) {
+                // The second invocation happens in a dependent stage, possibly run by another thread
+                final CompletableFuture<SampleResponseDTO> result = client.getOneSample("boo", "far")
+                        .thenCompose(first -> client.getOneSample("boo", "far"));
+
+                assertEquals(result.get().getFoo(), "boo");
+                assertEquals(httpClient.getRequestsCount(), 1);
+
+                final Runnable inScope = scope.wrap((Runnable) () -> client.getOneSample("boo", "far").join());
+                executorService.submit(inScope).get();
+                assertEquals(httpClient.getRequestsCount(), 1);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+}
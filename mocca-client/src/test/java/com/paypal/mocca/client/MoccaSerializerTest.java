@@ -5,6 +5,7 @@ import com.paypal.mocca.client.annotation.Var;
 import com.paypal.mocca.client.sample.ComplexSampleType;
 import com.paypal.mocca.client.sample.SampleRequestDTO;
 import com.paypal.mocca.client.sample.SampleResponseDTO;
+import com.paypal.mocca.client.sample.SuperComplexResponseType;
 import com.paypal.mocca.client.sample.SuperComplexSampleType;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -168,6 +169,24 @@ public class MoccaSerializerTest {
                 selectionSet, expectedReq);
     }
 
+    @Test
+    public void deferSelectionSetTest() throws IOException {
+        SelectionSet selectionSet = newSelectionSet(SelectionSet.UNDEFINED, new String[]{SelectionSet.UNDEFINED}, new String[]{"complexField"}, new String[0]);
+
+        requestTest(Collections.emptyList(), ComplexSampleType.class,"getABeer", OperationType.Query,
+                selectionSet, "{ \"query\" : \"query{getABeer {booleanVar ... @defer {complexField {innerBooleanVar innerIntVar innerStringVar}} intVar stringVar}}\"}");
+    }
+
+    @Test
+    public void streamSelectionSetTest() throws IOException {
+        String[] ignore = {"intVar", "stringVar", "booleanVar", "complexField", "complexListVar", "stringSetVar",
+                "dateTime", "optionalField", "duration", "uuid", "sampleEnum"};
+        SelectionSet selectionSet = newSelectionSet(SelectionSet.UNDEFINED, ignore, new String[0], new String[]{"stringListVar"});
+
+        requestTest(Collections.emptyList(), SuperComplexResponseType.class,"getABeer", OperationType.Query,
+                selectionSet, "{ \"query\" : \"query{getABeer {stringListVar @stream(initialCount: 0)}}\"}");
+    }
+
     @Test
     public void complexWithStringListRequestTest() throws IOException {
         SuperComplexSampleType.SuperComplexField superComplexField =
@@ -297,10 +316,16 @@ public class MoccaSerializerTest {
     }
 
     private SelectionSet newSelectionSet(String value, String... ignore) {
+        return newSelectionSet(value, ignore, new String[0], new String[0]);
+    }
+
+    private SelectionSet newSelectionSet(String value, String[] ignore, String[] defer, String[] stream) {
         return new SelectionSet(){
             @Override public Class<? extends Annotation> annotationType() { return SelectionSet.class; }
             @Override public String value() { return value;}
             @Override public String[] ignore() { return ignore;}
+            @Override public String[] defer() { return defer;}
+            @Override public String[] stream() { return stream;}
         };
     }
 
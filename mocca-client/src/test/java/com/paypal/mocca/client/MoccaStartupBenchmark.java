@@ -0,0 +1,109 @@
+package com.paypal.mocca.client;
+
+import org.testng.SkipException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Startup benchmark, measuring the time taken to build, and then invoke for the first time,
+ * clients whose API has 10, 100 and 500 operation methods, with and without lazy initialization.
+ * Client APIs are generated and compiled when the benchmark runs.
+ * <br>
+ * It is not run by the {@code test} task, but by {@code ./gradlew :mocca-client:startupBenchmark}.
+ */
+public class MoccaStartupBenchmark {
+
+    private static final String PACKAGE = "com.paypal.mocca.client.benchmark";
+    private static final int ITERATIONS = 10;
+
+    @DataProvider
+    public Object[][] methods() {
+        return new Object[][]{{10}, {100}, {500}};
+    }
+
+    @Test(groups = "benchmark", dataProvider = "methods")
+    public void buildTest(final int methods) throws Exception {
+        final Class<? extends MoccaClient> apiType = generateClientApi(methods);
+
+        report(apiType, methods, "eager", () -> MoccaClient.Builder.sync("http://localhost:8080")
+                .client(new StubMoccaHttpClient())
+                .build(apiType));
+        report(apiType, methods, "lazy", () -> MoccaClient.Builder.sync("http://localhost:8080")
+                .client(new StubMoccaHttpClient())
+                .lazyInitialization()
+                .jacksonModules()
+                .build(apiType));
+    }
+
+    private static void report(final Class<? extends MoccaClient> apiType, final int methods, final String mode, final Supplier<MoccaClient> build) throws Exception {
+        // The first build includes class loading, which is part of the cold start
+        long start = System.nanoTime();
+        MoccaClient client = build.get();
+        final long firstBuildNanos = System.nanoTime() - start;
+        final long firstInvocationNanos = invoke(apiType, client);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            client = build.get();
+        }
+        final long buildNanos = (System.nanoTime() - start) / ITERATIONS;
+        final long invocationNanos = invoke(apiType, client);
+
+        System.out.printf("%d methods, %s: first build %d ms, first invocation %d ms, build %d us, invocation after build %d us%n",
+                methods, mode,
+                TimeUnit.NANOSECONDS.toMillis(firstBuildNanos), TimeUnit.NANOSECONDS.toMillis(firstInvocationNanos),
+                TimeUnit.NANOSECONDS.toMicros(buildNanos), TimeUnit.NANOSECONDS.toMicros(invocationNanos));
+    }
+
+    private static long invoke(final Class<? extends MoccaClient> apiType, final MoccaClient client) throws Exception {
+        final long start = System.nanoTime();
+        apiType.getMethod("getOneSample0", String.class).invoke(client, "boo");
+        return System.nanoTime() - start;
+    }
+
+    /*
+     * Generates, compiles and loads a client API with the given number of operation methods
+     */
+    private static Class<? extends MoccaClient> generateClientApi(final int methods) throws Exception {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new SkipException("A JDK is required to generate the client APIs");
+        }
+
+        final String name = "StartupBenchmarkClient" + methods;
+        final StringBuilder source = new StringBuilder()
+                .append("package ").append(PACKAGE).append(";\n\n")
+                .append("public interface ").append(name).append(" extends com.paypal.mocca.client.MoccaClient {\n");
+        for (int i = 0; i < methods; i++) {
+            source.append("    @com.paypal.mocca.client.annotation.Query(name = \"getOneSample\")\n")
+                    .append("    com.paypal.mocca.client.sample.SampleResponseDTO getOneSample").append(i)
+                    .append("(@com.paypal.mocca.client.annotation.Var(\"foo\") String foo);\n");
+        }
+        source.append("}\n");
+
+        final Path directory = Files.createTempDirectory("mocca-startup-benchmark");
+        final Path sourceFile = directory.resolve(name + ".java");
+        Files.write(sourceFile, source.toString().getBytes(StandardCharsets.UTF_8));
+        final int result = compiler.run(null, null, null,
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", directory.toString(),
+                sourceFile.toString());
+        assertEquals(result, 0, "Client API " + name + " could not be compiled");
+
+        final URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, MoccaStartupBenchmark.class.getClassLoader());
+        return classLoader.loadClass(PACKAGE + "." + name).asSubclass(MoccaClient.class);
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.TargetUrl;
+import com.paypal.mocca.client.annotation.Var;
+import com.paypal.mocca.client.sample.SampleResponseDTO;
+import feign.Request;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link TargetUrl}
+ */
+public class MoccaTargetUrlTest {
+
+    public interface TenantClient extends MoccaClient {
+
+        @Query
+        SampleResponseDTO getOneSample(@TargetUrl String tenantUrl, @Var("foo") String foo);
+
+        @Query(name = "getOneSample")
+        SampleResponseDTO getOneSampleByUri(@Var("foo") String foo, @TargetUrl URI tenantUrl);
+
+        @Query
+        SampleResponseDTO getOneSample(@Var("foo") String foo);
+    }
+
+    public interface InvalidTargetUrlClient extends MoccaClient {
+
+        @Query
+        SampleResponseDTO getOneSample(@TargetUrl Integer tenantUrl, @Var("foo") String foo);
+    }
+
+    @Test
+    public void targetUrlTest() {
+        final List<Request> requests = new ArrayList<>();
+        final TenantClient client = MoccaClient.Builder.sync("http://localhost:8080/default")
+                .client(new MoccaHttpClient((request, options) -> {
+                    requests.add(request);
+                    return StubMoccaHttpClient.sampleResponse(request);
+                }) {})
+                .build(TenantClient.class);
+
+        assertEquals(client.getOneSample("http://tenant1:8080/app", "boo").getFoo(), "boo");
+        assertEquals(client.getOneSampleByUri("boo", URI.create("http://tenant2:8080/app/")).getFoo(), "boo");
+        assertEquals(client.getOneSample("boo").getFoo(), "boo");
+
+        assertEquals(requests.get(0).url(), "http://tenant1:8080/app/graphql");
+        assertEquals(requests.get(1).url(), "http://tenant2:8080/app/graphql");
+        assertEquals(requests.get(2).url(), "http://localhost:8080/default/graphql");
+        assertEquals(new String(requests.get(0).body(), StandardCharsets.UTF_8), new String(requests.get(2).body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void scopeMemoizationTest() {
+        final StubMoccaHttpClient httpClient = new StubMoccaHttpClient();
+        final TenantClient client = MoccaClient.Builder.sync("http://localhost:8080/default")
+                .client(httpClient)
+                .build(TenantClient.class);
+
+        try (MoccaScope scope = MoccaScope.open()) {
+            client.getOneSample("http://tenant1:8080/app", "boo");
+            client.getOneSample("http://tenant1:8080/app", "boo");
+            assertEquals(httpClient.getRequestsCount(), 1);
+
+            // Same request to another tenant is not memoized
+            client.getOneSample("http://tenant2:8080/app", "boo");
+            assertEquals(httpClient.getRequestsCount(), 2);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ".*must be a String or a java.net.URI")
+    public void invalidTargetUrlTypeTest() {
+        MoccaClient.Builder.sync("http://localhost:8080/default").build(InvalidTargetUrlClient.class);
+    }
+}
@@ -0,0 +1,165 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.Timeout;
+import com.paypal.mocca.client.annotation.Var;
+import com.paypal.mocca.client.sample.SampleResponseDTO;
+import feign.AsyncClient;
+import feign.Request;
+import feign.Response;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for {@link Timeout} and {@link MoccaDeadline}
+ */
+public class MoccaTimeoutTest {
+
+    @Timeout(read = 5_000)
+    public interface TimeoutClient extends MoccaClient {
+
+        @Query(name = "getOneSample")
+        @Timeout(connect = 100, read = 200)
+        SampleResponseDTO getOneSampleFast(@Var("foo") String foo);
+
+        @Query(name = "getOneSample")
+        @Timeout(read = 30, total = 20, unit = TimeUnit.SECONDS)
+        SampleResponseDTO getOneSampleSlow(@Var("foo") String foo);
+
+        @Query
+        SampleResponseDTO getOneSample(@Var("foo") String foo);
+    }
+
+    // Its client API has the same simple name, and so the same Feign config keys, as the one above
+    public interface OtherClients {
+
+        @Timeout(read = 7_000)
+        interface TimeoutClient extends MoccaClient {
+
+            @Query
+            SampleResponseDTO getOneSample(@Var("foo") String foo);
+        }
+    }
+
+    @Test
+    public void timeoutTest() {
+        final List<Request.Options> options = new ArrayList<>();
+        final TimeoutClient client = client(options);
+
+        client.getOneSampleFast("boo");
+        client.getOneSampleSlow("boo");
+        client.getOneSample("boo");
+
+        assertEquals(options.get(0).connectTimeoutMillis(), 100);
+        assertEquals(options.get(0).readTimeoutMillis(), 200);
+
+        // The total timeout bounds the read timeout, while the connect timeout is the default one
+        assertEquals(options.get(1).connectTimeoutMillis(), 10_000);
+        assertEquals(options.get(1).readTimeoutMillis(), 20_000);
+
+        // Client API level timeout
+        assertEquals(options.get(2).connectTimeoutMillis(), 10_000);
+        assertEquals(options.get(2).readTimeoutMillis(), 5_000);
+    }
+
+    @Test
+    public void deadlineTest() {
+        final List<Request.Options> options = new ArrayList<>();
+        final TimeoutClient client = client(options);
+
+        try (MoccaDeadline deadline = MoccaDeadline.open(Duration.ofSeconds(1))) {
+            client.getOneSampleFast("boo");
+            client.getOneSample("boo");
+
+            try (MoccaDeadline nested = MoccaDeadline.open(Duration.ofMinutes(1))) {
+                assertTrue(nested.getRemaining().compareTo(Duration.ofSeconds(1)) <= 0, "A nested deadline must not extend the outer one");
+                client.getOneSample("boo");
+            }
+            assertEquals(MoccaDeadline.current().get(), deadline);
+        }
+        assertFalse(MoccaDeadline.current().isPresent());
+
+        assertEquals(options.get(0).readTimeoutMillis(), 200);
+        assertTrue(options.get(1).connectTimeoutMillis() <= 1_000);
+        assertTrue(options.get(1).readTimeoutMillis() <= 1_000);
+        assertTrue(options.get(2).readTimeoutMillis() <= 1_000);
+    }
+
+    @Test
+    public void expiredDeadlineTest() throws InterruptedException {
+        final List<Request.Options> options = new ArrayList<>();
+        final TimeoutClient client = client(options);
+
+        try (MoccaDeadline deadline = MoccaDeadline.open(Duration.ofMillis(10))) {
+            TimeUnit.MILLISECONDS.sleep(20);
+            assertTrue(deadline.isExpired());
+            client.getOneSample("boo");
+            fail("Expected the request not to be sent");
+        } catch (MoccaException e) {
+            assertTrue(e.getMessage().contains("deadline has expired"));
+        }
+        assertTrue(options.isEmpty());
+    }
+
+    @Test
+    public void asyncDeadlineTest() throws Exception {
+        final CompletableFuture<Response> execution = new CompletableFuture<>();
+        final AsyncClient<Object> asyncClient = MoccaTimeouts.enrich((request, options, requestContext) -> execution);
+
+        final CompletableFuture<Response> result;
+        try (MoccaDeadline deadline = MoccaDeadline.open(Duration.ofMillis(50))) {
+            result = asyncClient.execute(request(), new Request.Options(), Optional.empty());
+        }
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Expected the request to time out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof MoccaException);
+        }
+        assertTrue(execution.isCancelled(), "The request must be cancelled once it times out");
+    }
+
+    @Test
+    public void sameSimpleNameTest() {
+        final List<Request.Options> options = new ArrayList<>();
+
+        client(options).getOneSample("boo");
+        client(options, OtherClients.TimeoutClient.class).getOneSample("boo");
+
+        assertEquals(options.get(0).readTimeoutMillis(), 5_000);
+        assertEquals(options.get(1).readTimeoutMillis(), 7_000);
+    }
+
+    private static TimeoutClient client(final List<Request.Options> options) {
+        return client(options, TimeoutClient.class);
+    }
+
+    private static <C extends MoccaClient> C client(final List<Request.Options> options, final Class<C> apiType) {
+        return MoccaClient.Builder.sync("http://localhost:8080")
+                .client(new MoccaHttpClient((request, requestOptions) -> {
+                    options.add(requestOptions);
+                    return StubMoccaHttpClient.sampleResponse(request);
+                }) {})
+                .build(apiType);
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.POST, "http://localhost:8080/graphql", Collections.emptyMap(),
+                "{\"query\":\"query{greeting}\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.paypal.mocca.client;
+
+import feign.Request;
+import feign.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mocca HTTP client returning the same GraphQL response payload for every
+ * request, without any remote call, while counting the requests it receives
+ */
+class StubMoccaHttpClient extends MoccaHttpClient {
+
+    /**
+     * GraphQL response payload for the {@code getOneSample} and {@code addSample}
+     * operations of {@link com.paypal.mocca.client.sample.SampleClient}
+     */
+    static final String SAMPLE_RESPONSE = "{\"data\": {\"getOneSample\": {\"foo\": \"boo\",\"bar\": \"far\"}, \"addSample\": {\"foo\": \"boo\",\"bar\": \"far\"}}}";
+
+    private final AtomicInteger requestsCounter;
+
+    StubMoccaHttpClient() {
+        this(SAMPLE_RESPONSE);
+    }
+
+    StubMoccaHttpClient(final String responseBody) {
+        this(responseBody, new AtomicInteger());
+    }
+
+    private StubMoccaHttpClient(final String responseBody, final AtomicInteger requestsCounter) {
+        super((request, options) -> {
+            requestsCounter.incrementAndGet();
+            return response(request, responseBody);
+        });
+        this.requestsCounter = requestsCounter;
+    }
+
+    int getRequestsCount() {
+        return requestsCounter.get();
+    }
+
+    /**
+     * Returns a successful response to the given request, with the sample response payload
+     *
+     * @param request the request
+     * @return a successful response to the given request, with the sample response payload
+     */
+    static Response sampleResponse(final Request request) {
+        return response(request, SAMPLE_RESPONSE);
+    }
+
+    private static Response response(final Request request, final String responseBody) {
+        return Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Collections.emptyMap())
+                .body(responseBody, StandardCharsets.UTF_8)
+                .build();
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.paypal.mocca.functional;
 
 import com.paypal.mocca.client.MoccaAsyncApache5Client;
+import com.paypal.mocca.client.MoccaAsyncOkHttpClient;
 import com.paypal.mocca.client.MoccaClient;
 import com.paypal.mocca.client.MoccaOkHttpClient;
 import com.paypal.mocca.client.MoccaExecutorHttpClient;
@@ -103,6 +104,18 @@ public class MoccaQueryTest extends AbstractFunctionalTests {
         checkResults(books);
     }
 
+    @Test
+    public void testBasicQueryAsyncOkHttp() throws ExecutionException, InterruptedException {
+        AsyncBooksAppClient asyncClient = MoccaClient.Builder
+                .async(getBaseUri().toString())
+                .client(new MoccaAsyncOkHttpClient())
+                .build(AsyncBooksAppClient.class);
+
+        List<Book> books = asyncClient.books().get();
+
+        checkResults(books);
+    }
+
     @Test
     public void testResilientQuery() {
         final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("marcels-cb");
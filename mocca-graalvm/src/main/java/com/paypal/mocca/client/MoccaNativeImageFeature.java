@@ -0,0 +1,55 @@
+package com.paypal.mocca.client;
+
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeProxyCreation;
+import org.graalvm.nativeimage.hosted.RuntimeReflection;
+
+/**
+ * GraalVM native image feature registering, for every {@link MoccaClient} interface reachable in the application,
+ * the dynamic proxy classes and reflection metadata Mocca needs at runtime. These are the client API itself,
+ * its request and response types (including, recursively, the types of their properties and fields) and
+ * Mocca annotations.
+ * <br>
+ * This feature is enabled automatically by GraalVM {@code native-image} when library
+ * {@code com.paypal.mocca:mocca-graalvm} is in the classpath, so no hand-written
+ * reflection or proxy configuration is needed.
+ * <br>
+ * Notice that bean validation providers, and the HTTP client libraries used by Mocca HTTP clients,
+ * might require their own native image configuration.
+ */
+public final class MoccaNativeImageFeature implements Feature {
+
+    @Override
+    public String getDescription() {
+        return "Registers Mocca client APIs, and their request and response types, for reflection and dynamic proxies";
+    }
+
+    @Override
+    public void beforeAnalysis(final BeforeAnalysisAccess access) {
+        for (Class<?> annotation : MoccaNativeImageTypes.ANNOTATIONS) {
+            RuntimeReflection.register(annotation);
+            RuntimeReflection.register(annotation.getDeclaredMethods());
+        }
+        access.registerSubtypeReachabilityHandler((duringAnalysisAccess, type) -> registerClientApi(type), MoccaClient.class);
+    }
+
+    private static void registerClientApi(final Class<?> apiType) {
+        if (!apiType.isInterface() || apiType == MoccaClient.class) {
+            return;
+        }
+
+        // Feign and Mocca create proxies of the client API, and invoke its methods reflectively
+        RuntimeProxyCreation.register(apiType);
+        RuntimeReflection.register(apiType);
+        RuntimeReflection.register(apiType.getMethods());
+
+        // Request and response types are introspected by Mocca and bound by Jackson
+        for (Class<?> dataType : MoccaNativeImageTypes.getDataTypes(apiType)) {
+            RuntimeReflection.register(dataType);
+            RuntimeReflection.register(dataType.getDeclaredConstructors());
+            RuntimeReflection.register(dataType.getDeclaredFields());
+            RuntimeReflection.register(dataType.getDeclaredMethods());
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Mutation;
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.RequestHeader;
+import com.paypal.mocca.client.annotation.RequestHeaderParam;
+import com.paypal.mocca.client.annotation.SelectionSet;
+import com.paypal.mocca.client.annotation.Subscription;
+import com.paypal.mocca.client.annotation.TargetUrl;
+import com.paypal.mocca.client.annotation.Timeout;
+import com.paypal.mocca.client.annotation.Var;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the types accessed reflectively by Mocca when a client API is used,
+ * which then have to be registered for reflection in native images.
+ */
+final class MoccaNativeImageTypes {
+
+    static final List<Class<?>> ANNOTATIONS = Collections.unmodifiableList(Arrays.asList(
+            Query.class, Mutation.class, Subscription.class, Var.class, SelectionSet.class,
+            RequestHeader.class, RequestHeaderParam.class, TargetUrl.class, Timeout.class));
+
+    private MoccaNativeImageTypes() {
+    }
+
+    /*
+     * Returns the request and response types (DTOs) of every method of the given client API,
+     * and, recursively, the types of their properties and fields. JDK types are not included.
+     */
+    static Set<Class<?>> getDataTypes(final Class<?> apiType) {
+        final Set<Class<?>> dataTypes = new LinkedHashSet<>();
+        for (Method method : apiType.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            collect(method.getGenericReturnType(), dataTypes);
+            for (Type parameterType : method.getGenericParameterTypes()) {
+                collect(parameterType, dataTypes);
+            }
+        }
+        return dataTypes;
+    }
+
+    private static void collect(final Type type, final Set<Class<?>> dataTypes) {
+        if (type instanceof ParameterizedType) {
+            final ParameterizedType parameterizedType = (ParameterizedType) type;
+            collect(parameterizedType.getRawType(), dataTypes);
+            for (Type typeArgument : parameterizedType.getActualTypeArguments()) {
+                collect(typeArgument, dataTypes);
+            }
+        } else if (type instanceof GenericArrayType) {
+            collect(((GenericArrayType) type).getGenericComponentType(), dataTypes);
+        } else if (type instanceof WildcardType) {
+            for (Type upperBound : ((WildcardType) type).getUpperBounds()) {
+                collect(upperBound, dataTypes);
+            }
+        } else if (type instanceof TypeVariable) {
+            for (Type bound : ((TypeVariable<?>) type).getBounds()) {
+                collect(bound, dataTypes);
+            }
+        } else if (type instanceof Class) {
+            final Class<?> clazz = (Class<?>) type;
+            if (clazz.isArray()) {
+                collect(clazz.getComponentType(), dataTypes);
+            } else if (isDataType(clazz) && dataTypes.add(clazz)) {
+                collectProperties(clazz, dataTypes);
+            }
+        }
+    }
+
+    private static void collectProperties(final Class<?> dataType, final Set<Class<?>> dataTypes) {
+        if (dataType.isEnum() || dataType.isInterface()) {
+            return;
+        }
+        try {
+            for (PropertyDescriptor property : Introspector.getBeanInfo(dataType, Object.class).getPropertyDescriptors()) {
+                if (property.getReadMethod() != null) {
+                    collect(property.getReadMethod().getGenericReturnType(), dataTypes);
+                }
+                if (property.getWriteMethod() != null) {
+                    collect(property.getWriteMethod().getGenericParameterTypes()[0], dataTypes);
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new MoccaException("Type " + dataType.getName() + " could not be introspected", e);
+        }
+        collect(dataType.getGenericSuperclass(), dataTypes);
+        for (Field field : dataType.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                collect(field.getGenericType(), dataTypes);
+            }
+        }
+    }
+
+    /*
+     * Primitive, JDK, Mocca and third party library (such as reactive types) types are not data types
+     */
+    private static boolean isDataType(final Class<?> clazz) {
+        if (clazz.isPrimitive() || clazz == Object.class) {
+            return false;
+        }
+        final String name = clazz.getName();
+        return !name.startsWith("java.") && !name.startsWith("javax.") && !name.startsWith("jdk.")
+                && clazz != MoccaIncrementalResult.class && !MoccaClient.class.isAssignableFrom(clazz)
+                && !name.startsWith("org.reactivestreams.") && !name.startsWith("reactor.core.")
+                && !name.startsWith("io.reactivex.");
+    }
+
+}
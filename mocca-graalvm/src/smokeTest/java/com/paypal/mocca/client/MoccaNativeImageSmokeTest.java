@@ -0,0 +1,132 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Mutation;
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.Var;
+import feign.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Native image smoke test application, built and run by {@code ./gradlew :mocca-graalvm:nativeSmokeTest}.
+ * It builds sync and async Mocca clients, relying only on {@link MoccaNativeImageFeature} for native image
+ * configuration, and checks request serialization and response deserialization, using a stub HTTP client.
+ * The process exits with status 1 if any check fails.
+ */
+public class MoccaNativeImageSmokeTest {
+
+    public static class Author {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Book {
+        private String title;
+        private List<Author> authors;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public List<Author> getAuthors() {
+            return authors;
+        }
+
+        public void setAuthors(List<Author> authors) {
+            this.authors = authors;
+        }
+    }
+
+    public static class BookInput {
+        private final String title;
+
+        public BookInput(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    public interface BooksAppClient extends MoccaClient {
+
+        @Query
+        List<Book> books(@Var("title") String title);
+
+        @Mutation
+        Book addBook(@Var("book") BookInput book);
+    }
+
+    public interface AsyncBooksAppClient extends MoccaClient {
+
+        @Query
+        CompletableFuture<List<Book>> books(@Var("title") String title);
+    }
+
+    private static final String BOOKS_RESPONSE = "{\"data\": {\"books\": [{\"title\": \"Mocca\", \"authors\": [{\"name\": \"Fabio\"}]}]}}";
+    private static final String ADD_BOOK_RESPONSE = "{\"data\": {\"addBook\": {\"title\": \"Mocca\", \"authors\": []}}}";
+
+    public static void main(String[] args) throws Exception {
+        final StringBuilder lastRequest = new StringBuilder();
+        final MoccaHttpClient httpClient = new MoccaHttpClient((request, options) -> {
+            final String body = new String(request.body(), StandardCharsets.UTF_8);
+            lastRequest.setLength(0);
+            lastRequest.append(body);
+            return Response.builder()
+                    .status(200)
+                    .request(request)
+                    .headers(Collections.emptyMap())
+                    .body(body.contains("addBook") ? ADD_BOOK_RESPONSE : BOOKS_RESPONSE, StandardCharsets.UTF_8)
+                    .build();
+        }) {};
+
+        final BooksAppClient client = MoccaClient.Builder.sync("http://localhost:8080/booksapp")
+                .client(httpClient)
+                .build(BooksAppClient.class);
+
+        final List<Book> books = client.books("Mocca");
+        check(books.size() == 1 && "Fabio".equals(books.get(0).getAuthors().get(0).getName()), "query response deserialization");
+        check(lastRequest.toString().contains("books(title: \\\"Mocca\\\")") && lastRequest.toString().contains("authors"), "query request serialization");
+
+        final Book book = client.addBook(new BookInput("Mocca"));
+        check("Mocca".equals(book.getTitle()), "mutation response deserialization");
+        check(lastRequest.toString().contains("book: {title: \\\"Mocca\\\"}"), "mutation request serialization");
+
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final AsyncBooksAppClient asyncClient = MoccaClient.Builder.async("http://localhost:8080/booksapp")
+                    .client(new MoccaExecutorHttpClient<>(httpClient, executorService))
+                    .build(AsyncBooksAppClient.class);
+            check("Mocca".equals(asyncClient.books("Mocca").get().get(0).getTitle()), "async query");
+        } finally {
+            executorService.shutdown();
+        }
+
+        System.out.println("Mocca native image smoke test passed");
+    }
+
+    private static void check(final boolean condition, final String description) {
+        if (!condition) {
+            System.err.println("Mocca native image smoke test failed: " + description);
+            System.exit(1);
+        }
+    }
+
+}
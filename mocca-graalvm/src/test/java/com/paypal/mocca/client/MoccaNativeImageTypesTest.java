@@ -0,0 +1,96 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Mutation;
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.Var;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link MoccaNativeImageTypes}
+ */
+public class MoccaNativeImageTypesTest {
+
+    public enum Genre {FICTION, NON_FICTION}
+
+    public static class Publisher {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Author {
+        private String name;
+        private Publisher[] publishers;
+
+        public String getName() {
+            return name;
+        }
+
+        public Publisher[] getPublishers() {
+            return publishers;
+        }
+    }
+
+    public static class BaseBook {
+        private Genre genre;
+    }
+
+    public static class Book extends BaseBook {
+        private String title;
+        private List<Author> authors;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+    }
+
+    public static class BookInput {
+        private String title;
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    public interface BooksAppClient extends MoccaClient {
+
+        @Query
+        CompletableFuture<List<Book>> books(@Var("title") String title);
+
+        @Query
+        Optional<Book> book(@Var("id") long id);
+
+        @Mutation
+        MoccaIncrementalResult<Book> addBook(@Var("book") BookInput book);
+    }
+
+    @Test
+    public void dataTypesTest() {
+        assertEquals(MoccaNativeImageTypes.getDataTypes(BooksAppClient.class),
+                new HashSet<>(Arrays.asList(Book.class, BaseBook.class, Genre.class, Author.class, Publisher.class, BookInput.class)));
+    }
+
+    @Test
+    public void noDataTypesTest() {
+        assertEquals(MoccaNativeImageTypes.getDataTypes(MoccaClient.class).size(), 0);
+    }
+
+}
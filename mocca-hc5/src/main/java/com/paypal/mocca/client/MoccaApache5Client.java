@@ -3,23 +3,47 @@ package com.paypal.mocca.client;
 import feign.hc5.ApacheHttp5Client;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.util.TimeValue;
+
+import java.util.Optional;
 
 /**
  * Mocca Apache 5 HTTP client. In order to use a Apache 5 HTTP client with Mocca,
  * create a new instance of this class and pass it to Mocca builder.
  * <br>
+ * Unless a pre-instantiated Apache 5 HTTP client is provided, the Apache 5 HTTP client is created with a
+ * connection pool configured according to a {@link MoccaConnectionPool}, whose statistics are
+ * available via {@link #getPoolStats()}.
+ * <br>
  * See {@link com.paypal.mocca.client.MoccaClient.Builder.SyncBuilder#client(MoccaHttpClient)} for further information and code example.
  *
  * @author fabiocarvalho777@gmail.com
  */
 final public class MoccaApache5Client extends MoccaHttpClient {
 
+    private final MoccaConnectionPool.Stats poolStats;
+
     /**
      * Creates a new Mocca Apache 5 HTTP client using
-     * default Apache 5 HTTP client configuration
+     * Mocca connection pool presets, returned by
+     * {@link MoccaConnectionPool#defaults()}
      */
     public MoccaApache5Client() {
-        this(HttpClientBuilder.create().build());
+        this(MoccaConnectionPool.defaults());
+    }
+
+    /**
+     * Creates a new Mocca Apache 5 HTTP client using
+     * a connection pool configured according to the
+     * given settings
+     *
+     * @param pool  the connection pool settings
+     */
+    public MoccaApache5Client(MoccaConnectionPool pool) {
+        this(connectionManager(Arguments.requireNonNull(pool, "Connection pool cannot be null")), pool);
     }
 
     /**
@@ -32,6 +56,75 @@ final public class MoccaApache5Client extends MoccaHttpClient {
      */
     public MoccaApache5Client(HttpClient httpClient) {
         super(new ApacheHttp5Client(httpClient));
+        this.poolStats = null;
+    }
+
+    private MoccaApache5Client(final PoolingHttpClientConnectionManager connectionManager, final MoccaConnectionPool pool) {
+        super(new ApacheHttp5Client(HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(pool.getIdleTimeout().toMillis()))
+                .setKeepAliveStrategy((response, context) -> {
+                    final Header keepAliveHeader = response.getFirstHeader("Keep-Alive");
+                    return TimeValue.ofMilliseconds(pool.keepAliveMillis(keepAliveHeader != null ? keepAliveHeader.getValue() : null));
+                })
+                .build()));
+        this.poolStats = new PoolStats(connectionManager);
+    }
+
+    private static PoolingHttpClientConnectionManager connectionManager(final MoccaConnectionPool pool) {
+        final PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxConnections())
+                .setMaxConnPerRoute(pool.getMaxConnectionsPerRoute())
+                .build();
+        connectionManager.setValidateAfterInactivity(TimeValue.ofMilliseconds(pool.getValidateAfterInactivity().toMillis()));
+        return connectionManager;
+    }
+
+    @Override
+    MoccaHttpClient withConnectionPool(final MoccaConnectionPool pool) {
+        if (poolStats == null) {
+            throw new MoccaException("Connection pool settings cannot be applied to a MoccaApache5Client created with a pre-instantiated Apache HTTP client");
+        }
+        return new MoccaApache5Client(pool);
+    }
+
+    /**
+     * Returns the statistics of the connection pool of this client,
+     * unless it has been created with a pre-instantiated Apache 5 HTTP client
+     *
+     * @return the statistics of the connection pool of this client
+     */
+    public Optional<MoccaConnectionPool.Stats> getPoolStats() {
+        return Optional.ofNullable(poolStats);
+    }
+
+    private static final class PoolStats implements MoccaConnectionPool.Stats {
+        private final PoolingHttpClientConnectionManager connectionManager;
+
+        private PoolStats(final PoolingHttpClientConnectionManager connectionManager) {
+            this.connectionManager = connectionManager;
+        }
+
+        @Override
+        public int getLeased() {
+            return connectionManager.getTotalStats().getLeased();
+        }
+
+        @Override
+        public int getPending() {
+            return connectionManager.getTotalStats().getPending();
+        }
+
+        @Override
+        public int getAvailable() {
+            return connectionManager.getTotalStats().getAvailable();
+        }
+
+        @Override
+        public int getMax() {
+            return connectionManager.getTotalStats().getMax();
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -1,14 +1,33 @@
 package com.paypal.mocca.client;
 
-import feign.hc5.AsyncApacheHttp5Client;
+import feign.AsyncClient;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.util.Timeout;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 /**
  * Mocca Async Apache 5 HTTP client. In order to use a Async Apache 5 HTTP client with Mocca,
  * create a new instance of this class and pass it to Mocca builder.
  * <br>
+ * Cancelling the future returned by the Feign async client cancels the Apache HTTP client request,
+ * releasing its connection.
+ * <br>
  * See {@link com.paypal.mocca.client.MoccaClient.Builder.AsyncBuilder#client(MoccaAsyncHttpClient)} for further information and code example.
  *
  * @author fabiocarvalho777@gmail.com
@@ -38,7 +57,90 @@ final public class MoccaAsyncApache5Client extends MoccaAsyncHttpClient<HttpClie
      *                      with user defined configuration
      */
     public MoccaAsyncApache5Client(CloseableHttpAsyncClient httpClient) {
-        super(new AsyncApacheHttp5Client(httpClient));
+        super(new AsyncApache5Client(Arguments.requireNonNull(httpClient, "Apache HTTP client cannot be null")));
+    }
+
+    /*
+     * Feign async client based on Apache HTTP client 5. Request and response conversions
+     * follow the ones done by Feign AsyncApacheHttp5Client, which does not cancel the
+     * Apache HTTP client request when its returned future is cancelled.
+     */
+    private static final class AsyncApache5Client implements AsyncClient<HttpClientContext> {
+
+        private final CloseableHttpAsyncClient delegate;
+
+        private AsyncApache5Client(final CloseableHttpAsyncClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableFuture<feign.Response> execute(final feign.Request request, final feign.Request.Options options, final Optional<HttpClientContext> requestContext) {
+            final HttpClientContext context = requestContext.orElseGet(HttpClientContext::create);
+            context.setRequestConfig(RequestConfig.custom()
+                    .setConnectTimeout(Timeout.ofMilliseconds(options.connectTimeoutMillis()))
+                    .setResponseTimeout(Timeout.ofMilliseconds(options.readTimeoutMillis()))
+                    .setRedirectsEnabled(options.isFollowRedirects())
+                    .build());
+
+            final CompletableFuture<feign.Response> result = new CompletableFuture<>();
+            final Future<SimpleHttpResponse> execution = delegate.execute(toSimpleHttpRequest(request), context, new FutureCallback<SimpleHttpResponse>() {
+                @Override
+                public void completed(final SimpleHttpResponse response) {
+                    result.complete(toFeignResponse(response, request));
+                }
+
+                @Override
+                public void failed(final Exception e) {
+                    result.completeExceptionally(e);
+                }
+
+                @Override
+                public void cancelled() {
+                    result.cancel(false);
+                }
+            });
+            result.whenComplete((response, throwable) -> {
+                if (result.isCancelled()) {
+                    execution.cancel(true);
+                }
+            });
+            return result;
+        }
+
+        private static SimpleHttpRequest toSimpleHttpRequest(final feign.Request request) {
+            final SimpleHttpRequest httpRequest = new SimpleHttpRequest(request.httpMethod().name(), URI.create(request.url()));
+
+            ContentType contentType = null;
+            for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+                for (String value : header.getValue()) {
+                    if (header.getKey().equalsIgnoreCase("Content-Type")) {
+                        // The content type is set along with the request body
+                        contentType = ContentType.parse(value);
+                    } else if (!header.getKey().equalsIgnoreCase("Content-Length")) {
+                        // The content length is set by the Apache HTTP client
+                        httpRequest.addHeader(header.getKey(), value);
+                    }
+                }
+            }
+            if (request.body() != null) {
+                httpRequest.setBody(request.body(), contentType != null ? contentType : ContentType.APPLICATION_JSON);
+            }
+            return httpRequest;
+        }
+
+        private static feign.Response toFeignResponse(final SimpleHttpResponse response, final feign.Request request) {
+            final Map<String, Collection<String>> headers = new LinkedHashMap<>();
+            for (Header header : response.getHeaders()) {
+                headers.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+            }
+            return feign.Response.builder()
+                    .status(response.getCode())
+                    .reason(response.getReasonPhrase())
+                    .request(request)
+                    .headers(headers)
+                    .body(response.getBodyBytes())
+                    .build();
+        }
     }
 
-}
\ No newline at end of file
+}
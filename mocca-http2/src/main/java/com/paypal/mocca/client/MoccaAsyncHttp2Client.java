@@ -0,0 +1,131 @@
+package com.paypal.mocca.client;
+
+import feign.AsyncClient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Mocca Async Java 11 HTTP 2 client. In order to use a non-blocking Java 11 HTTP 2 client with Mocca,
+ * create a new instance of this class and pass it to Mocca builder.
+ * <br>
+ * Requests are sent using {@link HttpClient#sendAsync(java.net.http.HttpRequest, java.net.http.HttpResponse.BodyHandler)},
+ * with a byte array body handler, so no thread is blocked while a request is in flight, and concurrent requests
+ * to the same server are multiplexed over the same HTTP 2 connections.
+ * <br>
+ * Cancelling the future returned by the Feign async client cancels the {@code sendAsync} future, which, since
+ * Java 16, aborts the HTTP exchange. The per request read timeout bounds the whole exchange, while the connect
+ * timeout and redirect policy are the ones configured in the Java HTTP client.
+ * <br>
+ * See {@link com.paypal.mocca.client.MoccaClient.Builder.AsyncBuilder#client(MoccaAsyncHttpClient)} for further information and code example.
+ */
+final public class MoccaAsyncHttp2Client extends MoccaAsyncHttpClient<Object> {
+
+    /**
+     * Creates a new Mocca Async Java 11 HTTP 2 client using
+     * default Java 11 HTTP 2 client configuration
+     */
+    public MoccaAsyncHttp2Client() {
+        this(HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.ALWAYS)
+                .version(HttpClient.Version.HTTP_2)
+                .build());
+    }
+
+    /**
+     * Creates a new Mocca Async Java 11 HTTP 2 client using
+     * a pre-instantiated Java 11 HTTP 2 client with user
+     * defined configuration
+     *
+     * @param httpClient  a pre-instantiated Java 11 HTTP 2 client
+     *                      with user defined configuration
+     */
+    public MoccaAsyncHttp2Client(HttpClient httpClient) {
+        super(new AsyncHttp2Client(Arguments.requireNonNull(httpClient, "Java HTTP client cannot be null")));
+    }
+
+    /*
+     * Feign async client based on Java 11 HTTP client. Request and response conversions follow
+     * the ones done by Feign Http2Client, whose returned future, derived from the sendAsync one,
+     * does not cancel the HTTP exchange when cancelled.
+     */
+    private static final class AsyncHttp2Client implements AsyncClient<Object> {
+
+        // Headers set by the Java HTTP client itself, which are not allowed to be set by applications
+        private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+        private final HttpClient delegate;
+
+        private AsyncHttp2Client(final HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableFuture<feign.Response> execute(final feign.Request request, final feign.Request.Options options, final Optional<Object> requestContext) {
+            final CompletableFuture<HttpResponse<byte[]>> execution;
+            try {
+                execution = delegate.sendAsync(toHttpRequest(request, options), HttpResponse.BodyHandlers.ofByteArray());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+
+            final CompletableFuture<feign.Response> result = new CompletableFuture<>();
+            execution.whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(toFeignResponse(response, request));
+                }
+            });
+            result.whenComplete((response, throwable) -> {
+                if (result.isCancelled()) {
+                    execution.cancel(true);
+                }
+            });
+            return result;
+        }
+
+        private static HttpRequest toHttpRequest(final feign.Request request, final feign.Request.Options options) {
+            final HttpRequest.Builder builder = HttpRequest.newBuilder()
+                    .uri(URI.create(request.url()))
+                    .method(request.httpMethod().name(), request.body() != null
+                            ? HttpRequest.BodyPublishers.ofByteArray(request.body())
+                            : HttpRequest.BodyPublishers.noBody());
+            if (options.readTimeoutMillis() > 0) {
+                builder.timeout(Duration.ofMillis(options.readTimeoutMillis()));
+            }
+            for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+                if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase())) {
+                    for (String value : header.getValue()) {
+                        builder.header(header.getKey(), value);
+                    }
+                }
+            }
+            return builder.build();
+        }
+
+        private static feign.Response toFeignResponse(final HttpResponse<byte[]> response, final feign.Request request) {
+            final Map<String, Collection<String>> headers = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+                headers.put(header.getKey(), header.getValue());
+            }
+            return feign.Response.builder()
+                    .status(response.statusCode())
+                    .request(request)
+                    .headers(headers)
+                    .body(response.body())
+                    .build();
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+package com.paypal.mocca.client;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Mocca incremental client based on the Java 11 HTTP client. It executes operation methods returning
+ * {@link MoccaIncrementalResult}, reading {@code multipart/mixed} responses as they are streamed by the server,
+ * so each part is given to Mocca as soon as it is received, without blocking any thread while waiting for the next one.
+ * <br>
+ * See {@link com.paypal.mocca.client.MoccaClient.Builder.AsyncBuilder#incrementalClient(MoccaIncrementalClient)}
+ * for further information and code example.
+ */
+public final class MoccaHttp2IncrementalClient extends MoccaIncrementalClient {
+
+    private final HttpClient httpClient;
+
+    /**
+     * Creates a new Mocca incremental client using
+     * default Java 11 HTTP client configuration
+     */
+    public MoccaHttp2IncrementalClient() {
+        this(HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.ALWAYS)
+                .version(HttpClient.Version.HTTP_2)
+                .build());
+    }
+
+    /**
+     * Creates a new Mocca incremental client using
+     * a pre-instantiated Java 11 HTTP client with user
+     * defined configuration
+     *
+     * @param httpClient a pre-instantiated Java 11 HTTP client
+     *                   with user defined configuration
+     */
+    public MoccaHttp2IncrementalClient(final HttpClient httpClient) {
+        this.httpClient = Arguments.requireNonNull(httpClient, "HTTP client cannot be null");
+    }
+
+    @Override
+    CompletableFuture<Void> execute(final String graphQLUrl, final byte[] request, final Map<String, Collection<String>> headers, final Consumer<byte[]> partConsumer) {
+        final HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(URI.create(graphQLUrl))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(request));
+        headers.forEach((name, values) -> values.forEach(value -> requestBuilder.header(name, value)));
+        requestBuilder.header("Content-Type", "application/json")
+                .header("Accept", ACCEPT);
+
+        final MultipartLineSubscriber multipartSubscriber = new MultipartLineSubscriber(partConsumer);
+        final CompletableFuture<HttpResponse<Void>> response = httpClient.sendAsync(requestBuilder.build(), responseInfo -> {
+            if (responseInfo.statusCode() < 200 || responseInfo.statusCode() >= 300) {
+                return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+                    throw new MoccaException("GraphQL request has failed with HTTP status code " + responseInfo.statusCode() + ": " + body);
+                });
+            }
+            final String contentType = responseInfo.headers().firstValue("Content-Type").orElse("");
+            final String boundary = getBoundary(contentType);
+            if (boundary == null) {
+                return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), body -> {
+                    partConsumer.accept(body);
+                    return null;
+                });
+            }
+            multipartSubscriber.boundary = "--" + boundary;
+            return HttpResponse.BodySubscribers.fromLineSubscriber(multipartSubscriber, s -> null, StandardCharsets.UTF_8, null);
+        });
+
+        final CompletableFuture<Void> execution = new CompletableFuture<>();
+        response.whenComplete((r, t) -> {
+            if (t != null) {
+                execution.completeExceptionally(t);
+            } else {
+                execution.complete(null);
+            }
+        });
+        execution.whenComplete((v, t) -> {
+            if (execution.isCancelled()) {
+                multipartSubscriber.cancel();
+                response.cancel(true);
+            }
+        });
+        return execution;
+    }
+
+    /*
+     * Returns the boundary parameter of the given content type,
+     * or null if it is not a multipart/mixed content type
+     */
+    static String getBoundary(final String contentType) {
+        if (!contentType.toLowerCase().startsWith("multipart/mixed")) return null;
+        for (String parameter : contentType.split(";")) {
+            final String trimmed = parameter.trim();
+            if (trimmed.toLowerCase().startsWith("boundary=")) {
+                final String boundary = trimmed.substring("boundary=".length());
+                return boundary.startsWith("\"") && boundary.endsWith("\"") && boundary.length() > 1 ?
+                        boundary.substring(1, boundary.length() - 1) : boundary;
+            }
+        }
+        // The incremental delivery specification default boundary
+        return "-";
+    }
+
+    /*
+     * Splits the response body lines into multipart parts, giving the body of each part to the part consumer
+     */
+    private static final class MultipartLineSubscriber implements Flow.Subscriber<String> {
+        private final Consumer<byte[]> partConsumer;
+        private final StringBuilder body = new StringBuilder();
+        private final JsonScanner scanner = new JsonScanner();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+        private String boundary;
+        private boolean inPart;
+        private boolean inHeaders;
+
+        private MultipartLineSubscriber(final Consumer<byte[]> partConsumer) {
+            this.partConsumer = partConsumer;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(final String line) {
+            if (line.startsWith(boundary)) {
+                emit();
+                inPart = !line.startsWith(boundary + "--");
+                inHeaders = inPart;
+                return;
+            }
+            if (inHeaders) {
+                if (line.trim().isEmpty()) {
+                    inHeaders = false;
+                    return;
+                }
+                if (!line.startsWith("{")) return;
+                // A part without headers
+                inHeaders = false;
+            }
+            if (inPart) {
+                body.append(line).append('\n');
+                // The boundary following a part is usually only terminated by the next part,
+                // so a part is given as soon as its JSON body is complete
+                if (scanner.scan(line)) {
+                    emit();
+                }
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            // The response future reports the failure
+        }
+
+        @Override
+        public void onComplete() {
+            emit();
+        }
+
+        private void emit() {
+            final String json = body.toString();
+            body.setLength(0);
+            scanner.reset();
+            if (json.trim().isEmpty()) {
+                return;
+            }
+            if (!cancelled) {
+                partConsumer.accept(json.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            final Flow.Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+        }
+    }
+
+    /*
+     * Tracks the nesting depth of a JSON value across the lines of a part, outside of strings,
+     * so its completeness is known without parsing the whole part again for every line
+     */
+    static final class JsonScanner {
+        private int depth;
+        private boolean started;
+        private boolean inString;
+        private boolean escaped;
+
+        /*
+         * Scans the given line, returning true if the JSON value scanned so far is complete
+         */
+        boolean scan(final String line) {
+            for (int i = 0; i < line.length(); i++) {
+                final char c = line.charAt(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                    started = true;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            }
+            return started && depth <= 0 && !inString;
+        }
+
+        void reset() {
+            depth = 0;
+            started = false;
+            inString = false;
+            escaped = false;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.paypal.mocca.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Mocca GraphQL subscription client based on the Java 11 {@link WebSocket} client, speaking the
+ * <a href="https://github.com/enisdenjo/graphql-ws/blob/master/PROTOCOL.md">graphql-transport-ws</a> protocol.
+ * The WebSocket URL is the Mocca client GraphQL URL, with its {@code http} or {@code https}
+ * scheme replaced by {@code ws} or {@code wss} respectively.
+ * <br>
+ * All subscriptions to the same GraphQL server, with the same headers, are multiplexed over a single WebSocket
+ * connection, which is opened when the first subscription starts and initialized once. Headers set in the client API
+ * are sent in the WebSocket handshake request, and as the {@code connection_init} message payload, where
+ * graphql-transport-ws servers usually read authentication data from. Each subscription has
+ * its own bounded buffer holding events not yet requested by its subscriber. If a subscriber does
+ * not keep up and its buffer overflows, its subscription is stopped and fails with a {@link MoccaException},
+ * without affecting other subscriptions sharing the same connection.
+ * <br>
+ * See an example below.
+ * <pre><code>
+ * MoccaWebSocketSubscriptionClient subscriptionClient = new MoccaWebSocketSubscriptionClient();
+ *
+ * AsyncBooksAppClient asyncClient = MoccaClient.Builder
+ *     .async("http://localhost:8080/booksapp")
+ *     .client(new MoccaAsyncHttp2Client())
+ *     .subscriptionClient(subscriptionClient)
+ *     .build(AsyncBooksAppClient.class);
+ *
+ * Flow.Publisher&#60;Book&#62; books = asyncClient.bookAdded("Tolkien");
+ * </code></pre>
+ */
+public final class MoccaWebSocketSubscriptionClient extends MoccaSubscriptionClient implements AutoCloseable {
+
+    private static final String SUBPROTOCOL = "graphql-transport-ws";
+    private static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final int bufferSize;
+    // Connections per WebSocket URI and headers
+    private final Map<List<Object>, CompletableFuture<Connection>> connections = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new Mocca WebSocket subscription client using
+     * default Java 11 HTTP client configuration
+     */
+    public MoccaWebSocketSubscriptionClient() {
+        this(HttpClient.newHttpClient());
+    }
+
+    /**
+     * Creates a new Mocca WebSocket subscription client using
+     * a pre-instantiated Java 11 HTTP client with user defined configuration
+     *
+     * @param httpClient a pre-instantiated Java 11 HTTP client
+     *                   with user defined configuration
+     */
+    public MoccaWebSocketSubscriptionClient(final HttpClient httpClient) {
+        this(httpClient, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new Mocca WebSocket subscription client using
+     * a pre-instantiated Java 11 HTTP client with user defined configuration,
+     * and a custom subscription buffer size
+     *
+     * @param httpClient a pre-instantiated Java 11 HTTP client
+     *                   with user defined configuration
+     * @param bufferSize maximum number of events, per subscription, received
+     *                   but not yet requested by the subscriber
+     */
+    public MoccaWebSocketSubscriptionClient(final HttpClient httpClient, final int bufferSize) {
+        this.httpClient = Arguments.requireNonNull(httpClient, "HTTP client cannot be null");
+        Arguments.require(bufferSize > 0, "Buffer size must be positive");
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    Object subscribe(final String graphQLUrl, final byte[] request, final Map<String, Collection<String>> headers, final Function<byte[], Object> eventDecoder) {
+        final URI uri = toWebSocketUri(graphQLUrl);
+        return (Flow.Publisher<Object>) subscriber -> {
+            Arguments.requireNonNull(subscriber, "Subscriber cannot be null");
+            new GraphQLSubscription(subscriber, eventDecoder).start(uri, headers, request);
+        };
+    }
+
+    /**
+     * Closes all WebSocket connections opened by this client, completing their active subscriptions
+     */
+    @Override
+    public void close() {
+        final List<CompletableFuture<Connection>> opened = new ArrayList<>(connections.values());
+        connections.clear();
+        opened.forEach(c -> c.thenAccept(Connection::close));
+    }
+
+    static URI toWebSocketUri(final String graphQLUrl) {
+        final URI uri = URI.create(graphQLUrl);
+        final String scheme = uri.getScheme();
+        if ("http".equalsIgnoreCase(scheme)) {
+            return URI.create("ws" + graphQLUrl.substring(scheme.length()));
+        }
+        if ("https".equalsIgnoreCase(scheme)) {
+            return URI.create("wss" + graphQLUrl.substring(scheme.length()));
+        }
+        return uri;
+    }
+
+    private CompletableFuture<Connection> connection(final URI uri, final Map<String, Collection<String>> headers) {
+        final List<Object> key = Arrays.asList(uri, headers);
+        final CompletableFuture<Connection> connection = connections.computeIfAbsent(key, k -> connect(uri, headers));
+        connection.whenComplete((c, t) -> {
+            if (t != null) {
+                connections.remove(key, connection);
+            }
+        });
+        return connection;
+    }
+
+    private CompletableFuture<Connection> connect(final URI uri, final Map<String, Collection<String>> headers) {
+        final Connection connection = new Connection(Arrays.asList(uri, headers), uri, headers);
+        try {
+            final WebSocket.Builder builder = httpClient.newWebSocketBuilder().subprotocols(SUBPROTOCOL);
+            headers.forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+            builder.buildAsync(uri, connection)
+                    .whenComplete((ws, t) -> {
+                        if (t != null) {
+                            connection.acknowledged.completeExceptionally(t);
+                        }
+                    });
+        } catch (IllegalArgumentException e) {
+            // Headers the WebSocket handshake does not allow to be set
+            connection.acknowledged.completeExceptionally(new MoccaException("GraphQL subscription connection to " + uri + " could not be established", e));
+        }
+        return connection.acknowledged;
+    }
+
+    /*
+     * A WebSocket connection to one GraphQL server, shared by all subscriptions to it
+     */
+    private final class Connection implements WebSocket.Listener {
+        private final List<Object> key;
+        private final URI uri;
+        private final Map<String, Collection<String>> headers;
+        private final CompletableFuture<Connection> acknowledged = new CompletableFuture<>();
+        private final Map<String, GraphQLSubscription> subscriptions = new ConcurrentHashMap<>();
+        private final AtomicLong ids = new AtomicLong();
+        private final StringBuilder text = new StringBuilder();
+        private volatile WebSocket webSocket;
+        private CompletableFuture<?> sending = CompletableFuture.completedFuture(null);
+
+        private Connection(final List<Object> key, final URI uri, final Map<String, Collection<String>> headers) {
+            this.key = key;
+            this.uri = uri;
+            this.headers = headers;
+        }
+
+        @Override
+        public void onOpen(final WebSocket webSocket) {
+            this.webSocket = webSocket;
+            final ObjectNode init = message("connection_init", null);
+            if (!headers.isEmpty()) {
+                final ObjectNode payload = init.putObject("payload");
+                headers.forEach((name, values) -> payload.put(name, String.join(", ", values)));
+            }
+            send(init);
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(final WebSocket webSocket, final CharSequence data, final boolean last) {
+            text.append(data);
+            if (last) {
+                final String message = text.toString();
+                text.setLength(0);
+                onMessage(message);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(final WebSocket webSocket, final int statusCode, final String reason) {
+            if (statusCode == WebSocket.NORMAL_CLOSURE) {
+                terminate(null);
+            } else {
+                terminate(new MoccaException("GraphQL subscription connection to " + uri + " has been closed by the server, status code " + statusCode + ": " + reason));
+            }
+            return null;
+        }
+
+        @Override
+        public void onError(final WebSocket webSocket, final Throwable error) {
+            terminate(new MoccaException("GraphQL subscription connection to " + uri + " has failed", error));
+        }
+
+        private void onMessage(final String message) {
+            final JsonNode node;
+            try {
+                node = mapper.readTree(message);
+            } catch (IOException e) {
+                terminate(new MoccaException("Invalid GraphQL subscription message received from " + uri, e));
+                webSocket.abort();
+                return;
+            }
+
+            final String type = node.path("type").asText();
+            final GraphQLSubscription subscription = node.hasNonNull("id") ? subscriptions.get(node.get("id").asText()) : null;
+            switch (type) {
+                case "connection_ack":
+                    acknowledged.complete(this);
+                    break;
+                case "ping":
+                    send(message("pong", null));
+                    break;
+                case "next":
+                    if (subscription != null) {
+                        subscription.onEvent(node.get("payload"));
+                    }
+                    break;
+                case "error":
+                    if (subscription != null) {
+                        subscriptions.remove(subscription.id);
+                        subscription.onError(new MoccaException("GraphQL subscription has failed: " + node.get("payload")));
+                    }
+                    break;
+                case "complete":
+                    if (subscription != null) {
+                        subscriptions.remove(subscription.id);
+                        subscription.onComplete();
+                    }
+                    break;
+                default:
+                    // Other message types, such as pong, require no action
+            }
+        }
+
+        private void subscribe(final GraphQLSubscription subscription, final byte[] request) {
+            subscription.id = String.valueOf(ids.incrementAndGet());
+            final ObjectNode message = message("subscribe", subscription.id);
+            try {
+                message.set("payload", mapper.readTree(request));
+            } catch (IOException e) {
+                subscription.onError(new MoccaException("Invalid GraphQL subscription request", e));
+                return;
+            }
+            subscriptions.put(subscription.id, subscription);
+            send(message);
+        }
+
+        private void unsubscribe(final GraphQLSubscription subscription) {
+            if (subscription.id != null && subscriptions.remove(subscription.id) != null) {
+                send(message("complete", subscription.id));
+            }
+        }
+
+        /*
+         * WebSocket messages must not be sent until the previous one has been sent
+         */
+        private synchronized void send(final JsonNode message) {
+            final String text = message.toString();
+            sending = sending.thenCompose(v -> webSocket.sendText(text, true))
+                    .exceptionally(t -> null);
+        }
+
+        private void close() {
+            if (!webSocket.isOutputClosed()) {
+                synchronized (this) {
+                    sending = sending.thenCompose(v -> webSocket.sendClose(WebSocket.NORMAL_CLOSURE, ""));
+                }
+            }
+            terminate(null);
+        }
+
+        private void terminate(final Throwable error) {
+            connections.remove(key, acknowledged);
+            acknowledged.completeExceptionally(error != null ? error : new MoccaException("GraphQL subscription connection to " + uri + " has been closed"));
+            final List<GraphQLSubscription> active = new ArrayList<>(subscriptions.values());
+            subscriptions.clear();
+            for (GraphQLSubscription subscription : active) {
+                if (error == null) {
+                    subscription.onComplete();
+                } else {
+                    subscription.onError(error);
+                }
+            }
+        }
+    }
+
+    private static ObjectNode message(final String type, final String id) {
+        final ObjectNode message = mapper.createObjectNode();
+        if (id != null) {
+            message.put("id", id);
+        }
+        message.put("type", type);
+        return message;
+    }
+
+    /*
+     * One GraphQL subscription, delivering its events to a single subscriber, according to its demand
+     */
+    private final class GraphQLSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super Object> subscriber;
+        private final Function<byte[], Object> eventDecoder;
+        private final Queue<Object> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        private volatile Connection connection;
+        private volatile String id;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+        private Throwable error;
+
+        private GraphQLSubscription(final Flow.Subscriber<? super Object> subscriber, final Function<byte[], Object> eventDecoder) {
+            this.subscriber = subscriber;
+            this.eventDecoder = eventDecoder;
+        }
+
+        private void start(final URI uri, final Map<String, Collection<String>> headers, final byte[] request) {
+            subscriber.onSubscribe(this);
+            connection(uri, headers).whenComplete((c, t) -> {
+                if (t != null) {
+                    onError(t instanceof MoccaException ? t : new MoccaException("GraphQL subscription connection to " + uri + " could not be established", t));
+                } else if (!cancelled) {
+                    connection = c;
+                    c.subscribe(this, request);
+                    if (cancelled) {
+                        c.unsubscribe(this);
+                    }
+                }
+            });
+        }
+
+        private void onEvent(final JsonNode payload) {
+            if (done) return;
+            final Object event;
+            try {
+                event = eventDecoder.apply(mapper.writeValueAsBytes(payload));
+            } catch (IOException | RuntimeException e) {
+                stop(e instanceof MoccaException ? e : new MoccaException("GraphQL subscription event could not be decoded", e));
+                return;
+            }
+            if (event == null) return;
+            if (buffered.incrementAndGet() > bufferSize) {
+                stop(new MoccaException("GraphQL subscription buffer has overflowed, since its subscriber has not kept up with the " + bufferSize + " buffered events"));
+                return;
+            }
+            buffer.offer(event);
+            drain();
+        }
+
+        private void onError(final Throwable t) {
+            if (done) return;
+            error = t;
+            done = true;
+            drain();
+        }
+
+        private void onComplete() {
+            done = true;
+            drain();
+        }
+
+        /*
+         * Fails this subscription and stops it on the server
+         */
+        private void stop(final Throwable t) {
+            final Connection c = connection;
+            if (c != null) {
+                c.unsubscribe(this);
+            }
+            onError(t);
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                stop(new IllegalArgumentException("Subscriber request must be positive, as stated in the reactive streams specification"));
+                return;
+            }
+            requested.getAndAccumulate(n, (current, added) -> {
+                final long sum = current + added;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            final Connection c = connection;
+            if (c != null) {
+                c.unsubscribe(this);
+            }
+            buffer.clear();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                long emitted = 0;
+                final long demand = requested.get();
+                while (emitted != demand && !cancelled) {
+                    final Object event = buffer.poll();
+                    if (event == null) break;
+                    buffered.decrementAndGet();
+                    subscriber.onNext(event);
+                    emitted++;
+                }
+                if (emitted > 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                if (cancelled) {
+                    buffer.clear();
+                } else if (done && (error != null || buffer.isEmpty()) && terminated.compareAndSet(false, true)) {
+                    buffer.clear();
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
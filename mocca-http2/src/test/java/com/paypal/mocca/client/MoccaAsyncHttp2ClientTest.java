@@ -0,0 +1,73 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+
+public class MoccaAsyncHttp2ClientTest {
+
+    private static final String GRAPHQL_GREETING = "Hello!";
+
+    private HttpServer graphqlServer;
+    private AsyncSampleDataClient asyncClient;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        graphqlServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        graphqlServer.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            final byte[] response = ("{ \"data\": { \"greeting\": \"" + GRAPHQL_GREETING + "\" } }").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        graphqlServer.setExecutor(Executors.newCachedThreadPool());
+        graphqlServer.start();
+
+        asyncClient = MoccaClient.Builder.async("http://localhost:" + graphqlServer.getAddress().getPort())
+                .client(new MoccaAsyncHttp2Client(HttpClient.newBuilder().build()))
+                .build(AsyncSampleDataClient.class);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        graphqlServer.stop(0);
+    }
+
+    @Test
+    void basicTest() throws Exception {
+        assertEquals(asyncClient.greeting().get(10, TimeUnit.SECONDS), GRAPHQL_GREETING);
+    }
+
+    @Test
+    void concurrentTest() throws Exception {
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(asyncClient.greeting());
+        }
+        for (CompletableFuture<String> future : futures) {
+            assertEquals(future.get(10, TimeUnit.SECONDS), GRAPHQL_GREETING);
+        }
+    }
+
+    public interface AsyncSampleDataClient extends MoccaClient {
+        @Query
+        CompletableFuture<String> greeting();
+    }
+}
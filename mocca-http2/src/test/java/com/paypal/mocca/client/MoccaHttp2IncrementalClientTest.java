@@ -0,0 +1,173 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.RequestHeader;
+import com.paypal.mocca.client.annotation.RequestHeaderParam;
+import com.paypal.mocca.client.annotation.SelectionSet;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class MoccaHttp2IncrementalClientTest {
+
+    private HttpServer graphqlServer;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch initialReceived;
+    private volatile String tenant;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        graphqlServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        graphqlServer.createContext("/multipart", exchange -> {
+            requests.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.getResponseHeaders().add("Content-Type", "multipart/mixed; boundary=\"-\"; deferSpec=20220824");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                write(out, "\r\n---\r\nContent-Type: application/json; charset=utf-8\r\n\r\n"
+                        + "{\"data\":{\"product\":{\"name\":\"Book\"}},\"hasNext\":true}\r\n---");
+                // The deferred part is only sent after the client has received the initial one
+                initialReceived.await(10, TimeUnit.SECONDS);
+                write(out, "\r\nContent-Type: application/json; charset=utf-8\r\n\r\n"
+                        + "{\"incremental\":[{\"data\":{\"reviews\":[\"Great\"]},\"path\":[\"product\"]}],\"hasNext\":false}\r\n-----\r\n");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        graphqlServer.createContext("/json", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            tenant = exchange.getRequestHeaders().getFirst("X-Tenant");
+            final byte[] response = "{\"data\":{\"product\":{\"name\":\"Book\",\"reviews\":[\"Great\"]}}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        graphqlServer.setExecutor(Executors.newCachedThreadPool());
+        graphqlServer.start();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        graphqlServer.stop(0);
+    }
+
+    @Test
+    void multipartTest() throws Exception {
+        initialReceived = new CountDownLatch(1);
+        final List<Product> patches = new CopyOnWriteArrayList<>();
+
+        final MoccaIncrementalResult<Product> result = client("/multipart").product();
+        result.onPatch(patches::add);
+
+        final Product initial = result.getInitialResult().get(10, TimeUnit.SECONDS);
+        assertFalse(result.getFinalResult().isDone());
+        initialReceived.countDown();
+        final Product complete = result.getFinalResult().get(10, TimeUnit.SECONDS);
+
+        assertEquals(initial.getName(), "Book");
+        assertNull(initial.getReviews());
+        assertEquals(complete.getName(), "Book");
+        assertEquals(complete.getReviews(), Collections.singletonList("Great"));
+        assertEquals(patches.size(), 1);
+        assertTrue(requests.get(requests.size() - 1).contains("product {name ... @defer {reviews}}"));
+    }
+
+    @Test
+    void jsonTest() throws Exception {
+        final MoccaIncrementalResult<Product> result = client("/json").product();
+
+        final Product complete = result.getFinalResult().get(10, TimeUnit.SECONDS);
+        assertEquals(result.getInitialResult().get(), complete);
+        assertEquals(complete.getReviews(), Collections.singletonList("Great"));
+    }
+
+    @Test
+    void headersTest() throws Exception {
+        final Product complete = client("/json").productOf("acme").getFinalResult().get(10, TimeUnit.SECONDS);
+
+        assertEquals(complete.getName(), "Book");
+        assertEquals(tenant, "acme");
+    }
+
+    @Test
+    void boundaryTest() {
+        assertEquals(MoccaHttp2IncrementalClient.getBoundary("multipart/mixed; boundary=\"-\"; deferSpec=20220824"), "-");
+        assertEquals(MoccaHttp2IncrementalClient.getBoundary("multipart/mixed; boundary=graphql"), "graphql");
+        assertEquals(MoccaHttp2IncrementalClient.getBoundary("multipart/mixed"), "-");
+        assertNull(MoccaHttp2IncrementalClient.getBoundary("application/json"));
+    }
+
+    @Test
+    void jsonScannerTest() {
+        final MoccaHttp2IncrementalClient.JsonScanner scanner = new MoccaHttp2IncrementalClient.JsonScanner();
+        assertFalse(scanner.scan("{\"data\": {\"name\": \"} ] \\\" {\","));
+        assertFalse(scanner.scan("\"reviews\": [\"Great\"]}"));
+        assertTrue(scanner.scan(", \"hasNext\": true}"));
+
+        scanner.reset();
+        assertFalse(scanner.scan(""));
+        assertTrue(scanner.scan("{\"hasNext\": false}"));
+    }
+
+    private ProductClient client(final String path) {
+        return MoccaClient.Builder.async("http://localhost:" + graphqlServer.getAddress().getPort() + path)
+                .client(new MoccaAsyncHttp2Client())
+                .incrementalClient(new MoccaHttp2IncrementalClient())
+                .build(ProductClient.class);
+    }
+
+    private static void write(final OutputStream out, final String data) throws IOException {
+        out.write(data.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    public interface ProductClient extends MoccaClient {
+        @Query
+        @SelectionSet(defer = "reviews")
+        MoccaIncrementalResult<Product> product();
+
+        @Query
+        @SelectionSet(defer = "reviews")
+        @RequestHeader("X-Tenant: {tenant}")
+        MoccaIncrementalResult<Product> productOf(@RequestHeaderParam("tenant") String tenant);
+    }
+
+    public static class Product {
+        private String name;
+        private List<String> reviews;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getReviews() {
+            return reviews;
+        }
+
+        public void setReviews(List<String> reviews) {
+            this.reviews = reviews;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.RequestHeader;
+import com.paypal.mocca.client.annotation.RequestHeaderParam;
+import com.paypal.mocca.client.annotation.Subscription;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class MoccaWebSocketSubscriptionClientTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\":\"([^\"]+)\"");
+
+    private ServerSocket serverSocket;
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final List<String> handshakeHeaders = new CopyOnWriteArrayList<>();
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        serverSocket = new ServerSocket(0);
+        received.clear();
+        handshakeHeaders.clear();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        serverSocket.close();
+    }
+
+    @Test
+    void subscriptionTest() throws Exception {
+        startServer(3);
+        final MoccaWebSocketSubscriptionClient subscriptionClient = new MoccaWebSocketSubscriptionClient();
+        final TestSubscriber subscriber = new TestSubscriber(1);
+
+        client(subscriptionClient).greetings().subscribe(subscriber);
+
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertEquals(subscriber.events, Arrays.asList("Hello 1", "Hello 2", "Hello 3"));
+        assertEquals(subscriber.error.get(), null);
+        assertEquals(received.get(0), "{\"type\":\"connection_init\"}");
+        assertTrue(received.get(1).contains("\"type\":\"subscribe\""));
+        assertTrue(received.get(1).contains("subscription{greetings}"));
+        subscriptionClient.close();
+    }
+
+    @Test
+    void headersTest() throws Exception {
+        startServer(1);
+        final MoccaWebSocketSubscriptionClient subscriptionClient = new MoccaWebSocketSubscriptionClient();
+        final TestSubscriber subscriber = new TestSubscriber(1);
+
+        client(subscriptionClient, HeadersSubscriptionSampleClient.class).authorizedGreetings("abc", null).subscribe(subscriber);
+
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertEquals(subscriber.events, Arrays.asList("Hello 1"));
+        assertTrue(handshakeHeaders.contains("authorization: Bearer abc"));
+        assertTrue(handshakeHeaders.contains("x-client: sample"));
+        assertFalse(handshakeHeaders.stream().anyMatch(h -> h.startsWith("x-tenant:") || h.startsWith("content-type:")));
+        assertEquals(received.get(0), "{\"type\":\"connection_init\",\"payload\":{\"Authorization\":\"Bearer abc\",\"X-Client\":\"sample\"}}");
+        assertTrue(received.get(1).contains("subscription{greetings}"));
+        subscriptionClient.close();
+    }
+
+    @Test
+    void bufferOverflowTest() throws Exception {
+        startServer(3);
+        final MoccaWebSocketSubscriptionClient subscriptionClient = new MoccaWebSocketSubscriptionClient(java.net.http.HttpClient.newHttpClient(), 1);
+        final TestSubscriber subscriber = new TestSubscriber(0);
+
+        client(subscriptionClient).greetings().subscribe(subscriber);
+
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertTrue(subscriber.events.isEmpty());
+        assertTrue(subscriber.error.get() instanceof MoccaException);
+        subscriptionClient.close();
+    }
+
+    @Test(expectedExceptions = MoccaException.class)
+    void missingSubscriptionClientTest() {
+        MoccaClient.Builder.async("http://localhost:" + serverSocket.getLocalPort())
+                .client(new MoccaAsyncHttp2Client())
+                .build(SubscriptionSampleClient.class);
+    }
+
+    @Test
+    void webSocketUriTest() {
+        assertEquals(MoccaWebSocketSubscriptionClient.toWebSocketUri("http://localhost:8080/graphql").toString(), "ws://localhost:8080/graphql");
+        assertEquals(MoccaWebSocketSubscriptionClient.toWebSocketUri("https://localhost/graphql").toString(), "wss://localhost/graphql");
+        assertEquals(MoccaWebSocketSubscriptionClient.toWebSocketUri("ws://localhost/graphql").toString(), "ws://localhost/graphql");
+    }
+
+    private SubscriptionSampleClient client(final MoccaWebSocketSubscriptionClient subscriptionClient) {
+        return client(subscriptionClient, SubscriptionSampleClient.class);
+    }
+
+    private <C extends MoccaClient> C client(final MoccaWebSocketSubscriptionClient subscriptionClient, final Class<C> apiType) {
+        return MoccaClient.Builder.async("http://localhost:" + serverSocket.getLocalPort())
+                .client(new MoccaAsyncHttp2Client())
+                .subscriptionClient(subscriptionClient)
+                .build(apiType);
+    }
+
+    /*
+     * Starts a minimal graphql-transport-ws server, which sends the given number
+     * of events to every subscription, followed by a complete message
+     */
+    private void startServer(final int events) {
+        final Thread server = new Thread(() -> {
+            try (Socket socket = serverSocket.accept()) {
+                final InputStream in = socket.getInputStream();
+                final OutputStream out = socket.getOutputStream();
+                handshake(in, out);
+                String message;
+                while ((message = readText(in)) != null) {
+                    received.add(message);
+                    if (message.contains("\"connection_init\"")) {
+                        writeText(out, "{\"type\":\"connection_ack\"}");
+                    } else if (message.contains("\"subscribe\"")) {
+                        final Matcher matcher = ID.matcher(message);
+                        assertTrue(matcher.find());
+                        final String id = matcher.group(1);
+                        for (int i = 1; i <= events; i++) {
+                            writeText(out, "{\"id\":\"" + id + "\",\"type\":\"next\",\"payload\":{\"data\":{\"greetings\":\"Hello " + i + "\"}}}");
+                        }
+                        writeText(out, "{\"id\":\"" + id + "\",\"type\":\"complete\"}");
+                    }
+                }
+            } catch (Exception ignored) {
+                // The test assertions will report the problem
+            }
+        });
+        server.setDaemon(true);
+        server.start();
+    }
+
+    private void handshake(final InputStream in, final OutputStream out) throws Exception {
+        String key = null;
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            final int colon = line.indexOf(':');
+            handshakeHeaders.add(colon < 0 ? line : line.substring(0, colon).toLowerCase() + line.substring(colon));
+            if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+                key = line.substring(line.indexOf(':') + 1).trim();
+            }
+        }
+        final byte[] digest = MessageDigest.getInstance("SHA-1")
+                .digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(StandardCharsets.US_ASCII));
+        out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + Base64.getEncoder().encodeToString(digest) + "\r\n"
+                + "Sec-WebSocket-Protocol: graphql-transport-ws\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static String readLine(final InputStream in) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) throw new IOException("Connection closed");
+            if (b != '\r') line.write(b);
+        }
+        return line.toString("US-ASCII");
+    }
+
+    /*
+     * Reads one (masked) client frame, returning null if it is a close frame
+     */
+    private static String readText(final InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        final int opcode = data.readUnsignedByte() & 0x0F;
+        long length = data.readUnsignedByte() & 0x7F;
+        if (length == 126) {
+            length = data.readUnsignedShort();
+        } else if (length == 127) {
+            length = data.readLong();
+        }
+        final byte[] mask = new byte[4];
+        data.readFully(mask);
+        final byte[] payload = new byte[(int) length];
+        data.readFully(payload);
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] ^= mask[i % 4];
+        }
+        return opcode == 0x8 ? null : new String(payload, StandardCharsets.UTF_8);
+    }
+
+    private static void writeText(final OutputStream out, final String text) throws IOException {
+        final byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        out.write(0x81);
+        if (payload.length < 126) {
+            out.write(payload.length);
+        } else {
+            out.write(126);
+            out.write(payload.length >> 8);
+            out.write(payload.length & 0xFF);
+        }
+        out.write(payload);
+        out.flush();
+    }
+
+    private static final class TestSubscriber implements Flow.Subscriber<String> {
+        private final long demand;
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+
+        private TestSubscriber(final long demand) {
+            this.demand = demand;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (demand > 0) subscription.request(demand);
+        }
+
+        @Override
+        public void onNext(final String item) {
+            events.add(item);
+            subscription.request(demand);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error.set(throwable);
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+    }
+
+    public interface SubscriptionSampleClient extends MoccaClient {
+        @Subscription
+        Flow.Publisher<String> greetings();
+    }
+
+    @RequestHeader("X-Client: sample")
+    public interface HeadersSubscriptionSampleClient extends MoccaClient {
+        @Subscription(name = "greetings")
+        @RequestHeader({"Authorization: Bearer {token}", "X-Tenant: {tenant}"})
+        Flow.Publisher<String> authorizedGreetings(@RequestHeaderParam("token") String token, @RequestHeaderParam("tenant") String tenant);
+    }
+}
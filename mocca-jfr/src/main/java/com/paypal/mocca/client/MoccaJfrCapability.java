@@ -0,0 +1,218 @@
+package com.paypal.mocca.client;
+
+import feign.AsyncClient;
+import feign.Client;
+import feign.InvocationHandlerFactory;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Mocca supports Java Flight Recorder (JFR) events covering the lifecycle of every GraphQL request,
+ * which allows profiling latency and allocation per GraphQL operation with continuous recordings,
+ * without a metrics backend. This capability can be added to sync and async clients.
+ * <br>
+ * The example below shows how to enable JFR events in a Mocca client:
+ * <pre><code>
+ * BooksAppClient client = MoccaClient.Builder
+ *     .sync("localhost:8080/booksapp")
+ *     .addCapability(new MoccaJfrCapability())
+ *     .build(BooksAppClient.class);
+ * </code></pre>
+ * The events below, in the {@code Mocca} category, are emitted. All of them carry the client API type,
+ * the GraphQL operation name and type, and whether it succeeded, or the class of the exception thrown otherwise.
+ * <ul>
+ *     <li>{@code mocca.Operation}: client method invocation, including encoding, HTTP exchange and decoding.
+ *     For async clients, it ends when the returned future completes</li>
+ *     <li>{@code mocca.Encode}: serialization of the GraphQL request, with the request payload size</li>
+ *     <li>{@code mocca.HttpExchange}: HTTP exchange with the GraphQL server, with URL, status and payload sizes</li>
+ *     <li>{@code mocca.Decode}: deserialization of the GraphQL response, with the response payload size,
+ *     and whether it contains GraphQL errors</li>
+ * </ul>
+ * Events are only emitted while a recording is running, started for example with {@code -XX:StartFlightRecording},
+ * and can be disabled, or given a duration threshold, in the recording settings. When no recording is running,
+ * or the events are disabled, the overhead of this capability is negligible.
+ */
+public final class MoccaJfrCapability extends MoccaCapability {
+
+    /**
+     * Creates a new {@link MoccaJfrCapability}
+     */
+    public MoccaJfrCapability() {
+        super(new JfrCapability());
+    }
+
+    /**
+     * Emits {@code mocca.HttpExchange} events for the HTTP exchanges of async Mocca clients,
+     * similarly to what is done for sync clients.
+     */
+    @Override
+    <C> AsyncClient<C> enrich(final AsyncClient<C> asyncClient) {
+        return (request, options, requestContext) -> {
+            final MoccaJfrEvents.HttpExchangeEvent event = new MoccaJfrEvents.HttpExchangeEvent();
+            if (!event.isEnabled()) {
+                return asyncClient.execute(request, options, requestContext);
+            }
+            event.begin();
+            final CompletableFuture<Response> response;
+            try {
+                response = asyncClient.execute(request, options, requestContext);
+            } catch (RuntimeException e) {
+                commit(event, request, null, e);
+                throw e;
+            }
+            response.whenComplete((r, t) -> commit(event, request, r, t));
+            return response;
+        };
+    }
+
+    private static void commit(final MoccaJfrEvents.HttpExchangeEvent event, final Request request, final Response response, final Throwable throwable) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(MoccaOperation.of(request.requestTemplate()), MoccaOperation.unwrap(throwable));
+            event.url = request.url();
+            event.status = response != null ? response.status() : -1;
+            event.requestSize = request.body() != null ? request.body().length : 0;
+            event.responseSize = responseSize(response);
+            event.commit();
+        }
+    }
+
+    private static long responseSize(final Response response) {
+        if (response == null || response.body() == null) {
+            return response == null ? -1 : 0;
+        }
+        final Integer length = response.body().length();
+        return length != null ? length : -1;
+    }
+
+    /*
+     * Feign capability emitting the encode, decode, sync HTTP exchange and operation events
+     */
+    private static final class JfrCapability implements feign.Capability {
+
+        @Override
+        public Encoder enrich(final Encoder encoder) {
+            return (object, bodyType, template) -> {
+                final MoccaJfrEvents.EncodeEvent event = new MoccaJfrEvents.EncodeEvent();
+                if (!event.isEnabled()) {
+                    encoder.encode(object, bodyType, template);
+                    return;
+                }
+                event.begin();
+                try {
+                    encoder.encode(object, bodyType, template);
+                } catch (RuntimeException e) {
+                    commit(event, template, e);
+                    throw e;
+                }
+                commit(event, template, null);
+            };
+        }
+
+        private static void commit(final MoccaJfrEvents.EncodeEvent event, final RequestTemplate template, final Throwable throwable) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(MoccaOperation.of(template), throwable);
+                event.requestSize = template.body() != null ? template.body().length : 0;
+                event.commit();
+            }
+        }
+
+        @Override
+        public Decoder enrich(final Decoder decoder) {
+            return (response, type) -> {
+                final MoccaJfrEvents.DecodeEvent event = new MoccaJfrEvents.DecodeEvent();
+                if (!event.isEnabled()) {
+                    return decoder.decode(response, type);
+                }
+                event.begin();
+                final Object decoded;
+                try {
+                    decoded = decoder.decode(response, type);
+                } catch (RuntimeException | IOException e) {
+                    commit(event, response, e);
+                    throw e;
+                }
+                commit(event, response, null);
+                return decoded;
+            };
+        }
+
+        private static void commit(final MoccaJfrEvents.DecodeEvent event, final Response response, final Throwable throwable) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(MoccaOperation.of(response.request().requestTemplate()), throwable);
+                event.responseSize = responseSize(response);
+                event.graphQLErrors = throwable instanceof MoccaException && ((MoccaException) throwable).isGraphQLErrors();
+                event.commit();
+            }
+        }
+
+        @Override
+        public Client enrich(final Client client) {
+            return (request, options) -> {
+                final MoccaJfrEvents.HttpExchangeEvent event = new MoccaJfrEvents.HttpExchangeEvent();
+                if (!event.isEnabled()) {
+                    return client.execute(request, options);
+                }
+                event.begin();
+                final Response response;
+                try {
+                    response = client.execute(request, options);
+                } catch (RuntimeException | IOException e) {
+                    MoccaJfrCapability.commit(event, request, null, e);
+                    throw e;
+                }
+                MoccaJfrCapability.commit(event, request, response, null);
+                return response;
+            };
+        }
+
+        @Override
+        public InvocationHandlerFactory enrich(final InvocationHandlerFactory invocationHandlerFactory) {
+            return (target, dispatch) -> {
+                final InvocationHandler delegate = invocationHandlerFactory.create(target, dispatch);
+                return (proxy, method, args) -> {
+                    final MoccaJfrEvents.OperationEvent event = new MoccaJfrEvents.OperationEvent();
+                    if (!event.isEnabled()) {
+                        return delegate.invoke(proxy, method, args);
+                    }
+                    final MoccaOperation operation = MoccaOperation.of(target.type(), method);
+                    if (!operation.isGraphQLOperation()) {
+                        return delegate.invoke(proxy, method, args);
+                    }
+                    event.begin();
+                    final Object result;
+                    try {
+                        result = delegate.invoke(proxy, method, args);
+                    } catch (Throwable t) {
+                        commit(event, operation, t);
+                        throw t;
+                    }
+                    if (result instanceof CompletableFuture) {
+                        ((CompletableFuture<?>) result).whenComplete((r, t) -> commit(event, operation, MoccaOperation.unwrap(t)));
+                    } else {
+                        commit(event, operation, null);
+                    }
+                    return result;
+                };
+            };
+        }
+
+        private static void commit(final MoccaJfrEvents.OperationEvent event, final MoccaOperation operation, final Throwable throwable) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(operation, throwable);
+                event.commit();
+            }
+        }
+    }
+
+}
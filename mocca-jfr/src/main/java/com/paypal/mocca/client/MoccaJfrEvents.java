@@ -0,0 +1,120 @@
+package com.paypal.mocca.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events emitted by {@link MoccaJfrCapability},
+ * one per stage of the lifecycle of a GraphQL request.
+ * <br>
+ * Events are enabled by default while a recording is running, unless disabled in the
+ * recording settings. Stack traces are not recorded, since all events of the same
+ * operation would have nearly the same stack trace.
+ */
+final class MoccaJfrEvents {
+
+    private MoccaJfrEvents() {
+    }
+
+    /*
+     * Fields shared by all Mocca events
+     */
+    abstract static class MoccaEvent extends Event {
+
+        @Label("Client")
+        @Description("Client API type")
+        String client;
+
+        @Label("Operation")
+        @Description("GraphQL operation name")
+        String operation;
+
+        @Label("Operation Type")
+        @Description("GraphQL operation type, query or mutation")
+        String type;
+
+        @Label("Success")
+        boolean success;
+
+        @Label("Exception")
+        @Description("Class of the exception thrown, if not successful")
+        String exception;
+
+        void set(final MoccaOperation operation, final Throwable throwable) {
+            this.client = operation.getClient();
+            this.operation = operation.getName();
+            this.type = operation.getType();
+            this.success = throwable == null;
+            this.exception = throwable != null ? throwable.getClass().getName() : null;
+        }
+    }
+
+    @Name("mocca.Operation")
+    @Label("Mocca Operation")
+    @Description("Client method invocation, including encoding, HTTP exchange and decoding. For async clients, it ends when the returned future completes")
+    @Category({"Mocca"})
+    @StackTrace(false)
+    static final class OperationEvent extends MoccaEvent {
+    }
+
+    @Name("mocca.Encode")
+    @Label("Mocca Encode")
+    @Description("Serialization of a GraphQL request")
+    @Category({"Mocca"})
+    @StackTrace(false)
+    static final class EncodeEvent extends MoccaEvent {
+
+        @Label("Request Size")
+        @Description("GraphQL request payload size")
+        @DataAmount
+        long requestSize;
+    }
+
+    @Name("mocca.HttpExchange")
+    @Label("Mocca HTTP Exchange")
+    @Description("HTTP exchange with the GraphQL server, until the response headers are received")
+    @Category({"Mocca"})
+    @StackTrace(false)
+    static final class HttpExchangeEvent extends MoccaEvent {
+
+        @Label("URL")
+        String url;
+
+        @Label("Status")
+        @Description("HTTP response status, or -1 if no response was received")
+        int status;
+
+        @Label("Request Size")
+        @Description("GraphQL request payload size")
+        @DataAmount
+        long requestSize;
+
+        @Label("Response Size")
+        @Description("GraphQL response payload size, or -1 if not known upfront")
+        @DataAmount
+        long responseSize;
+    }
+
+    @Name("mocca.Decode")
+    @Label("Mocca Decode")
+    @Description("Deserialization of a GraphQL response, including reading its payload")
+    @Category({"Mocca"})
+    @StackTrace(false)
+    static final class DecodeEvent extends MoccaEvent {
+
+        @Label("Response Size")
+        @Description("GraphQL response payload size, or -1 if not known upfront")
+        @DataAmount
+        long responseSize;
+
+        @Label("GraphQL Errors")
+        @Description("Whether the GraphQL response contains an errors field")
+        boolean graphQLErrors;
+    }
+
+}
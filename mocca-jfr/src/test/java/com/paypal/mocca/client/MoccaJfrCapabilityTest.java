@@ -0,0 +1,125 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.Var;
+import feign.Response;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link MoccaJfrCapability}
+ */
+public class MoccaJfrCapabilityTest {
+
+    private static final String RESPONSE = "{\"data\": {\"getBook\": {\"title\": \"Mocca\"}}}";
+    private static final String ERRORS_RESPONSE = "{\"errors\": [{\"message\": \"Book not found\"}]}";
+
+    public static class Book {
+        private String title;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+    }
+
+    public interface BooksAppClient extends MoccaClient {
+
+        @Query
+        Book getBook(@Var("title") String title);
+    }
+
+    @Test
+    public void eventsTest() throws Exception {
+        final Map<String, RecordedEvent> events = record(RESPONSE);
+
+        assertEquals(events.keySet(), new HashSet<>(Arrays.asList("mocca.Operation", "mocca.Encode", "mocca.HttpExchange", "mocca.Decode")));
+        for (RecordedEvent event : events.values()) {
+            assertEquals(event.getString("client"), BooksAppClient.class.getName());
+            assertEquals(event.getString("operation"), "getBook");
+            assertEquals(event.getString("type"), "query");
+            assertTrue(event.getBoolean("success"));
+        }
+        assertTrue(events.get("mocca.Encode").getLong("requestSize") > 0);
+        assertEquals(events.get("mocca.HttpExchange").getInt("status"), 200);
+        assertEquals(events.get("mocca.Decode").getLong("responseSize"), RESPONSE.length());
+        assertFalse(events.get("mocca.Decode").getBoolean("graphQLErrors"));
+    }
+
+    @Test
+    public void graphQLErrorsTest() throws Exception {
+        final Map<String, RecordedEvent> events = record(ERRORS_RESPONSE);
+
+        final RecordedEvent decodeEvent = events.get("mocca.Decode");
+        assertFalse(decodeEvent.getBoolean("success"));
+        assertTrue(decodeEvent.getBoolean("graphQLErrors"));
+        assertEquals(decodeEvent.getString("exception"), MoccaException.class.getName());
+        assertFalse(events.get("mocca.Operation").getBoolean("success"));
+    }
+
+    @Test
+    public void noRecordingTest() {
+        // Events are not enabled when no recording is running
+        assertEquals(newClient(RESPONSE).getBook("Mocca").getTitle(), "Mocca");
+    }
+
+    /*
+     * Invokes a client once while recording, and returns the recorded Mocca events by name
+     */
+    private static Map<String, RecordedEvent> record(final String response) throws Exception {
+        final BooksAppClient client = newClient(response);
+        final Path file = Files.createTempFile("mocca-jfr", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.start();
+            try {
+                client.getBook("Mocca");
+            } catch (RuntimeException e) {
+                // Expected for GraphQL errors responses
+            }
+            recording.stop();
+            recording.dump(file);
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            return events.stream()
+                    .filter(e -> e.getEventType().getName().startsWith("mocca."))
+                    .collect(Collectors.toMap(e -> e.getEventType().getName(), Function.identity()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static BooksAppClient newClient(final String response) {
+        final MoccaHttpClient httpClient = new MoccaHttpClient((request, options) -> Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Collections.emptyMap())
+                .body(response, StandardCharsets.UTF_8)
+                .build()) {};
+
+        return MoccaClient.Builder.sync("http://localhost:8080/booksapp")
+                .client(httpClient)
+                .addCapability(new MoccaJfrCapability())
+                .build(BooksAppClient.class);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.paypal.mocca.client;
+
+import feign.AsyncClient;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A Mocca async HTTP client based on a Mocca sync HTTP client, whose
+ * executions are each run by a new virtual thread (Java 21 or newer).
+ * <br>
+ * Similar to {@link MoccaExecutorHttpClient}, the GraphQL operation methods of the application
+ * client API return {@link java.util.concurrent.CompletableFuture}, and the remote calls are performed
+ * by a blocking HTTP client, but no platform thread is held while a call is in flight, as long as the
+ * sync HTTP client does not pin the virtual thread to its carrier (for example by blocking inside a
+ * {@code synchronized} block). See {@link MoccaVirtualThreads} for further information.
+ * <br>
+ * An example of how to use it can be seen below.
+ *
+ * <pre>
+ * {@code
+ *         MoccaVirtualThreadHttpClient<Object> virtualThreadClient = new MoccaVirtualThreadHttpClient<>(new MoccaApache5Client());
+ *
+ *         AsyncBooksAppClient client = MoccaClient.Builder
+ *                 .async("http://localhost:8080/booksapp")
+ *                 .client(virtualThreadClient)
+ *                 .build(AsyncBooksAppClient.class);
+ * }
+ * </pre>
+ *
+ * @param <T> the HTTP client type
+ */
+final public class MoccaVirtualThreadHttpClient<T> extends MoccaAsyncHttpClient<T> {
+
+    /*
+     * Virtual threads are not pooled, so one executor can be shared by all clients
+     */
+    private static final class VirtualThreadExecutorService {
+        private static final ExecutorService INSTANCE = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("mocca-virtual-", 0).factory());
+    }
+
+    /**
+     * Creates a new Mocca virtual thread HTTP client using the
+     * sync HTTP client returned by {@link MoccaVirtualThreads#httpClient()}
+     */
+    public MoccaVirtualThreadHttpClient() {
+        this(MoccaVirtualThreads.httpClient());
+    }
+
+    /**
+     * Creates a new Mocca virtual thread HTTP client
+     *
+     * @param moccaHttpClient the Mocca sync HTTP client to perform the GraphQL remote calls,
+     *                        each one run by a new virtual thread
+     */
+    public MoccaVirtualThreadHttpClient(MoccaHttpClient moccaHttpClient) {
+        super(new AsyncClient.Default<>(
+                Arguments.requireNonNull(moccaHttpClient, "Mocca HTTP client cannot be null").getFeignClient(),
+                VirtualThreadExecutorService.INSTANCE));
+    }
+
+}
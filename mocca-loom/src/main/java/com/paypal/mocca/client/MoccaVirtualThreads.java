@@ -0,0 +1,72 @@
+package com.paypal.mocca.client;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.Executors;
+
+/**
+ * Helper to create Mocca clients tuned for virtual threads (Java 21 or newer).
+ * <br>
+ * A virtual thread blocked inside a {@code synchronized} block, or method, is pinned to its carrier
+ * platform thread, which then cannot run any other virtual thread. Mocca itself never calls HTTP clients,
+ * nor application callbacks such as paging fetchers, while holding a monitor (it uses
+ * {@link java.util.concurrent.locks.ReentrantLock} instead), so whether virtual threads are pinned or not
+ * during a GraphQL call depends on the HTTP client. The clients created by this helper use the JDK HTTP client, whose blocking operations
+ * are based on {@link java.util.concurrent.locks.Lock} instances, and whose internal tasks are run by
+ * virtual threads as well. The Apache HTTP client 5 and the Mocca default HTTP client are also safe to be
+ * called from virtual threads, while OkHttp 4.x, whose connection pool and dispatcher use {@code synchronized}
+ * blocks, is not recommended.
+ * <br>
+ * See an example below.
+ * <pre><code>
+ * // Sync client to be called by virtual threads, for example by a server handling requests with virtual threads
+ * BooksAppClient client = MoccaVirtualThreads.sync("http://localhost:8080/booksapp")
+ *     .build(BooksAppClient.class);
+ *
+ * // Async client whose remote calls are run by virtual threads
+ * AsyncBooksAppClient asyncClient = MoccaVirtualThreads.async("http://localhost:8080/booksapp")
+ *     .build(AsyncBooksAppClient.class);
+ * </code></pre>
+ * The returned builders can be further configured, as any other Mocca builder.
+ */
+public final class MoccaVirtualThreads {
+
+    private MoccaVirtualThreads() {
+    }
+
+    /**
+     * Returns a new Mocca sync HTTP client safe to be called from virtual threads,
+     * based on a JDK HTTP client whose internal tasks are run by virtual threads
+     *
+     * @return a new Mocca sync HTTP client safe to be called from virtual threads
+     */
+    public static MoccaHttp2Client httpClient() {
+        return new MoccaHttp2Client(HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.ALWAYS)
+                .version(HttpClient.Version.HTTP_2)
+                .executor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mocca-http-", 0).factory()))
+                .build());
+    }
+
+    /**
+     * Returns a Mocca sync client builder, using the HTTP client returned by {@link #httpClient()},
+     * to build clients to be called from virtual threads
+     *
+     * @param graphQLUrl the GraphQL server URL
+     * @return a Mocca sync client builder
+     */
+    public static MoccaClient.Builder.SyncBuilder sync(final String graphQLUrl) {
+        return MoccaClient.Builder.sync(graphQLUrl).client(httpClient());
+    }
+
+    /**
+     * Returns a Mocca async client builder, using a {@link MoccaVirtualThreadHttpClient}
+     * based on the HTTP client returned by {@link #httpClient()}
+     *
+     * @param graphQLUrl the GraphQL server URL
+     * @return a Mocca async client builder
+     */
+    public static MoccaClient.Builder.AsyncBuilder async(final String graphQLUrl) {
+        return MoccaClient.Builder.async(graphQLUrl).client(new MoccaVirtualThreadHttpClient<>(httpClient()));
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import feign.Response;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class MoccaVirtualThreadHttpClientTest {
+
+    private static final String GRAPHQL_GREETING = "Hello!";
+
+    @Test
+    void virtualThreadsTest() throws Exception {
+        final Set<Boolean> virtualThreads = ConcurrentHashMap.newKeySet();
+        final MoccaHttpClient blockingClient = new MoccaHttpClient((request, options) -> {
+            virtualThreads.add(Thread.currentThread().isVirtual());
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Response.builder()
+                    .status(200)
+                    .request(request)
+                    .headers(Collections.emptyMap())
+                    .body("{ \"data\": { \"greeting\": \"" + GRAPHQL_GREETING + "\" } }", StandardCharsets.UTF_8)
+                    .build();
+        }) {
+        };
+
+        final AsyncSampleDataClient asyncClient = MoccaClient.Builder.async("http://localhost:8080")
+                .client(new MoccaVirtualThreadHttpClient<>(blockingClient))
+                .build(AsyncSampleDataClient.class);
+
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            futures.add(asyncClient.greeting());
+        }
+        for (CompletableFuture<String> future : futures) {
+            // All calls block concurrently, so they complete well within the timeout
+            assertEquals(future.get(10, TimeUnit.SECONDS), GRAPHQL_GREETING);
+        }
+        assertEquals(virtualThreads, Collections.singleton(true), "Expected all calls to be run by virtual threads");
+    }
+
+    @Test
+    void helperTest() {
+        assertTrue(MoccaVirtualThreads.sync("http://localhost:8080").build(SampleDataClient.class) != null);
+        assertTrue(MoccaVirtualThreads.async("http://localhost:8080").build(AsyncSampleDataClient.class) != null);
+    }
+
+    public interface SampleDataClient extends MoccaClient {
+        @Query
+        String greeting();
+    }
+
+    public interface AsyncSampleDataClient extends MoccaClient {
+        @Query
+        CompletableFuture<String> greeting();
+    }
+}
@@ -0,0 +1,60 @@
+package com.paypal.mocca.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Micrometer binder exporting the statistics of the connection pool of a Mocca HTTP client,
+ * created with a {@link MoccaConnectionPool}, as the following gauges, tagged with the pool name:
+ * <ul>
+ *     <li>{@code mocca.pool.connections.leased}: connections currently executing requests</li>
+ *     <li>{@code mocca.pool.connections.pending}: requests waiting for a connection</li>
+ *     <li>{@code mocca.pool.connections.available}: idle connections available for new requests</li>
+ *     <li>{@code mocca.pool.connections.max}: maximum number of connections (-1 if not limited by the pool)</li>
+ * </ul>
+ * The example below shows how to export the connection pool metrics of a Mocca Apache 5 HTTP client:
+ * <pre><code>
+ * MoccaApache5Client httpClient = new MoccaApache5Client(MoccaConnectionPool.defaults());
+ *
+ * httpClient.getPoolStats().ifPresent(stats -&#62;
+ *     new MoccaConnectionPoolMetrics(stats, "booksapp").bindTo(meterRegistry));
+ * </code></pre>
+ */
+public final class MoccaConnectionPoolMetrics implements MeterBinder {
+
+    private static final String PREFIX = "mocca.pool.connections.";
+
+    private final MoccaConnectionPool.Stats stats;
+    private final Tags tags;
+
+    /**
+     * Creates a new {@link MoccaConnectionPoolMetrics}
+     *
+     * @param stats the connection pool statistics, returned by the Mocca HTTP client
+     * @param poolName the pool name, set as {@code pool} tag
+     */
+    public MoccaConnectionPoolMetrics(final MoccaConnectionPool.Stats stats, final String poolName) {
+        this.stats = Arguments.requireNonNull(stats, "Connection pool statistics cannot be null");
+        this.tags = Tags.of("pool", Arguments.requireNonNull(poolName, "Pool name cannot be null"));
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        gauge(meterRegistry, "leased", "Connections currently executing requests", MoccaConnectionPool.Stats::getLeased);
+        gauge(meterRegistry, "pending", "Requests waiting for a connection", MoccaConnectionPool.Stats::getPending);
+        gauge(meterRegistry, "available", "Idle connections available for new requests", MoccaConnectionPool.Stats::getAvailable);
+        gauge(meterRegistry, "max", "Maximum number of connections", MoccaConnectionPool.Stats::getMax);
+    }
+
+    private void gauge(final MeterRegistry meterRegistry, final String name, final String description, final ToIntFunction<MoccaConnectionPool.Stats> value) {
+        Gauge.builder(PREFIX + name, stats, s -> value.applyAsInt(s))
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+}
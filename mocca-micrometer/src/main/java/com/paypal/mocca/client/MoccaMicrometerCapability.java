@@ -1,13 +1,30 @@
 package com.paypal.mocca.client;
 
+import feign.AsyncClient;
+import feign.InvocationHandlerFactory;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
 import feign.micrometer.MicrometerCapability;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.config.MeterFilter;
 
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Mocca supports Micrometer-based metrics, which primarily revolve around HTTP interactions with the target GraphQL server.
- * Notice Mocca metrics are identified with {@code mocca.} prefix.
+ * Notice Mocca metrics are identified with {@code mocca.} prefix. This capability can be added to sync and async clients.
  * <br>
  * The example below shows how to enable metric gathering in Mocca using Micrometer:
  * <pre><code>
@@ -22,18 +39,80 @@ import io.micrometer.core.instrument.config.MeterFilter;
  *     .addCapability(new MoccaMicrometerCapability(meterRegistry))
  *     .build(BooksAppClient.class);
  * </code></pre>
+ * Besides the HTTP metrics, the following per-operation meters are registered, all of them tagged by
+ * {@code client} (the client API type), {@code operation} (the GraphQL operation name) and {@code type}
+ * ({@code query} or {@code mutation}).
+ * <ul>
+ *     <li>{@code mocca.operation}: timer of the whole client method invocation, including encoding, HTTP
+ *     exchange and decoding. For async clients, it stops when the returned future completes</li>
+ *     <li>{@code mocca.encode}: timer of the serialization of the GraphQL request</li>
+ *     <li>{@code mocca.decode}: timer of the deserialization of the GraphQL response</li>
+ *     <li>{@code mocca.request.size}: distribution summary of the GraphQL request payload sizes, in bytes</li>
+ *     <li>{@code mocca.errors}: counter of GraphQL responses containing an {@code errors} field</li>
+ * </ul>
+ * Timers are also tagged by {@code exception}, the simple name of the exception class, or {@code None}.
+ * The response payload sizes are already recorded by the Feign decoder metrics, under
+ * {@code mocca.codec.Decoder.response_size}, tagged by client API type and method.
  *
  * @author crankydillo@gmail.com
  */
 public final class MoccaMicrometerCapability extends MoccaCapability {
 
+    private static final String ASYNC_CLIENT_TIMER = "mocca.AsyncClient";
+    private static final String OPERATION_TIMER = "mocca.operation";
+    private static final String ENCODE_TIMER = "mocca.encode";
+    private static final String DECODE_TIMER = "mocca.decode";
+    private static final String REQUEST_SIZE_SUMMARY = "mocca.request.size";
+    private static final String ERRORS_COUNTER = "mocca.errors";
+    private static final String UNKNOWN = MoccaOperation.UNKNOWN;
+
+    private final MeterRegistry meterRegistry;
+
     /**
      * Creates a new {@link MoccaMicrometerCapability}
      *
      * @param meterRegistry the meter registry to be registered
      */
     public MoccaMicrometerCapability(final MeterRegistry meterRegistry) {
-        super(new MicrometerCapability(moccafy(meterRegistry)));
+        super(new OperationMetricsCapability(moccafy(meterRegistry)));
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times the HTTP exchanges of async Mocca clients, similarly to what Feign Micrometer
+     * capability does for sync clients, under the {@code mocca.AsyncClient} timer.
+     */
+    @Override
+    <C> AsyncClient<C> enrich(final AsyncClient<C> asyncClient) {
+        return (request, options, requestContext) -> {
+            final Timer.Sample sample = Timer.start(meterRegistry);
+            final CompletableFuture<Response> response = asyncClient.execute(request, options, requestContext);
+            response.whenComplete((r, t) -> sample.stop(Timer.builder(ASYNC_CLIENT_TIMER)
+                    .tags(tags(request, r, t))
+                    .register(meterRegistry)));
+            return response;
+        };
+    }
+
+    private static Tags tags(final Request request, final Response response, final Throwable throwable) {
+        final RequestTemplate template = request.requestTemplate();
+        final String client = template != null && template.feignTarget() != null ? template.feignTarget().type().getName() : UNKNOWN;
+        final String method = template != null && template.methodMetadata() != null ? template.methodMetadata().method().getName() : UNKNOWN;
+        return Tags.of(
+                "client", client,
+                "method", method,
+                "host", extractHost(request.url()),
+                "status", response != null ? String.valueOf(response.status()) : UNKNOWN,
+                "exception", MoccaOperation.exceptionName(throwable));
+    }
+
+    private static String extractHost(final String url) {
+        try {
+            final String host = URI.create(url).getHost();
+            return host != null ? host : UNKNOWN;
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN;
+        }
     }
 
     /**
@@ -48,4 +127,114 @@ public final class MoccaMicrometerCapability extends MoccaCapability {
         });
         return meterRegistry;
     }
+
+    /*
+     * Feign Micrometer capability, adding per-operation meters to the ones registered by Feign
+     */
+    private static final class OperationMetricsCapability extends MicrometerCapability {
+        private final MeterRegistry meterRegistry;
+
+        // Tags per operation, which are cached per client method
+        private final Map<MoccaOperation, Tags> operationTags = new ConcurrentHashMap<>();
+
+        private OperationMetricsCapability(final MeterRegistry meterRegistry) {
+            super(meterRegistry);
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Encoder enrich(final Encoder encoder) {
+            final Encoder meteredEncoder = super.enrich(encoder);
+            return (object, bodyType, template) -> {
+                final Tags tags = operationTags(MoccaOperation.of(template));
+                final Timer.Sample sample = Timer.start(meterRegistry);
+                try {
+                    meteredEncoder.encode(object, bodyType, template);
+                } catch (RuntimeException e) {
+                    stop(sample, ENCODE_TIMER, tags, e);
+                    throw e;
+                }
+                stop(sample, ENCODE_TIMER, tags, null);
+
+                final byte[] body = template.body();
+                if (body != null) {
+                    summary(REQUEST_SIZE_SUMMARY, tags).record(body.length);
+                }
+            };
+        }
+
+        @Override
+        public Decoder enrich(final Decoder decoder) {
+            final Decoder meteredDecoder = super.enrich(decoder);
+            return (response, type) -> {
+                final Tags tags = operationTags(MoccaOperation.of(response.request().requestTemplate()));
+                final Timer.Sample sample = Timer.start(meterRegistry);
+                final Object decoded;
+                try {
+                    decoded = meteredDecoder.decode(response, type);
+                } catch (MoccaException e) {
+                    if (e.isGraphQLErrors()) {
+                        meterRegistry.counter(ERRORS_COUNTER, tags).increment();
+                    }
+                    stop(sample, DECODE_TIMER, tags, e);
+                    throw e;
+                } catch (RuntimeException | IOException e) {
+                    stop(sample, DECODE_TIMER, tags, e);
+                    throw e;
+                }
+                stop(sample, DECODE_TIMER, tags, null);
+                return decoded;
+            };
+        }
+
+        @Override
+        public InvocationHandlerFactory enrich(final InvocationHandlerFactory invocationHandlerFactory) {
+            final InvocationHandlerFactory meteredFactory = super.enrich(invocationHandlerFactory);
+            return (target, dispatch) -> {
+                final InvocationHandler delegate = meteredFactory.create(target, dispatch);
+                return (proxy, method, args) -> {
+                    final MoccaOperation operation = MoccaOperation.of(target.type(), method);
+                    if (!operation.isGraphQLOperation()) {
+                        return delegate.invoke(proxy, method, args);
+                    }
+                    final Tags tags = operationTags(operation);
+                    final Timer.Sample sample = Timer.start(meterRegistry);
+                    final Object result;
+                    try {
+                        result = delegate.invoke(proxy, method, args);
+                    } catch (Throwable t) {
+                        stop(sample, OPERATION_TIMER, tags, t);
+                        throw t;
+                    }
+                    if (result instanceof CompletableFuture) {
+                        ((CompletableFuture<?>) result).whenComplete((r, t) -> stop(sample, OPERATION_TIMER, tags, t));
+                    } else {
+                        stop(sample, OPERATION_TIMER, tags, null);
+                    }
+                    return result;
+                };
+            };
+        }
+
+        private DistributionSummary summary(final String name, final Tags tags) {
+            return DistributionSummary.builder(name)
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+
+        private void stop(final Timer.Sample sample, final String name, final Tags tags, final Throwable throwable) {
+            sample.stop(Timer.builder(name)
+                    .tags(tags.and("exception", MoccaOperation.exceptionName(throwable)))
+                    .register(meterRegistry));
+        }
+
+        private Tags operationTags(final MoccaOperation operation) {
+            return operationTags.computeIfAbsent(operation, key -> Tags.of(
+                    "client", operation.getClient(),
+                    "operation", operation.getName(),
+                    "type", operation.getType()));
+        }
+    }
+
 }
@@ -0,0 +1,154 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.Var;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Unit tests for {@link MoccaMicrometerCapability}
+ */
+public class MoccaMicrometerCapabilityTest {
+
+    private static final String RESPONSE = "{\"data\": {\"getBook\": {\"title\": \"Mocca\"}}}";
+    private static final String ERRORS_RESPONSE = "{\"errors\": [{\"message\": \"Book not found\"}]}";
+
+    private static final String[] OPERATION_TAGS = {"client", BooksAppClient.class.getName(), "operation", "getBook", "type", "query"};
+    private static final String[] ASYNC_OPERATION_TAGS = {"client", AsyncBooksAppClient.class.getName(), "operation", "getBook", "type", "query"};
+
+    public static class Book {
+        private String title;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+    }
+
+    public interface BooksAppClient extends MoccaClient {
+
+        @Query
+        Book getBook(@Var("title") String title);
+    }
+
+    public interface AsyncBooksAppClient extends MoccaClient {
+
+        @Query
+        CompletableFuture<Book> getBook(@Var("title") String title);
+    }
+
+    @Test
+    public void operationMetersTest() {
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final BooksAppClient client = client(meterRegistry, RESPONSE);
+
+        assertEquals(client.getBook("Mocca").getTitle(), "Mocca");
+        assertEquals(client.getBook("Mocca").getTitle(), "Mocca");
+
+        assertEquals(meterRegistry.get("mocca.operation").tags(OPERATION_TAGS).tag("exception", "None").timer().count(), 2);
+        assertEquals(meterRegistry.get("mocca.encode").tags(OPERATION_TAGS).tag("exception", "None").timer().count(), 2);
+        assertEquals(meterRegistry.get("mocca.decode").tags(OPERATION_TAGS).tag("exception", "None").timer().count(), 2);
+
+        final DistributionSummary requestSize = meterRegistry.get("mocca.request.size").tags(OPERATION_TAGS).summary();
+        assertEquals(requestSize.count(), 2);
+        assertTrue(requestSize.totalAmount() > 0);
+
+        // Response sizes are recorded by the Feign decoder metrics only
+        assertNull(meterRegistry.find("mocca.response.size").meter());
+        assertNull(meterRegistry.find("mocca.errors").meter());
+    }
+
+    @Test
+    public void graphQLErrorsTest() {
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final BooksAppClient client = client(meterRegistry, ERRORS_RESPONSE);
+
+        expectThrows(MoccaException.class, () -> client.getBook("Mocca"));
+
+        assertEquals(meterRegistry.get("mocca.errors").tags(OPERATION_TAGS).counter().count(), 1.0);
+        assertEquals(meterRegistry.get("mocca.decode").tags(OPERATION_TAGS).tag("exception", "MoccaException").timer().count(), 1);
+        assertEquals(meterRegistry.get("mocca.operation").tags(OPERATION_TAGS).tag("exception", "MoccaException").timer().count(), 1);
+        assertNull(meterRegistry.find("mocca.operation").tag("exception", "None").meter());
+    }
+
+    @Test
+    public void asyncErrorTest() {
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final AsyncBooksAppClient client = asyncClient(meterRegistry, () -> {
+            final CompletableFuture<Response> response = new CompletableFuture<>();
+            response.completeExceptionally(new MoccaException("Connection refused"));
+            return response;
+        });
+
+        final ExecutionException exception = expectThrows(ExecutionException.class, () -> client.getBook("Mocca").get());
+        assertTrue(exception.getCause() instanceof MoccaException);
+
+        // Future wrappers are not used to classify errors, and only GraphQL errors are counted as such
+        assertEquals(meterRegistry.get("mocca.operation").tags(ASYNC_OPERATION_TAGS).tag("exception", "MoccaException").timer().count(), 1);
+        assertEquals(meterRegistry.get("mocca.AsyncClient").tag("exception", "MoccaException").timer().count(), 1);
+        assertNull(meterRegistry.find("mocca.errors").meter());
+    }
+
+    @Test
+    public void asyncOperationMetersTest() throws Exception {
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final AsyncBooksAppClient client = asyncClient(meterRegistry, () -> null);
+
+        assertEquals(client.getBook("Mocca").get().getTitle(), "Mocca");
+
+        assertEquals(meterRegistry.get("mocca.operation").tags(ASYNC_OPERATION_TAGS).tag("exception", "None").timer().count(), 1);
+        assertEquals(meterRegistry.get("mocca.AsyncClient").tag("status", "200").tag("exception", "None").timer().count(), 1);
+    }
+
+    private static BooksAppClient client(final MeterRegistry meterRegistry, final String response) {
+        final MoccaHttpClient httpClient = new MoccaHttpClient((request, options) -> response(request, response)) {};
+
+        return MoccaClient.Builder.sync("http://localhost:8080/booksapp")
+                .client(httpClient)
+                .addCapability(new MoccaMicrometerCapability(meterRegistry))
+                .build(BooksAppClient.class);
+    }
+
+    /*
+     * Returns an async client whose HTTP responses are the ones supplied, or a successful one if null is supplied
+     */
+    private static AsyncBooksAppClient asyncClient(final MeterRegistry meterRegistry, final Supplier<CompletableFuture<Response>> responses) {
+        final MoccaAsyncHttpClient<Object> httpClient = new MoccaAsyncHttpClient<Object>((request, options, requestContext) -> {
+            final CompletableFuture<Response> response = responses.get();
+            return response != null ? response : CompletableFuture.completedFuture(response(request, RESPONSE));
+        }) {};
+
+        return MoccaClient.Builder.async("http://localhost:8080/booksapp")
+                .client(httpClient)
+                .addCapability(new MoccaMicrometerCapability(meterRegistry))
+                .build(AsyncBooksAppClient.class);
+    }
+
+    private static Response response(final Request request, final String body) {
+        return Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Collections.emptyMap())
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.paypal.mocca.client;
+
+import feign.AsyncClient;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mocca Async OkHttp client. In order to use a non-blocking OkHttp client with Mocca,
+ * create a new instance of this class and pass it to Mocca builder.
+ * <br>
+ * Requests are enqueued in the OkHttp client dispatcher, and the returned futures are completed
+ * by OkHttp callbacks, so no application thread is blocked while a request is in flight.
+ * The maximum number of concurrent requests is then controlled by the OkHttp dispatcher settings
+ * ({@code maxRequests} and {@code maxRequestsPerHost}). Cancelling the future returned by the
+ * Feign async client cancels the OkHttp call.
+ * <br>
+ * See {@link com.paypal.mocca.client.MoccaClient.Builder.AsyncBuilder#client(MoccaAsyncHttpClient)} for further information and code example.
+ */
+final public class MoccaAsyncOkHttpClient extends MoccaAsyncHttpClient<OkHttpClient> {
+
+    private final MoccaConnectionPool.Stats poolStats;
+
+    /**
+     * Creates a new Mocca Async OkHttp client using
+     * Mocca connection pool presets, returned by
+     * {@link MoccaConnectionPool#defaults()}
+     */
+    public MoccaAsyncOkHttpClient() {
+        this(MoccaConnectionPool.defaults());
+    }
+
+    /**
+     * Creates a new Mocca Async OkHttp client using a connection pool
+     * and dispatcher configured according to the given settings
+     *
+     * @param pool  the connection pool settings
+     */
+    public MoccaAsyncOkHttpClient(MoccaConnectionPool pool) {
+        this(MoccaOkHttpClient.okHttpClient(Arguments.requireNonNull(pool, "Connection pool cannot be null")), pool);
+    }
+
+    /**
+     * Creates a new Mocca Async OkHttp client using
+     * a pre-instantiated OkHttp client with user
+     * defined configuration
+     *
+     * @param okHttpClient  a pre-instantiated OkHttp client
+     *                      with user defined configuration
+     */
+    public MoccaAsyncOkHttpClient(OkHttpClient okHttpClient) {
+        this(Arguments.requireNonNull(okHttpClient, "OkHttp client cannot be null"), null);
+    }
+
+    private MoccaAsyncOkHttpClient(final OkHttpClient okHttpClient, final MoccaConnectionPool pool) {
+        super(new AsyncOkHttpClient(okHttpClient));
+        // The dispatcher limits the number of concurrent async requests to the maximum number of connections
+        this.poolStats = pool != null ? new MoccaOkHttpClient.PoolStats(okHttpClient, null, pool.getMaxConnections()) : null;
+    }
+
+    /**
+     * Returns the statistics of the connection pool of this client,
+     * unless it has been created with a pre-instantiated OkHttp client
+     *
+     * @return the statistics of the connection pool of this client
+     */
+    public Optional<MoccaConnectionPool.Stats> getPoolStats() {
+        return Optional.ofNullable(poolStats);
+    }
+
+    /*
+     * Feign async client based on OkHttp Call.enqueue. Request and response
+     * conversions follow the ones done by Feign sync OkHttp client.
+     */
+    private static final class AsyncOkHttpClient implements AsyncClient<OkHttpClient> {
+
+        private final OkHttpClient delegate;
+
+        private AsyncOkHttpClient(final OkHttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableFuture<feign.Response> execute(final feign.Request request, final feign.Request.Options options, final Optional<OkHttpClient> requestContext) {
+            final Call call = requestScoped(options).newCall(toOkHttpRequest(request));
+            final CompletableFuture<feign.Response> future = new CompletableFuture<feign.Response>() {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    call.cancel();
+                    return super.cancel(mayInterruptIfRunning);
+                }
+            };
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(final Call call, final IOException e) {
+                    future.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(final Call call, final okhttp3.Response response) {
+                    try {
+                        future.complete(toFeignResponse(response, request));
+                    } catch (IOException | RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            });
+            return future;
+        }
+
+        /*
+         * Returns an OkHttp client honoring the given request options, sharing
+         * connection pool and dispatcher with the original client
+         */
+        private OkHttpClient requestScoped(final feign.Request.Options options) {
+            if (delegate.connectTimeoutMillis() == options.connectTimeoutMillis()
+                    && delegate.readTimeoutMillis() == options.readTimeoutMillis()
+                    && delegate.followRedirects() == options.isFollowRedirects()) {
+                return delegate;
+            }
+            return delegate.newBuilder()
+                    .connectTimeout(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                    .readTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)
+                    .followRedirects(options.isFollowRedirects())
+                    .build();
+        }
+
+        private static okhttp3.Request toOkHttpRequest(final feign.Request input) {
+            final okhttp3.Request.Builder requestBuilder = new okhttp3.Request.Builder().url(input.url());
+
+            MediaType mediaType = null;
+            boolean hasAcceptHeader = false;
+            for (Map.Entry<String, Collection<String>> header : input.headers().entrySet()) {
+                if (header.getKey().equalsIgnoreCase("Accept")) {
+                    hasAcceptHeader = true;
+                }
+                for (String value : header.getValue()) {
+                    if (header.getKey().equalsIgnoreCase("Content-Type")) {
+                        // OkHttp sets the content type based on the request body media type
+                        mediaType = MediaType.parse(value);
+                    } else {
+                        requestBuilder.addHeader(header.getKey(), value);
+                    }
+                }
+            }
+            if (!hasAcceptHeader) {
+                requestBuilder.addHeader("Accept", "*/*");
+            }
+
+            byte[] body = input.body();
+            final boolean methodWithBody = input.httpMethod() == feign.Request.HttpMethod.POST
+                    || input.httpMethod() == feign.Request.HttpMethod.PUT
+                    || input.httpMethod() == feign.Request.HttpMethod.PATCH;
+            if (methodWithBody && body == null) {
+                body = new byte[0];
+            }
+            requestBuilder.method(input.httpMethod().name(), body != null ? RequestBody.create(body, mediaType) : null);
+
+            return requestBuilder.build();
+        }
+
+        /*
+         * The response body is fully read here, in the OkHttp callback thread,
+         * so the Feign response can be safely decoded by any other thread
+         */
+        private static feign.Response toFeignResponse(final okhttp3.Response response, final feign.Request request) throws IOException {
+            try (okhttp3.Response r = response) {
+                final Map<String, Collection<String>> headers = new LinkedHashMap<>();
+                headers.putAll(r.headers().toMultimap());
+
+                final ResponseBody responseBody = r.body();
+                return feign.Response.builder()
+                        .status(r.code())
+                        .reason(r.message())
+                        .request(request)
+                        .headers(headers)
+                        .body(responseBody != null ? responseBody.bytes() : null)
+                        .build();
+            }
+        }
+    }
+
+}
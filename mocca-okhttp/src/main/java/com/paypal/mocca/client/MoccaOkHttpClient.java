@@ -1,21 +1,63 @@
 package com.paypal.mocca.client;
 
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Mocca OkHttp client. In order to use a OkHttp client with Mocca,
  * create a new instance of this class and pass it to Mocca builder.
  * <br>
+ * When created with a {@link MoccaConnectionPool}, the OkHttp client connection pool and dispatcher
+ * are configured according to it, and their statistics are available via {@link #getPoolStats()}.
+ * Since OkHttp only limits the number of concurrent async requests, the maximum number of connections,
+ * in total and per route, is only enforced on sync requests if {@link MoccaConnectionPool#isMaxConnectionsEnforced()},
+ * in which case each request holds its permit until its response body is closed, and requests above those limits
+ * wait for a permit up to their connect timeout. Requests to hosts that negotiated HTTP 2 are not limited,
+ * since they are multiplexed over one connection.
+ * <br>
  * See {@link com.paypal.mocca.client.MoccaClient.Builder.SyncBuilder#client(MoccaHttpClient)} for further information and code example.
  *
  * @author fabiocarvalho777@gmail.com
  */
 final public class MoccaOkHttpClient extends MoccaHttpClient {
 
+    private final MoccaConnectionPool.Stats poolStats;
+    private final boolean preInstantiated;
+
     /**
      * Creates a new Mocca OkHttp client using
      * default OkHttp client configuration
      */
     public MoccaOkHttpClient() {
-        this(new okhttp3.OkHttpClient());
+        this(new okhttp3.OkHttpClient(), null, null, false);
+    }
+
+    /**
+     * Creates a new Mocca OkHttp client using a connection pool
+     * and dispatcher configured according to the given settings
+     *
+     * @param pool  the connection pool settings
+     */
+    public MoccaOkHttpClient(MoccaConnectionPool pool) {
+        this(Arguments.requireNonNull(pool, "Connection pool cannot be null"),
+                pool.isMaxConnectionsEnforced() ? new RequestLimits(pool.getMaxConnections(), pool.getMaxConnectionsPerRoute()) : null);
     }
 
     /**
@@ -27,7 +69,245 @@ final public class MoccaOkHttpClient extends MoccaHttpClient {
      *                      with user defined configuration
      */
     public MoccaOkHttpClient(okhttp3.OkHttpClient okHttpClient) {
-        super(new feign.okhttp.OkHttpClient(okHttpClient));
+        this(okHttpClient, null, null, true);
+    }
+
+    private MoccaOkHttpClient(final MoccaConnectionPool pool, final RequestLimits requestLimits) {
+        this(requestLimits == null ? okHttpClient(pool) : requestLimits.enrich(okHttpClient(pool).newBuilder()).build(),
+                pool, requestLimits, false);
+    }
+
+    private MoccaOkHttpClient(final okhttp3.OkHttpClient okHttpClient, final MoccaConnectionPool pool,
+                              final RequestLimits requestLimits, final boolean preInstantiated) {
+        super(requestLimits == null ? new feign.okhttp.OkHttpClient(okHttpClient) : requestLimits.enrich(new feign.okhttp.OkHttpClient(okHttpClient)));
+        this.poolStats = pool == null ? null : new PoolStats(okHttpClient, requestLimits, requestLimits == null ? -1 : pool.getMaxConnections());
+        this.preInstantiated = preInstantiated;
+    }
+
+    /*
+     * Returns an OkHttp client configured according to the given connection pool settings.
+     * OkHttp does not limit the number of connections, but the number of concurrent async requests,
+     * via its dispatcher, so the max connections settings are applied there as well.
+     */
+    static okhttp3.OkHttpClient okHttpClient(final MoccaConnectionPool pool) {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(pool.getMaxConnections());
+        dispatcher.setMaxRequestsPerHost(pool.getMaxConnectionsPerRoute());
+        return new okhttp3.OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(pool.getMaxIdleConnections(), pool.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                .build();
+    }
+
+    @Override
+    MoccaHttpClient withConnectionPool(final MoccaConnectionPool pool) {
+        if (preInstantiated) {
+            throw new MoccaException("Connection pool settings cannot be applied to a MoccaOkHttpClient created with a pre-instantiated OkHttp client");
+        }
+        return new MoccaOkHttpClient(pool);
+    }
+
+    /**
+     * Returns the statistics of the connection pool of this client,
+     * if it has been created with connection pool settings
+     *
+     * @return the statistics of the connection pool of this client
+     */
+    public Optional<MoccaConnectionPool.Stats> getPoolStats() {
+        return Optional.ofNullable(poolStats);
+    }
+
+    /*
+     * OkHttp connection pool statistics. Pending requests are the async requests queued
+     * in the dispatcher, plus the sync requests waiting for a permit, if limited.
+     */
+    static final class PoolStats implements MoccaConnectionPool.Stats {
+        private final okhttp3.OkHttpClient okHttpClient;
+        private final RequestLimits requestLimits;
+        private final int max;
+
+        PoolStats(final okhttp3.OkHttpClient okHttpClient, final RequestLimits requestLimits, final int max) {
+            this.okHttpClient = okHttpClient;
+            this.requestLimits = requestLimits;
+            this.max = max;
+        }
+
+        @Override
+        public int getLeased() {
+            final ConnectionPool connectionPool = okHttpClient.connectionPool();
+            return Math.max(0, connectionPool.connectionCount() - connectionPool.idleConnectionCount());
+        }
+
+        @Override
+        public int getPending() {
+            final int waiting = requestLimits == null ? 0 : requestLimits.getWaiting();
+            return okHttpClient.dispatcher().queuedCallsCount() + waiting;
+        }
+
+        @Override
+        public int getAvailable() {
+            return okHttpClient.connectionPool().idleConnectionCount();
+        }
+
+        @Override
+        public int getMax() {
+            return max;
+        }
+    }
+
+    /*
+     * Limits the number of concurrent sync requests, in total and per host, the same way the
+     * dispatcher limits async requests. A permit is held until the response body is closed,
+     * since the connection is in use until then. Requests wait for a permit up to their connect
+     * timeout, which Mocca shrinks to the remaining time of their deadline and timeout, if any.
+     */
+    static final class RequestLimits {
+        private final Semaphore total;
+        private final int maxPerHost;
+        // Hosts with requests in flight or waiting, removed once they have none left
+        private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        RequestLimits(final int max, final int maxPerHost) {
+            this.total = new Semaphore(max, true);
+            this.maxPerHost = maxPerHost;
+        }
+
+        int getWaiting() {
+            return waiting.get();
+        }
+
+        int getHosts() {
+            return hosts.size();
+        }
+
+        /*
+         * Adds a network interceptor flagging hosts whose connection is multiplexed,
+         * so that further requests to them are not limited
+         */
+        okhttp3.OkHttpClient.Builder enrich(final okhttp3.OkHttpClient.Builder builder) {
+            return builder.addNetworkInterceptor(chain -> {
+                final Connection connection = chain.connection();
+                if (connection != null && (connection.protocol() == Protocol.HTTP_2 || connection.protocol() == Protocol.H2_PRIOR_KNOWLEDGE)) {
+                    multiplexed(chain.request().url());
+                }
+                return chain.proceed(chain.request());
+            });
+        }
+
+        void multiplexed(final HttpUrl url) {
+            final Host host = hosts.get(key(url));
+            if (host != null) {
+                host.multiplexed = true;
+            }
+        }
+
+        Client enrich(final Client client) {
+            return (request, options) -> {
+                final String key = key(HttpUrl.parse(request.url()));
+                final Host host = hosts.compute(key, (k, h) -> {
+                    final Host joined = h == null ? new Host(maxPerHost) : h;
+                    joined.users++;
+                    return joined;
+                });
+                final boolean limited = !host.multiplexed;
+                if (limited) {
+                    try {
+                        acquire(host, request, options);
+                    } catch (IOException | RuntimeException e) {
+                        leave(key);
+                        throw e;
+                    }
+                }
+
+                final AtomicBoolean released = new AtomicBoolean();
+                final Runnable release = () -> {
+                    if (released.compareAndSet(false, true)) {
+                        if (limited) {
+                            total.release();
+                            host.permits.release();
+                        }
+                        leave(key);
+                    }
+                };
+                try {
+                    final Response response = client.execute(request, options);
+                    if (response.body() == null) {
+                        release.run();
+                        return response;
+                    }
+                    final InputStream body = new FilterInputStream(response.body().asInputStream()) {
+                        @Override
+                        public void close() throws IOException {
+                            try {
+                                super.close();
+                            } finally {
+                                release.run();
+                            }
+                        }
+                    };
+                    return response.toBuilder().body(body, response.body().length()).build();
+                } catch (IOException | RuntimeException e) {
+                    release.run();
+                    throw e;
+                }
+            };
+        }
+
+        private void leave(final String key) {
+            hosts.computeIfPresent(key, (k, h) -> --h.users == 0 ? null : h);
+        }
+
+        /*
+         * Acquires the host and total permits, waiting up to the connect timeout, or indefinitely if it is zero
+         */
+        private void acquire(final Host host, final Request request, final Request.Options options) throws IOException {
+            final long timeoutNanos = options == null ? 0 : options.connectTimeoutUnit().toNanos(options.connectTimeout());
+            final long startNanos = System.nanoTime();
+            acquire(host.permits, request, timeoutNanos, startNanos);
+            try {
+                acquire(total, request, timeoutNanos, startNanos);
+            } catch (IOException | RuntimeException e) {
+                host.permits.release();
+                throw e;
+            }
+        }
+
+        private void acquire(final Semaphore permits, final Request request, final long timeoutNanos, final long startNanos) throws IOException {
+            if (permits.tryAcquire()) return;
+            waiting.incrementAndGet();
+            try {
+                if (timeoutNanos == 0) {
+                    permits.acquire();
+                } else if (!permits.tryAcquire(timeoutNanos - (System.nanoTime() - startNanos), TimeUnit.NANOSECONDS)) {
+                    throw new MoccaException("GraphQL request to " + request.url() + " not sent, since it timed out after "
+                            + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " milliseconds waiting for the concurrent requests limit");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the concurrent requests limit", e);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+    }
+
+    /*
+     * Requests to a host, and their permits
+     */
+    private static final class Host {
+        private final Semaphore permits;
+        // Only accessed while computing the hosts map entry
+        private int users;
+        private volatile boolean multiplexed;
+
+        private Host(final int maxPerHost) {
+            this.permits = new Semaphore(maxPerHost, true);
+        }
+    }
+
+    private static String key(final HttpUrl url) {
+        return url == null ? "" : url.host() + ":" + url.port();
     }
 
-}
\ No newline at end of file
+}
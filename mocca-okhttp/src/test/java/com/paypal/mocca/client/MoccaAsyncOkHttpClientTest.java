@@ -0,0 +1,120 @@
+package com.paypal.mocca.client;
+
+import feign.Request;
+import okhttp3.OkHttpClient;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class MoccaAsyncOkHttpClientTest {
+
+    private static final String RESPONSE_BODY = "{ \"data\": { \"greeting\": \"Hello!\" } }";
+
+    private ServerSocket serverSocket;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        serverSocket = new ServerSocket(0);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        serverSocket.close();
+    }
+
+    @Test
+    void responseTest() throws Exception {
+        final Thread server = new Thread(() -> {
+            try (Socket socket = serverSocket.accept()) {
+                readRequestHead(socket.getInputStream());
+                final OutputStream out = socket.getOutputStream();
+                out.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + RESPONSE_BODY.length()
+                        + "\r\nConnection: close\r\n\r\n" + RESPONSE_BODY).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            } catch (IOException ignored) {
+                // The test assertions will report the problem
+            }
+        });
+        server.start();
+
+        final feign.Response response = new MoccaAsyncOkHttpClient().getFeignAsyncClient()
+                .execute(request(), new Request.Options(), Optional.empty())
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(response.status(), 200);
+        assertEquals(new String(feign.Util.toByteArray(response.body().asInputStream()), StandardCharsets.UTF_8), RESPONSE_BODY);
+    }
+
+    @Test
+    void cancelTest() throws Exception {
+        final CountDownLatch requestReceived = new CountDownLatch(1);
+        final Thread server = new Thread(() -> {
+            try (Socket socket = serverSocket.accept()) {
+                readRequestHead(socket.getInputStream());
+                requestReceived.countDown();
+                // Never responds, until the client gives up
+                while (socket.getInputStream().read() != -1) ;
+            } catch (IOException ignored) {
+                // Expected when the call is cancelled
+            }
+        });
+        server.start();
+
+        final OkHttpClient okHttpClient = new OkHttpClient();
+        final CompletableFuture<feign.Response> future = new MoccaAsyncOkHttpClient(okHttpClient).getFeignAsyncClient()
+                .execute(request(), new Request.Options(), Optional.empty());
+
+        assertTrue(requestReceived.await(10, TimeUnit.SECONDS), "Expected the request to reach the server");
+        assertEquals(okHttpClient.dispatcher().runningCallsCount(), 1);
+
+        assertTrue(future.cancel(true));
+
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (okHttpClient.dispatcher().runningCallsCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(okHttpClient.dispatcher().runningCallsCount(), 0, "Expected the OkHttp call to be cancelled");
+        server.join(10_000);
+    }
+
+    private Request request() {
+        return Request.create(Request.HttpMethod.POST, "http://localhost:" + serverSocket.getLocalPort() + "/graphql",
+                Collections.singletonMap("Content-Type", Collections.singletonList("application/json")),
+                "{\"query\":\"query{greeting}\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+    }
+
+    /*
+     * Reads the request line and headers, plus the request body, based on its content length
+     */
+    private static void readRequestHead(final InputStream in) throws IOException {
+        final StringBuilder head = new StringBuilder();
+        while (!head.toString().endsWith("\r\n\r\n")) {
+            final int b = in.read();
+            if (b == -1) return;
+            head.append((char) b);
+        }
+        for (String line : head.toString().split("\r\n")) {
+            if (line.toLowerCase().startsWith("content-length:")) {
+                final int length = Integer.parseInt(line.substring("content-length:".length()).trim());
+                for (int i = 0; i < length; i++) {
+                    in.read();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.paypal.mocca.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import okhttp3.HttpUrl;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Unit tests for the connection pool settings and sync request limits of {@link MoccaOkHttpClient}
+ */
+public class MoccaOkHttpClientTest {
+
+    @Test
+    void requestLimitsTest() throws Exception {
+        final MoccaOkHttpClient.RequestLimits requestLimits = new MoccaOkHttpClient.RequestLimits(10, 1);
+        final AtomicInteger executions = new AtomicInteger();
+        final Client client = requestLimits.enrich((request, options) -> {
+            executions.incrementAndGet();
+            return response(request);
+        });
+
+        final Response first = client.execute(request("http://localhost:8080/graphql"), new Request.Options());
+
+        // Other hosts have their own limit
+        client.execute(request("http://localhost:9090/graphql"), new Request.Options()).close();
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CompletableFuture<Response> second = CompletableFuture.supplyAsync(() -> {
+            started.countDown();
+            try {
+                return client.execute(request("http://localhost:8080/graphql"), new Request.Options());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (requestLimits.getWaiting() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(requestLimits.getWaiting(), 1, "The second request must wait for the first response to be closed");
+        assertFalse(second.isDone());
+        assertEquals(executions.get(), 2);
+
+        first.close();
+        second.get(5, TimeUnit.SECONDS).close();
+        assertEquals(executions.get(), 3);
+        assertEquals(requestLimits.getWaiting(), 0);
+
+        // Hosts without requests are not kept
+        assertEquals(requestLimits.getHosts(), 0);
+    }
+
+    @Test
+    void requestLimitsTimeoutTest() throws Exception {
+        final MoccaOkHttpClient.RequestLimits requestLimits = new MoccaOkHttpClient.RequestLimits(1, 1);
+        final Client client = requestLimits.enrich((request, options) -> response(request));
+
+        final Response first = client.execute(request("http://localhost:8080/graphql"), new Request.Options());
+        final Request.Options options = new Request.Options(50, TimeUnit.MILLISECONDS, 1, TimeUnit.SECONDS, true);
+        final MoccaException exception = expectThrows(MoccaException.class,
+                () -> client.execute(request("http://localhost:9090/graphql"), options));
+        assertTrue(exception.getMessage().contains("timed out after 50 milliseconds"));
+        assertEquals(requestLimits.getWaiting(), 0);
+        assertEquals(requestLimits.getHosts(), 1);
+
+        first.close();
+        client.execute(request("http://localhost:9090/graphql"), options).close();
+        assertEquals(requestLimits.getHosts(), 0);
+    }
+
+    @Test
+    void requestLimitsMultiplexedTest() throws Exception {
+        final MoccaOkHttpClient.RequestLimits requestLimits = new MoccaOkHttpClient.RequestLimits(10, 1);
+        final Client client = requestLimits.enrich((request, options) -> {
+            // As flagged by the network interceptor once the connection negotiated HTTP 2
+            requestLimits.multiplexed(HttpUrl.get(request.url()));
+            return response(request);
+        });
+
+        final Response first = client.execute(request("http://localhost:8080/graphql"), new Request.Options());
+        final Response second = client.execute(request("http://localhost:8080/graphql"), new Request.Options());
+        assertEquals(requestLimits.getWaiting(), 0);
+        first.close();
+        second.close();
+        assertEquals(requestLimits.getHosts(), 0);
+    }
+
+    @Test
+    void poolStatsTest() {
+        assertFalse(new MoccaOkHttpClient().getPoolStats().isPresent());
+        assertEquals(new MoccaOkHttpClient(MoccaConnectionPool.defaults()).getPoolStats().get().getMax(), -1);
+
+        final MoccaConnectionPool pool = new MoccaConnectionPool.Builder()
+                .maxConnections(20)
+                .maxConnectionsEnforced(true)
+                .build();
+        assertEquals(new MoccaOkHttpClient(pool).getPoolStats().get().getMax(), 20);
+    }
+
+    @Test
+    void builderConnectionPoolTest() {
+        final MoccaHttpClient httpClient = new MoccaOkHttpClient().withConnectionPool(MoccaConnectionPool.defaults());
+        assertTrue(httpClient instanceof MoccaOkHttpClient);
+        assertTrue(((MoccaOkHttpClient) httpClient).getPoolStats().isPresent());
+
+        final MoccaOkHttpClient preInstantiated = new MoccaOkHttpClient(new okhttp3.OkHttpClient());
+        expectThrows(MoccaException.class, () -> MoccaClient.Builder.sync("http://localhost:8080/graphql")
+                .client(preInstantiated)
+                .connectionPool(MoccaConnectionPool.defaults())
+                .build(MoccaClient.class));
+    }
+
+    private static Request request(final String url) {
+        return Request.create(Request.HttpMethod.POST, url, Collections.emptyMap(),
+                "{\"query\":\"query{greeting}\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+    }
+
+    private static Response response(final Request request) {
+        return Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Collections.emptyMap())
+                .body("{}", StandardCharsets.UTF_8)
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.paypal.mocca.client;
+
+import feign.AsyncClient;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Mocca Reactor Netty client. In order to use a non-blocking Reactor Netty HTTP client with Mocca,
+ * create a new instance of this class and pass it to Mocca async builder.
+ * <br>
+ * Besides {@link CompletableFuture}, clients built with it support GraphQL operation methods returning
+ * Reactor {@link Mono} and {@link Flux}, and {@link Flow.Publisher}. Reactive return types are lazy, so
+ * every subscription sends a new GraphQL request, and cancelling the subscription cancels the request.
+ * {@link Mono} and {@link Flow.Publisher} emit the GraphQL response data, while {@link Flux} emits each
+ * element of a GraphQL list, so it must be parameterized with the list element type.
+ * See an example below.
+ * <pre><code>
+ * public interface ReactiveBooksAppClient extends MoccaClient {
+ *
+ *     &#064;Query
+ *     Flux&#60;Book&#62; getBooks(&#064;Var("authorId") long authorId);
+ *
+ *     &#064;Query
+ *     Mono&#60;Book&#62; getBook(&#064;Var("id") long id);
+ *
+ * }
+ *
+ * ReactiveBooksAppClient client = MoccaClient.Builder
+ *     .async("http://localhost:8080/booksapp")
+ *     .client(new MoccaReactorNettyClient())
+ *     .build(ReactiveBooksAppClient.class);
+ * </code></pre>
+ * Requests are executed by the Reactor Netty event loops, and response payloads are aggregated
+ * and decoded when received, without a thread per request. Read timeouts set in Mocca are applied
+ * to each request as response timeout, while other settings, such as connect timeout, redirects and
+ * connection pool, come from the Reactor Netty HTTP client.
+ * <br>
+ * See {@link com.paypal.mocca.client.MoccaClient.Builder.AsyncBuilder#client(MoccaAsyncHttpClient)} for further information.
+ */
+final public class MoccaReactorNettyClient extends MoccaAsyncHttpClient<Object> {
+
+    /**
+     * Creates a new Mocca Reactor Netty client using
+     * default Reactor Netty HTTP client configuration
+     */
+    public MoccaReactorNettyClient() {
+        this(HttpClient.create());
+    }
+
+    /**
+     * Creates a new Mocca Reactor Netty client using
+     * a pre-instantiated Reactor Netty HTTP client with user
+     * defined configuration
+     *
+     * @param httpClient  a pre-instantiated Reactor Netty HTTP client
+     *                      with user defined configuration
+     */
+    public MoccaReactorNettyClient(HttpClient httpClient) {
+        super(new ReactorNettyAsyncClient(Arguments.requireNonNull(httpClient, "Reactor Netty HTTP client cannot be null")),
+                new ReactorAdapter());
+    }
+
+    /*
+     * Feign async client based on Reactor Netty HTTP client
+     */
+    private static final class ReactorNettyAsyncClient implements AsyncClient<Object> {
+
+        private final HttpClient httpClient;
+
+        private ReactorNettyAsyncClient(final HttpClient httpClient) {
+            this.httpClient = httpClient;
+        }
+
+        @Override
+        public CompletableFuture<feign.Response> execute(final feign.Request request, final feign.Request.Options options, final Optional<Object> requestContext) {
+            final byte[] body = request.body();
+            final Mono<feign.Response> response = httpClient
+                    .headers(headers -> request.headers().forEach((name, values) -> headers.add(name, values)))
+                    .request(HttpMethod.valueOf(request.httpMethod().name()))
+                    .uri(request.url())
+                    .send((httpRequest, outbound) -> {
+                        httpRequest.responseTimeout(Duration.ofMillis(options.readTimeoutMillis()));
+                        if (body == null) {
+                            return outbound;
+                        }
+                        httpRequest.requestHeaders().set(HttpHeaderNames.CONTENT_LENGTH, body.length);
+                        return outbound.sendByteArray(Mono.just(body));
+                    })
+                    .responseSingle((httpResponse, content) -> content.asByteArray()
+                            .defaultIfEmpty(new byte[0])
+                            .map(payload -> toFeignResponse(httpResponse, payload, request)));
+
+            // Cancelling the returned future disposes the request subscription
+            final AtomicReference<Disposable> subscription = new AtomicReference<>();
+            final CompletableFuture<feign.Response> future = new CompletableFuture<feign.Response>() {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    final Disposable disposable = subscription.get();
+                    if (disposable != null) {
+                        disposable.dispose();
+                    }
+                    return super.cancel(mayInterruptIfRunning);
+                }
+            };
+            subscription.set(response.subscribe(future::complete, future::completeExceptionally));
+            if (future.isCancelled()) {
+                subscription.get().dispose();
+            }
+            return future;
+        }
+
+        private static feign.Response toFeignResponse(final HttpClientResponse httpResponse, final byte[] payload, final feign.Request request) {
+            final HttpHeaders responseHeaders = httpResponse.responseHeaders();
+            final Map<String, Collection<String>> headers = new LinkedHashMap<>();
+            for (String name : responseHeaders.names()) {
+                headers.put(name, responseHeaders.getAll(name));
+            }
+            return feign.Response.builder()
+                    .status(httpResponse.status().code())
+                    .reason(httpResponse.status().reasonPhrase())
+                    .request(request)
+                    .headers(headers)
+                    .body(payload)
+                    .build();
+        }
+    }
+
+    /*
+     * Adapts asynchronous GraphQL operation results to Mono, Flux and Flow.Publisher
+     */
+    private static final class ReactorAdapter extends MoccaReactiveAdapter {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object adapt(final Method method, final Supplier<CompletableFuture<Object>> invocation) {
+            final Mono<Object> mono = Mono.defer(() -> {
+                final CompletableFuture<Object> result = invocation.get();
+                return Mono.fromFuture(result).doOnCancel(() -> result.cancel(true));
+            });
+
+            final Class<?> returnType = method.getReturnType();
+            if (returnType == Mono.class) {
+                return mono;
+            } else if (returnType == Flux.class) {
+                return mono.flatMapIterable(list -> (List<Object>) list);
+            } else if (returnType == Flow.Publisher.class) {
+                return JdkFlowAdapter.publisherToFlowPublisher(mono);
+            }
+            throw new MoccaException("Unsupported reactive return type " + returnType.getName() + " in operation method " + method.getName());
+        }
+    }
+
+}
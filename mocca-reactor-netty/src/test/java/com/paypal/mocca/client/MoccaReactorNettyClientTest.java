@@ -0,0 +1,199 @@
+package com.paypal.mocca.client;
+
+import com.paypal.mocca.client.annotation.Query;
+import com.paypal.mocca.client.annotation.Var;
+import com.sun.net.httpserver.HttpServer;
+import feign.InvocationHandlerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class MoccaReactorNettyClientTest {
+
+    private HttpServer graphqlServer;
+    private final AtomicInteger requestsCounter = new AtomicInteger();
+    private ReactiveSampleClient client;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        graphqlServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        graphqlServer.createContext("/", exchange -> {
+            requestsCounter.incrementAndGet();
+            final String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            final String response;
+            if (request.contains("getSamples")) {
+                response = "{\"data\": {\"getSamples\": [{\"foo\": \"boo1\",\"bar\": \"far1\"}, {\"foo\": \"boo2\",\"bar\": \"far2\"}]}}";
+            } else if (request.contains("getNoSample")) {
+                response = "{\"data\": {\"getNoSample\": null}}";
+            } else {
+                response = "{\"data\": {\"getOneSample\": {\"foo\": \"boo\",\"bar\": \"far\"}}}";
+            }
+            final byte[] payload = response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(payload);
+            }
+        });
+        graphqlServer.setExecutor(Executors.newCachedThreadPool());
+        graphqlServer.start();
+
+        client = MoccaClient.Builder.async("http://localhost:" + graphqlServer.getAddress().getPort())
+                .client(new MoccaReactorNettyClient())
+                .build(ReactiveSampleClient.class);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        graphqlServer.stop(0);
+    }
+
+    @Test
+    void monoTest() {
+        final int requestsBefore = requestsCounter.get();
+        final Mono<SampleResponseDTO> mono = client.getOneSample("boo", "far");
+        assertEquals(requestsCounter.get(), requestsBefore, "Expected no request before subscription");
+
+        final SampleResponseDTO result = mono.block(Duration.ofSeconds(10));
+        assertEquals(result.getFoo(), "boo");
+        assertEquals(result.getBar(), "far");
+        assertEquals(requestsCounter.get(), requestsBefore + 1);
+    }
+
+    @Test
+    void emptyMonoTest() {
+        assertNull(client.getNoSample("boo").block(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void fluxTest() {
+        final List<SampleResponseDTO> results = client.getSamples("boo").collectList().block(Duration.ofSeconds(10));
+        assertEquals(results.size(), 2);
+        assertEquals(results.get(0).getFoo(), "boo1");
+        assertEquals(results.get(1).getBar(), "far2");
+    }
+
+    @Test
+    void flowPublisherTest() {
+        final Flow.Publisher<SampleResponseDTO> publisher = client.getOneSampleFlow("boo", "far");
+        final SampleResponseDTO result = JdkFlowAdapter.flowPublisherToFlux(publisher).single().block(Duration.ofSeconds(10));
+        assertEquals(result.getFoo(), "boo");
+    }
+
+    @Test
+    void completableFutureTest() throws Exception {
+        final SampleResponseDTO result = client.getOneSampleFuture("boo", "far").get(10, TimeUnit.SECONDS);
+        assertEquals(result.getBar(), "far");
+    }
+
+    @Test
+    void concurrentTest() {
+        final List<SampleResponseDTO> results = Flux.range(0, 100)
+                .flatMap(i -> client.getOneSample("boo", "far"))
+                .collectList()
+                .block(Duration.ofSeconds(30));
+        assertEquals(results.size(), 100);
+        assertTrue(results.stream().allMatch(r -> r.getFoo().equals("boo")));
+    }
+
+    @Test
+    void enrichmentTest() {
+        final AtomicInteger handled = new AtomicInteger();
+        final AtomicInteger decorated = new AtomicInteger();
+        final MoccaCapability capability = new MoccaCapability(new feign.Capability() {
+            @Override
+            public InvocationHandlerFactory enrich(final InvocationHandlerFactory invocationHandlerFactory) {
+                return (target, dispatch) -> {
+                    final InvocationHandler delegate = invocationHandlerFactory.create(target, dispatch);
+                    return (proxy, method, args) -> {
+                        handled.incrementAndGet();
+                        return delegate.invoke(proxy, method, args);
+                    };
+                };
+            }
+        }) {};
+        final MoccaAsyncResiliency resiliency = new MoccaAsyncResiliency((method, invocation) -> {
+            decorated.incrementAndGet();
+            return invocation.get();
+        }) {};
+        final ReactiveSampleClient enrichedClient = MoccaClient.Builder.async("http://localhost:" + graphqlServer.getAddress().getPort())
+                .client(new MoccaReactorNettyClient())
+                .addCapability(capability)
+                .resiliency(resiliency)
+                .build(ReactiveSampleClient.class);
+
+        final Mono<SampleResponseDTO> mono = enrichedClient.getOneSample("boo", "far");
+        assertEquals(handled.get(), 0, "Expected no invocation before subscription");
+        assertEquals(decorated.get(), 0, "Expected no invocation before subscription");
+
+        assertEquals(mono.block(Duration.ofSeconds(10)).getFoo(), "boo");
+        assertEquals(mono.block(Duration.ofSeconds(10)).getFoo(), "boo");
+        assertEquals(handled.get(), 2);
+        assertEquals(decorated.get(), 2);
+    }
+
+    @Test(expectedExceptions = MoccaException.class)
+    void unsupportedAsyncClientTest() {
+        MoccaClient.Builder.async("http://localhost:8080")
+                .client(new MoccaExecutorHttpClient<>(new MoccaDefaultHttpClient(), Executors.newSingleThreadExecutor()))
+                .build(ReactiveSampleClient.class);
+    }
+
+    public interface ReactiveSampleClient extends MoccaClient {
+
+        @Query
+        Mono<SampleResponseDTO> getOneSample(@Var("foo") String foo, @Var("bar") String bar);
+
+        @Query(name = "getOneSample")
+        Flow.Publisher<SampleResponseDTO> getOneSampleFlow(@Var("foo") String foo, @Var("bar") String bar);
+
+        @Query(name = "getOneSample")
+        CompletableFuture<SampleResponseDTO> getOneSampleFuture(@Var("foo") String foo, @Var("bar") String bar);
+
+        @Query
+        Flux<SampleResponseDTO> getSamples(@Var("foo") String foo);
+
+        @Query
+        Mono<SampleResponseDTO> getNoSample(@Var("foo") String foo);
+    }
+
+    public static class SampleResponseDTO {
+        private String foo;
+        private String bar;
+
+        public String getFoo() {
+            return foo;
+        }
+
+        public void setFoo(String foo) {
+            this.foo = foo;
+        }
+
+        public String getBar() {
+            return bar;
+        }
+
+        public void setBar(String bar) {
+            this.bar = bar;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.paypal.mocca.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Mocca supports Resilience4j-based resilience for async clients.
+ * <br>
+ * The example below shows how to configure resilience features in an async Mocca client using Resilience4j:
+ * <pre><code>
+ * import io.github.resilience4j.retry.Retry;
+ * import io.github.resilience4j.timelimiter.TimeLimiter;
+ * import com.paypal.mocca.client.MoccaAsyncResilience4j;
+ *
+ * ...
+ *
+ * MoccaAsyncResilience4j moccaResilience = new MoccaAsyncResilience4j.Builder()
+ *     .retry(Retry.ofDefaults("AsyncBooksAppClient-retry"))
+ *     .timeLimiter(TimeLimiter.of(Duration.ofSeconds(2)))
+ *     .build();
+ *
+ * AsyncBooksAppClient asyncClient = MoccaClient.Builder
+ *     .async("localhost:8080/booksapp")
+ *     .client(asyncHttpClient)
+ *     .resiliency(moccaResilience)
+ *     .build(AsyncBooksAppClient.class);
+ * </code></pre>
+ * A few important notes:
+ * <ol>
+ *     <li>All resilience features are applied to the future returned by each GraphQL operation method. Waiting for a retry or a timeout never blocks a thread, since they are triggered by a scheduler.</li>
+ *     <li>Every retry results in a new GraphQL request, and failures happening while encoding the request (such as request validation failures) are also delivered through the returned future.</li>
+ *     <li>Similarly to {@link MoccaResilience4j}, the order of registering each resilience feature dictates the execution order. The first registered feature is the first one to be executed.</li>
+ *     <li>If a scheduler is not provided, a single daemon thread scheduler is used, created when first needed, and shared with the other Mocca features needing one.</li>
+ * </ol>
+ */
+public final class MoccaAsyncResilience4j extends MoccaAsyncResiliency {
+
+    private MoccaAsyncResilience4j(final List<Decoration> decorations, final ScheduledExecutorService scheduler) {
+        super((method, invocation) -> {
+            Supplier<CompletionStage<Object>> decorated = invocation;
+            // The first registered decoration must be the outermost one
+            for (int i = decorations.size() - 1; i >= 0; i--) {
+                decorated = decorations.get(i).decorate(scheduler, decorated);
+            }
+            return decorated.get();
+        });
+    }
+
+    /*
+     * Applies one Resilience4j feature to an async invocation
+     */
+    private interface Decoration {
+        Supplier<CompletionStage<Object>> decorate(ScheduledExecutorService scheduler, Supplier<CompletionStage<Object>> invocation);
+    }
+
+    public static class Builder {
+        private final List<Decoration> decorations = new ArrayList<>();
+        private ScheduledExecutorService scheduler;
+
+        public MoccaAsyncResilience4j build() {
+            return new MoccaAsyncResilience4j(new ArrayList<>(decorations), scheduler != null ? scheduler : MoccaDefaultExecutors.scheduler());
+        }
+
+        /**
+         * Sets the scheduler used to trigger retries and timeouts.
+         *
+         * @param scheduler the scheduler to be set in this builder
+         * @return this builder
+         */
+        public Builder scheduler(final ScheduledExecutorService scheduler) {
+            this.scheduler = Arguments.requireNonNull(scheduler, "Scheduler cannot be null");
+            return this;
+        }
+
+        /**
+         * Adds a {@link Retry} to the decorator chain. Retries are scheduled, as opposed to waited for.
+         *
+         * @param retry the retry object to be set in this builder
+         * @return this builder
+         */
+        public Builder retry(final Retry retry) {
+            Arguments.requireNonNull(retry, "Retry cannot be null");
+            decorations.add((s, invocation) -> Retry.decorateCompletionStage(retry, s, invocation));
+            return this;
+        }
+
+        /**
+         * Adds a {@link TimeLimiter} to the decorator chain. When the time limit is reached, the returned future
+         * is completed exceptionally with a {@link java.util.concurrent.TimeoutException}, and, if the time limiter
+         * is configured to do so, the running invocation future is cancelled.
+         *
+         * @param timeLimiter the time limiter object to be set in this builder
+         * @return this builder
+         */
+        public Builder timeLimiter(final TimeLimiter timeLimiter) {
+            Arguments.requireNonNull(timeLimiter, "Time limiter cannot be null");
+            decorations.add((s, invocation) -> TimeLimiter.decorateCompletionStage(timeLimiter, s, invocation));
+            return this;
+        }
+
+        /**
+         * Adds a {@link CircuitBreaker} to the decorator chain.
+         *
+         * @param circuitBreaker the circuit breaker object to be set in this builder
+         * @return this builder
+         */
+        public Builder circuitBreaker(final CircuitBreaker circuitBreaker) {
+            Arguments.requireNonNull(circuitBreaker, "Circuit breaker cannot be null");
+            decorations.add((s, invocation) -> CircuitBreaker.decorateCompletionStage(circuitBreaker, invocation));
+            return this;
+        }
+
+        /**
+         * Adds a {@link RateLimiter} to the decorator chain.
+         *
+         * @param rateLimiter the rate limiter object to be set in this builder
+         * @return this builder
+         */
+        public Builder rateLimiter(final RateLimiter rateLimiter) {
+            Arguments.requireNonNull(rateLimiter, "Rate limiter cannot be null");
+            decorations.add((s, invocation) -> RateLimiter.decorateCompletionStage(rateLimiter, invocation));
+            return this;
+        }
+
+        /**
+         * Adds a {@link Bulkhead} to the decorator chain.
+         *
+         * @param bulkhead the bulkhead object to be set in this builder
+         * @return this builder
+         */
+        public Builder bulkhead(final Bulkhead bulkhead) {
+            Arguments.requireNonNull(bulkhead, "Bulkhead cannot be null");
+            decorations.add((s, invocation) -> Bulkhead.decorateCompletionStage(bulkhead, invocation));
+            return this;
+        }
+
+    }
+}
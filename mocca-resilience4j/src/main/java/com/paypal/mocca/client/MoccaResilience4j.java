@@ -35,7 +35,7 @@ import java.util.function.Predicate;
  * <br>
  * A few important notes:
  * <ol>
- *     <li>Mocca Resilience4j feature is only supported by clients created with {@link com.paypal.mocca.client.MoccaClient.Builder.SyncBuilder#sync(String)} (as seen in the example above). Clients created with {@link com.paypal.mocca.client.MoccaClient.Builder.AsyncBuilder#async(String)} don't support Resilience4j at the moment.</li>
+ *     <li>Mocca Resilience4j feature is only supported by clients created with {@link com.paypal.mocca.client.MoccaClient.Builder.SyncBuilder#sync(String)} (as seen in the example above). Clients created with {@link com.paypal.mocca.client.MoccaClient.Builder.AsyncBuilder#async(String)} should use {@link MoccaAsyncResilience4j} instead.</li>
  *     <li>Although the example above only shows the setting of a circuit breaker, the following additional Resilience4j features are supported.
  *         <ol>
  *             <li>Retry</li>
@@ -0,0 +1,66 @@
+package com.paypal.mocca.client;
+
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class MoccaAsyncResilience4jTest {
+
+    @Test
+    void retryTest() throws Exception {
+        final Retry retry = Retry.of("retry", RetryConfig.custom()
+                .maxAttempts(3)
+                .waitDuration(Duration.ofMillis(10))
+                .build());
+        final MoccaAsyncResilience4j resilience = new MoccaAsyncResilience4j.Builder()
+                .retry(retry)
+                .build();
+
+        final AtomicInteger attempts = new AtomicInteger();
+        final CompletionStage<Object> result = resilience.getDecorator().decorate(null, () -> {
+            final CompletableFuture<Object> future = new CompletableFuture<>();
+            if (attempts.incrementAndGet() < 3) {
+                future.completeExceptionally(new MoccaException("Not yet"));
+            } else {
+                future.complete("done");
+            }
+            return future;
+        });
+
+        assertEquals(result.toCompletableFuture().get(), "done");
+        assertEquals(attempts.get(), 3);
+    }
+
+    @Test
+    void timeLimiterTest() throws Exception {
+        final TimeLimiter timeLimiter = TimeLimiter.of(TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(50))
+                .cancelRunningFuture(true)
+                .build());
+        final MoccaAsyncResilience4j resilience = new MoccaAsyncResilience4j.Builder()
+                .timeLimiter(timeLimiter)
+                .build();
+
+        final CompletableFuture<Object> neverCompleted = new CompletableFuture<>();
+        try {
+            resilience.getDecorator().decorate(null, () -> neverCompleted).toCompletableFuture().get();
+            fail("Expected a timeout");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(neverCompleted.isCancelled(), "Expected the running invocation to be cancelled");
+    }
+}